@@ -0,0 +1,49 @@
+package com.lz77.bench;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Базовая линия из java.util.zip. Параметры LZ77 для сравнения совпадают
+ * с DEFLATE: окно 32 КБ и совпадения до 258 байт.
+ */
+final class Baseline {
+    static final int WINDOW_SIZE = 1 << 15;
+    static final int MAX_MATCH_LENGTH = 258;
+
+    private Baseline() {
+    }
+
+    /**
+     * @param out буфер, заведомо вмещающий результат
+     * @return размер сжатых данных
+     */
+    static int deflate(Deflater deflater, byte[] data, byte[] out) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(out, size, out.length - size);
+        }
+        return size;
+    }
+
+    /**
+     * @return размер распакованных данных
+     */
+    static int inflate(Inflater inflater, byte[] compressed, int length, byte[] out) {
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int size = 0;
+            while (!inflater.finished()) {
+                size += inflater.inflate(out, size, out.length - size);
+            }
+            return size;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
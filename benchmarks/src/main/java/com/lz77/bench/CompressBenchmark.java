@@ -0,0 +1,85 @@
+package com.lz77.bench;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.model.TokenBuffer;
+import com.lz77.util.ParallelCompressor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Сжатие: поиск токенов, полный конвейер с энтропийным кодированием
+ * и {@link Deflater} того же уровня с тем же окном 32 КБ как базовая линия
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressBenchmark {
+    @Param({"TEXT", "LOGS", "JSON", "BINARY", "RANDOM"})
+    public Corpus corpus;
+
+    @Param({"65536", "1048576"})
+    public int size;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[] data;
+    private LZ77Compressor compressor;
+    private ParallelCompressor pipeline;
+    private TokenBuffer tokens;
+    private Deflater deflater;
+    private byte[] deflated;
+
+    @Setup
+    public void setUp() {
+        data = corpus.generate(size);
+        compressor = LZ77Compressor.ofLevel(level, Baseline.WINDOW_SIZE, Baseline.MAX_MATCH_LENGTH);
+        pipeline = new ParallelCompressor(compressor, 1, ParallelCompressor.DEFAULT_BLOCK_SIZE);
+        tokens = new TokenBuffer(size);
+        deflater = new Deflater(level);
+        deflated = new byte[size + size / 8 + 64];
+    }
+
+    @TearDown
+    public void tearDown() {
+        deflater.end();
+    }
+
+    @Benchmark
+    public TokenBuffer lz77Tokens(Throughput throughput) {
+        tokens.clear();
+        compressor.compress(data, tokens);
+        throughput.add(size);
+        return tokens;
+    }
+
+    @Benchmark
+    public byte[] lz77Pipeline(Throughput throughput) {
+        byte[] compressed = pipeline.compress(data);
+        throughput.add(size);
+        return compressed;
+    }
+
+    @Benchmark
+    public int deflate(Throughput throughput) {
+        int compressedSize = Baseline.deflate(deflater, data, deflated);
+        throughput.add(size);
+        return compressedSize;
+    }
+}
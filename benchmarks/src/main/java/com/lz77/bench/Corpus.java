@@ -0,0 +1,160 @@
+package com.lz77.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Воспроизводимый набор данных для бенчмарков: при одинаковом типе и размере
+ * данные совпадают байт в байт на любой машине, поэтому результаты можно
+ * сравнивать между запусками и версиями.
+ */
+public enum Corpus {
+    /**
+     * Текст на естественном языке: слова с частотами по закону Ципфа
+     */
+    TEXT {
+        @Override
+        void fill(Random random, ByteArrayOutputStream out, int size) {
+            int column = 0;
+            while (out.size() < size) {
+                String word = WORDS[zipf(random, WORDS.length)];
+                write(out, word);
+                column += word.length() + 1;
+                if (column > 72) {
+                    write(out, random.nextInt(8) == 0 ? ".\n\n" : "\n");
+                    column = 0;
+                } else {
+                    write(out, random.nextInt(12) == 0 ? ", " : " ");
+                }
+            }
+        }
+    },
+
+    /**
+     * Журнал сервиса: метка времени, уровень, поток, класс и сообщение с числами
+     */
+    LOGS {
+        @Override
+        void fill(Random random, ByteArrayOutputStream out, int size) {
+            long time = 1_700_000_000_000L;
+            while (out.size() < size) {
+                time += random.nextInt(250);
+                String level = LEVELS[zipf(random, LEVELS.length)];
+                write(out, String.format(Locale.ROOT,
+                        "2023-11-14T%02d:%02d:%02d.%03dZ %-5s [worker-%d] %s - %s %d ms from 10.0.%d.%d\n",
+                        time / 3_600_000 % 24, time / 60_000 % 60, time / 1000 % 60, time % 1000, level,
+                        random.nextInt(16), LOGGERS[random.nextInt(LOGGERS.length)],
+                        MESSAGES[zipf(random, MESSAGES.length)], random.nextInt(2000),
+                        random.nextInt(4), random.nextInt(256)));
+            }
+        }
+    },
+
+    /**
+     * Массив JSON-записей с повторяющимися ключами
+     */
+    JSON {
+        @Override
+        void fill(Random random, ByteArrayOutputStream out, int size) {
+            write(out, "[\n");
+            int id = 1000;
+            while (out.size() < size) {
+                write(out, String.format(Locale.ROOT,
+                        "  {\"id\": %d, \"name\": \"%s %s\", \"active\": %b, \"score\": %.2f, "
+                                + "\"tags\": [\"%s\", \"%s\"], \"address\": {\"city\": \"%s\", \"zip\": \"%05d\"}},\n",
+                        id++, WORDS[zipf(random, WORDS.length)], WORDS[zipf(random, WORDS.length)],
+                        random.nextBoolean(), random.nextDouble() * 100, LEVELS[random.nextInt(LEVELS.length)],
+                        WORDS[random.nextInt(20)], CITIES[random.nextInt(CITIES.length)], random.nextInt(100_000)));
+            }
+        }
+    },
+
+    /**
+     * Двоичные записи фиксированной длины: счетчики с малыми приращениями,
+     * числа с плавающей точкой и редкие флаги, как в таблицах и метриках
+     */
+    BINARY {
+        @Override
+        void fill(Random random, ByteArrayOutputStream out, int size) {
+            ByteBuffer record = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+            long counter = 0;
+            double value = 20.0;
+            while (out.size() < size) {
+                counter += 1 + random.nextInt(4);
+                value += random.nextGaussian() * 0.1;
+                record.clear();
+                record.putLong(counter).putFloat((float) value).putInt(random.nextInt(8))
+                        .putShort((short) random.nextInt(3)).putShort((short) 0).putInt(0xCAFE);
+                out.write(record.array(), 0, record.capacity());
+            }
+        }
+    },
+
+    /**
+     * Случайные байты: несжимаемые данные, худший случай для поиска совпадений
+     */
+    RANDOM {
+        @Override
+        void fill(Random random, ByteArrayOutputStream out, int size) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            out.writeBytes(data);
+        }
+    };
+
+    private static final long SEED = 0x4C5A3737L;
+
+    private static final String[] WORDS = {
+            "the", "of", "and", "to", "in", "a", "is", "that", "for", "it", "as", "was", "with", "be", "by",
+            "on", "not", "he", "this", "are", "or", "his", "from", "at", "which", "but", "have", "an", "had",
+            "they", "you", "were", "their", "one", "all", "we", "can", "her", "has", "there", "been", "if",
+            "more", "when", "will", "would", "who", "so", "no", "compression", "window", "sequence", "dictionary",
+            "algorithm", "literal", "distance", "encoder", "decoder", "stream", "buffer", "pattern", "history"
+    };
+    private static final String[] LEVELS = {"INFO", "DEBUG", "WARN", "ERROR", "TRACE"};
+    private static final String[] LOGGERS = {
+            "c.l.server.RequestHandler", "c.l.storage.BlockCache", "c.l.auth.TokenService", "c.l.http.Client"
+    };
+    private static final String[] MESSAGES = {
+            "request completed", "cache miss for block", "token refreshed", "retrying upstream call",
+            "connection reset by peer", "slow query detected"
+    };
+    private static final String[] CITIES = {"Moscow", "Berlin", "Lisbon", "Osaka", "Toronto", "Nairobi"};
+
+    /**
+     * Данные этого типа заданного размера
+     */
+    public byte[] generate(int size) {
+        Random random = new Random(SEED + ordinal());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 256);
+        fill(random, out, size);
+        return Arrays.copyOf(out.toByteArray(), size);
+    }
+
+    abstract void fill(Random random, ByteArrayOutputStream out, int size);
+
+    /**
+     * Индекс от 0 до n - 1 с вероятностью, обратно пропорциональной индексу + 1
+     */
+    private static int zipf(Random random, int n) {
+        double harmonic = Math.log(n) + 0.5772;
+        double target = random.nextDouble() * harmonic;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / (i + 1);
+            if (sum >= target) {
+                return i;
+            }
+        }
+        return n - 1;
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,98 @@
+package com.lz77.bench;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.LZ77Decompressor;
+import com.lz77.model.TokenBuffer;
+import com.lz77.util.ParallelCompressor;
+import com.lz77.util.ParallelDecompressor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Распаковка в заранее выделенный буфер: токены, полный конвейер
+ * и {@link Inflater} для данных, сжатых тем же уровнем
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecompressBenchmark {
+    @Param({"TEXT", "LOGS", "JSON", "BINARY", "RANDOM"})
+    public Corpus corpus;
+
+    @Param({"65536", "1048576"})
+    public int size;
+
+    @Param({"6"})
+    public int level;
+
+    private byte[] output;
+    private TokenBuffer tokens;
+    private LZ77Decompressor decompressor;
+    private byte[] compressed;
+    private ParallelDecompressor pipeline;
+    private byte[] deflated;
+    private int deflatedSize;
+    private Inflater inflater;
+
+    @Setup
+    public void setUp() {
+        byte[] data = corpus.generate(size);
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(level, Baseline.WINDOW_SIZE, Baseline.MAX_MATCH_LENGTH);
+        output = new byte[size];
+        tokens = new TokenBuffer();
+        compressor.compress(data, tokens);
+        decompressor = new LZ77Decompressor(Baseline.WINDOW_SIZE);
+        compressed = new ParallelCompressor(compressor, 1, ParallelCompressor.DEFAULT_BLOCK_SIZE).compress(data);
+        pipeline = new ParallelDecompressor(1);
+
+        Deflater deflater = new Deflater(level);
+        deflated = new byte[size + size / 8 + 64];
+        deflatedSize = Baseline.deflate(deflater, data, deflated);
+        deflater.end();
+        inflater = new Inflater();
+    }
+
+    @TearDown
+    public void tearDown() {
+        inflater.end();
+    }
+
+    @Benchmark
+    public int lz77Tokens(Throughput throughput) {
+        int n = decompressor.decompress(tokens, output, 0);
+        throughput.add(size);
+        return n;
+    }
+
+    @Benchmark
+    public int lz77Pipeline(Throughput throughput) throws IOException {
+        int n = pipeline.decompress(compressed, output, 0);
+        throughput.add(size);
+        return n;
+    }
+
+    @Benchmark
+    public int inflate(Throughput throughput) {
+        int n = Baseline.inflate(inflater, deflated, deflatedSize, output);
+        throughput.add(size);
+        return n;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lz77.bench;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.util.ParallelCompressor;
+
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * Таблица степени сжатия на корпусе бенчмарков рядом с {@link Deflater}.
+ * JMH измеряет только время, поэтому степень сжатия выводится отдельно:
+ * java -cp target/benchmarks.jar com.lz77.bench.RatioReport
+ */
+public final class RatioReport {
+    private static final int[] SIZES = {1 << 16, 1 << 20};
+    private static final int[] LEVELS = {1, 6, 9};
+
+    private RatioReport() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf(Locale.ROOT, "%-8s %9s %5s %12s %12s%n", "corpus", "size", "level", "lz77", "deflate");
+        for (Corpus corpus : Corpus.values()) {
+            for (int size : SIZES) {
+                byte[] data = corpus.generate(size);
+                for (int level : LEVELS) {
+                    LZ77Compressor compressor = LZ77Compressor.ofLevel(level, Baseline.WINDOW_SIZE,
+                            Baseline.MAX_MATCH_LENGTH);
+                    int lz77 = new ParallelCompressor(compressor, 1, ParallelCompressor.DEFAULT_BLOCK_SIZE)
+                            .compress(data).length;
+                    Deflater deflater = new Deflater(level);
+                    int deflate = Baseline.deflate(deflater, data, new byte[size + size / 8 + 64]);
+                    deflater.end();
+                    System.out.printf(Locale.ROOT, "%-8s %9d %5d %12.3f %12.3f%n",
+                            corpus, size, level, (double) size / lz77, (double) size / deflate);
+                }
+            }
+        }
+    }
+}
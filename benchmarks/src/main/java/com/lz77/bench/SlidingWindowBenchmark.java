@@ -0,0 +1,71 @@
+package com.lz77.bench;
+
+import com.lz77.algorithm.MatchFinder;
+import com.lz77.algorithm.SlidingWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проход скользящего окна по данным: упакованный результат поиска
+ * и обертка, возвращающая массив на каждый вызов
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SlidingWindowBenchmark {
+    @Param({"TEXT", "LOGS", "JSON", "BINARY", "RANDOM"})
+    public Corpus corpus;
+
+    @Param({"65536", "1048576"})
+    public int size;
+
+    @Param({"4096"})
+    public int windowSize;
+
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        data = corpus.generate(size);
+    }
+
+    @Benchmark
+    public long findMatch(Throughput throughput) {
+        SlidingWindow window = new SlidingWindow(data, windowSize, Baseline.MAX_MATCH_LENGTH);
+        long checksum = 0;
+        while (window.hasMoreData()) {
+            long match = window.findMatch();
+            checksum += match;
+            window.advance(MatchFinder.length(match) + 1);
+        }
+        throughput.add(size);
+        return checksum;
+    }
+
+    @Benchmark
+    public long findLongestMatch(Throughput throughput) {
+        SlidingWindow window = new SlidingWindow(data, windowSize, Baseline.MAX_MATCH_LENGTH);
+        long checksum = 0;
+        while (window.hasMoreData()) {
+            int[] match = window.findLongestMatch();
+            checksum += match[0] + match[1];
+            window.advance(match[1] + 1);
+        }
+        throughput.add(size);
+        return checksum;
+    }
+}
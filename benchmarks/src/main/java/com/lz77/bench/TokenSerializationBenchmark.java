@@ -0,0 +1,80 @@
+package com.lz77.bench;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.TokenBuffer;
+import com.lz77.util.FileIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение файла токенов через {@link FileIO} с разным энтропийным кодированием.
+ * Скорость считается по размеру исходных данных, которым соответствуют токены.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenSerializationBenchmark {
+    @Param({"TEXT", "LOGS", "JSON", "BINARY", "RANDOM"})
+    public Corpus corpus;
+
+    @Param({"1048576"})
+    public int size;
+
+    @Param({"RAW", "HUFFMAN", "FSE"})
+    public EntropyCoder coder;
+
+    private TokenBuffer tokens;
+    private TokenBuffer readBuffer;
+    private Path writeFile;
+    private Path readFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        tokens = new TokenBuffer();
+        LZ77Compressor.ofLevel(LZ77Compressor.DEFAULT_LEVEL, Baseline.WINDOW_SIZE, Baseline.MAX_MATCH_LENGTH)
+                .compress(corpus.generate(size), tokens);
+        readBuffer = new TokenBuffer(tokens.size());
+        writeFile = Files.createTempFile("lz77-bench-write", ".lz77");
+        readFile = Files.createTempFile("lz77-bench-read", ".lz77");
+        FileIO.writeTokens(readFile.toString(), tokens, Baseline.WINDOW_SIZE, coder);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(writeFile);
+        Files.deleteIfExists(readFile);
+    }
+
+    @Benchmark
+    public void writeTokens(Throughput throughput) throws IOException {
+        FileIO.writeTokens(writeFile.toString(), tokens, Baseline.WINDOW_SIZE, coder);
+        throughput.add(size);
+    }
+
+    @Benchmark
+    public int readTokens(Throughput throughput) throws IOException {
+        readBuffer.clear();
+        FileIO.readTokens(readFile.toString(), readBuffer);
+        throughput.add(size);
+        return readBuffer.size();
+    }
+}
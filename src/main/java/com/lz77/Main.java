@@ -1,19 +1,31 @@
 package com.lz77;
 
+import com.lz77.algorithm.DictionaryTrainer;
 import com.lz77.algorithm.LZ77Compressor;
-import com.lz77.algorithm.LZ77Decompressor;
-import com.lz77.model.CompressionResult;
-import com.lz77.model.Token;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.ArchiveEntry;
+import com.lz77.model.BenchmarkResult;
+import com.lz77.model.Dictionary;
+import com.lz77.util.Benchmark;
+import com.lz77.util.CompressionClient;
+import com.lz77.util.CompressionServer;
 import com.lz77.util.FileIO;
-import com.lz77.util.Validation;
+import com.lz77.util.ParallelArchiver;
+import com.lz77.util.ParallelCompressor;
+import com.lz77.util.ParallelDecompressor;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 // Главный класс приложения для сжатия/распаковки данных алгоритмом LZ77
 public class Main {
     private static final LZ77Compressor compressor = new LZ77Compressor();
-    private static final LZ77Decompressor decompressor = new LZ77Decompressor();
     private static final Scanner scanner = new Scanner(System.in);
 
     public static void main(String[] args) {
@@ -30,8 +42,31 @@ public class Main {
         try {
             if (args[0].equals("compress") && args.length == 3) {
                 compressFile(args[1], args[2]);
+            } else if (args[0].equals("compress") && args.length == 4 && args[1].matches("-[1-9]")) {
+                compressFile(args[2], args[3], LZ77Compressor.ofLevel(Integer.parseInt(args[1].substring(1))));
             } else if (args[0].equals("decompress") && args.length == 3) {
                 decompressFile(args[1], args[2]);
+            } else if ((args[0].equals("compress") || args[0].equals("decompress")) && args.length > 3) {
+                processWithDictionary(args);
+            } else if (args[0].equals("train") && args.length > 2) {
+                trainDictionary(args);
+            } else if (args[0].equals("compress-dir") && (args.length == 3
+                    || args.length == 4 && args[1].matches("-[1-9]"))) {
+                LZ77Compressor settings = args.length == 4
+                        ? LZ77Compressor.ofLevel(Integer.parseInt(args[1].substring(1))) : compressor;
+                compressDirectory(args[args.length - 2], args[args.length - 1], settings);
+            } else if (args[0].equals("decompress-dir") && args.length == 3) {
+                decompressDirectory(args[1], args[2]);
+            } else if (args[0].equals("serve") && (args.length == 2
+                    || args.length == 3 && args[1].matches("-[1-9]"))) {
+                LZ77Compressor settings = args.length == 3
+                        ? LZ77Compressor.ofLevel(Integer.parseInt(args[1].substring(1))) : compressor;
+                serve(args[args.length - 1], settings);
+            } else if (args[0].equals("client") && args.length == 5
+                    && (args[1].equals("compress") || args[1].equals("decompress"))) {
+                runClient(args[1], args[2], args[3], args[4]);
+            } else if (args[0].equals("bench") && args.length > 1) {
+                benchFiles(args);
             } else {
                 printUsage();
             }
@@ -95,21 +130,35 @@ public class Main {
     }
 
     public static void compressFile(String inputPath, String outputPath) {
-        try {
-            System.out.println("\nStarting compression...");
-            byte[] inputData = FileIO.readFile(inputPath);
+        compressFile(inputPath, outputPath, compressor);
+    }
 
-            // Добавьте лог для отладки
-            System.out.println("Input size: " + inputData.length + " bytes");
+    /**
+     * @param compressor настройки сжатия, например {@link LZ77Compressor#ofLevel(int)}
+     */
+    public static void compressFile(String inputPath, String outputPath, LZ77Compressor compressor) {
+        compressFile(inputPath, outputPath, compressor, null);
+    }
 
-            List<Token> tokens = compressor.compress(inputData);
-            System.out.println("Tokens generated: " + tokens.size());
+    /**
+     * @param dictionary словарь, которым заполняется окно перед каждым кадром, или null
+     */
+    public static void compressFile(String inputPath, String outputPath, LZ77Compressor compressor,
+                                    Dictionary dictionary) {
+        try {
+            System.out.println("\nStarting compression...");
+            if (!Files.exists(Path.of(inputPath))) {
+                throw new IOException("File not found: " + inputPath);
+            }
 
-            FileIO.writeTokens(outputPath, tokens);
+            // Файл отображается в память по кадрам, кадры сжимаются параллельно
+            long outputSize = new ParallelCompressor(compressor, Runtime.getRuntime().availableProcessors(),
+                    ParallelCompressor.DEFAULT_BLOCK_SIZE, EntropyCoder.HUFFMAN,
+                    metrics -> System.out.println(metrics.getSummary()), dictionary)
+                    .compressFile(inputPath, outputPath);
 
-            // Проверка записи/чтения
-            List<Token> testRead = FileIO.readTokens(outputPath);
-            System.out.println("Tokens verified: " + (tokens.size() == testRead.size()));
+            System.out.println("Input size: " + Files.size(Path.of(inputPath)) + " bytes");
+            System.out.println("Compressed size: " + outputSize + " bytes");
 
             System.out.println("Compression completed successfully!");
         } catch (Exception e) {
@@ -120,24 +169,23 @@ public class Main {
     }
 
     public static void decompressFile(String inputPath, String outputPath) {
+        decompressFile(inputPath, outputPath, null);
+    }
+
+    /**
+     * @param dictionary словарь, с которым был сжат файл, или null
+     */
+    public static void decompressFile(String inputPath, String outputPath, Dictionary dictionary) {
         try {
             System.out.println("\nStarting decompression...");
 
-            // Чтение токенов из файла
-            List<Token> tokens = FileIO.readTokens(inputPath);
-
-            // Распаковка данных
-            byte[] outputData = decompressor.decompress(tokens);
-
-            // Проверка целостности данных
-            Validation.validateDecompressedData(tokens, outputData);
-
-            // Сохранение распакованных данных
-            FileIO.writeFile(outputPath, outputData);
+            // Кадры распаковываются параллельно прямо в отображенный в память выходной файл
+            long outputSize = new ParallelDecompressor(Runtime.getRuntime().availableProcessors(), dictionary)
+                    .decompressFile(inputPath, outputPath);
 
             System.out.println("Decompression completed successfully!");
-            System.out.printf("Original size: ~%d tokens%n", tokens.size());
-            System.out.printf("Decompressed size: %d bytes%n", outputData.length);
+            System.out.printf("Compressed size: %d bytes%n", Files.size(Path.of(inputPath)));
+            System.out.printf("Decompressed size: %d bytes%n", outputSize);
             System.out.printf("Saved to: %s%n", outputPath);
 
         } catch (Exception e) {
@@ -145,9 +193,245 @@ public class Main {
         }
     }
 
+    /**
+     * Сжатие всех файлов каталога в один архив: файлы читаются и записываются
+     * в виртуальных потоках, сжимаются в пуле по числу процессоров
+     */
+    public static void compressDirectory(String directory, String archivePath, LZ77Compressor compressor)
+            throws IOException {
+        long start = System.nanoTime();
+        List<ArchiveEntry> entries = new ParallelArchiver(compressor, Runtime.getRuntime().availableProcessors())
+                .create(Path.of(directory), Path.of(archivePath));
+        long inputSize = entries.stream().mapToLong(ArchiveEntry::size).sum();
+        System.out.printf("Compressed %d files, %d bytes -> %d bytes in %d ms%n", entries.size(), inputSize,
+                Files.size(Path.of(archivePath)), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Распаковка архива, созданного {@link #compressDirectory}, в каталог
+     */
+    public static void decompressDirectory(String archivePath, String directory) throws IOException {
+        long start = System.nanoTime();
+        List<ArchiveEntry> entries = new ParallelArchiver().extract(Path.of(archivePath), Path.of(directory));
+        long outputSize = entries.stream().mapToLong(ArchiveEntry::size).sum();
+        System.out.printf("Extracted %d files, %d bytes to %s in %d ms%n", entries.size(), outputSize, directory,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Сервер сжатия на Unix domain socket; работает до завершения процесса
+     */
+    public static void serve(String socketPath, LZ77Compressor compressor) throws IOException, InterruptedException {
+        CompressionServer server = new CompressionServer(Path.of(socketPath), compressor);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+        }));
+        System.out.println("Listening on " + socketPath);
+        server.join();
+    }
+
+    /**
+     * Сжатие или распаковка через запущенный сервер; "-" вместо пути — stdin или stdout.
+     * Сообщения выводятся только при ошибках, чтобы результат можно было передать дальше.
+     */
+    public static void runClient(String operation, String socketPath, String inputPath, String outputPath)
+            throws IOException {
+        byte[] input = inputPath.equals("-") ? System.in.readAllBytes() : FileIO.readFile(inputPath);
+        byte[] output;
+        try (CompressionClient client = new CompressionClient(Path.of(socketPath))) {
+            output = operation.equals("compress") ? client.compress(input) : client.decompress(input);
+        }
+        if (outputPath.equals("-")) {
+            System.out.write(output, 0, output.length);
+            System.out.flush();
+        } else {
+            FileIO.writeFile(outputPath, output);
+        }
+    }
+
+    /**
+     * Сжатие и распаковка со словарем: compress [-1..-9] -D словарь вход выход
+     * или decompress -D словарь вход выход. Окно выбирается так, чтобы в нем
+     * помещались словарь и начало данных.
+     */
+    public static void processWithDictionary(String[] args) throws IOException {
+        int level = LZ77Compressor.DEFAULT_LEVEL;
+        String dictionaryPath = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (args[0].equals("compress") && arg.matches("-[1-9]")) {
+                level = Integer.parseInt(arg.substring(1));
+            } else if (arg.equals("-D") || arg.equals("--dictionary")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                dictionaryPath = args[++i];
+            } else {
+                files.add(arg);
+            }
+        }
+        if (dictionaryPath == null || files.size() != 2) {
+            throw new IllegalArgumentException("Expected a dictionary, an input and an output file");
+        }
+        Dictionary dictionary = FileIO.readDictionary(dictionaryPath);
+        if (args[0].equals("compress")) {
+            LZ77Compressor settings = LZ77Compressor.ofLevel(level, windowSize(dictionary),
+                    compressor.getMaxMatchLength());
+            compressFile(files.get(0), files.get(1), settings, dictionary);
+        } else {
+            decompressFile(files.get(0), files.get(1), dictionary);
+        }
+    }
+
+    /**
+     * Построение словаря: train [-s размер] словарь образец... Образцы — файлы
+     * или каталоги, из которых берутся все файлы; каждый файл — отдельное сообщение.
+     */
+    public static void trainDictionary(String[] args) throws IOException {
+        int size = DictionaryTrainer.DEFAULT_DICTIONARY_SIZE;
+        List<String> paths = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-s") || args[i].equals("--size")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                size = Integer.parseInt(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.size() < 2) {
+            throw new IllegalArgumentException("Expected a dictionary file and samples");
+        }
+
+        List<byte[]> samples = new ArrayList<>();
+        for (String path : paths.subList(1, paths.size())) {
+            if (Files.isDirectory(Path.of(path))) {
+                try (Stream<Path> files = Files.walk(Path.of(path))) {
+                    for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                        samples.add(Files.readAllBytes(file));
+                    }
+                }
+            } else {
+                samples.add(FileIO.readFile(path));
+            }
+        }
+        Dictionary dictionary = new DictionaryTrainer(size).train(samples);
+        FileIO.writeDictionary(paths.get(0), dictionary);
+        System.out.printf("Dictionary %s: %d bytes from %d samples, saved to %s%n",
+                Dictionary.formatId(dictionary.getId()), dictionary.size(), samples.size(), paths.get(0));
+    }
+
+    /**
+     * Окно вдвое больше словаря (степень двойки), но не меньше окна по умолчанию
+     */
+    private static int windowSize(Dictionary dictionary) {
+        int window = Integer.highestOneBit(dictionary.size()) << 1;
+        return Math.min(LZ77Compressor.MAX_WINDOW_SIZE, Math.max(LZ77Compressor.WINDOW_SIZE, window));
+    }
+
+    /**
+     * Замер скорости на файлах: bench [параметры] файл... Отчет выводится в stdout,
+     * ход замера — в stderr, чтобы CSV и JSON можно было перенаправить в файл.
+     */
+    public static void benchFiles(String[] args) throws IOException {
+        List<Integer> levels = List.of(1, LZ77Compressor.DEFAULT_LEVEL, LZ77Compressor.MAX_LEVEL);
+        List<Benchmark.Engine> engines = List.of(Benchmark.Engine.LZ77);
+        EntropyCoder coder = EntropyCoder.HUFFMAN;
+        int warmup = Benchmark.DEFAULT_WARMUP_ITERATIONS;
+        int iterations = Benchmark.DEFAULT_ITERATIONS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Benchmark.Format format = Benchmark.Format.TEXT;
+        List<String> files = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                files.add(arg);
+                continue;
+            }
+            if (arg.equals("--csv") || arg.equals("--json")) {
+                format = Benchmark.Format.valueOf(arg.substring(2).toUpperCase(Locale.ROOT));
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-l", "--levels" -> levels = parseLevels(value);
+                case "-e", "--engines" -> engines = parseList(value, Benchmark.Engine.class);
+                case "-c", "--coder" -> coder = EntropyCoder.valueOf(value.toUpperCase(Locale.ROOT));
+                case "-w", "--warmup" -> warmup = Integer.parseInt(value);
+                case "-i", "--iterations" -> iterations = Integer.parseInt(value);
+                case "-t", "--threads" -> threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No input files");
+        }
+
+        Benchmark benchmark = new Benchmark(warmup, iterations, threads, coder);
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (String file : files) {
+            byte[] data = Files.readAllBytes(Path.of(file));
+            for (Benchmark.Engine engine : engines) {
+                for (int level : levels) {
+                    System.err.printf("Benchmarking %s: %s level %d...%n", file, engine, level);
+                    results.add(benchmark.run(Path.of(file).getFileName().toString(), data, engine, level));
+                }
+            }
+        }
+        benchmark.write(results, format, System.out);
+    }
+
+    private static List<Integer> parseLevels(String value) {
+        List<Integer> levels = new ArrayList<>();
+        for (String item : value.split(",")) {
+            int level = Integer.parseInt(item.trim());
+            if (level < LZ77Compressor.MIN_LEVEL || level > LZ77Compressor.MAX_LEVEL) {
+                throw new IllegalArgumentException("Level must be between " + LZ77Compressor.MIN_LEVEL
+                        + " and " + LZ77Compressor.MAX_LEVEL + ": " + level);
+            }
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    private static <E extends Enum<E>> List<E> parseList(String value, Class<E> type) {
+        List<E> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            items.add(Enum.valueOf(type, item.trim().toUpperCase(Locale.ROOT)));
+        }
+        return items;
+    }
+
     private static void printUsage() {
         System.out.println("Usage:");
-        System.out.println("  compress <input> <output>   - Compress input file");
-        System.out.println("  decompress <input> <output> - Decompress input file");
+        System.out.println("  compress [-1..-9] <input> <output> - Compress input file (1 fastest, 9 best)");
+        System.out.println("  decompress <input> <output>        - Decompress input file");
+        System.out.println("  compress [-1..-9] -D <dict> <input> <output> - Compress with a dictionary");
+        System.out.println("  decompress -D <dict> <input> <output>        - Decompress with a dictionary");
+        System.out.println("  compress-dir [-1..-9] <dir> <archive> - Compress all files of a directory into an archive");
+        System.out.println("  decompress-dir <archive> <dir>     - Extract an archive into a directory");
+        System.out.println("  serve [-1..-9] <socket>            - Run a compression server on a Unix domain socket");
+        System.out.println("  client compress|decompress <socket> <input> <output> - Use a running server (- for stdin/stdout)");
+        System.out.println("  train [-s size] <dict> <sample...> - Train a dictionary from sample files or directories");
+        System.out.println("  bench [options] <file...>          - Measure compression and decompression speed");
+        System.out.println("    -l, --levels 1,6,9       levels to measure");
+        System.out.println("    -e, --engines lz77,deflate  engines to measure (deflate is java.util.zip)");
+        System.out.println("    -c, --coder raw|huffman|fse  entropy coder for lz77");
+        System.out.println("    -w, --warmup N           warmup iterations (default "
+                + Benchmark.DEFAULT_WARMUP_ITERATIONS + ")");
+        System.out.println("    -i, --iterations N       measured iterations (default " + Benchmark.DEFAULT_ITERATIONS + ")");
+        System.out.println("    -t, --threads N          lz77 threads");
+        System.out.println("    --csv, --json            report format (default table)");
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.lz77.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Общая часть реализаций {@link MatchFinder}: параметры окна и точные таблицы
+ * последних вхождений для совпадений длиной один и два байта.
+ * Ближайшее вхождение дает наименьшее смещение, поэтому короткие совпадения
+ * совпадают с результатом полного перебора.
+ */
+abstract class AbstractMatchFinder implements MatchFinder {
+    static final int NIL = -1;
+
+    protected final int windowSize;
+    protected final int maxMatchLength;
+
+    private final int[] lastByte;
+    private final int[] lastPair;
+
+    // Проверенные кандидаты: сравнения в цепочке или дереве и в таблицах коротких совпадений
+    protected long probes;
+
+    AbstractMatchFinder(int windowSize, int maxMatchLength) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        if (maxMatchLength <= 0) {
+            throw new IllegalArgumentException("Max match length must be positive");
+        }
+        this.windowSize = windowSize;
+        this.maxMatchLength = maxMatchLength;
+        this.lastByte = new int[1 << 8];
+        this.lastPair = new int[1 << 16];
+    }
+
+    /**
+     * Копия параметров и таблиц коротких совпадений для {@link #copy()}
+     */
+    AbstractMatchFinder(AbstractMatchFinder other) {
+        this.windowSize = other.windowSize;
+        this.maxMatchLength = other.maxMatchLength;
+        this.lastByte = other.lastByte.clone();
+        this.lastPair = other.lastPair.clone();
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(lastByte, NIL);
+        Arrays.fill(lastPair, NIL);
+    }
+
+    @Override
+    public void slide(int delta) {
+        slide(lastByte, delta);
+        slide(lastPair, delta);
+    }
+
+    @Override
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Сдвигает позиции в таблице, устаревшие позиции заменяются на NIL
+     */
+    static void slide(int[] table, int delta) {
+        for (int i = 0; i < table.length; i++) {
+            int value = table[i] - delta;
+            table[i] = value < 0 ? NIL : value;
+        }
+    }
+
+    /**
+     * Запоминает позицию в таблицах коротких совпадений
+     */
+    final void updateShortTables(byte[] data, int pos, int limit) {
+        lastByte[data[pos] & 0xFF] = pos;
+        if (pos + 1 < limit) {
+            lastPair[pair(data, pos)] = pos;
+        }
+    }
+
+    /**
+     * Восстанавливает записи таблиц коротких совпадений, которые могли измениться
+     * при добавлении позиций [from, to), см. {@link #rewind}
+     * @param source структура, из которой берутся значения, или null для пустых таблиц
+     */
+    final void rewindShortTables(byte[] data, int from, int to, AbstractMatchFinder source) {
+        for (int pos = from; pos < to; pos++) {
+            int value = data[pos] & 0xFF;
+            lastByte[value] = source == null ? NIL : source.lastByte[value];
+            if (pos + 1 < to) {
+                int pair = pair(data, pos);
+                lastPair[pair] = source == null ? NIL : source.lastPair[pair];
+            }
+        }
+    }
+
+    /**
+     * Поиск совпадения длиной два или один байт
+     */
+    final long findShortMatch(byte[] data, int pos, int maxLength) {
+        int minPos = pos - windowSize;
+        probes++;
+        if (maxLength >= 2) {
+            int candidate = lastPair[pair(data, pos)];
+            if (candidate != NIL && candidate >= minPos) {
+                return MatchFinder.match(pos - candidate, 2);
+            }
+        }
+        int candidate = lastByte[data[pos] & 0xFF];
+        if (candidate != NIL && candidate >= minPos) {
+            return MatchFinder.match(pos - candidate, 1);
+        }
+        return 0;
+    }
+
+    /**
+     * Длина общего префикса позиций candidate и pos, не больше maxLength
+     */
+    static int matchLength(byte[] data, int candidate, int pos, int maxLength) {
+        return MatchLength.of(data, candidate, pos, maxLength);
+    }
+
+    private static int pair(byte[] data, int pos) {
+        return (data[pos] & 0xFF) << 8 | (data[pos + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,298 @@
+package com.lz77.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Поиск совпадений на двоичных деревьях (в стиле BT4 из LZMA).
+ * Позиции с одинаковым хешем первых четырех байт образуют двоичное дерево,
+ * упорядоченное по содержимому суффиксов; корнем всегда становится текущая
+ * позиция. Поиск и вставка выполняются за один спуск, поэтому стоимость
+ * на позицию растет как логарифм окна, а не как его размер.
+ * Совпадения длиной три байта берутся из отдельной хеш-таблицы,
+ * более короткие — из точных таблиц базового класса.
+ */
+public class BinaryTreeMatchFinder extends AbstractMatchFinder {
+    private static final int HASH3_BITS = 16;
+    private static final int HASH4_BITS = 20;
+
+    private final int cutValue;
+    private final int niceLength;
+    private final int cyclicSize;
+
+    private final int[] hash3;
+    private final int[] hash4;
+    // Для каждой позиции окна — левый и правый потомок
+    private final int[] son;
+    private int cyclicPos;
+    // Пары son старых узлов, измененные после копирования или отката (для rewind)
+    private final int[] journal;
+    private int journalSize;
+    private boolean journalOverflow;
+
+    private int bestLength;
+    private int bestOffset;
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param cutValue максимальное число узлов, просматриваемых за один спуск
+     */
+    public BinaryTreeMatchFinder(int windowSize, int maxMatchLength, int cutValue) {
+        this(windowSize, maxMatchLength, cutValue, maxMatchLength);
+    }
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param cutValue максимальное число узлов, просматриваемых за один спуск
+     * @param niceLength длина сравнения в дереве: узел, совпавший на эту длину,
+     *                   заменяется текущей позицией и спуск прекращается
+     */
+    public BinaryTreeMatchFinder(int windowSize, int maxMatchLength, int cutValue, int niceLength) {
+        super(windowSize, maxMatchLength);
+        if (cutValue <= 0) {
+            throw new IllegalArgumentException("Cut value must be positive");
+        }
+        if (niceLength <= 0) {
+            throw new IllegalArgumentException("Nice length must be positive");
+        }
+        this.cutValue = cutValue;
+        this.niceLength = Math.min(niceLength, maxMatchLength);
+        // Лишний слот не дает текущей позиции затереть узел на расстоянии windowSize
+        this.cyclicSize = windowSize + 1;
+        this.hash3 = new int[1 << HASH3_BITS];
+        this.hash4 = new int[1 << HASH4_BITS];
+        this.son = new int[2 * cyclicSize];
+        // Журнал нужен только копиям, которые откатываются к исходной структуре
+        this.journal = new int[0];
+        reset();
+    }
+
+    private BinaryTreeMatchFinder(BinaryTreeMatchFinder other) {
+        super(other);
+        this.cutValue = other.cutValue;
+        this.niceLength = other.niceLength;
+        this.cyclicSize = other.cyclicSize;
+        this.hash3 = other.hash3.clone();
+        this.hash4 = other.hash4.clone();
+        this.son = other.son.clone();
+        this.cyclicPos = other.cyclicPos;
+        // Если журнал переполнится, откат обойдется копированием son, но к этому
+        // моменту спуски уже записали сравнимое число узлов
+        this.journal = new int[cyclicSize / 2];
+    }
+
+    @Override
+    public BinaryTreeMatchFinder copy() {
+        return new BinaryTreeMatchFinder(this);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(hash3, NIL);
+        Arrays.fill(hash4, NIL);
+        Arrays.fill(son, NIL);
+        cyclicPos = 0;
+        clearJournal();
+    }
+
+    /**
+     * Узлы, недостижимые из хеш-таблиц, не читаются, поэтому без исходного состояния
+     * достаточно очистить хеши добавленных позиций. При откате к source восстанавливаются
+     * узлы добавленных позиций и узлы исходного дерева из журнала: спуск меняет потомков
+     * пройденных старых узлов. Если журнал переполнился, таблица потомков копируется целиком.
+     */
+    @Override
+    public void rewind(byte[] data, int from, int to, MatchFinder source) {
+        BinaryTreeMatchFinder original = (BinaryTreeMatchFinder) source;
+        rewindShortTables(data, from, to, original);
+        for (int pos = from; pos + 4 <= to; pos++) {
+            int value = (data[pos] & 0xFF) << 16 | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF);
+            int h3 = (value * 0x9E3779B1) >>> (32 - HASH3_BITS);
+            int h4 = hash4(data, pos);
+            hash3[h3] = original == null ? NIL : original.hash3[h3];
+            hash4[h4] = original == null ? NIL : original.hash4[h4];
+        }
+        if (original != null) {
+            if (journalOverflow || to - from >= cyclicSize) {
+                System.arraycopy(original.son, 0, son, 0, son.length);
+            } else {
+                restoreNodes(original, original.cyclicPos, to - from);
+                for (int i = 0; i < journalSize; i++) {
+                    int pair = journal[i];
+                    son[pair] = original.son[pair];
+                    son[pair + 1] = original.son[pair + 1];
+                }
+            }
+        }
+        cyclicPos = original == null ? 0 : original.cyclicPos;
+        clearJournal();
+    }
+
+    /**
+     * Восстанавливает count узлов подряд начиная со слота first, с переходом через конец окна
+     */
+    private void restoreNodes(BinaryTreeMatchFinder original, int first, int count) {
+        int head = Math.min(count, cyclicSize - first);
+        System.arraycopy(original.son, first << 1, son, first << 1, head << 1);
+        System.arraycopy(original.son, 0, son, 0, (count - head) << 1);
+    }
+
+    private void clearJournal() {
+        journalSize = 0;
+        journalOverflow = false;
+    }
+
+    /**
+     * Запоминает старый узел, потомки которого сейчас изменятся
+     */
+    private void journal(int pair) {
+        if (journalSize < journal.length) {
+            journal[journalSize++] = pair;
+        } else {
+            journalOverflow = true;
+        }
+    }
+
+    @Override
+    public void slide(int delta) {
+        super.slide(delta);
+        slide(hash3, delta);
+        slide(hash4, delta);
+        slide(son, delta);
+    }
+
+    @Override
+    public long findLongestMatch(byte[] data, int pos, int limit) {
+        int maxLength = Math.min(maxMatchLength, limit - pos);
+        bestLength = 0;
+        bestOffset = 0;
+
+        if (maxLength >= 4) {
+            int value = (data[pos] & 0xFF) << 16 | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF);
+            int h3 = (value * 0x9E3779B1) >>> (32 - HASH3_BITS);
+            int candidate3 = hash3[h3];
+            hash3[h3] = pos;
+
+            if (candidate3 != NIL && pos - candidate3 <= windowSize) {
+                probes++;
+                int length = matchLength(data, candidate3, pos, maxLength);
+                if (length >= 3) {
+                    bestLength = length;
+                    bestOffset = pos - candidate3;
+                }
+            }
+            int lenLimit = Math.min(maxLength, niceLength);
+            updateTree(data, pos, lenLimit);
+            if (bestLength == lenLimit && lenLimit < maxLength) {
+                // Дерево сравнивает не дальше niceLength, остаток совпадения дочитываем
+                bestLength = matchLength(data, pos - bestOffset, pos, maxLength);
+            }
+        } else {
+            clearNode();
+        }
+
+        if (bestLength < 3 && maxLength > 0) {
+            long shortMatch = findShortMatch(data, pos, maxLength);
+            if (MatchFinder.length(shortMatch) > bestLength) {
+                bestLength = MatchFinder.length(shortMatch);
+                bestOffset = MatchFinder.offset(shortMatch);
+            }
+        }
+
+        updateShortTables(data, pos, limit);
+        nextCyclicPos();
+        return MatchFinder.match(bestOffset, bestLength);
+    }
+
+    @Override
+    public void skip(byte[] data, int pos, int limit) {
+        int maxLength = Math.min(maxMatchLength, limit - pos);
+        if (maxLength >= 4) {
+            int value = (data[pos] & 0xFF) << 16 | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF);
+            hash3[(value * 0x9E3779B1) >>> (32 - HASH3_BITS)] = pos;
+            updateTree(data, pos, Math.min(maxLength, niceLength));
+        } else {
+            clearNode();
+        }
+        updateShortTables(data, pos, limit);
+        nextCyclicPos();
+    }
+
+    /**
+     * Позиции без четырех доступных байт не попадают в дерево, их узел остается пустым
+     */
+    private void clearNode() {
+        son[cyclicPos << 1] = NIL;
+        son[(cyclicPos << 1) + 1] = NIL;
+    }
+
+    /**
+     * Спуск по дереву: текущая позиция становится корнем, а узлы старого
+     * дерева распределяются по ее левому и правому поддеревьям
+     */
+    private void updateTree(byte[] data, int pos, int lenLimit) {
+        int h4 = hash4(data, pos);
+        int current = hash4[h4];
+        hash4[h4] = pos;
+
+        int ptr0 = (cyclicPos << 1) + 1;
+        int ptr1 = cyclicPos << 1;
+        int len0 = 0;
+        int len1 = 0;
+        int depth = cutValue;
+
+        while (true) {
+            int delta = pos - current;
+            if (current == NIL || delta > windowSize || depth-- == 0) {
+                son[ptr0] = NIL;
+                son[ptr1] = NIL;
+                return;
+            }
+            probes++;
+
+            int pair = (cyclicPos - delta + (delta > cyclicPos ? cyclicSize : 0)) << 1;
+            int length = Math.min(len0, len1);
+
+            if (data[current + length] == data[pos + length]) {
+                length = MatchLength.extend(data, current, pos, length + 1, lenLimit);
+                if (length > bestLength) {
+                    bestLength = length;
+                    bestOffset = delta;
+                }
+                if (length == lenLimit) {
+                    // Узел полностью совпал: текущая позиция занимает его место
+                    son[ptr1] = son[pair];
+                    son[ptr0] = son[pair + 1];
+                    return;
+                }
+            }
+
+            journal(pair);
+            if ((data[current + length] & 0xFF) < (data[pos + length] & 0xFF)) {
+                son[ptr1] = current;
+                ptr1 = pair + 1;
+                current = son[ptr1];
+                len1 = length;
+            } else {
+                son[ptr0] = current;
+                ptr0 = pair;
+                current = son[ptr0];
+                len0 = length;
+            }
+        }
+    }
+
+    private void nextCyclicPos() {
+        if (++cyclicPos == cyclicSize) {
+            cyclicPos = 0;
+        }
+    }
+
+    private static int hash4(byte[] data, int pos) {
+        int value = (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16
+                | (data[pos + 2] & 0xFF) << 8 | (data[pos + 3] & 0xFF);
+        return (value * 0x9E3779B1) >>> (32 - HASH4_BITS);
+    }
+}
@@ -0,0 +1,138 @@
+package com.lz77.algorithm;
+
+import com.lz77.jfr.CompressEvent;
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Dictionary;
+import com.lz77.model.TokenBuffer;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Переиспользуемое состояние сжатия: структура поиска, буфер с окончанием словаря
+ * и данными, буфер токенов. Новая структура поиска выделяет и заполняет таблицы
+ * в сотни килобайт, что для сообщения в сотни байт дороже самого сжатия.
+ * Контекст после каждого сообщения откатывает только затронутые им записи
+ * (см. {@link MatchFinder#rewind}), поэтому сжатие коротких сообщений
+ * не выделяет память и не зависит от размера таблиц.
+ * Контекст не потокобезопасен: им пользуется один поток за раз, например,
+ * получая его из {@link com.lz77.util.ContextPool}.
+ */
+public class CompressionContext {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final LZ77Compressor compressor;
+    private final TokenBuffer tokens = new TokenBuffer();
+    private MatchFinder matchFinder;
+    // Состояние, к которому структура поиска возвращается после сообщения: null или словарь
+    private MatchFinder pristine;
+    private Dictionary dictionary;
+    // Окончание словаря в [0, base), за ним — данные текущего сообщения
+    private byte[] buffer = EMPTY;
+    private int base;
+
+    /**
+     * Структура поиска создается при первом сжатии, когда уже известен словарь
+     */
+    public CompressionContext(LZ77Compressor compressor) {
+        this.compressor = Objects.requireNonNull(compressor);
+    }
+
+    public LZ77Compressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * @return словарь последнего сжатия или null
+     */
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return токены в буфере контекста; буфер действителен до следующего вызова
+     */
+    public TokenBuffer compress(byte[] input) {
+        return compress(input, 0, input.length, null);
+    }
+
+    /**
+     * @param dictionary словарь или null
+     * @return токены в буфере контекста; буфер действителен до следующего вызова
+     */
+    public TokenBuffer compress(byte[] input, Dictionary dictionary) {
+        return compress(input, 0, input.length, dictionary);
+    }
+
+    /**
+     * Сжатие input[offset, offset + length). Результат совпадает с
+     * {@link LZ77Compressor#compress(byte[], Dictionary, TokenBuffer)} для тех же данных.
+     * Смена словаря копирует его структуру поиска, поэтому выгоднее держать
+     * отдельные контексты для каждого словаря.
+     * @param dictionary словарь или null
+     * @return токены в буфере контекста; буфер действителен до следующего вызова
+     */
+    public TokenBuffer compress(byte[] input, int offset, int length, Dictionary dictionary) {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        CompressEvent event = new CompressEvent();
+        event.begin();
+        tokens.clear();
+        long probes = encode(input, offset, length, dictionary,
+                (data, start, end, finder) -> compressor.encode(data, start, end, end, finder, tokens::add));
+        event.end();
+        if (event.shouldCommit()) {
+            CompressionStats stats = LZ77Compressor.collectStats(length, tokens, 0, probes);
+            event.commit(CompressionContext.class.getSimpleName(), compressor.getLevel(), compressor.getWindowSize(),
+                    null, stats.toMetrics(CompressionMetrics.UNKNOWN, 0));
+        }
+        return tokens;
+    }
+
+    /**
+     * Копирует input[offset, offset + length) за окончанием словаря, готовит структуру
+     * поиска и передает их encoder, после чего откатывает структуру. Так сообщение
+     * можно кодировать по частям, например кадр блоками токенов.
+     * @param dictionary словарь или null
+     * @return число проверенных кандидатов при кодировании
+     */
+    public <X extends Exception> long encode(byte[] input, int offset, int length, Dictionary dictionary,
+                                             MessageEncoder<X> encoder) throws X {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        use(dictionary);
+        int end = base + length;
+        if (buffer.length < end) {
+            buffer = Arrays.copyOf(buffer, Math.max(end, (int) Math.min(Integer.MAX_VALUE - 8, buffer.length * 2L)));
+        }
+        System.arraycopy(input, offset, buffer, base, length);
+        long probes = matchFinder.getProbes();
+        int from = base;
+        try {
+            from = compressor.insertDictionaryTail(matchFinder, buffer, base, end);
+            encoder.encode(buffer, base, end, matchFinder);
+            return matchFinder.getProbes() - probes;
+        } finally {
+            matchFinder.rewind(buffer, from, end, pristine);
+        }
+    }
+
+    /**
+     * Готовит структуру поиска и начало буфера для словаря, если он сменился
+     */
+    private void use(Dictionary dictionary) {
+        if (matchFinder != null && dictionary == this.dictionary) {
+            return;
+        }
+        if (dictionary == null) {
+            pristine = null;
+            matchFinder = compressor.newMatchFinder();
+            base = 0;
+        } else {
+            pristine = compressor.primedMatchFinder(dictionary);
+            matchFinder = pristine.copy();
+            byte[] window = dictionary.prepend(compressor.getWindowSize(), EMPTY, 0, 0);
+            buffer = Arrays.copyOf(window, Math.max(window.length, buffer.length));
+            base = window.length;
+        }
+        this.dictionary = dictionary;
+    }
+}
@@ -0,0 +1,12 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.CompressionMetrics;
+
+/**
+ * Получатель измерений сжатия: вызывается один раз по завершении сжатия
+ * в потоке, который его завершил
+ */
+@FunctionalInterface
+public interface CompressionListener {
+    void onCompressed(CompressionMetrics metrics);
+}
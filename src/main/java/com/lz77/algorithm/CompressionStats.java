@@ -0,0 +1,78 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.CompressionMetrics;
+
+/**
+ * Накопитель измерений сжатия. Не потокобезопасен: каждая задача заполняет
+ * свой накопитель, а результаты объединяются через {@link #add(CompressionStats)}.
+ */
+public final class CompressionStats {
+    private long inputBytes;
+    private long literals;
+    private long matches;
+    private long matchedBytes;
+    private long probes;
+    private long matchFindingNanos;
+    private long encodingNanos;
+    private long ioNanos;
+
+    public void addInput(long bytes) {
+        inputBytes += bytes;
+    }
+
+    public void addLiterals(long count) {
+        literals += count;
+    }
+
+    public void addMatch(int length) {
+        matches++;
+        matchedBytes += length;
+    }
+
+    public void addProbes(long count) {
+        probes += count;
+    }
+
+    public void addMatchFinding(long nanos) {
+        matchFindingNanos += nanos;
+    }
+
+    public void addEncoding(long nanos) {
+        encodingNanos += nanos;
+    }
+
+    public void addIo(long nanos) {
+        ioNanos += nanos;
+    }
+
+    /**
+     * Прибавляет измерения другого накопителя
+     */
+    public void add(CompressionStats other) {
+        inputBytes += other.inputBytes;
+        literals += other.literals;
+        matches += other.matches;
+        matchedBytes += other.matchedBytes;
+        probes += other.probes;
+        matchFindingNanos += other.matchFindingNanos;
+        encodingNanos += other.encodingNanos;
+        ioNanos += other.ioNanos;
+    }
+
+    public long getLiterals() {
+        return literals;
+    }
+
+    public long getMatches() {
+        return matches;
+    }
+
+    /**
+     * @param compressedBytes итоговый размер сжатых данных или {@link CompressionMetrics#UNKNOWN}
+     * @param wallNanos общее время сжатия
+     */
+    public CompressionMetrics toMetrics(long compressedBytes, long wallNanos) {
+        return new CompressionMetrics(inputBytes, compressedBytes, literals, matches, matchedBytes, probes,
+                matchFindingNanos, encodingNanos, ioNanos, wallNanos);
+    }
+}
@@ -0,0 +1,52 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Dictionary;
+import com.lz77.model.TokenBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Переиспользуемый буфер распаковки: результат пишется в массив контекста,
+ * который растет до размера самого большого сообщения и дальше не выделяется.
+ * Контекст не потокобезопасен: им пользуется один поток за раз, например,
+ * получая его из {@link com.lz77.util.ContextPool}.
+ */
+public class DecompressionContext {
+    private final LZ77Decompressor decompressor;
+    private byte[] buffer = new byte[0];
+
+    public DecompressionContext(LZ77Decompressor decompressor) {
+        this.decompressor = Objects.requireNonNull(decompressor);
+    }
+
+    public LZ77Decompressor getDecompressor() {
+        return decompressor;
+    }
+
+    /**
+     * @return распакованные данные в буфере контекста (только чтение);
+     * буфер действителен до следующего вызова
+     */
+    public ByteBuffer decompress(TokenBuffer tokens) {
+        return decompress(tokens, null);
+    }
+
+    /**
+     * @param dictionary тот же словарь, что и при сжатии, или null
+     * @return распакованные данные в буфере контекста (только чтение);
+     * буфер действителен до следующего вызова
+     * @throws IllegalStateException если токены некорректны
+     */
+    public ByteBuffer decompress(TokenBuffer tokens, Dictionary dictionary) {
+        long size = LZ77Decompressor.decodedSize(tokens);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Decompressed data too large for an array: " + size);
+        }
+        if (buffer.length < size) {
+            buffer = new byte[(int) Math.max(size, Math.min(Integer.MAX_VALUE - 8, buffer.length * 2L))];
+        }
+        int length = decompressor.decompress(tokens, dictionary, buffer, 0);
+        return ByteBuffer.wrap(buffer, 0, length).asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,212 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Построение словаря по образцам сообщений (упрощенный вариант алгоритма COVER из zstd).
+ * Для каждой последовательности из {@link #DMER_LENGTH} байт считается, в скольких
+ * образцах она встречается. Образцы, записанные подряд, делятся на эпохи по числу
+ * сегментов словаря; в каждой эпохе выбирается сегмент с наибольшей суммой частот
+ * его последовательностей, после чего их частоты обнуляются, чтобы одинаковые
+ * фрагменты не попадали в словарь повторно.
+ * Сегменты с большей оценкой ставятся в конец словаря: там они ближе к данным,
+ * дают меньшие смещения и остаются в окне, даже если окно меньше словаря.
+ * Последовательности, встречающиеся только в одном образце, не учитываются,
+ * поэтому образцами должны быть отдельные сообщения, а не один большой файл.
+ */
+public class DictionaryTrainer {
+    public static final int DEFAULT_DICTIONARY_SIZE = 64 * 1024;
+    public static final int MAX_DICTIONARY_SIZE = 1 << 20;
+    public static final int DEFAULT_SEGMENT_LENGTH = 64;
+
+    /**
+     * Длина последовательности, по которой считаются частоты
+     */
+    public static final int DMER_LENGTH = 6;
+
+    private static final int HASH_BITS = 20;
+
+    private final int dictionarySize;
+    private final int segmentLength;
+
+    public DictionaryTrainer() {
+        this(DEFAULT_DICTIONARY_SIZE);
+    }
+
+    /**
+     * @param dictionarySize наибольший размер словаря в байтах
+     */
+    public DictionaryTrainer(int dictionarySize) {
+        this(dictionarySize, DEFAULT_SEGMENT_LENGTH);
+    }
+
+    /**
+     * @param dictionarySize наибольший размер словаря в байтах
+     * @param segmentLength длина фрагмента образца, добавляемого в словарь за один шаг
+     */
+    public DictionaryTrainer(int dictionarySize, int segmentLength) {
+        if (dictionarySize <= 0 || dictionarySize > MAX_DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Dictionary size must be between 1 and " + MAX_DICTIONARY_SIZE);
+        }
+        if (segmentLength < DMER_LENGTH || segmentLength > dictionarySize) {
+            throw new IllegalArgumentException("Segment length must be between " + DMER_LENGTH
+                    + " and the dictionary size");
+        }
+        this.dictionarySize = dictionarySize;
+        this.segmentLength = segmentLength;
+    }
+
+    public int getDictionarySize() {
+        return dictionarySize;
+    }
+
+    public int getSegmentLength() {
+        return segmentLength;
+    }
+
+    /**
+     * @param samples образцы сообщений
+     * @return словарь не больше {@link #getDictionarySize()} байт
+     * @throws IllegalArgumentException если образцов нет или у них нет общих фрагментов
+     */
+    public Dictionary train(List<byte[]> samples) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("No samples to train on");
+        }
+        long total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Samples too large: " + total + " bytes");
+        }
+        byte[] data = new byte[(int) total];
+        int[] ends = new int[samples.size()];
+        int offset = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            byte[] sample = samples.get(i);
+            System.arraycopy(sample, 0, data, offset, sample.length);
+            offset += sample.length;
+            ends[i] = offset;
+        }
+
+        int[] frequency = countFrequencies(data, ends);
+        List<Segment> segments = new ArrayList<>();
+        int budget = dictionarySize;
+        int epochs = Math.max(1, Math.min(dictionarySize / segmentLength, data.length / segmentLength));
+        int epochSize = data.length / epochs;
+        for (int epoch = 0; epoch < epochs && budget > 0; epoch++) {
+            int from = epoch * epochSize;
+            int to = epoch == epochs - 1 ? data.length : from + epochSize;
+            Segment best = bestSegment(data, ends, from, to, frequency, Math.min(segmentLength, budget));
+            if (best == null) {
+                continue;
+            }
+            for (int pos = best.start(); pos + DMER_LENGTH <= best.end(); pos++) {
+                frequency[hash(data, pos)] = 0;
+            }
+            segments.add(best);
+            budget -= best.end() - best.start();
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Samples have no content in common");
+        }
+
+        // Лучшие сегменты — в конце словаря
+        segments.sort(Comparator.comparingLong(Segment::score));
+        byte[] content = new byte[dictionarySize - budget];
+        int pos = 0;
+        for (Segment segment : segments) {
+            int length = segment.end() - segment.start();
+            System.arraycopy(data, segment.start(), content, pos, length);
+            pos += length;
+        }
+        return new Dictionary(content);
+    }
+
+    /**
+     * Для каждого хеша последовательности — число образцов, в которых она встречается
+     */
+    private static int[] countFrequencies(byte[] data, int[] ends) {
+        int[] frequency = new int[1 << HASH_BITS];
+        int[] lastSample = new int[1 << HASH_BITS];
+        Arrays.fill(lastSample, -1);
+        int start = 0;
+        for (int i = 0; i < ends.length; i++) {
+            for (int pos = start; pos + DMER_LENGTH <= ends[i]; pos++) {
+                int h = hash(data, pos);
+                if (lastSample[h] != i) {
+                    lastSample[h] = i;
+                    frequency[h]++;
+                }
+            }
+            start = ends[i];
+        }
+        return frequency;
+    }
+
+    /**
+     * Сегмент эпохи [from, to) с наибольшей оценкой; сегменты не пересекают границы образцов
+     * @return лучший сегмент или null, если в эпохе нет общих с другими образцами фрагментов
+     */
+    private static Segment bestSegment(byte[] data, int[] ends, int from, int to, int[] frequency, int length) {
+        Segment best = null;
+        int sample = firstSampleEndingAfter(ends, from);
+        while (sample < ends.length && from < to) {
+            int end = Math.min(to, ends[sample]);
+            int window = Math.min(length, end - from);
+            if (window >= DMER_LENGTH) {
+                // Оценка окна — сумма частот последовательностей, целиком лежащих в нем
+                int dmers = window - DMER_LENGTH + 1;
+                long score = 0;
+                for (int pos = from; pos <= end - DMER_LENGTH; pos++) {
+                    score += weight(frequency, data, pos);
+                    int first = pos - dmers + 1;
+                    if (first > from) {
+                        score -= weight(frequency, data, first - 1);
+                    }
+                    if (first >= from && score > 0 && (best == null || score > best.score())) {
+                        best = new Segment(first, first + window, score);
+                    }
+                }
+            }
+            from = ends[sample++];
+        }
+        return best;
+    }
+
+    private static int firstSampleEndingAfter(int[] ends, int pos) {
+        int index = Arrays.binarySearch(ends, pos);
+        // Образец, заканчивающийся ровно в pos, уже пройден; пустые образцы пропускаются
+        index = index >= 0 ? index + 1 : -index - 1;
+        while (index < ends.length && ends[index] <= pos) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Частота последовательности; встречающиеся в одном образце не считаются
+     */
+    private static int weight(int[] frequency, byte[] data, int pos) {
+        int count = frequency[hash(data, pos)];
+        return count > 1 ? count : 0;
+    }
+
+    private static int hash(byte[] data, int pos) {
+        long value = (data[pos] & 0xFFL) << 40 | (data[pos + 1] & 0xFFL) << 32 | (data[pos + 2] & 0xFFL) << 24
+                | (data[pos + 3] & 0xFFL) << 16 | (data[pos + 4] & 0xFFL) << 8 | (data[pos + 5] & 0xFFL);
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - HASH_BITS));
+    }
+
+    /**
+     * Выбранный фрагмент образцов [start, end) и его оценка
+     */
+    private record Segment(int start, int end, long score) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.lz77.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Поиск совпадений на основе хеш-цепочек.
+ * Таблица head хранит последнюю позицию для каждого хеша первых трех байт,
+ * таблица prev связывает позиции с одинаковым хешем в пределах окна.
+ * При глубине цепочки не меньше размера окна результат совпадает
+ * с полным перебором (самое длинное совпадение с наименьшим смещением).
+ */
+public class HashChainMatchFinder extends AbstractMatchFinder {
+    private static final int MIN_HASHED_LENGTH = 3;
+    private static final int MIN_HASH_BITS = 15;
+    private static final int MAX_HASH_BITS = 22;
+
+    private final int chainMask;
+    private final int hashShift;
+    private final int maxChainDepth;
+    private final int niceLength;
+
+    private final int[] head;
+    private final int[] prev;
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param maxChainDepth максимальное число кандидатов, проверяемых в цепочке
+     */
+    public HashChainMatchFinder(int windowSize, int maxMatchLength, int maxChainDepth) {
+        this(windowSize, maxMatchLength, maxChainDepth, maxMatchLength);
+    }
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param maxChainDepth максимальное число кандидатов, проверяемых в цепочке
+     * @param niceLength длина совпадения, после которой поиск по цепочке прекращается
+     */
+    public HashChainMatchFinder(int windowSize, int maxMatchLength, int maxChainDepth, int niceLength) {
+        super(windowSize, maxMatchLength);
+        if (maxChainDepth <= 0) {
+            throw new IllegalArgumentException("Chain depth must be positive");
+        }
+        if (niceLength <= 0) {
+            throw new IllegalArgumentException("Nice length must be positive");
+        }
+        // Кольцо цепочек округляется до степени двойки, чтобы индексировать маской
+        int chainSize = Integer.highestOneBit(windowSize);
+        if (chainSize < windowSize) {
+            chainSize <<= 1;
+        }
+        // Таблица хешей растет вместе с окном, чтобы цепочки оставались короткими
+        int hashBits = Math.max(MIN_HASH_BITS, Math.min(MAX_HASH_BITS, Integer.numberOfTrailingZeros(chainSize)));
+        this.chainMask = chainSize - 1;
+        this.hashShift = 32 - hashBits;
+        this.maxChainDepth = maxChainDepth;
+        this.niceLength = Math.min(niceLength, maxMatchLength);
+        this.head = new int[1 << hashBits];
+        this.prev = new int[chainSize];
+        reset();
+    }
+
+    private HashChainMatchFinder(HashChainMatchFinder other) {
+        super(other);
+        this.chainMask = other.chainMask;
+        this.hashShift = other.hashShift;
+        this.maxChainDepth = other.maxChainDepth;
+        this.niceLength = other.niceLength;
+        this.head = other.head.clone();
+        this.prev = other.prev.clone();
+    }
+
+    @Override
+    public HashChainMatchFinder copy() {
+        return new HashChainMatchFinder(this);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(head, NIL);
+        Arrays.fill(prev, NIL);
+    }
+
+    /**
+     * Звенья цепочек восстанавливаются только для позиций [from, to): звено позиции
+     * из исходного состояния могло быть перезаписано, только если кольцо цепочек
+     * обернулось на одну из этих позиций
+     */
+    @Override
+    public void rewind(byte[] data, int from, int to, MatchFinder source) {
+        HashChainMatchFinder original = (HashChainMatchFinder) source;
+        rewindShortTables(data, from, to, original);
+        for (int pos = from; pos + MIN_HASHED_LENGTH <= to; pos++) {
+            int h = hash(data, pos);
+            int link = pos & chainMask;
+            head[h] = original == null ? NIL : original.head[h];
+            prev[link] = original == null ? NIL : original.prev[link];
+        }
+    }
+
+    @Override
+    public void slide(int delta) {
+        super.slide(delta);
+        slide(head, delta);
+        slide(prev, delta);
+    }
+
+    @Override
+    public long findLongestMatch(byte[] data, int pos, int limit) {
+        int maxLength = Math.min(maxMatchLength, limit - pos);
+        long match = 0;
+
+        if (maxLength >= MIN_HASHED_LENGTH) {
+            match = searchChain(data, pos, maxLength);
+        }
+        if (MatchFinder.length(match) < MIN_HASHED_LENGTH && maxLength > 0) {
+            match = findShortMatch(data, pos, maxLength);
+        }
+
+        skip(data, pos, limit);
+        return match;
+    }
+
+    @Override
+    public void skip(byte[] data, int pos, int limit) {
+        updateShortTables(data, pos, limit);
+        if (pos + MIN_HASHED_LENGTH <= limit) {
+            int h = hash(data, pos);
+            prev[pos & chainMask] = head[h];
+            head[h] = pos;
+        }
+    }
+
+    private long searchChain(byte[] data, int pos, int maxLength) {
+        int minPos = pos - windowSize;
+        int bestLength = 0;
+        int bestOffset = 0;
+        int candidate = head[hash(data, pos)];
+        int depth = maxChainDepth;
+
+        while (candidate != NIL && candidate >= minPos && depth-- > 0) {
+            probes++;
+            // Быстрая проверка байта, который должен улучшить текущий результат
+            if (data[candidate + bestLength] == data[pos + bestLength]) {
+                int length = matchLength(data, candidate, pos, maxLength);
+                if (length > bestLength) {
+                    bestLength = length;
+                    bestOffset = pos - candidate;
+                    // Достаточно длинное совпадение: остальные кандидаты не проверяем
+                    if (length >= niceLength || length == maxLength) {
+                        break;
+                    }
+                }
+            }
+            int next = prev[candidate & chainMask];
+            if (next >= candidate) {
+                break;
+            }
+            candidate = next;
+        }
+        return MatchFinder.match(bestOffset, bestLength);
+    }
+
+    private int hash(byte[] data, int pos) {
+        int value = (data[pos] & 0xFF) << 16 | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF);
+        return (value * 0x9E3779B1) >>> hashShift;
+    }
+}
@@ -1,51 +1,471 @@
 package com.lz77.algorithm;
 
+import com.lz77.jfr.CompressEvent;
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
-import java.util.ArrayList;
+import com.lz77.model.TokenBuffer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class LZ77Compressor {
+    /**
+     * Размер окна по умолчанию
+     */
     public static final int WINDOW_SIZE = 1024;
     private static final int LOOKAHEAD_BUFFER_SIZE = 256;
 
+    /**
+     * Допустимые размеры окна: степени двойки в этих пределах
+     */
+    public static final int MIN_WINDOW_SIZE = 1 << 4;
+    public static final int MAX_WINDOW_SIZE = 1 << 26;
+
+    /**
+     * Максимальная длина совпадения, которую можно задать
+     */
+    public static final int MAX_MATCH_LENGTH = 1 << 16;
+
+    /**
+     * Глубина по умолчанию покрывает все окно: результат совпадает с полным перебором
+     */
+    public static final int DEFAULT_CHAIN_DEPTH = WINDOW_SIZE;
+
+    /**
+     * Уровни сжатия: 1 — самый быстрый, 9 — самое сильное сжатие
+     */
+    public static final int MIN_LEVEL = 1;
+    public static final int MAX_LEVEL = 9;
+    public static final int DEFAULT_LEVEL = 6;
+
+    /**
+     * Наибольшее число позиций, на которое можно отложить совпадение
+     */
+    public static final int MAX_LAZY_DEPTH = 2;
+
+    // Параметры уровней: глубина поиска, niceLength и отложенный выбор совпадения.
+    // Глубина 0 означает все окно, niceLength 0 — максимальную длину совпадения.
+    private static final int[][] LEVELS = {
+            {4, 16, 0},
+            {8, 32, 0},
+            {16, 32, 0},
+            {16, 32, 1},
+            {32, 64, 1},
+            {64, 128, 1},
+            {128, 128, 2},
+            {512, 256, 2},
+            {0, 0, 2},
+    };
+
+    // Позиции в конце словаря, которым для вставки в структуру поиска нужны байты
+    // сообщения: хеш-цепочкам нужно три байта, двоичным деревьям — четыре
+    private static final int DICTIONARY_TAIL = 3;
+
+    // Сообщения со словарем до этого размера сжимаются в запасном контексте компрессора;
+    // больший буфер контекст бы удерживал, а таблицы на их фоне копируются незаметно
+    private static final int SPARE_CONTEXT_INPUT_SIZE = 1 << 20;
+
+    private final int windowSize;
+    private final int maxMatchLength;
+    private final MatchFinderType matchFinderType;
+    private final int searchDepth;
+    private final int niceLength;
+    private final int lazyDepth;
+    // Уровень, из которого получены параметры, или 0 для заданных вручную
+    private final int level;
+    // Структура поиска, заполненная последним словарем; контексты копируют ее при смене словаря
+    // и откатываются к ней после каждого сообщения
+    private volatile PrimedMatchFinder primed;
+    // Контекст для сжатия со словарем, который откатывает структуру поиска вместо
+    // копирования; одновременные вызовы, не заставшие его, создают свои
+    private final AtomicReference<CompressionContext> spareContext = new AtomicReference<>();
+
+    public LZ77Compressor() {
+        this(DEFAULT_CHAIN_DEPTH);
+    }
+
+    /**
+     * @param maxChainDepth максимальное число кандидатов, проверяемых в хеш-цепочке
+     */
+    public LZ77Compressor(int maxChainDepth) {
+        this(MatchFinderType.HASH_CHAIN, maxChainDepth);
+    }
+
+    /**
+     * @param matchFinderType реализация поиска совпадений
+     * @param searchDepth глубина поиска (длина цепочки или число узлов дерева)
+     */
+    public LZ77Compressor(MatchFinderType matchFinderType, int searchDepth) {
+        this(WINDOW_SIZE, LOOKAHEAD_BUFFER_SIZE, matchFinderType, searchDepth);
+    }
+
+    /**
+     * @param windowSize размер окна поиска (степень двойки)
+     * @param maxMatchLength максимальная длина совпадения
+     */
+    public LZ77Compressor(int windowSize, int maxMatchLength) {
+        this(windowSize, maxMatchLength, MatchFinderType.HASH_CHAIN, DEFAULT_CHAIN_DEPTH);
+    }
+
+    /**
+     * @param windowSize размер окна поиска (степень двойки)
+     * @param maxMatchLength максимальная длина совпадения
+     * @param matchFinderType реализация поиска совпадений
+     * @param searchDepth глубина поиска (длина цепочки или число узлов дерева)
+     */
+    public LZ77Compressor(int windowSize, int maxMatchLength, MatchFinderType matchFinderType, int searchDepth) {
+        this(windowSize, maxMatchLength, matchFinderType, searchDepth, maxMatchLength, 0);
+    }
+
+    /**
+     * @param windowSize размер окна поиска (степень двойки)
+     * @param maxMatchLength максимальная длина совпадения
+     * @param matchFinderType реализация поиска совпадений
+     * @param searchDepth глубина поиска (длина цепочки или число узлов дерева)
+     * @param niceLength длина совпадения, после которой поиск прекращается досрочно
+     *                   и совпадение берется без отложенного выбора
+     * @param lazyDepth на сколько позиций вперед (0–2) проверяется, не начинается ли
+     *                  там более длинное совпадение; 0 — жадный разбор
+     */
+    public LZ77Compressor(int windowSize, int maxMatchLength, MatchFinderType matchFinderType, int searchDepth,
+                          int niceLength, int lazyDepth) {
+        this(windowSize, maxMatchLength, matchFinderType, searchDepth, niceLength, lazyDepth, 0);
+    }
+
+    private LZ77Compressor(int windowSize, int maxMatchLength, MatchFinderType matchFinderType, int searchDepth,
+                           int niceLength, int lazyDepth, int level) {
+        if (windowSize < MIN_WINDOW_SIZE || windowSize > MAX_WINDOW_SIZE || Integer.bitCount(windowSize) != 1) {
+            throw new IllegalArgumentException("Window size must be a power of two between "
+                    + MIN_WINDOW_SIZE + " and " + MAX_WINDOW_SIZE);
+        }
+        if (maxMatchLength <= 0 || maxMatchLength > MAX_MATCH_LENGTH) {
+            throw new IllegalArgumentException("Max match length must be between 1 and " + MAX_MATCH_LENGTH);
+        }
+        if (matchFinderType == null) {
+            throw new IllegalArgumentException("Match finder type cannot be null");
+        }
+        if (searchDepth <= 0) {
+            throw new IllegalArgumentException("Search depth must be positive");
+        }
+        if (niceLength <= 0) {
+            throw new IllegalArgumentException("Nice length must be positive");
+        }
+        if (lazyDepth < 0 || lazyDepth > MAX_LAZY_DEPTH) {
+            throw new IllegalArgumentException("Lazy depth must be between 0 and " + MAX_LAZY_DEPTH);
+        }
+        this.windowSize = windowSize;
+        this.maxMatchLength = maxMatchLength;
+        this.matchFinderType = matchFinderType;
+        this.searchDepth = searchDepth;
+        this.niceLength = Math.min(niceLength, maxMatchLength);
+        this.lazyDepth = lazyDepth;
+        this.level = level;
+    }
+
+    /**
+     * Компрессор с параметрами уровня сжатия и окном по умолчанию
+     * @param level уровень от {@link #MIN_LEVEL} до {@link #MAX_LEVEL}
+     */
+    public static LZ77Compressor ofLevel(int level) {
+        return ofLevel(level, WINDOW_SIZE, LOOKAHEAD_BUFFER_SIZE);
+    }
+
+    /**
+     * Компрессор с параметрами уровня сжатия. Быстрые уровни ищут по короткой цепочке
+     * и берут первое найденное совпадение, старшие уровни ищут глубже и откладывают
+     * совпадение на одну-две позиции, если дальше начинается более длинное.
+     * @param level уровень от {@link #MIN_LEVEL} до {@link #MAX_LEVEL}
+     * @param windowSize размер окна поиска (степень двойки)
+     * @param maxMatchLength максимальная длина совпадения
+     */
+    public static LZ77Compressor ofLevel(int level, int windowSize, int maxMatchLength) {
+        if (level < MIN_LEVEL || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Compression level must be between " + MIN_LEVEL + " and " + MAX_LEVEL);
+        }
+        int[] preset = LEVELS[level - MIN_LEVEL];
+        int depth = preset[0] == 0 ? windowSize : Math.min(preset[0], windowSize);
+        int nice = preset[1] == 0 ? maxMatchLength : preset[1];
+        return new LZ77Compressor(windowSize, maxMatchLength, MatchFinderType.HASH_CHAIN, depth, nice, preset[2], level);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMaxMatchLength() {
+        return maxMatchLength;
+    }
+
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+
+    public int getNiceLength() {
+        return niceLength;
+    }
+
+    public int getLazyDepth() {
+        return lazyDepth;
+    }
+
+    /**
+     * @return уровень сжатия, если компрессор создан через {@link #ofLevel}, иначе 0
+     */
+    public int getLevel() {
+        return level;
+    }
+
     public List<Token> compress(byte[] input) {
-        List<Token> tokens = new ArrayList<>();
-        int pos = 0;
+        TokenBuffer tokens = new TokenBuffer();
+        compress(input, tokens);
+        return tokens.toList();
+    }
 
-        while (pos < input.length) {
-            int maxLength = 0;
-            int bestOffset = 0;
-            int end = Math.min(pos + LOOKAHEAD_BUFFER_SIZE, input.length);
+    /**
+     * Сжатие без создания объекта на каждый токен
+     * @param tokens буфер, в конец которого добавляются токены
+     */
+    public void compress(byte[] input, TokenBuffer tokens) {
+        CompressEvent event = new CompressEvent();
+        event.begin();
+        int first = tokens.size();
+        MatchFinder matchFinder = newMatchFinder();
+        encode(input, 0, input.length, input.length, matchFinder, tokens::add);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(LZ77Compressor.class.getSimpleName(), level, windowSize, null,
+                    collectStats(input.length, tokens, first, matchFinder.getProbes()).toMetrics(CompressionMetrics.UNKNOWN, 0));
+        }
+    }
+
+    /**
+     * Сжатие с измерениями. Токены не сериализуются, поэтому сжатый размер
+     * в измерениях неизвестен; все время относится к поиску совпадений.
+     * @param tokens буфер, в конец которого добавляются токены
+     * @param listener получатель измерений
+     */
+    public void compress(byte[] input, TokenBuffer tokens, CompressionListener listener) {
+        CompressEvent event = new CompressEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int first = tokens.size();
+        MatchFinder matchFinder = newMatchFinder();
+        encode(input, 0, input.length, input.length, matchFinder, tokens::add);
+        long elapsed = System.nanoTime() - start;
+        event.end();
+
+        CompressionStats stats = collectStats(input.length, tokens, first, matchFinder.getProbes());
+        stats.addMatchFinding(elapsed);
+        CompressionMetrics metrics = stats.toMetrics(CompressionMetrics.UNKNOWN, elapsed);
+        if (event.shouldCommit()) {
+            event.commit(LZ77Compressor.class.getSimpleName(), level, windowSize, null, metrics);
+        }
+        listener.onCompressed(metrics);
+    }
+
+    public List<Token> compress(byte[] input, Dictionary dictionary) {
+        TokenBuffer tokens = new TokenBuffer();
+        compress(input, dictionary, tokens);
+        return tokens.toList();
+    }
+
+    /**
+     * Сжатие со словарем: перед данными в окне находится окончание словаря,
+     * поэтому совпадения есть уже в начале короткого сообщения. Словарь вставляется
+     * в структуру поиска один раз; сжатие работает в контексте, который после сообщения
+     * откатывает затронутые записи (см. {@link CompressionContext}), а не копирует таблицы.
+     * Распаковывать нужно с тем же словарем и тем же размером окна.
+     * @param dictionary словарь или null для сжатия без словаря
+     * @param tokens буфер, в конец которого добавляются токены
+     */
+    public void compress(byte[] input, Dictionary dictionary, TokenBuffer tokens) {
+        if (dictionary == null) {
+            compress(input, tokens);
+            return;
+        }
+        CompressEvent event = new CompressEvent();
+        event.begin();
+        int first = tokens.size();
+        boolean spare = input.length <= SPARE_CONTEXT_INPUT_SIZE;
+        CompressionContext context = spare ? spareContext.getAndSet(null) : null;
+        if (context == null) {
+            context = new CompressionContext(this);
+        }
+        long probes;
+        try {
+            probes = context.encode(input, 0, input.length, dictionary,
+                    (data, start, end, matchFinder) -> encode(data, start, end, end, matchFinder, tokens::add));
+        } finally {
+            if (spare) {
+                spareContext.compareAndSet(null, context);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(LZ77Compressor.class.getSimpleName(), level, windowSize, null,
+                    collectStats(input.length, tokens, first, probes).toMetrics(CompressionMetrics.UNKNOWN, 0));
+        }
+    }
+
+    /**
+     * Измерения по токенам буфера, начиная с first
+     */
+    static CompressionStats collectStats(int inputLength, TokenBuffer tokens, int first, long probes) {
+        CompressionStats stats = new CompressionStats();
+        stats.addInput(inputLength);
+        for (int i = first; i < tokens.size(); i++) {
+            if (tokens.length(i) == 0) {
+                stats.addLiterals(1);
+            } else {
+                stats.addMatch(tokens.length(i));
+            }
+        }
+        stats.addProbes(probes);
+        return stats;
+    }
+
+    /**
+     * Создает структуру поиска совпадений с параметрами этого компрессора
+     */
+    public MatchFinder newMatchFinder() {
+        return matchFinderType.create(windowSize, maxMatchLength, searchDepth, niceLength);
+    }
+
+    /**
+     * Создает структуру поиска, в которую уже вставлены позиции доступной в окне части
+     * словаря (см. {@link Dictionary#prepend}), кроме последних: их вставляет
+     * {@link #insertDictionaryTail}, когда за словарем уже лежат данные сообщения.
+     * Структура для последнего словаря хранится в компрессоре, поэтому для потока
+     * сообщений с одним словарем каждый вызов только копирует таблицы.
+     * @param dictionary словарь или null
+     */
+    public MatchFinder newMatchFinder(Dictionary dictionary) {
+        if (dictionary == null) {
+            return newMatchFinder();
+        }
+        return primedMatchFinder(dictionary).copy();
+    }
+
+    /**
+     * Общая структура поиска с позициями словаря; менять ее нельзя, только копировать
+     */
+    MatchFinder primedMatchFinder(Dictionary dictionary) {
+        PrimedMatchFinder current = primed;
+        if (current == null || current.dictionary() != dictionary) {
+            byte[] window = dictionary.prepend(windowSize, new byte[0], 0, 0);
+            MatchFinder matchFinder = newMatchFinder();
+            for (int pos = 0; pos < window.length - DICTIONARY_TAIL; pos++) {
+                matchFinder.skip(window, pos, window.length);
+            }
+            current = new PrimedMatchFinder(dictionary, matchFinder);
+            primed = current;
+        }
+        return current.matchFinder();
+    }
+
+    /**
+     * Вставляет в структуру из {@link #newMatchFinder(Dictionary)} последние позиции
+     * словаря. Без данных сообщения им не хватает байт для хеша, и совпадения, которые
+     * начинаются в конце словаря и продолжаются в сообщении, не находились бы.
+     * @param data окончание словаря в [0, base), за ним данные до limit
+     * @param base начало данных сообщения
+     * @return первая вставленная позиция: с нее структура отличается от исходной
+     */
+    public int insertDictionaryTail(MatchFinder matchFinder, byte[] data, int base, int limit) {
+        int from = Math.max(0, base - DICTIONARY_TAIL);
+        for (int pos = from; pos < base; pos++) {
+            matchFinder.skip(data, pos, limit);
+        }
+        return from;
+    }
+
+    /**
+     * Словарь и структура поиска с его позициями; структура после создания не меняется
+     */
+    private record PrimedMatchFinder(Dictionary dictionary, MatchFinder matchFinder) {
+    }
+
+    /**
+     * Кодирует позиции буфера, начиная с pos, пока pos меньше end.
+     * Данные доступны до limit; при потоковом сжатии между end и limit должно
+     * оставаться не меньше maxMatchLength + 1 байт, чтобы совпадение и следующий
+     * символ целиком помещались в буфер.
+     * При отложенном выборе совпадения заглядывание вперед не выходит за end,
+     * поэтому каждая позиция передается структуре поиска ровно один раз.
+     * @return позиция, с которой нужно продолжить (может быть больше end)
+     */
+    public int encode(byte[] data, int pos, int end, int limit, MatchFinder matchFinder, TokenSink sink) {
+        // Уже найденные совпадения для позиций pos, pos + 1 и pos + 2
+        long match = 0;
+        long next = 0;
+        long second = 0;
+        int searched = 0;
 
+        while (pos < end) {
             // Поиск наилучшего совпадения в скользящем окне
-            for (int offset = 1; offset <= Math.min(WINDOW_SIZE, pos); offset++) {
-                int length = 0;
-                while (pos + length < end
-                        && input[pos + length] == input[pos - offset + length]) {
-                    length++;
-                }
+            if (searched == 0) {
+                match = matchFinder.findLongestMatch(data, pos, limit);
+                searched = 1;
+            }
+            int maxLength = MatchFinder.length(match);
 
-                if (length > maxLength) {
-                    maxLength = length;
-                    bestOffset = offset;
+            if (lazyDepth > 0 && maxLength > 0 && maxLength < niceLength) {
+                if (searched == 1 && pos + 1 < end) {
+                    next = matchFinder.findLongestMatch(data, pos + 1, limit);
+                    searched = 2;
+                }
+                // Со следующей позиции начинается более длинное совпадение: текущий байт — литерал
+                if (searched >= 2 && MatchFinder.length(next) > maxLength) {
+                    sink.accept(0, 0, data[pos]);
+                    pos++;
+                    match = next;
+                    next = second;
+                    searched--;
+                    continue;
+                }
+                if (lazyDepth > 1 && searched == 2 && pos + 2 < end) {
+                    second = matchFinder.findLongestMatch(data, pos + 2, limit);
+                    searched = 3;
+                }
+                // Совпадение через позицию должно окупить два литерала
+                if (searched == 3 && MatchFinder.length(second) > maxLength + 1) {
+                    sink.accept(0, 0, data[pos]);
+                    sink.accept(0, 0, data[pos + 1]);
+                    pos += 2;
+                    match = second;
+                    searched = 1;
+                    continue;
                 }
             }
 
+            int bestOffset = MatchFinder.offset(match);
+            int step;
+
             if (maxLength > 0) {
                 // Не добавляем nextChar если это конец данных
-                byte nextChar = pos + maxLength < input.length ? input[pos + maxLength] : 0;
-                if (nextChar != 0 || pos + maxLength < input.length) {
-                    tokens.add(new Token(bestOffset, maxLength, nextChar));
-                } else {
-                    tokens.add(new Token(bestOffset, maxLength, (byte)0));
-                }
-                pos += maxLength + (nextChar != 0 ? 1 : 0);
+                byte nextChar = pos + maxLength < limit ? data[pos + maxLength] : 0;
+                sink.accept(bestOffset, maxLength, nextChar);
+                step = maxLength + (nextChar != 0 ? 1 : 0);
+            } else {
+                sink.accept(0, 0, data[pos]);
+                step = 1;
+            }
+
+            // Все пройденные позиции попадают в структуру поиска
+            for (int i = searched; i < step; i++) {
+                matchFinder.skip(data, pos + i, limit);
+            }
+            // Найденные заранее совпадения за концом токена используются дальше
+            if (step < searched) {
+                match = step == 1 ? next : second;
+                next = second;
+                searched -= step;
             } else {
-                tokens.add(new Token(0, 0, input[pos]));
-                pos++;
+                searched = 0;
             }
+            pos += step;
         }
 
-        return tokens;
+        return pos;
     }
-}
\ No newline at end of file
+}
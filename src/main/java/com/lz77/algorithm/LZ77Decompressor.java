@@ -1,41 +1,195 @@
 package com.lz77.algorithm;
 
+import com.lz77.jfr.DecompressEvent;
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Objects;
 
 public class LZ77Decompressor {
+    private final int windowSize;
+
+    public LZ77Decompressor() {
+        this(LZ77Compressor.WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize размер окна, с которым были сжаты данные (из заголовка файла)
+     */
+    public LZ77Decompressor(int windowSize) {
+        if (windowSize < LZ77Compressor.MIN_WINDOW_SIZE || windowSize > LZ77Compressor.MAX_WINDOW_SIZE
+                || Integer.bitCount(windowSize) != 1) {
+            throw new IllegalArgumentException("Window size must be a power of two between "
+                    + LZ77Compressor.MIN_WINDOW_SIZE + " and " + LZ77Compressor.MAX_WINDOW_SIZE);
+        }
+        this.windowSize = windowSize;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
 
     public byte[] decompress(List<Token> tokens) {
-        int outputSize = calculateOutputSize(tokens);
-        byte[] output = new byte[outputSize];
-        int outputPos = 0;
+        return decompress(TokenBuffer.of(tokens));
+    }
+
+    /**
+     * Распаковка в новый массив. Размер результата заранее неизвестен,
+     * поэтому токены просматриваются дважды; если размер известен (например,
+     * из заголовка файла), лучше распаковать в готовый массив.
+     */
+    public byte[] decompress(TokenBuffer tokens) {
+        long size = decodedSize(tokens);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Decompressed data too large for an array: " + size);
+        }
+        byte[] output = new byte[(int) Math.max(size, 0)];
+        decompress(tokens, output, 0);
+        return output;
+    }
+
+    /**
+     * Распаковка за один проход в массив вызывающего кода (например, из пула буферов)
+     * @param dst массив для результата
+     * @param dstOffset позиция в dst, с которой пишется результат
+     * @return число распакованных байт
+     * @throws IllegalStateException если токены некорректны или результат не помещается в dst
+     */
+    public int decompress(TokenBuffer tokens, byte[] dst, int dstOffset) {
+        return decompress(tokens, null, dst, dstOffset);
+    }
+
+    public byte[] decompress(List<Token> tokens, Dictionary dictionary) {
+        return decompress(TokenBuffer.of(tokens), dictionary);
+    }
+
+    /**
+     * Распаковка данных, сжатых со словарем, в новый массив
+     * @param dictionary тот же словарь, что и при сжатии, или null
+     */
+    public byte[] decompress(TokenBuffer tokens, Dictionary dictionary) {
+        long size = decodedSize(tokens);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Decompressed data too large for an array: " + size);
+        }
+        byte[] output = new byte[(int) Math.max(size, 0)];
+        decompress(tokens, dictionary, output, 0);
+        return output;
+    }
+
+    /**
+     * Распаковка данных, сжатых со словарем, в массив вызывающего кода.
+     * Совпадения, уходящие за начало результата, копируются из окончания словаря,
+     * поэтому словарь не копируется перед результатом.
+     * @param dictionary тот же словарь, что и при сжатии, или null
+     * @param dst массив для результата
+     * @param dstOffset позиция в dst, с которой пишется результат
+     * @return число распакованных байт
+     * @throws IllegalStateException если токены некорректны или результат не помещается в dst
+     */
+    public int decompress(TokenBuffer tokens, Dictionary dictionary, byte[] dst, int dstOffset) {
+        Objects.checkFromToIndex(dstOffset, dst.length, dst.length);
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        ByteBuffer history = dictionary == null ? null : dictionary.window(windowSize);
+        int historyLength = history == null ? 0 : history.remaining();
+        int outputPos = dstOffset;
 
-        for (Token token : tokens) {
-            if (token.offset() == 0) {
-                output[outputPos++] = token.nextChar();
+        for (int t = 0; t < tokens.size(); t++) {
+            int offset = tokens.offset(t);
+            byte nextChar = tokens.nextChar(t);
+            if (offset == 0) {
+                checkSpace(dst, outputPos, 1);
+                dst[outputPos++] = nextChar;
             } else {
+                int produced = outputPos - dstOffset;
+                if (offset > windowSize || offset > produced + historyLength) {
+                    throw new IllegalStateException("Invalid token: offset " + offset + " is outside the window");
+                }
                 // Копирование совпадающей последовательности
-                int startPos = outputPos - token.offset();
-                for (int i = 0; i < token.length(); i++) {
-                    output[outputPos++] = output[startPos + i];
+                int length = tokens.length(t);
+                if (length < 0) {
+                    throw new IllegalStateException("Invalid token: negative length " + length);
+                }
+                checkSpace(dst, outputPos, length);
+                if (offset > produced) {
+                    // Начало совпадения в словаре, остаток — уже в результате
+                    int fromHistory = Math.min(length, offset - produced);
+                    history.get(historyLength - (offset - produced), dst, outputPos, fromHistory);
+                    MatchCopy.copy(dst, outputPos + fromHistory, offset, length - fromHistory);
+                } else {
+                    MatchCopy.copy(dst, outputPos, offset, length);
                 }
-                // Добавляем следующий символ, если он есть (даже если нулевой)
-                if (outputPos < output.length && token.nextChar() != 0) {
-                    output[outputPos++] = token.nextChar();
+                outputPos += length;
+                // Добавляем следующий символ, если он есть
+                if (nextChar != 0) {
+                    checkSpace(dst, outputPos, 1);
+                    dst[outputPos++] = nextChar;
                 }
             }
         }
-        return output;
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(LZ77Decompressor.class.getSimpleName(), windowSize, -1, outputPos - dstOffset, 0);
+        }
+        return outputPos - dstOffset;
     }
 
-    private int calculateOutputSize(List<Token> tokens) {
-        int size = 0;
-        for (Token token : tokens) {
-            size += token.length();
-            if (token.offset() == 0 || token.nextChar() != 0) {
+    public long decompress(List<Token> tokens, OutputStream out) throws IOException {
+        return decompress(TokenBuffer.of(tokens), out);
+    }
+
+    /**
+     * Распаковка в поток: в памяти хранится только окно истории, а не весь результат
+     * @return число распакованных байт
+     */
+    public long decompress(TokenBuffer tokens, OutputStream out) throws IOException {
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        RingBuffer history = new RingBuffer(windowSize, out);
+        for (int t = 0; t < tokens.size(); t++) {
+            int offset = tokens.offset(t);
+            byte nextChar = tokens.nextChar(t);
+            if (offset == 0) {
+                history.write(nextChar);
+            } else {
+                history.copy(offset, tokens.length(t));
+                if (nextChar != 0) {
+                    history.write(nextChar);
+                }
+            }
+        }
+        history.flush();
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(LZ77Decompressor.class.getSimpleName(), windowSize, -1, history.position(), 0);
+        }
+        return history.position();
+    }
+
+    /**
+     * Размер распакованных данных: совпадение дает length байт и еще один,
+     * если следующий символ не нулевой; литерал дает один байт
+     */
+    public static long decodedSize(TokenBuffer tokens) {
+        long size = 0;
+        for (int t = 0; t < tokens.size(); t++) {
+            size += tokens.length(t);
+            if (tokens.offset(t) == 0 || tokens.nextChar(t) != 0) {
                 size += 1;
             }
         }
         return size;
     }
-}
\ No newline at end of file
+
+    private static void checkSpace(byte[] dst, int pos, int length) {
+        if (length > dst.length - pos) {
+            throw new IllegalStateException("Output buffer too small for decompressed data");
+        }
+    }
+}
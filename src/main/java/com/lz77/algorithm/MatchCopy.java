@@ -0,0 +1,94 @@
+package com.lz77.algorithm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Копирование совпадения при распаковке.
+ * При большом расстоянии совпадение копируется через {@link System#arraycopy}
+ * порциями не длиннее расстояния до источника; скопированная часть периодична
+ * с периодом offset, поэтому после каждой порции расстояние удваивается.
+ * Короткие совпадения и малые расстояния копируются словами по 8 байт:
+ * при малом offset источник берется на ближайшем кратном offset
+ * расстоянии не меньше 16, чтобы слово источника было уже записано.
+ */
+public final class MatchCopy {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // С этого расстояния и длины выгоднее копировать через arraycopy
+    private static final int BULK_COPY = 32;
+    // Слово источника читается не ближе двух слов до приемника: чтение слова,
+    // частично перекрывающего только что записанное, ждет завершения записи
+    private static final int MIN_WORD_DISTANCE = 2 * Long.BYTES;
+
+    private MatchCopy() {
+    }
+
+    /**
+     * Копирует length байт с позиции pos - offset на позицию pos.
+     * Границы проверяет вызывающий код.
+     */
+    public static void copy(byte[] buffer, int pos, int offset, int length) {
+        int src = pos - offset;
+        if (offset >= BULK_COPY && length > BULK_COPY) {
+            int end = pos + length;
+            while (pos < end) {
+                int n = Math.min(end - pos, pos - src);
+                System.arraycopy(buffer, src, buffer, pos, n);
+                pos += n;
+            }
+            return;
+        }
+        int distance = wordDistance(offset);
+        int i = Math.min(length, distance - offset);
+        for (int j = 0; j < i; j++) {
+            buffer[pos + j] = buffer[src + j];
+        }
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            LONGS.set(buffer, pos + i, (long) LONGS.get(buffer, pos - distance + i));
+        }
+        for (; i < length; i++) {
+            buffer[pos + i] = buffer[src + i];
+        }
+    }
+
+    /**
+     * Копирует length байт с индекса pos - offset на индекс pos буфера
+     * (например, отображенного в память файла); позиция буфера не меняется.
+     */
+    public static void copy(ByteBuffer buffer, int pos, int offset, int length) {
+        int src = pos - offset;
+        if (offset >= BULK_COPY && length > BULK_COPY) {
+            int end = pos + length;
+            while (pos < end) {
+                // Порции не перекрываются с источником, поэтому семантика put для одного буфера не важна
+                int n = Math.min(end - pos, pos - src);
+                buffer.put(pos, buffer, src, n);
+                pos += n;
+            }
+            return;
+        }
+        int distance = wordDistance(offset);
+        int i = Math.min(length, distance - offset);
+        for (int j = 0; j < i; j++) {
+            buffer.put(pos + j, buffer.get(src + j));
+        }
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            buffer.putLong(pos + i, buffer.getLong(pos - distance + i));
+        }
+        for (; i < length; i++) {
+            buffer.put(pos + i, buffer.get(src + i));
+        }
+    }
+
+    /**
+     * Наименьшее кратное offset расстояние не меньше {@link #MIN_WORD_DISTANCE}.
+     * Первые distance - offset байт копируются побайтно, дальше байты
+     * на этом расстоянии совпадают.
+     */
+    private static int wordDistance(int offset) {
+        return offset >= MIN_WORD_DISTANCE ? offset : (MIN_WORD_DISTANCE + offset - 1) / offset * offset;
+    }
+}
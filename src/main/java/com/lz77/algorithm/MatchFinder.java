@@ -0,0 +1,80 @@
+package com.lz77.algorithm;
+
+/**
+ * Структура поиска совпадений в окне LZ77.
+ * Позиции передаются строго по порядку: для каждой позиции вызывается либо
+ * {@link #findLongestMatch}, либо {@link #skip} ровно один раз.
+ * Результат поиска упакован в long, чтобы горячий цикл ничего не выделял.
+ */
+public interface MatchFinder {
+
+    /**
+     * Очищает структуру перед обработкой новых данных
+     */
+    void reset();
+
+    /**
+     * Ищет самое длинное совпадение для позиции pos и добавляет ее в структуру
+     * @param data буфер с данными
+     * @param pos текущая позиция
+     * @param limit конец доступных данных в буфере
+     * @return упакованный результат, см. {@link #offset(long)} и {@link #length(long)}
+     */
+    long findLongestMatch(byte[] data, int pos, int limit);
+
+    /**
+     * Добавляет позицию в структуру без поиска совпадения
+     */
+    void skip(byte[] data, int pos, int limit);
+
+    /**
+     * Сдвигает все сохраненные позиции на delta назад, когда буфер данных
+     * сдвигается при потоковом сжатии. Позиции, ставшие отрицательными, забываются.
+     * @param delta величина сдвига, кратная размеру окна
+     */
+    void slide(int delta);
+
+    /**
+     * @return число кандидатов, проверенных с момента создания структуры
+     */
+    long getProbes();
+
+    /**
+     * Независимая копия структуры с теми же позициями, например заполненной
+     * словарем заранее: копирование таблиц стоит не больше их очистки при создании
+     * новой структуры. Счетчик проверенных кандидатов у копии начинается с нуля.
+     */
+    MatchFinder copy();
+
+    /**
+     * Возвращает структуру в состояние source (или в пустое, если source равен null),
+     * если после этого состояния в нее добавлялись только позиции [from, to) массива
+     * data, сам data с тех пор не менялся, а {@link #slide} не вызывался.
+     * Восстанавливаются только записи, которые могли измениться, поэтому стоимость
+     * пропорциональна to - from, а не размеру таблиц: переиспользуемая структура
+     * для коротких сообщений обходится дешевле новой.
+     * @param source структура того же типа и с теми же параметрами или null
+     */
+    void rewind(byte[] data, int from, int to, MatchFinder source);
+
+    /**
+     * @return смещение из упакованного результата поиска
+     */
+    static int offset(long match) {
+        return (int) (match >>> 32);
+    }
+
+    /**
+     * @return длина из упакованного результата поиска
+     */
+    static int length(long match) {
+        return (int) match;
+    }
+
+    /**
+     * Упаковывает смещение и длину в одно значение
+     */
+    static long match(int offset, int length) {
+        return ((long) offset << 32) | length;
+    }
+}
@@ -0,0 +1,43 @@
+package com.lz77.algorithm;
+
+/**
+ * Доступные реализации поиска совпадений
+ */
+public enum MatchFinderType {
+    /**
+     * Хеш-цепочки: быстрый поиск для небольших окон
+     */
+    HASH_CHAIN {
+        @Override
+        public MatchFinder create(int windowSize, int maxMatchLength, int depth, int niceLength) {
+            return new HashChainMatchFinder(windowSize, maxMatchLength, depth, niceLength);
+        }
+    },
+
+    /**
+     * Двоичное дерево (в стиле BT4): O(log окна) на позицию для больших окон
+     */
+    BINARY_TREE {
+        @Override
+        public MatchFinder create(int windowSize, int maxMatchLength, int depth, int niceLength) {
+            return new BinaryTreeMatchFinder(windowSize, maxMatchLength, depth, niceLength);
+        }
+    };
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param depth глубина поиска (длина цепочки или число узлов дерева)
+     */
+    public MatchFinder create(int windowSize, int maxMatchLength, int depth) {
+        return create(windowSize, maxMatchLength, depth, maxMatchLength);
+    }
+
+    /**
+     * @param windowSize размер окна поиска
+     * @param maxMatchLength максимальная длина совпадения
+     * @param depth глубина поиска (длина цепочки или число узлов дерева)
+     * @param niceLength длина совпадения, при которой поиск прекращается досрочно
+     */
+    public abstract MatchFinder create(int windowSize, int maxMatchLength, int depth, int niceLength);
+}
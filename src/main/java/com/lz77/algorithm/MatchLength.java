@@ -0,0 +1,53 @@
+package com.lz77.algorithm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Вычисление длины совпадения: байты сравниваются словами по 8 байт через
+ * {@link VarHandle}, а первое несовпадение находится по младшему ненулевому
+ * биту XOR. Длинные совпадения дочитываются {@link Arrays#mismatch}, который
+ * JIT заменяет векторным сравнением по 32–64 байта.
+ */
+final class MatchLength {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // После стольких совпавших байт совпадение, скорее всего, длинное
+    private static final int VECTOR_THRESHOLD = 32;
+
+    private MatchLength() {
+    }
+
+    /**
+     * Длина общего префикса позиций candidate и pos, не больше maxLength
+     */
+    static int of(byte[] data, int candidate, int pos, int maxLength) {
+        return extend(data, candidate, pos, 0, maxLength);
+    }
+
+    /**
+     * Продолжает сравнение с уже совпавших length байт.
+     * Оба участка должны помещаться в массив на maxLength байт.
+     */
+    static int extend(byte[] data, int candidate, int pos, int length, int maxLength) {
+        int wordLimit = maxLength - Long.BYTES;
+        while (length <= wordLimit) {
+            long diff = (long) LONGS.get(data, candidate + length) ^ (long) LONGS.get(data, pos + length);
+            if (diff != 0) {
+                return length + (Long.numberOfTrailingZeros(diff) >>> 3);
+            }
+            length += Long.BYTES;
+            if (length >= VECTOR_THRESHOLD) {
+                int mismatch = Arrays.mismatch(data, candidate + length, candidate + maxLength,
+                        data, pos + length, pos + maxLength);
+                return mismatch < 0 ? maxLength : length + mismatch;
+            }
+        }
+        while (length < maxLength && data[candidate + length] == data[pos + length]) {
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lz77.algorithm;
+
+/**
+ * Кодирование сообщения, подготовленного {@link CompressionContext}
+ */
+@FunctionalInterface
+public interface MessageEncoder<X extends Exception> {
+    /**
+     * @param data окончание словаря и данные сообщения
+     * @param start начало данных сообщения
+     * @param end конец данных сообщения
+     * @param matchFinder структура поиска с позициями словаря; после вызова откатывается
+     */
+    void encode(byte[] data, int start, int end, MatchFinder matchFinder) throws X;
+}
@@ -0,0 +1,101 @@
+package com.lz77.algorithm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Кольцевой буфер истории для распаковки.
+ * Хранит только последние capacity байт (степень двойки), поэтому память
+ * не зависит от размера данных. Байты, которые вот-вот будут перезаписаны,
+ * сбрасываются в выходной поток.
+ */
+public class RingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+    private final OutputStream sink;
+    private long position;
+    private long flushed;
+
+    /**
+     * @param capacity размер буфера (степень двойки, не меньше размера окна)
+     * @param sink поток, в который уходят распакованные байты
+     */
+    public RingBuffer(int capacity, OutputStream sink) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.buffer = new byte[capacity];
+        this.mask = capacity - 1;
+        this.sink = sink;
+    }
+
+    /**
+     * Добавляет один байт
+     */
+    public void write(byte value) throws IOException {
+        if (position - flushed == buffer.length) {
+            flush();
+        }
+        buffer[(int) position & mask] = value;
+        position++;
+    }
+
+    /**
+     * Копирует length байт, начиная на offset байт назад от текущей позиции.
+     * Источник и приемник могут перекрываться.
+     */
+    public void copy(int offset, int length) throws IOException {
+        if (offset <= 0 || offset > buffer.length || offset > position) {
+            throw new IllegalStateException("Invalid token: offset " + offset + " is outside the window");
+        }
+        // Копируем непрерывными порциями. Скопированная часть периодична с периодом offset,
+        // поэтому источник можно брать на любом кратном offset расстоянии внутри нее
+        int copied = 0;
+        while (copied < length) {
+            if (position - flushed == buffer.length) {
+                flush();
+            }
+            int distance = Math.min(copied + offset, buffer.length) / offset * offset;
+            int dst = (int) position & mask;
+            int src = (int) (position - distance) & mask;
+            int n = Math.min(length - copied, distance);
+            n = Math.min(n, buffer.length - unflushed());
+            n = Math.min(n, buffer.length - Math.max(dst, src));
+            System.arraycopy(buffer, src, buffer, dst, n);
+            position += n;
+            copied += n;
+        }
+    }
+
+    /**
+     * Передает накопленные байты в выходной поток
+     */
+    public void flush() throws IOException {
+        int start = (int) flushed & mask;
+        int pending = (int) (position - flushed);
+        int first = Math.min(pending, buffer.length - start);
+        sink.write(buffer, start, first);
+        if (first < pending) {
+            sink.write(buffer, 0, pending - first);
+        }
+        flushed = position;
+    }
+
+    /**
+     * @return число байт, еще не переданных в выходной поток
+     */
+    public int unflushed() {
+        return (int) (position - flushed);
+    }
+
+    /**
+     * @return общее число записанных байт
+     */
+    public long position() {
+        return position;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
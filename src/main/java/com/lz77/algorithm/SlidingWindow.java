@@ -1,6 +1,7 @@
 package com.lz77.algorithm;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Класс, реализующий скользящее окно для алгоритма LZ77
@@ -9,7 +10,11 @@ public class SlidingWindow {
     private final byte[] data;
     private final int windowSize;
     private final int lookaheadSize;
+    private final MatchFinder matchFinder;
     private int currentPosition;
+    // Первая позиция, еще не добавленная в структуру поиска
+    private int indexedPosition;
+    private long lastMatch;
 
     /**
      * @param data входные данные
@@ -17,52 +22,62 @@ public class SlidingWindow {
      * @param lookaheadSize размер буфера предпросмотра
      */
     public SlidingWindow(byte[] data, int windowSize, int lookaheadSize) {
+        this(data, windowSize, lookaheadSize, MatchFinderType.HASH_CHAIN);
+    }
+
+    /**
+     * @param data входные данные
+     * @param windowSize размер окна поиска
+     * @param lookaheadSize размер буфера предпросмотра
+     * @param matchFinderType реализация поиска совпадений
+     */
+    public SlidingWindow(byte[] data, int windowSize, int lookaheadSize, MatchFinderType matchFinderType) {
         this.data = data;
         this.windowSize = windowSize;
         this.lookaheadSize = lookaheadSize;
+        this.matchFinder = matchFinderType.create(windowSize, lookaheadSize, windowSize);
         this.currentPosition = 0;
+        this.indexedPosition = 0;
     }
 
     /**
-     * Поиск наиболее длинного совпадения в буфере поиска
-     * @return массив из 3 элементов: [offset, length, nextChar]
+     * Поиск наиболее длинного совпадения в буфере поиска без выделения памяти
+     * @return упакованный результат, см. {@link MatchFinder#offset(long)} и {@link MatchFinder#length(long)};
+     * следующий символ возвращает {@link #getNextChar(long)}
      */
-    public int[] findLongestMatch() {
-        int maxLength = 0;
-        int bestOffset = 0;
-        byte nextChar = 0;
-
+    public long findMatch() {
         if (currentPosition >= data.length) {
-            return new int[]{0, 0, 0};
+            return 0;
         }
 
-        int searchStart = Math.max(0, currentPosition - windowSize);
-        int lookaheadEnd = Math.min(currentPosition + lookaheadSize, data.length);
-        int maxPossibleLength = lookaheadEnd - currentPosition;
-
-        // Ограничиваем максимальную длину совпадения размером буфера предпросмотра
-        for (int offset = 1; offset <= currentPosition - searchStart; offset++) {
-            int length = 0;
-            while (length < maxPossibleLength &&
-                    currentPosition + length < data.length &&
-                    data[currentPosition + length] == data[currentPosition - offset + length]) {
-                length++;
-            }
-
-            if (length > maxLength) {
-                maxLength = length;
-                bestOffset = offset;
+        // Повторный вызов на той же позиции не должен добавлять ее второй раз
+        if (indexedPosition <= currentPosition) {
+            while (indexedPosition < currentPosition) {
+                matchFinder.skip(data, indexedPosition++, data.length);
             }
+            lastMatch = matchFinder.findLongestMatch(data, currentPosition, data.length);
+            indexedPosition++;
         }
+        return lastMatch;
+    }
 
-        // Определяем следующий символ после совпадения
-        if (currentPosition + maxLength < data.length) {
-            nextChar = data[currentPosition + maxLength];
-        } else {
-            nextChar = 0;
-        }
+    /**
+     * Символ после совпадения, найденного на текущей позиции, или 0 в конце данных
+     * @param match результат {@link #findMatch()}
+     */
+    public byte getNextChar(long match) {
+        int next = currentPosition + MatchFinder.length(match);
+        return next < data.length ? data[next] : 0;
+    }
 
-        return new int[]{bestOffset, maxLength, nextChar};
+    /**
+     * Поиск наиболее длинного совпадения в буфере поиска.
+     * Выделяет массив на каждый вызов; в цикле сжатия используйте {@link #findMatch()}.
+     * @return массив из 3 элементов: [offset, length, nextChar]
+     */
+    public int[] findLongestMatch() {
+        long match = findMatch();
+        return new int[]{MatchFinder.offset(match), MatchFinder.length(match), getNextChar(match)};
     }
 
     /**
@@ -89,18 +104,49 @@ public class SlidingWindow {
     }
 
     /**
-     * Возвращает текущее содержимое буфера поиска
+     * Возвращает длину буфера поиска
+     */
+    public int getSearchLength() {
+        return currentPosition - Math.max(0, currentPosition - windowSize);
+    }
+
+    /**
+     * Возвращает длину буфера предпросмотра
+     */
+    public int getLookaheadLength() {
+        return Math.min(currentPosition + lookaheadSize, data.length) - currentPosition;
+    }
+
+    /**
+     * Возвращает байт буфера поиска без копирования буфера
+     * @param index индекс от начала буфера поиска
+     */
+    public byte getSearchByte(int index) {
+        Objects.checkIndex(index, getSearchLength());
+        return data[currentPosition - getSearchLength() + index];
+    }
+
+    /**
+     * Возвращает байт буфера предпросмотра без копирования буфера
+     * @param index индекс от текущей позиции
+     */
+    public byte getLookaheadByte(int index) {
+        Objects.checkIndex(index, getLookaheadLength());
+        return data[currentPosition + index];
+    }
+
+    /**
+     * Возвращает копию текущего содержимого буфера поиска
      */
     public byte[] getSearchBuffer() {
-        int start = Math.max(0, currentPosition - windowSize);
+        int start = currentPosition - getSearchLength();
         return Arrays.copyOfRange(data, start, currentPosition);
     }
 
     /**
-     * Возвращает текущее содержимое буфера предпросмотра
+     * Возвращает копию текущего содержимого буфера предпросмотра
      */
     public byte[] getLookaheadBuffer() {
-        int end = Math.min(currentPosition + lookaheadSize, data.length);
-        return Arrays.copyOfRange(data, currentPosition, end);
+        return Arrays.copyOfRange(data, currentPosition, currentPosition + getLookaheadLength());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.lz77.algorithm;
+
+/**
+ * Получатель токенов, которые выдает компрессор.
+ * Токен передается полями, чтобы не создавать объект на каждое совпадение.
+ */
+@FunctionalInterface
+public interface TokenSink {
+    void accept(int offset, int length, byte nextChar);
+}
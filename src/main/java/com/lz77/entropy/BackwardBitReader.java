@@ -0,0 +1,62 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+
+/**
+ * Чтение битов в обратном порядке записи {@link BitWriter}.
+ * Нужно для ANS: кодер обрабатывает символы с конца, декодер — с начала.
+ * После последнего значения записывается единичный бит-маркер,
+ * по нему читатель находит конец данных.
+ */
+public class BackwardBitReader {
+    private final byte[] data;
+    private final int start;
+    private int pos;
+    // Непрочитанные биты: самый поздний записанный — старший из bitCount младших бит
+    private long bitBuffer;
+    private int bitCount;
+
+    /**
+     * @throws IOException если в данных нет маркера конца
+     */
+    public BackwardBitReader(byte[] data, int offset, int length) throws IOException {
+        if (length == 0 || data[offset + length - 1] == 0) {
+            throw new IOException("Missing end marker in entropy-coded block");
+        }
+        this.data = data;
+        this.start = offset;
+        this.pos = offset + length - 1;
+        int lastByte = data[pos] & 0xFF;
+        this.bitCount = 31 - Integer.numberOfLeadingZeros(lastByte);
+        this.bitBuffer = lastByte & ((1 << bitCount) - 1);
+    }
+
+    /**
+     * Читает значение из count бит (не больше 32), записанное последним из непрочитанных
+     * @throws IOException если данные закончились
+     */
+    public int readBits(int count) throws IOException {
+        if (bitCount < count) {
+            refill();
+            if (bitCount < count) {
+                throw new IOException("Truncated entropy-coded block");
+            }
+        }
+        bitCount -= count;
+        return (int) ((bitBuffer >>> bitCount) & ((1L << count) - 1));
+    }
+
+    /**
+     * @return true, если все биты прочитаны
+     */
+    public boolean isFinished() {
+        return bitCount == 0 && pos == start;
+    }
+
+    private void refill() {
+        while (bitCount <= 56 && pos > start) {
+            bitBuffer = bitBuffer << 8 | (data[--pos] & 0xFF);
+            bitCount += 8;
+        }
+    }
+}
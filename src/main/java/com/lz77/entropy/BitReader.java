@@ -0,0 +1,79 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+
+/**
+ * Чтение битов из массива байтов, младшие биты первыми.
+ * За концом данных читаются нули; {@link #checkNotOverrun()} проверяет,
+ * что реально использованные биты не вышли за конец.
+ */
+public class BitReader {
+    private final byte[] data;
+    private final int start;
+    private final int end;
+    private int pos;
+    private long bitBuffer;
+    private int bitCount;
+    private int paddingBits;
+
+    public BitReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.start = offset;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Возвращает следующие count бит (не больше 32), не сдвигая позицию
+     */
+    public int peekBits(int count) {
+        if (bitCount < count) {
+            refill();
+        }
+        return (int) (bitBuffer & ((1L << count) - 1));
+    }
+
+    /**
+     * Пропускает count бит после {@link #peekBits}
+     */
+    public void skipBits(int count) {
+        bitBuffer >>>= count;
+        bitCount -= count;
+    }
+
+    public int readBits(int count) {
+        int value = peekBits(count);
+        skipBits(count);
+        return value;
+    }
+
+    /**
+     * @return число прочитанных бит от начала данных
+     */
+    public long bitsRead() {
+        return (long) (pos - start) * 8 + paddingBits - bitCount;
+    }
+
+    /**
+     * @throws IOException если декодер прочитал больше битов, чем было записано
+     */
+    public void checkNotOverrun() throws IOException {
+        if (paddingBits > bitCount) {
+            throw new IOException("Truncated entropy-coded block");
+        }
+    }
+
+    private void refill() {
+        while (bitCount <= 56) {
+            long next;
+            if (pos < end) {
+                next = data[pos++] & 0xFF;
+            } else {
+                next = 0;
+                paddingBits += 8;
+            }
+            bitBuffer |= next << bitCount;
+            bitCount += 8;
+        }
+    }
+}
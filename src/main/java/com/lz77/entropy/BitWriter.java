@@ -0,0 +1,50 @@
+package com.lz77.entropy;
+
+import java.util.Arrays;
+
+/**
+ * Запись битов в растущий массив байтов, младшие биты первыми (как в Deflate)
+ */
+public class BitWriter {
+    private byte[] data;
+    private int size;
+    private long bitBuffer;
+    private int bitCount;
+
+    public BitWriter(int initialCapacity) {
+        this.data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Записывает младшие count бит значения (count не больше 32)
+     */
+    public void writeBits(int value, int count) {
+        bitBuffer |= (value & ((1L << count) - 1)) << bitCount;
+        bitCount += count;
+        while (bitCount >= 8) {
+            writeByte((byte) bitBuffer);
+            bitBuffer >>>= 8;
+            bitCount -= 8;
+        }
+    }
+
+    /**
+     * Дописывает неполный последний байт нулями
+     * @return записанные байты
+     */
+    public byte[] toByteArray() {
+        if (bitCount > 0) {
+            writeByte((byte) bitBuffer);
+            bitBuffer = 0;
+            bitCount = 0;
+        }
+        return Arrays.copyOf(data, size);
+    }
+
+    private void writeByte(byte value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+}
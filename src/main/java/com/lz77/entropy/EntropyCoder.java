@@ -0,0 +1,39 @@
+package com.lz77.entropy;
+
+/**
+ * Способ кодирования блока токенов. Идентификатор записывается перед каждым блоком,
+ * поэтому способы можно менять от блока к блоку.
+ */
+public enum EntropyCoder {
+    /** Токены переменной длины без энтропийного кодирования */
+    RAW(0),
+    /** Канонические коды Хаффмана для литералов, длин и смещений, см. {@link HuffmanTokenCodec} */
+    HUFFMAN(1),
+    /** Табличная ANS: декодируется быстрее Хаффмана и ближе к энтропии, см. {@link FseTokenCodec} */
+    FSE(2);
+
+    private final int id;
+
+    EntropyCoder(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return идентификатор в сжатых данных
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return способ по идентификатору или null, если он неизвестен
+     */
+    public static EntropyCoder fromId(int id) {
+        for (EntropyCoder coder : values()) {
+            if (coder.id == id) {
+                return coder;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,194 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+
+/**
+ * Табличная асимметричная система счисления (tANS, FSE).
+ * Частоты символов нормируются к размеру таблицы {@code L = 2^tableLog};
+ * символ с нормированной частотой c занимает c состояний таблицы.
+ * Кодирование символа — вывод нескольких младших бит состояния и переход
+ * по таблице, декодирование — один просмотр таблицы и чтение бит без ветвлений
+ * по длине кода, причем дробная часть бита не теряется, в отличие от Хаффмана.
+ * <p>
+ * Кодер обрабатывает символы с конца и хранит состояние в диапазоне {@code [L, 2L)},
+ * декодер — с начала, его состояние — индекс в таблице {@code [0, L)}.
+ */
+public class FseCode {
+    public static final int MIN_TABLE_LOG = 5;
+    public static final int MAX_TABLE_LOG = 12;
+    // Запись таблицы декодирования: символ, число бит и база следующего состояния
+    private static final int BASE_BITS = 12;
+    private static final int NUM_BITS_SHIFT = BASE_BITS;
+    private static final int SYMBOL_SHIFT = 16;
+
+    private final int tableLog;
+    private final int tableSize;
+    private final int[] counts;
+    private final int[] cumulative;
+    private final int[] encodeTable;
+    private final int[] decodeTable;
+
+    /**
+     * @param counts нормированные частоты, их сумма равна {@code 2^tableLog}
+     * @param tableLog log2 размера таблицы
+     * @throws IllegalArgumentException если частоты не нормированы
+     */
+    public FseCode(int[] counts, int tableLog) {
+        if (tableLog < MIN_TABLE_LOG || tableLog > MAX_TABLE_LOG) {
+            throw new IllegalArgumentException("Invalid table log: " + tableLog);
+        }
+        this.tableLog = tableLog;
+        this.tableSize = 1 << tableLog;
+        this.counts = counts.clone();
+        this.cumulative = new int[counts.length + 1];
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            if (counts[symbol] < 0) {
+                throw new IllegalArgumentException("Negative symbol count");
+            }
+            cumulative[symbol + 1] = cumulative[symbol] + counts[symbol];
+        }
+        if (cumulative[counts.length] != tableSize) {
+            throw new IllegalArgumentException("Symbol counts do not sum to table size");
+        }
+
+        // Раскладываем символы по таблице шагом, взаимно простым с ее размером,
+        // чтобы состояния одного символа были равномерно перемешаны
+        int[] spread = new int[tableSize];
+        int mask = tableSize - 1;
+        int step = (tableSize >>> 1) + (tableSize >>> 3) + 3;
+        int position = 0;
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            for (int i = 0; i < counts[symbol]; i++) {
+                spread[position] = symbol;
+                position = (position + step) & mask;
+            }
+        }
+
+        this.encodeTable = new int[tableSize];
+        this.decodeTable = new int[tableSize];
+        int[] next = new int[counts.length];
+        for (int state = 0; state < tableSize; state++) {
+            int symbol = spread[state];
+            // i-е вхождение символа соответствует приведенному состоянию c + i
+            int reduced = counts[symbol] + next[symbol];
+            encodeTable[cumulative[symbol] + next[symbol]++] = tableSize + state;
+            int numBits = tableLog - (31 - Integer.numberOfLeadingZeros(reduced));
+            int base = (reduced << numBits) - tableSize;
+            decodeTable[state] = symbol << SYMBOL_SHIFT | numBits << NUM_BITS_SHIFT | base;
+        }
+    }
+
+    /**
+     * Нормирует частоты к сумме {@code 2^tableLog}; каждый встречающийся символ
+     * получает не меньше одного состояния
+     * @return нормированные частоты или null, если символов нет
+     */
+    public static int[] normalize(int[] frequencies, int tableLog) {
+        long total = 0;
+        int present = 0;
+        for (int frequency : frequencies) {
+            total += frequency;
+            if (frequency > 0) {
+                present++;
+            }
+        }
+        int tableSize = 1 << tableLog;
+        if (total == 0) {
+            return null;
+        }
+        if (present > tableSize) {
+            throw new IllegalArgumentException("Too many symbols for table size");
+        }
+
+        int[] counts = new int[frequencies.length];
+        int sum = 0;
+        int largest = 0;
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                counts[symbol] = (int) Math.max(1, (frequencies[symbol] * (long) tableSize + total / 2) / total);
+                sum += counts[symbol];
+                if (counts[symbol] > counts[largest]) {
+                    largest = symbol;
+                }
+            }
+        }
+
+        // Погрешность округления забирает самый частый символ, где она дешевле всего
+        int excess = sum - tableSize;
+        if (excess < counts[largest]) {
+            counts[largest] -= excess;
+            return counts;
+        }
+        while (excess > 0) {
+            int symbol = 0;
+            for (int i = 1; i < counts.length; i++) {
+                if (counts[i] > counts[symbol]) {
+                    symbol = i;
+                }
+            }
+            int take = Math.min(excess, counts[symbol] / 2);
+            counts[symbol] -= take;
+            excess -= take;
+        }
+        return counts;
+    }
+
+    /**
+     * @return начальное состояние кодера
+     */
+    public int initialState() {
+        return tableSize;
+    }
+
+    /**
+     * Кодирует символ, выводя младшие биты состояния
+     * @return новое состояние кодера
+     */
+    public int encode(BitWriter out, int state, int symbol) {
+        int count = counts[symbol];
+        int numBits = (31 - Integer.numberOfLeadingZeros(state)) - (31 - Integer.numberOfLeadingZeros(count));
+        if (state >>> numBits < count) {
+            numBits--;
+        }
+        out.writeBits(state, numBits);
+        return encodeTable[cumulative[symbol] + (state >>> numBits) - count];
+    }
+
+    /**
+     * Записывает конечное состояние кодера, с которого начнет декодер
+     */
+    public void writeState(BitWriter out, int state) {
+        out.writeBits(state - tableSize, tableLog);
+    }
+
+    public int readState(BackwardBitReader in) throws IOException {
+        return in.readBits(tableLog);
+    }
+
+    /**
+     * @return символ, соответствующий состоянию декодера
+     */
+    public int symbol(int state) {
+        return decodeTable[state] >>> SYMBOL_SHIFT;
+    }
+
+    /**
+     * @return следующее состояние декодера
+     */
+    public int nextState(BackwardBitReader in, int state) throws IOException {
+        int entry = decodeTable[state];
+        int numBits = (entry >>> NUM_BITS_SHIFT) & ((1 << (SYMBOL_SHIFT - NUM_BITS_SHIFT)) - 1);
+        return (entry & ((1 << BASE_BITS) - 1)) + in.readBits(numBits);
+    }
+
+    public int tableLog() {
+        return tableLog;
+    }
+
+    /**
+     * @return нормированные частоты
+     */
+    public int[] counts() {
+        return counts.clone();
+    }
+}
@@ -0,0 +1,184 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+
+import static com.lz77.entropy.TokenAlphabet.LITERAL_LENGTH_SYMBOLS;
+import static com.lz77.entropy.TokenAlphabet.LITERAL_SYMBOLS;
+import static com.lz77.entropy.TokenAlphabet.OFFSET_SYMBOLS;
+
+/**
+ * Кодирование блока токенов табличной ANS (см. {@link FseCode}).
+ * Алфавиты те же, что у {@link HuffmanTokenCodec}: литералы и корзины длин в одном,
+ * корзины смещений в другом, у каждого свое состояние.
+ * <p>
+ * Формат блока: описания таблиц (log2 размера по 4 бита, для каждого символа
+ * 4 бита длины нормированной частоты и ее младшие биты без старшего), выравнивание
+ * до байта, затем поток, который читается с конца: начальные состояния декодера
+ * и биты символов и дополнительные биты в порядке декодирования токенов.
+ */
+public final class FseTokenCodec {
+    private static final int LITERAL_LENGTH_TABLE_LOG = 11;
+    private static final int OFFSET_TABLE_LOG = 9;
+    private static final int FIELD_BITS = 4;
+
+    private FseTokenCodec() {
+    }
+
+    /**
+     * Кодирует первые count токенов из массивов
+     * @return закодированный блок
+     */
+    public static byte[] encode(int[] offsets, int[] lengths, byte[] nextChars, int count) {
+        int[] literalLengthFrequencies = new int[LITERAL_LENGTH_SYMBOLS];
+        int[] offsetFrequencies = new int[OFFSET_SYMBOLS];
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (offsets[i] != 0 || lengths[i] != 0) {
+                literalLengthFrequencies[LITERAL_SYMBOLS + TokenAlphabet.bucket(lengths[i])]++;
+                offsetFrequencies[TokenAlphabet.bucket(offsets[i])]++;
+                matches++;
+            }
+            literalLengthFrequencies[nextChars[i] & 0xFF]++;
+        }
+        FseCode literalLengthCode = buildCode(literalLengthFrequencies, count + matches, LITERAL_LENGTH_TABLE_LOG);
+        FseCode offsetCode = buildCode(offsetFrequencies, matches, OFFSET_TABLE_LOG);
+
+        BitWriter header = new BitWriter(512);
+        writeTable(header, literalLengthCode);
+        writeTable(header, offsetCode);
+
+        // Кодер идет с конца блока и пишет части токена в обратном порядке
+        BitWriter stream = new BitWriter(count + 16);
+        int literalLengthState = literalLengthCode == null ? 0 : literalLengthCode.initialState();
+        int offsetState = offsetCode == null ? 0 : offsetCode.initialState();
+        for (int i = count - 1; i >= 0; i--) {
+            literalLengthState = literalLengthCode.encode(stream, literalLengthState, nextChars[i] & 0xFF);
+            if (offsets[i] != 0 || lengths[i] != 0) {
+                int offsetBucket = TokenAlphabet.bucket(offsets[i]);
+                writeExtraBits(stream, offsetBucket, offsets[i]);
+                offsetState = offsetCode.encode(stream, offsetState, offsetBucket);
+                int lengthBucket = TokenAlphabet.bucket(lengths[i]);
+                writeExtraBits(stream, lengthBucket, lengths[i]);
+                literalLengthState = literalLengthCode.encode(stream, literalLengthState,
+                        LITERAL_SYMBOLS + lengthBucket);
+            }
+        }
+        if (offsetCode != null) {
+            offsetCode.writeState(stream, offsetState);
+        }
+        if (literalLengthCode != null) {
+            literalLengthCode.writeState(stream, literalLengthState);
+        }
+        stream.writeBits(1, 1);
+
+        byte[] tables = header.toByteArray();
+        byte[] body = stream.toByteArray();
+        byte[] block = new byte[tables.length + body.length];
+        System.arraycopy(tables, 0, block, 0, tables.length);
+        System.arraycopy(body, 0, block, tables.length, body.length);
+        return block;
+    }
+
+    /**
+     * Декодирует count токенов в массивы
+     * @throws IOException если блок поврежден
+     */
+    public static void decode(byte[] data, int offset, int length,
+                              int[] offsets, int[] lengths, byte[] nextChars, int count) throws IOException {
+        BitReader header = new BitReader(data, offset, length);
+        FseCode literalLengthCode = readTable(header, LITERAL_LENGTH_SYMBOLS);
+        FseCode offsetCode = readTable(header, OFFSET_SYMBOLS);
+        header.checkNotOverrun();
+        int tablesSize = (int) ((header.bitsRead() + 7) >>> 3);
+        if (literalLengthCode == null) {
+            throw new IOException("Missing literal table in entropy-coded block");
+        }
+
+        BackwardBitReader in = new BackwardBitReader(data, offset + tablesSize, length - tablesSize);
+        int literalLengthState = literalLengthCode.readState(in);
+        int offsetState = offsetCode == null ? 0 : offsetCode.readState(in);
+        for (int i = 0; i < count; i++) {
+            int symbol = literalLengthCode.symbol(literalLengthState);
+            literalLengthState = literalLengthCode.nextState(in, literalLengthState);
+            if (symbol < LITERAL_SYMBOLS) {
+                offsets[i] = 0;
+                lengths[i] = 0;
+                nextChars[i] = (byte) symbol;
+                continue;
+            }
+            if (offsetCode == null) {
+                throw new IOException("Missing offset table in entropy-coded block");
+            }
+            lengths[i] = readValue(in, symbol - LITERAL_SYMBOLS);
+            int offsetBucket = offsetCode.symbol(offsetState);
+            offsetState = offsetCode.nextState(in, offsetState);
+            offsets[i] = readValue(in, offsetBucket);
+            int next = literalLengthCode.symbol(literalLengthState);
+            literalLengthState = literalLengthCode.nextState(in, literalLengthState);
+            if (next >= LITERAL_SYMBOLS) {
+                throw new IOException("Invalid token: expected next character");
+            }
+            nextChars[i] = (byte) next;
+        }
+        if (!in.isFinished()) {
+            throw new IOException("Unexpected data at end of entropy-coded block");
+        }
+    }
+
+    /**
+     * Размер таблицы уменьшается для маленьких блоков, чтобы не тратить время на ее построение
+     */
+    private static FseCode buildCode(int[] frequencies, int total, int maxTableLog) {
+        int tableLog = Math.max(FseCode.MIN_TABLE_LOG,
+                Math.min(maxTableLog, 33 - Integer.numberOfLeadingZeros(Math.max(1, total))));
+        int[] counts = FseCode.normalize(frequencies, tableLog);
+        return counts == null ? null : new FseCode(counts, tableLog);
+    }
+
+    private static void writeTable(BitWriter out, FseCode code) {
+        if (code == null) {
+            out.writeBits(0, FIELD_BITS);
+            return;
+        }
+        out.writeBits(code.tableLog(), FIELD_BITS);
+        for (int count : code.counts()) {
+            int bits = 32 - Integer.numberOfLeadingZeros(count);
+            out.writeBits(bits, FIELD_BITS);
+            if (bits > 1) {
+                out.writeBits(count, bits - 1);
+            }
+        }
+    }
+
+    private static FseCode readTable(BitReader in, int symbols) throws IOException {
+        int tableLog = in.readBits(FIELD_BITS);
+        if (tableLog == 0) {
+            return null;
+        }
+        int[] counts = new int[symbols];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            int bits = in.readBits(FIELD_BITS);
+            if (bits > 0) {
+                counts[symbol] = 1 << (bits - 1) | (bits > 1 ? in.readBits(bits - 1) : 0);
+            }
+        }
+        try {
+            return new FseCode(counts, tableLog);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid ANS table: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeExtraBits(BitWriter out, int bucket, int value) {
+        int extraBits = TokenAlphabet.extraBits(bucket);
+        if (extraBits > 0) {
+            out.writeBits(value - TokenAlphabet.base(bucket), extraBits);
+        }
+    }
+
+    private static int readValue(BackwardBitReader in, int bucket) throws IOException {
+        int extraBits = TokenAlphabet.extraBits(bucket);
+        int value = TokenAlphabet.base(bucket);
+        return extraBits > 0 ? value + in.readBits(extraBits) : value;
+    }
+}
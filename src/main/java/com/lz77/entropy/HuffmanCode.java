@@ -0,0 +1,161 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Канонический код Хаффмана с ограниченной длиной кодовых слов.
+ * Код полностью задается длинами слов: слова одной длины идут по возрастанию символа,
+ * поэтому в сжатые данные достаточно записать только длины.
+ * Для декодирования строится таблица на {@code 2^MAX_CODE_LENGTH} записей:
+ * один просмотр следующих бит сразу дает символ и длину его слова.
+ */
+public class HuffmanCode {
+    public static final int MAX_CODE_LENGTH = 12;
+    // Длина слова хранится в младших битах записи таблицы декодирования
+    private static final int LENGTH_BITS = 4;
+
+    private final int[] lengths;
+    private final int[] codes;
+    private final int[] decodeTable;
+
+    /**
+     * @param lengths длины слов по символам (0 — символ не встречается)
+     * @throws IllegalArgumentException если длины не образуют префиксный код
+     */
+    public HuffmanCode(int[] lengths) {
+        this.lengths = lengths.clone();
+        this.codes = new int[lengths.length];
+        this.decodeTable = new int[1 << MAX_CODE_LENGTH];
+
+        int[] lengthCount = new int[MAX_CODE_LENGTH + 1];
+        for (int length : lengths) {
+            if (length < 0 || length > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Invalid code length: " + length);
+            }
+            lengthCount[length]++;
+        }
+        lengthCount[0] = 0;
+
+        int[] nextCode = new int[MAX_CODE_LENGTH + 1];
+        int code = 0;
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            code = (code + lengthCount[length - 1]) << 1;
+            nextCode[length] = code;
+            if (code + lengthCount[length] > 1 << length) {
+                throw new IllegalArgumentException("Code lengths are oversubscribed");
+            }
+        }
+
+        for (int symbol = 0; symbol < lengths.length; symbol++) {
+            int length = lengths[symbol];
+            if (length == 0) {
+                continue;
+            }
+            // Биты пишутся младшими вперед, поэтому слово хранится перевернутым
+            int reversed = Integer.reverse(nextCode[length]++) >>> (32 - length);
+            codes[symbol] = reversed;
+            int entry = symbol << LENGTH_BITS | length;
+            for (int index = reversed; index < decodeTable.length; index += 1 << length) {
+                decodeTable[index] = entry;
+            }
+        }
+    }
+
+    /**
+     * Строит длины слов кода Хаффмана по частотам, не длиннее {@link #MAX_CODE_LENGTH}.
+     * Если дерево получается слишком глубоким, частоты сглаживаются и дерево строится заново.
+     */
+    public static int[] buildLengths(int[] frequencies) {
+        int[] lengths = new int[frequencies.length];
+        int[] scaled = frequencies.clone();
+        while (!buildTree(scaled, lengths)) {
+            for (int i = 0; i < scaled.length; i++) {
+                if (scaled[i] > 0) {
+                    scaled[i] = (scaled[i] >>> 1) | 1;
+                }
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Записывает слово символа
+     */
+    public void write(BitWriter out, int symbol) {
+        out.writeBits(codes[symbol], lengths[symbol]);
+    }
+
+    /**
+     * Читает один символ
+     * @throws IOException если биты не соответствуют ни одному слову
+     */
+    public int read(BitReader in) throws IOException {
+        int entry = decodeTable[in.peekBits(MAX_CODE_LENGTH)];
+        if (entry == 0) {
+            throw new IOException("Invalid Huffman code");
+        }
+        in.skipBits(entry & ((1 << LENGTH_BITS) - 1));
+        return entry >>> LENGTH_BITS;
+    }
+
+    /**
+     * @return длины слов по символам
+     */
+    public int[] lengths() {
+        return lengths.clone();
+    }
+
+    /**
+     * @return false, если какое-то слово длиннее {@link #MAX_CODE_LENGTH}
+     */
+    private static boolean buildTree(int[] frequencies, int[] lengths) {
+        Arrays.fill(lengths, 0);
+        int symbols = frequencies.length;
+        // Узлы 0..symbols-1 — листья, дальше внутренние; parent нужен для подсчета глубины
+        long[] weight = new long[2 * symbols];
+        int[] parent = new int[2 * symbols];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(
+                (a, b) -> weight[a] != weight[b] ? Long.compare(weight[a], weight[b]) : Integer.compare(a, b));
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            if (frequencies[symbol] > 0) {
+                weight[symbol] = frequencies[symbol];
+                queue.add(symbol);
+            }
+        }
+        if (queue.isEmpty()) {
+            return true;
+        }
+        if (queue.size() == 1) {
+            lengths[queue.poll()] = 1;
+            return true;
+        }
+
+        int next = symbols;
+        while (queue.size() > 1) {
+            int a = queue.poll();
+            int b = queue.poll();
+            weight[next] = weight[a] + weight[b];
+            parent[a] = next;
+            parent[b] = next;
+            queue.add(next++);
+        }
+        int root = next - 1;
+
+        int[] depth = new int[next];
+        for (int node = root - 1; node >= 0; node--) {
+            if (node < symbols && frequencies[node] == 0) {
+                continue;
+            }
+            depth[node] = depth[parent[node]] + 1;
+            if (node < symbols) {
+                if (depth[node] > MAX_CODE_LENGTH) {
+                    return false;
+                }
+                lengths[node] = depth[node];
+            }
+        }
+        return true;
+    }
+}
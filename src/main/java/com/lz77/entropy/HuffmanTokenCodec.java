@@ -0,0 +1,118 @@
+package com.lz77.entropy;
+
+import java.io.IOException;
+
+import static com.lz77.entropy.TokenAlphabet.LITERAL_LENGTH_SYMBOLS;
+import static com.lz77.entropy.TokenAlphabet.LITERAL_SYMBOLS;
+import static com.lz77.entropy.TokenAlphabet.OFFSET_SYMBOLS;
+
+/**
+ * Кодирование блока токенов кодами Хаффмана.
+ * Для каждого блока строятся два канонических кода: для литералов и корзин длин
+ * (литерал и следующий символ совпадения — байт 0..255, длина — {@code 256 + корзина})
+ * и для корзин смещений (см. {@link TokenAlphabet}).
+ * <p>
+ * Формат блока: длины слов обоих кодов по 4 бита, затем для каждого токена
+ * <ul>
+ *   <li>литерал {@code (0,0,c)}: слово символа c;</li>
+ *   <li>совпадение: слово корзины длины и ее дополнительные биты, слово корзины
+ *       смещения и ее дополнительные биты, слово nextChar.</li>
+ * </ul>
+ */
+public final class HuffmanTokenCodec {
+    private static final int CODE_LENGTH_BITS = 4;
+
+    private HuffmanTokenCodec() {
+    }
+
+    /**
+     * Кодирует первые count токенов из массивов
+     * @return закодированный блок
+     */
+    public static byte[] encode(int[] offsets, int[] lengths, byte[] nextChars, int count) {
+        int[] literalLengthFrequencies = new int[LITERAL_LENGTH_SYMBOLS];
+        int[] offsetFrequencies = new int[OFFSET_SYMBOLS];
+        for (int i = 0; i < count; i++) {
+            if (offsets[i] != 0 || lengths[i] != 0) {
+                literalLengthFrequencies[LITERAL_SYMBOLS + TokenAlphabet.bucket(lengths[i])]++;
+                offsetFrequencies[TokenAlphabet.bucket(offsets[i])]++;
+            }
+            literalLengthFrequencies[nextChars[i] & 0xFF]++;
+        }
+        HuffmanCode literalLengthCode = new HuffmanCode(HuffmanCode.buildLengths(literalLengthFrequencies));
+        HuffmanCode offsetCode = new HuffmanCode(HuffmanCode.buildLengths(offsetFrequencies));
+
+        BitWriter out = new BitWriter(count + 256);
+        writeCodeLengths(out, literalLengthCode);
+        writeCodeLengths(out, offsetCode);
+        for (int i = 0; i < count; i++) {
+            if (offsets[i] != 0 || lengths[i] != 0) {
+                writeValue(out, literalLengthCode, LITERAL_SYMBOLS, lengths[i]);
+                writeValue(out, offsetCode, 0, offsets[i]);
+            }
+            literalLengthCode.write(out, nextChars[i] & 0xFF);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Декодирует count токенов в массивы
+     * @throws IOException если блок поврежден
+     */
+    public static void decode(byte[] data, int offset, int length,
+                              int[] offsets, int[] lengths, byte[] nextChars, int count) throws IOException {
+        BitReader in = new BitReader(data, offset, length);
+        HuffmanCode literalLengthCode = readCode(in, LITERAL_LENGTH_SYMBOLS);
+        HuffmanCode offsetCode = readCode(in, OFFSET_SYMBOLS);
+        for (int i = 0; i < count; i++) {
+            int symbol = literalLengthCode.read(in);
+            if (symbol < LITERAL_SYMBOLS) {
+                offsets[i] = 0;
+                lengths[i] = 0;
+                nextChars[i] = (byte) symbol;
+                continue;
+            }
+            lengths[i] = readValue(in, symbol - LITERAL_SYMBOLS);
+            offsets[i] = readValue(in, offsetCode.read(in));
+            int next = literalLengthCode.read(in);
+            if (next >= LITERAL_SYMBOLS) {
+                throw new IOException("Invalid token: expected next character");
+            }
+            nextChars[i] = (byte) next;
+        }
+        in.checkNotOverrun();
+    }
+
+    private static void writeValue(BitWriter out, HuffmanCode code, int firstSymbol, int value) {
+        int bucket = TokenAlphabet.bucket(value);
+        code.write(out, firstSymbol + bucket);
+        int extraBits = TokenAlphabet.extraBits(bucket);
+        if (extraBits > 0) {
+            out.writeBits(value - TokenAlphabet.base(bucket), extraBits);
+        }
+    }
+
+    private static int readValue(BitReader in, int bucket) {
+        int extraBits = TokenAlphabet.extraBits(bucket);
+        int value = TokenAlphabet.base(bucket);
+        return extraBits > 0 ? value + in.readBits(extraBits) : value;
+    }
+
+    private static void writeCodeLengths(BitWriter out, HuffmanCode code) {
+        for (int length : code.lengths()) {
+            out.writeBits(length, CODE_LENGTH_BITS);
+        }
+    }
+
+    private static HuffmanCode readCode(BitReader in, int symbols) throws IOException {
+        int[] lengths = new int[symbols];
+        for (int i = 0; i < symbols; i++) {
+            lengths[i] = in.readBits(CODE_LENGTH_BITS);
+        }
+        try {
+            return new HuffmanCode(lengths);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid Huffman table: " + e.getMessage(), e);
+        }
+    }
+}
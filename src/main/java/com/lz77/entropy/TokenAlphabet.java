@@ -0,0 +1,52 @@
+package com.lz77.entropy;
+
+/**
+ * Символы, которыми энтропийные кодеры описывают токены.
+ * Литералы и следующий символ совпадения — байты 0..255 общего алфавита
+ * литералов/длин; длина совпадения — корзина {@code 256 + bucket(length)};
+ * смещение — корзина в отдельном алфавите. Точное значение внутри корзины
+ * передается дополнительными битами.
+ * <p>
+ * Значения 0..3 имеют собственные корзины, остальные делятся по старшему
+ * биту и следующему за ним: корзина {@code 2n + b} покрывает значения
+ * {@code (2 | b) << (n - 1)} и несет {@code n - 1} дополнительных бит.
+ */
+public final class TokenAlphabet {
+    public static final int LITERAL_SYMBOLS = 256;
+    public static final int VALUE_BUCKETS = 62;
+    public static final int LITERAL_LENGTH_SYMBOLS = LITERAL_SYMBOLS + VALUE_BUCKETS;
+    public static final int OFFSET_SYMBOLS = VALUE_BUCKETS;
+
+    private TokenAlphabet() {
+    }
+
+    /**
+     * @param value неотрицательное значение
+     * @return номер корзины
+     */
+    public static int bucket(int value) {
+        if (value < 4) {
+            return value;
+        }
+        int n = 31 - Integer.numberOfLeadingZeros(value);
+        return 2 * n + ((value >>> (n - 1)) & 1);
+    }
+
+    /**
+     * @return число дополнительных бит корзины
+     */
+    public static int extraBits(int bucket) {
+        return bucket < 4 ? 0 : (bucket >>> 1) - 1;
+    }
+
+    /**
+     * @return наименьшее значение корзины
+     */
+    public static int base(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int n = bucket >>> 1;
+        return (2 | (bucket & 1)) << (n - 1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.lz77.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR для записи одного блока токенов: энтропийное кодирование и запись
+ * в выходной поток. Порог выше, чем у событий вызовов, чтобы в записи оставались
+ * только заметные задержки.
+ */
+@Name("com.lz77.CompressBlock")
+@Label("LZ77 Block Encoding")
+@Description("Encoding and writing one block of tokens")
+@Category({"LZ77", "Compression"})
+@Threshold("10 ms")
+@StackTrace(false)
+@Registered(false)
+public class CompressBlockEvent extends Event {
+    @Label("Entropy Coder")
+    @Description("Coder actually used; RAW when entropy coding did not shrink the block")
+    public String coder;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Raw Size")
+    @Description("Size of the block without entropy coding")
+    @DataAmount
+    public long rawBytes;
+
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+
+    public CompressBlockEvent() {
+        EventRegistration.ensureRegistered();
+    }
+}
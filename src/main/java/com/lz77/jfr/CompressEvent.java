@@ -0,0 +1,88 @@
+package com.lz77.jfr;
+
+import com.lz77.model.CompressionMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR для одного сжатия. Поля заполняются только после
+ * {@link #shouldCommit()}, поэтому без записи JFR событие почти ничего не стоит.
+ */
+@Name("com.lz77.Compress")
+@Label("LZ77 Compression")
+@Description("One compression call")
+@Category({"LZ77", "Compression"})
+@Threshold("1 ms")
+@StackTrace(false)
+@Registered(false)
+public class CompressEvent extends Event {
+    @Label("Engine")
+    @Description("Class that performed the compression")
+    public String engine;
+
+    @Label("Level")
+    @Description("Compression level, 0 for custom settings")
+    public int level;
+
+    @Label("Entropy Coder")
+    public String coder;
+
+    @Label("Window Size")
+    @DataAmount
+    public int windowSize;
+
+    @Label("Input Size")
+    @DataAmount
+    public long inputBytes;
+
+    @Label("Output Size")
+    @Description("Compressed size, -1 if tokens were not serialized")
+    @DataAmount
+    public long outputBytes;
+
+    @Label("Literals")
+    public long literals;
+
+    @Label("Matches")
+    public long matches;
+
+    @Label("Matched Bytes")
+    @DataAmount
+    public long matchedBytes;
+
+    @Label("Match Finder Probes")
+    public long probes;
+
+    public CompressEvent() {
+        EventRegistration.ensureRegistered();
+    }
+
+    /**
+     * Заполняет поля и записывает событие
+     * @param engine класс, выполнивший сжатие
+     * @param level уровень сжатия или 0
+     * @param windowSize размер окна
+     * @param coder энтропийное кодирование или null, если токены не сериализуются
+     * @param metrics размеры и статистика совпадений
+     */
+    public void commit(String engine, int level, int windowSize, String coder, CompressionMetrics metrics) {
+        this.engine = engine;
+        this.level = level;
+        this.windowSize = windowSize;
+        this.coder = coder;
+        inputBytes = metrics.inputBytes();
+        outputBytes = metrics.compressedBytes();
+        literals = metrics.literals();
+        matches = metrics.matches();
+        matchedBytes = metrics.matchedBytes();
+        probes = metrics.probes();
+        commit();
+    }
+}
@@ -0,0 +1,37 @@
+package com.lz77.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR для чтения и энтропийного декодирования одного блока токенов
+ */
+@Name("com.lz77.DecompressBlock")
+@Label("LZ77 Block Decoding")
+@Description("Reading and entropy decoding one block of tokens")
+@Category({"LZ77", "Decompression"})
+@Threshold("10 ms")
+@StackTrace(false)
+@Registered(false)
+public class DecompressBlockEvent extends Event {
+    @Label("Entropy Coder")
+    public String coder;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Input Size")
+    @DataAmount
+    public long inputBytes;
+
+    public DecompressBlockEvent() {
+        EventRegistration.ensureRegistered();
+    }
+}
@@ -0,0 +1,65 @@
+package com.lz77.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR для одной распаковки
+ */
+@Name("com.lz77.Decompress")
+@Label("LZ77 Decompression")
+@Description("One decompression call")
+@Category({"LZ77", "Decompression"})
+@Threshold("1 ms")
+@StackTrace(false)
+@Registered(false)
+public class DecompressEvent extends Event {
+    @Label("Engine")
+    @Description("Class that performed the decompression")
+    public String engine;
+
+    @Label("Window Size")
+    @DataAmount
+    public int windowSize;
+
+    @Label("Input Size")
+    @Description("Compressed size, -1 for in-memory tokens")
+    @DataAmount
+    public long inputBytes;
+
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+
+    @Label("Frames")
+    @Description("Independent frames decoded in parallel, 0 for sequential streams")
+    public int frames;
+
+    public DecompressEvent() {
+        EventRegistration.ensureRegistered();
+    }
+
+    /**
+     * Заполняет поля и записывает событие
+     * @param engine класс, выполнивший распаковку
+     * @param windowSize размер окна
+     * @param inputBytes размер сжатых данных или -1
+     * @param outputBytes размер распакованных данных
+     * @param frames число кадров или 0
+     */
+    public void commit(String engine, int windowSize, long inputBytes, long outputBytes, int frames) {
+        this.engine = engine;
+        this.windowSize = windowSize;
+        this.inputBytes = inputBytes;
+        this.outputBytes = outputBytes;
+        this.frames = frames;
+        commit();
+    }
+}
@@ -0,0 +1,36 @@
+package com.lz77.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Отложенная регистрация событий. Загрузка зарегистрированного класса события
+ * инициализирует JFR целиком (сотни миллисекунд на старте), поэтому события
+ * помечены {@code @Registered(false)} и регистрируются только после того, как
+ * JFR запущен флагом {@code -XX:StartFlightRecording}, через jcmd или из кода.
+ */
+final class EventRegistration {
+    private static volatile boolean registered;
+
+    private EventRegistration() {
+    }
+
+    /**
+     * Регистрирует все события, если JFR уже инициализирован. Вызывается из
+     * конструкторов событий, поэтому запись, начатая во время работы, увидит
+     * события, созданные после ее начала.
+     */
+    static void ensureRegistered() {
+        if (registered || !FlightRecorder.isInitialized()) {
+            return;
+        }
+        synchronized (EventRegistration.class) {
+            if (!registered) {
+                FlightRecorder.register(CompressEvent.class);
+                FlightRecorder.register(DecompressEvent.class);
+                FlightRecorder.register(CompressBlockEvent.class);
+                FlightRecorder.register(DecompressBlockEvent.class);
+                registered = true;
+            }
+        }
+    }
+}
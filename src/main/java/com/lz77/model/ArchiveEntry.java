@@ -0,0 +1,19 @@
+package com.lz77.model;
+
+/**
+ * Запись центрального каталога архива
+ * @param name путь файла относительно корня архива с разделителем '/'
+ * @param offset смещение сжатых данных файла в архиве
+ * @param compressedSize размер сжатых данных
+ * @param size исходный размер файла
+ * @param checksum CRC32C исходных данных
+ */
+public record ArchiveEntry(String name, long offset, long compressedSize, long size, int checksum) {
+
+    public ArchiveEntry {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Entry name cannot be empty");
+        if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative");
+        if (compressedSize < 0) throw new IllegalArgumentException("Compressed size cannot be negative");
+        if (size < 0) throw new IllegalArgumentException("Size cannot be negative");
+    }
+}
@@ -0,0 +1,44 @@
+package com.lz77.model;
+
+/**
+ * Результат замера сжатия и распаковки одного файла одним способом
+ * @param file имя файла
+ * @param engine способ сжатия, например lz77 или deflate
+ * @param level уровень сжатия
+ * @param coder энтропийное кодирование блоков или null, если способ его не выбирает
+ * @param inputSize размер исходных данных в байтах
+ * @param compressedSize размер сжатых данных в байтах
+ * @param tokens число токенов или -1, если способ не выдает токены LZ77
+ * @param compressSpeed скорость сжатия в МБ/с (1 МБ = 10^6 байт исходных данных)
+ * @param decompressSpeed скорость распаковки в МБ/с исходных данных
+ * @param peakHeap пик занятой кучи за измеряемые итерации в байтах
+ */
+public record BenchmarkResult(
+        String file,
+        String engine,
+        int level,
+        String coder,
+        long inputSize,
+        long compressedSize,
+        long tokens,
+        double compressSpeed,
+        double decompressSpeed,
+        long peakHeap
+) {
+    /**
+     * @return отношение исходного размера к сжатому или 0 для пустых данных
+     */
+    public double ratio() {
+        return compressedSize == 0 ? 0.0 : (double) inputSize / compressedSize;
+    }
+
+    /**
+     * @return токенов на байт исходных данных или -1, если число токенов неизвестно
+     */
+    public double tokensPerByte() {
+        if (tokens < 0) {
+            return -1;
+        }
+        return inputSize == 0 ? 0.0 : (double) tokens / inputSize;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lz77.model;
+
+import java.util.List;
+
+/**
+ * Содержимое сжатого файла: параметры из заголовка и токены
+ * @param windowSize размер окна, с которым были сжаты данные
+ * @param tokens список токенов
+ */
+public record CompressedData(int windowSize, List<Token> tokens) {
+}
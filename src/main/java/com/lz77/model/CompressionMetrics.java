@@ -0,0 +1,79 @@
+package com.lz77.model;
+
+/**
+ * Измерения одного сжатия. Время фаз суммируется по всем потокам, поэтому при
+ * параллельном сжатии сумма фаз может превышать общее время.
+ * @param inputBytes размер исходных данных
+ * @param compressedBytes размер сжатых данных или {@link #UNKNOWN}, если токены не сериализовались
+ * @param literals число токенов-литералов (0,0,c)
+ * @param matches число токенов-совпадений
+ * @param matchedBytes сумма длин совпадений
+ * @param probes число кандидатов, проверенных структурой поиска совпадений
+ * @param matchFindingNanos время поиска совпадений и разбора на токены
+ * @param encodingNanos время кодирования блоков токенов
+ * @param ioNanos время чтения исходных данных и записи сжатых
+ * @param wallNanos общее время сжатия
+ */
+public record CompressionMetrics(
+        long inputBytes,
+        long compressedBytes,
+        long literals,
+        long matches,
+        long matchedBytes,
+        long probes,
+        long matchFindingNanos,
+        long encodingNanos,
+        long ioNanos,
+        long wallNanos
+) {
+    public static final long UNKNOWN = -1;
+
+    /**
+     * @return общее число токенов
+     */
+    public long tokens() {
+        return literals + matches;
+    }
+
+    /**
+     * @return средняя длина совпадения или 0, если совпадений нет
+     */
+    public double averageMatchLength() {
+        return matches == 0 ? 0.0 : (double) matchedBytes / matches;
+    }
+
+    /**
+     * @return число проверенных кандидатов на байт исходных данных
+     */
+    public double probesPerByte() {
+        return inputBytes == 0 ? 0.0 : (double) probes / inputBytes;
+    }
+
+    /**
+     * @return скорость сжатия в байтах исходных данных в секунду
+     */
+    public double bytesPerSecond() {
+        return wallNanos == 0 ? 0.0 : inputBytes * 1e9 / wallNanos;
+    }
+
+    /**
+     * @return отношение исходного размера к сжатому или 0, если сжатый размер неизвестен
+     */
+    public double ratio() {
+        return compressedBytes <= 0 ? 0.0 : (double) inputBytes / compressedBytes;
+    }
+
+    /**
+     * @return человеко-читаемое описание измерений
+     */
+    public String getSummary() {
+        return String.format(
+                "Input: %d bytes, Compressed: %d bytes, Ratio: %.2f:1, Tokens: %d literals + %d matches "
+                        + "(avg match %.1f), Probes/byte: %.2f, Speed: %.1f MB/s, "
+                        + "Time: %.1f ms (match finding %.1f, encoding %.1f, I/O %.1f)",
+                inputBytes, compressedBytes, ratio(), literals, matches, averageMatchLength(), probesPerByte(),
+                bytesPerSecond() / 1e6, wallNanos / 1e6, matchFindingNanos / 1e6, encodingNanos / 1e6,
+                ioNanos / 1e6
+        );
+    }
+}
@@ -8,15 +8,17 @@ import java.util.List;
  * @param compressedTokens список токенов после сжатия
  * @param compressionRatio коэффициент сжатия
  * @param compressionTime время выполнения сжатия в миллисекундах
+ * @param metrics измерения сжатия или null, если они не собирались
  */
 public record CompressionResult(
         byte[] originalData,
         List<Token> compressedTokens,
         double compressionRatio,
-        long compressionTime
+        long compressionTime,
+        CompressionMetrics metrics
 ) {
     /**
-     * Вспомогательный конструктор без времени выполнения
+     * Вспомогательный конструктор без времени выполнения; коэффициент сжатия оценивается
      */
     public CompressionResult(byte[] originalData, List<Token> compressedTokens) {
         this(originalData, compressedTokens,
@@ -24,8 +26,24 @@ public record CompressionResult(
                 0);
     }
 
+    public CompressionResult(byte[] originalData, List<Token> compressedTokens, double compressionRatio,
+                             long compressionTime) {
+        this(originalData, compressedTokens, compressionRatio, compressionTime, null);
+    }
+
+    /**
+     * Результат с измерениями компрессора: время берется из измерений, коэффициент сжатия —
+     * по точному сжатому размеру, если он известен, иначе оценивается
+     */
+    public CompressionResult(byte[] originalData, List<Token> compressedTokens, CompressionMetrics metrics) {
+        this(originalData, compressedTokens,
+                metrics.compressedBytes() > 0 ? metrics.ratio()
+                        : calculateCompressionRatio(originalData, compressedTokens),
+                metrics.wallNanos() / 1_000_000, metrics);
+    }
+
     /**
-     * Вычисляет коэффициент сжатия
+     * Оценивает коэффициент сжатия, когда точный сжатый размер неизвестен
      * @return отношение размера исходных данных к размеру сжатых данных
      */
     private static double calculateCompressionRatio(byte[] originalData, List<Token> compressedTokens) {
@@ -59,6 +77,9 @@ public record CompressionResult(
      * @return человеко-читаемое описание результатов сжатия
      */
     public String getSummary() {
+        if (metrics != null && metrics.compressedBytes() >= 0) {
+            return metrics.getSummary();
+        }
         return String.format(
                 "Original: %d bytes, Compressed: ~%d tokens (%d bytes), Ratio: %.2f:1 (%.1f%%)",
                 originalData.length,
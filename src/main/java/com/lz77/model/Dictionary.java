@@ -0,0 +1,112 @@
+package com.lz77.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Словарь для сжатия небольших сообщений: типичные для данных последовательности,
+ * которыми заполняется окно перед сжатием и распаковкой. Совпадения в начале
+ * сообщения ссылаются на окончание словаря, поэтому даже короткие сообщения
+ * сжимаются так, будто перед ними уже были похожие данные.
+ * Используются только последние байты словаря в пределах окна, поэтому самые
+ * полезные последовательности должны стоять в конце (так их располагает
+ * {@link com.lz77.algorithm.DictionaryTrainer}).
+ * Идентификатор записывается в сжатые данные, чтобы распаковка с другим словарем
+ * обнаруживалась сразу.
+ */
+public final class Dictionary {
+    private final int id;
+    private final byte[] content;
+
+    /**
+     * Словарь с идентификатором, вычисленным по содержимому
+     * @param content содержимое словаря (копируется)
+     */
+    public Dictionary(byte[] content) {
+        this(computeId(content), content);
+    }
+
+    /**
+     * @param id ненулевой идентификатор словаря
+     * @param content содержимое словаря (копируется)
+     */
+    public Dictionary(int id, byte[] content) {
+        if (id == 0) {
+            throw new IllegalArgumentException("Dictionary id cannot be zero");
+        }
+        if (content == null || content.length == 0) {
+            throw new IllegalArgumentException("Dictionary cannot be empty");
+        }
+        this.id = id;
+        this.content = content.clone();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int size() {
+        return content.length;
+    }
+
+    /**
+     * @return копия содержимого словаря
+     */
+    public byte[] getContent() {
+        return content.clone();
+    }
+
+    /**
+     * @return часть словаря, доступная в окне: последние windowSize байт (только чтение)
+     */
+    public ByteBuffer window(int windowSize) {
+        int length = Math.min(content.length, windowSize);
+        return ByteBuffer.wrap(content, content.length - length, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Копирует доступную в окне часть словаря и данные [from, to) в один массив,
+     * чтобы совпадения могли ссылаться из данных в словарь
+     * @return массив, в котором данные начинаются с позиции min(size(), windowSize)
+     */
+    public byte[] prepend(int windowSize, byte[] data, int from, int to) {
+        int length = Math.min(content.length, windowSize);
+        byte[] result = new byte[length + to - from];
+        System.arraycopy(content, content.length - length, result, 0, length);
+        System.arraycopy(data, from, result, length, to - from);
+        return result;
+    }
+
+    /**
+     * Идентификатор по содержимому: CRC32C, ноль заменяется единицей
+     */
+    public static int computeId(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        int id = (int) crc.getValue();
+        return id == 0 ? 1 : id;
+    }
+
+    /**
+     * @return идентификатор в шестнадцатеричном виде для сообщений
+     */
+    public static String formatId(int id) {
+        return String.format("%08x", id);
+    }
+
+    @Override
+    public String toString() {
+        return "Dictionary[id=" + formatId(id) + ", size=" + content.length + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dictionary other && id == other.id && Arrays.equals(content, other.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+}
@@ -0,0 +1,134 @@
+package com.lz77.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Последовательность токенов LZ77 в виде трех примитивных массивов (смещения, длины, символы).
+ * В отличие от {@code List<Token>} не создает объект на каждый токен: миллионы токенов
+ * занимают девять байт каждый и не нагружают сборщик мусора.
+ * Метод {@link #add} подходит как приемник токенов компрессора: {@code buffer::add}.
+ */
+public final class TokenBuffer {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+
+    private int[] offsets;
+    private int[] lengths;
+    private byte[] nextChars;
+    private int size;
+
+    public TokenBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity начальная вместимость
+     */
+    public TokenBuffer(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.nextChars = new byte[capacity];
+    }
+
+    /**
+     * Копирует токены из списка
+     */
+    public static TokenBuffer of(List<Token> tokens) {
+        TokenBuffer buffer = new TokenBuffer(tokens.size());
+        for (Token token : tokens) {
+            buffer.add(token.offset(), token.length(), token.nextChar());
+        }
+        return buffer;
+    }
+
+    /**
+     * Добавляет токен. Значения не проверяются, см. {@code Validation.validateTokens}.
+     */
+    public void add(int offset, int length, byte nextChar) {
+        if (size == offsets.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            nextChars = Arrays.copyOf(nextChars, capacity);
+        }
+        offsets[size] = offset;
+        lengths[size] = length;
+        nextChars[size] = nextChar;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int offset(int index) {
+        return offsets[Objects.checkIndex(index, size)];
+    }
+
+    public int length(int index) {
+        return lengths[Objects.checkIndex(index, size)];
+    }
+
+    public byte nextChar(int index) {
+        return nextChars[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @return токен с индексом index в виде записи
+     */
+    public Token get(int index) {
+        Objects.checkIndex(index, size);
+        return new Token(offsets[index], lengths[index], nextChars[index]);
+    }
+
+    /**
+     * Удаляет все токены, сохраняя выделенную память
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return токены в виде списка записей
+     */
+    public List<Token> toList() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(new Token(offsets[i], lengths[i], nextChars[i]));
+        }
+        return tokens;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenBuffer other) || size != other.size) {
+            return false;
+        }
+        return Arrays.equals(offsets, 0, size, other.offsets, 0, size)
+                && Arrays.equals(lengths, 0, size, other.lengths, 0, size)
+                && Arrays.equals(nextChars, 0, size, other.nextChars, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + offsets[i];
+            result = 31 * result + lengths[i];
+            result = 31 * result + nextChars[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,356 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.BenchmarkResult;
+import com.lz77.model.CompressionMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Замер скорости сжатия и распаковки на реальных файлах без JMH: несколько итераций
+ * прогрева, затем измеряемые итерации. После прогрева результат распаковки сверяется
+ * с исходными данными. Скорость считается по исходному размеру и суммарному времени
+ * измеряемых итераций.
+ * Для сравнения между машинами отчет выводится таблицей, в CSV или в JSON
+ * с описанием среды выполнения.
+ */
+public class Benchmark {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 2;
+    public static final int DEFAULT_ITERATIONS = 5;
+
+    /**
+     * Способ сжатия
+     */
+    public enum Engine {
+        /** Кадры LZ77 в {@link ParallelCompressor} и {@link ParallelDecompressor} */
+        LZ77,
+        /** DEFLATE из java.util.zip как точка отсчета */
+        DEFLATE
+    }
+
+    /**
+     * Формат отчета
+     */
+    public enum Format {
+        TEXT, CSV, JSON
+    }
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final int threads;
+    private final EntropyCoder coder;
+
+    public Benchmark() {
+        this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS, Runtime.getRuntime().availableProcessors(),
+                EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * @param warmupIterations число итераций прогрева
+     * @param iterations число измеряемых итераций
+     * @param threads число потоков LZ77
+     * @param coder энтропийное кодирование блоков LZ77
+     */
+    public Benchmark(int warmupIterations, int iterations, int threads, EntropyCoder coder) {
+        if (warmupIterations < 0) {
+            throw new IllegalArgumentException("Warmup iterations must not be negative");
+        }
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.coder = coder;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Замеряет сжатие и распаковку данных
+     * @param file имя файла для отчета
+     * @param level уровень сжатия от {@link LZ77Compressor#MIN_LEVEL} до {@link LZ77Compressor#MAX_LEVEL}
+     * @throws IllegalStateException если распакованные данные не совпали с исходными
+     */
+    public BenchmarkResult run(String file, byte[] data, Engine engine, int level) throws IOException {
+        try (Codec codec = switch (engine) {
+            case LZ77 -> new Lz77Codec(LZ77Compressor.ofLevel(level));
+            case DEFLATE -> new DeflateCodec(level);
+        }) {
+            byte[] output = new byte[data.length];
+
+            byte[] compressed = null;
+            for (int i = 0; i < warmupIterations; i++) {
+                compressed = codec.compress(data);
+                codec.decompress(compressed, output);
+            }
+            if (compressed == null) {
+                compressed = codec.compress(data);
+            }
+            int decompressedSize = codec.decompress(compressed, output);
+            if (decompressedSize != data.length || !Arrays.equals(data, output)) {
+                throw new IllegalStateException("Round trip mismatch for " + file + " (" + engine
+                        + ", level " + level + ")");
+            }
+
+            System.gc();
+            List<MemoryPoolMXBean> pools = heapPools();
+            pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            long compressTime = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                compressed = codec.compress(data);
+                compressTime += System.nanoTime() - start;
+            }
+            long decompressTime = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                codec.decompress(compressed, output);
+                decompressTime += System.nanoTime() - start;
+            }
+            long peakHeap = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+            return new BenchmarkResult(file, engine.name().toLowerCase(Locale.ROOT), level,
+                    engine == Engine.LZ77 ? coder.name().toLowerCase(Locale.ROOT) : null,
+                    data.length, compressed.length, codec.tokens(),
+                    speed(data.length, compressTime), speed(data.length, decompressTime), peakHeap);
+        }
+    }
+
+    /**
+     * @return МБ/с по исходному размеру и суммарному времени итераций
+     */
+    private double speed(long size, long nanos) {
+        return nanos == 0 ? 0.0 : size * (double) iterations / nanos * 1e3;
+    }
+
+    /**
+     * Области кучи; их пики складываются, поэтому пик кучи оценивается сверху
+     */
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    /**
+     * Выводит отчет в заданном формате
+     */
+    public void write(List<BenchmarkResult> results, Format format, PrintStream out) {
+        switch (format) {
+            case TEXT -> writeText(results, out);
+            case CSV -> writeCsv(results, out);
+            case JSON -> writeJson(results, out);
+        }
+        out.flush();
+    }
+
+    private static void writeText(List<BenchmarkResult> results, PrintStream out) {
+        out.printf(Locale.ROOT, "%-24s %-7s %5s %-7s %12s %12s %7s %7s %11s %11s %9s%n", "file", "engine",
+                "level", "coder", "input", "compressed", "ratio", "tok/B", "comp MB/s", "decomp MB/s", "heap MB");
+        for (BenchmarkResult r : results) {
+            out.printf(Locale.ROOT, "%-24s %-7s %5d %-7s %12d %12d %7.3f %7s %11.1f %11.1f %9.1f%n",
+                    r.file(), r.engine(), r.level(), r.coder() == null ? "-" : r.coder(), r.inputSize(),
+                    r.compressedSize(), r.ratio(), r.tokens() < 0 ? "-" : String.format(Locale.ROOT, "%.4f",
+                            r.tokensPerByte()), r.compressSpeed(), r.decompressSpeed(), r.peakHeap() / 1e6);
+        }
+    }
+
+    private static void writeCsv(List<BenchmarkResult> results, PrintStream out) {
+        out.println("file,engine,level,coder,input_bytes,compressed_bytes,ratio,tokens,tokens_per_byte,"
+                + "compress_mb_s,decompress_mb_s,peak_heap_bytes");
+        for (BenchmarkResult r : results) {
+            out.printf(Locale.ROOT, "%s,%s,%d,%s,%d,%d,%.4f,%s,%s,%.2f,%.2f,%d%n", csv(r.file()), r.engine(),
+                    r.level(), r.coder() == null ? "" : r.coder(), r.inputSize(), r.compressedSize(), r.ratio(),
+                    r.tokens() < 0 ? "" : Long.toString(r.tokens()),
+                    r.tokens() < 0 ? "" : String.format(Locale.ROOT, "%.6f", r.tokensPerByte()),
+                    r.compressSpeed(), r.decompressSpeed(), r.peakHeap());
+        }
+    }
+
+    private void writeJson(List<BenchmarkResult> results, PrintStream out) {
+        out.println("{");
+        out.printf(Locale.ROOT, "  \"environment\": {\"java\": %s, \"vm\": %s, \"os\": %s, \"arch\": %s, "
+                        + "\"processors\": %d, \"max_heap_bytes\": %d},%n",
+                json(System.getProperty("java.version")), json(System.getProperty("java.vm.name")),
+                json(System.getProperty("os.name") + " " + System.getProperty("os.version")),
+                json(System.getProperty("os.arch")), Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory());
+        out.printf(Locale.ROOT, "  \"warmup_iterations\": %d,%n  \"iterations\": %d,%n  \"threads\": %d,%n",
+                warmupIterations, iterations, threads);
+        out.println("  \"results\": [");
+        for (int i = 0; i < results.size(); i++) {
+            BenchmarkResult r = results.get(i);
+            out.printf(Locale.ROOT, "    {\"file\": %s, \"engine\": %s, \"level\": %d, \"coder\": %s, "
+                            + "\"input_bytes\": %d, \"compressed_bytes\": %d, \"ratio\": %.4f, \"tokens\": %s, "
+                            + "\"tokens_per_byte\": %s, \"compress_mb_s\": %.2f, \"decompress_mb_s\": %.2f, "
+                            + "\"peak_heap_bytes\": %d}%s%n",
+                    json(r.file()), json(r.engine()), r.level(), r.coder() == null ? "null" : json(r.coder()),
+                    r.inputSize(), r.compressedSize(), r.ratio(), r.tokens() < 0 ? "null" : Long.toString(r.tokens()),
+                    r.tokens() < 0 ? "null" : String.format(Locale.ROOT, "%.6f", r.tokensPerByte()),
+                    r.compressSpeed(), r.decompressSpeed(), r.peakHeap(), i < results.size() - 1 ? "," : "");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /**
+     * Поле CSV: значения с запятыми, кавычками и переводами строк берутся в кавычки
+     */
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Строка JSON в кавычках с экранированными символами
+     */
+    private static String json(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Кодек держит нативные ресурсы (например, {@link Deflater}), поэтому закрывается после замера
+     */
+    private interface Codec extends AutoCloseable {
+        byte[] compress(byte[] data) throws IOException;
+
+        /**
+         * @return число распакованных байт
+         */
+        int decompress(byte[] compressed, byte[] output) throws IOException;
+
+        /**
+         * @return число токенов последнего сжатия или -1
+         */
+        long tokens();
+
+        @Override
+        default void close() {
+        }
+    }
+
+    private final class Lz77Codec implements Codec {
+        private final ParallelCompressor parallelCompressor;
+        private final ParallelDecompressor parallelDecompressor;
+        private CompressionMetrics metrics;
+
+        Lz77Codec(LZ77Compressor compressor) {
+            this.parallelCompressor = new ParallelCompressor(compressor, threads,
+                    ParallelCompressor.DEFAULT_BLOCK_SIZE, coder, result -> metrics = result);
+            this.parallelDecompressor = new ParallelDecompressor(threads);
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            return parallelCompressor.compress(data);
+        }
+
+        @Override
+        public int decompress(byte[] compressed, byte[] output) throws IOException {
+            return parallelDecompressor.decompress(compressed, output, 0);
+        }
+
+        @Override
+        public long tokens() {
+            return metrics.tokens();
+        }
+    }
+
+    private static final class DeflateCodec implements Codec {
+        private final Deflater deflater;
+        private final Inflater inflater = new Inflater();
+        private final byte[] chunk = new byte[1 << 16];
+
+        DeflateCodec(int level) {
+            this.deflater = new Deflater(level);
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public int decompress(byte[] compressed, byte[] output) throws IOException {
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int size = 0;
+                while (!inflater.finished() && size < output.length) {
+                    int n = inflater.inflate(output, size, output.length - size);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated deflate data");
+                    }
+                    size += n;
+                }
+                return size;
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted deflate data", e);
+            }
+        }
+
+        @Override
+        public long tokens() {
+            return -1;
+        }
+
+        /**
+         * Освобождает нативную память zlib, не дожидаясь сборки мусора
+         */
+        @Override
+        public void close() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+}
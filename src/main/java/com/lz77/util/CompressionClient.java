@@ -0,0 +1,84 @@
+package com.lz77.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Клиент {@link CompressionServer}: одно соединение, запросы выполняются по очереди.
+ * Клиент не потокобезопасен; для одновременных запросов нужны отдельные клиенты.
+ */
+public class CompressionClient implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * @param socketPath путь файла сокета сервера
+     * @throws IOException если сервер не запущен
+     */
+    public CompressionClient(Path socketPath) throws IOException {
+        try {
+            this.channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            throw new IOException("Cannot connect to server at " + socketPath + ": " + e.getMessage(), e);
+        }
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * @return данные формата {@link TokenFormat}
+     * @throws IOException если сервер вернул ошибку или соединение прервано
+     */
+    public byte[] compress(byte[] data) throws IOException {
+        return call(CompressionServer.COMPRESS, data);
+    }
+
+    /**
+     * @param compressed данные формата {@link TokenFormat} без словаря
+     * @throws IOException если данные повреждены или соединение прервано
+     */
+    public byte[] decompress(byte[] compressed) throws IOException {
+        return call(CompressionServer.DECOMPRESS, compressed);
+    }
+
+    private byte[] call(byte operation, byte[] data) throws IOException {
+        if (data.length > CompressionServer.MAX_MESSAGE_SIZE) {
+            throw new IOException("Message too large: " + data.length + " bytes, at most "
+                    + CompressionServer.MAX_MESSAGE_SIZE);
+        }
+        out.writeByte(operation);
+        out.writeInt(data.length);
+        out.write(data);
+        out.flush();
+
+        int status = in.readUnsignedByte();
+        int length = in.readInt();
+        if (length < 0 || length > CompressionServer.MAX_MESSAGE_SIZE) {
+            throw new IOException("Invalid response length: " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        if (status == CompressionServer.STATUS_ERROR) {
+            throw new IOException("Server error: " + new String(payload, StandardCharsets.UTF_8));
+        }
+        if (status != CompressionServer.STATUS_OK) {
+            throw new IOException("Invalid response status: " + status);
+        }
+        return payload;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,380 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.CompressionContext;
+import com.lz77.algorithm.DecompressionContext;
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.LZ77Decompressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.TokenBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Локальный сервер сжатия на Unix domain socket. JVM запускается один раз, а короткие
+ * скрипты отправляют данные через {@link CompressionClient} и получают скорость
+ * прогретого JIT без затрат на запуск. Каждое соединение обслуживается своим
+ * виртуальным потоком. Таблицы поиска, буферы токенов и блоков берутся из
+ * {@link ContextPool}, поэтому небольшие запросы не выделяют крупных массивов.
+ * Данные запросов, читаемые одновременно, ограничены бюджетом {@link #MEMORY_BUDGET}
+ * байт: соединение берет из бюджета длину запроса до чтения данных и ждет,
+ * пока другие запросы его не освободят.
+ *
+ * Протокол: по соединению передается любое число запросов подряд. Запрос — код
+ * операции (байт {@link #COMPRESS} или {@link #DECOMPRESS}), длина данных (int) и данные.
+ * Ответ — статус (байт {@link #STATUS_OK} или {@link #STATUS_ERROR}), длина (int)
+ * и результат или сообщение об ошибке в UTF-8. После ошибки в данных соединение
+ * продолжает работать, после некорректного запроса — закрывается.
+ * Сжатый результат — данные формата {@link TokenFormat} без кадров, их распаковывает
+ * и команда decompress; сервер распаковывает и файлы, сжатые командой compress.
+ */
+public class CompressionServer implements Closeable {
+    public static final byte COMPRESS = 1;
+    public static final byte DECOMPRESS = 2;
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+
+    /**
+     * Наибольший размер данных запроса и ответа
+     */
+    public static final int MAX_MESSAGE_SIZE = 1 << 28;
+
+    /**
+     * Наибольший суммарный размер данных запросов в обработке
+     */
+    public static final int MEMORY_BUDGET = 1 << 30;
+
+    /**
+     * Буферы исполнителя растут до самого большого запроса; исполнитель, обработавший
+     * запрос больше этого размера, не возвращается в пул, чтобы пул не удерживал
+     * сотни мегабайт после редкого крупного запроса
+     */
+    private static final int RETAINED_MESSAGE_SIZE = 4 << 20;
+
+    private final Path socketPath;
+    private final LZ77Compressor compressor;
+    private final EntropyCoder coder;
+    private final int maxMessageSize;
+    // Бюджет в байтах; честный, чтобы крупный запрос не ждал бесконечно за мелкими
+    private final Semaphore memory;
+    private final ContextPool<Worker> workers;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ServerSocketChannel server;
+    private volatile Thread acceptor;
+
+    /**
+     * @param socketPath путь файла сокета
+     * @param compressor настройки сжатия
+     */
+    public CompressionServer(Path socketPath, LZ77Compressor compressor) {
+        this(socketPath, compressor, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * @param socketPath путь файла сокета
+     * @param compressor настройки сжатия
+     * @param coder энтропийное кодирование блоков токенов
+     */
+    public CompressionServer(Path socketPath, LZ77Compressor compressor, EntropyCoder coder) {
+        this(socketPath, compressor, coder, MAX_MESSAGE_SIZE, MEMORY_BUDGET);
+    }
+
+    /**
+     * @param maxMessageSize наибольший размер запроса и ответа, не больше {@link #MAX_MESSAGE_SIZE}
+     * @param memoryBudget наибольший суммарный размер запросов в обработке, не меньше maxMessageSize
+     */
+    CompressionServer(Path socketPath, LZ77Compressor compressor, EntropyCoder coder, int maxMessageSize,
+                      int memoryBudget) {
+        if (maxMessageSize <= 0 || maxMessageSize > MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid message size limit: " + maxMessageSize);
+        }
+        if (memoryBudget < maxMessageSize) {
+            throw new IllegalArgumentException("Memory budget " + memoryBudget
+                    + " is less than the message size limit " + maxMessageSize);
+        }
+        this.memory = new Semaphore(memoryBudget, true);
+        this.socketPath = socketPath;
+        this.compressor = compressor;
+        this.coder = coder;
+        this.maxMessageSize = maxMessageSize;
+        this.workers = new ContextPool<>(Worker::new);
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /**
+     * Открывает сокет и начинает принимать соединения в отдельном потоке.
+     * Файл сокета, оставшийся от завершенного сервера, удаляется. На POSIX-системах
+     * права файла сокета сразу после создания ограничиваются владельцем (rw-------);
+     * до этого момента они определяются umask процесса, поэтому каталог сокета
+     * не должен быть доступен на запись другим пользователям.
+     * @throws IOException если на этом пути уже работает сервер или лежит не сокет
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        removeStaleSocket();
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.bind(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        try {
+            restrictToOwner();
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(socketPath);
+            throw e;
+        }
+        server = channel;
+        acceptor = Thread.ofVirtual().name("lz77-server").start(this::acceptConnections);
+    }
+
+    /**
+     * Ждет остановки сервера методом {@link #close()}
+     */
+    public void join() throws InterruptedException {
+        Thread thread = acceptor;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Перестает принимать соединения, закрывает открытые и удаляет файл сокета
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        ServerSocketChannel channel = server;
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        channel.close();
+        connections.shutdownNow();
+        Files.deleteIfExists(socketPath);
+    }
+
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        if (Files.isRegularFile(socketPath) || Files.isDirectory(socketPath)) {
+            throw new IOException("Not a socket: " + socketPath);
+        }
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+        } catch (ConnectException e) {
+            // Никто не слушает: файл остался от завершенного сервера
+            Files.delete(socketPath);
+            return;
+        }
+        throw new IOException("Server already running on " + socketPath);
+    }
+
+    private void restrictToOwner() throws IOException {
+        if (Files.getFileStore(socketPath).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+        }
+    }
+
+    private void acceptConnections() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                // Сокет закрыт методом close
+                return;
+            }
+            try {
+                connections.execute(() -> serve(channel));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(channel);
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            while (true) {
+                int operation = in.read();
+                if (operation < 0) {
+                    return;
+                }
+                int length = in.readInt();
+                if ((operation != COMPRESS && operation != DECOMPRESS) || length < 0 || length > maxMessageSize) {
+                    writeError(out, "Invalid request: operation " + operation + ", length " + length);
+                    out.flush();
+                    return;
+                }
+                // Бюджет берется до выделения массива запроса
+                memory.acquire(length);
+                try {
+                    byte[] payload = in.readNBytes(length);
+                    if (payload.length != length) {
+                        throw new EOFException("Request truncated");
+                    }
+                    handle(operation, payload, out);
+                    out.flush();
+                } finally {
+                    memory.release(length);
+                }
+            }
+        } catch (IOException e) {
+            // Клиент закрыл соединение или сервер остановлен
+        } catch (InterruptedException e) {
+            // Сервер остановлен, пока соединение ждало бюджета
+        }
+    }
+
+    private void handle(int operation, byte[] payload, DataOutputStream out) throws IOException {
+        Worker worker = workers.acquire();
+        worker.messageSize = payload.length;
+        try {
+            ByteBuffer result;
+            try {
+                result = operation == COMPRESS ? worker.compress(payload) : worker.decompress(payload);
+            } catch (IOException | RuntimeException e) {
+                writeError(out, e.getMessage() != null ? e.getMessage() : e.toString());
+                return;
+            }
+            if (result.remaining() > maxMessageSize) {
+                // Несжимаемые данные у предела запроса дают ответ больше предела, который клиент не примет
+                writeError(out, "Response exceeds " + maxMessageSize + " bytes");
+                return;
+            }
+            out.writeByte(STATUS_OK);
+            out.writeInt(result.remaining());
+            worker.write(result, out);
+        } finally {
+            if (worker.messageSize <= RETAINED_MESSAGE_SIZE) {
+                workers.release(worker);
+            }
+        }
+    }
+
+    private static void writeError(DataOutputStream out, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(STATUS_ERROR);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Соединение уже не нужно
+        }
+    }
+
+    /**
+     * Состояние обработки одного запроса: контексты сжатия и распаковки,
+     * буфер токенов и запись блоков. Берется из пула на время запроса.
+     */
+    private final class Worker {
+        private final CompressionContext compression = new CompressionContext(compressor);
+        private DecompressionContext decompression = new DecompressionContext(
+                new LZ77Decompressor(compressor.getWindowSize()));
+        private final TokenBuffer tokens = new TokenBuffer();
+        private final MessageBuffer output = new MessageBuffer();
+        private final DataOutputStream dataOut = new DataOutputStream(output);
+        private final TokenBlockWriter writer = new TokenBlockWriter(dataOut, coder);
+        private final byte[] chunk = new byte[8192];
+        // Наибольший из размеров запроса и результата, до которого выросли буферы
+        private long messageSize;
+
+        ByteBuffer compress(byte[] input) throws IOException {
+            TokenBuffer compressed = compression.compress(input);
+            output.reset();
+            TokenFormat.writeHeader(dataOut, compressor.getWindowSize(), TokenFormat.FLAG_BLOCK_ENCODING,
+                    input.length);
+            writer.writeAll(compressed);
+            dataOut.flush();
+            messageSize = Math.max(messageSize, output.size());
+            return output.view();
+        }
+
+        ByteBuffer decompress(byte[] compressed) throws IOException {
+            TokenBlockReader reader = new TokenBlockReader(new DataInputStream(new ByteArrayInputStream(compressed)));
+            TokenFormat.Header header = reader.header();
+            if (header.hasDictionary()) {
+                throw new IOException("Data compressed with a dictionary is not supported by the server");
+            }
+            tokens.clear();
+            while (reader.next()) {
+                tokens.add(reader.offset(), reader.length(), reader.nextChar());
+            }
+            long decodedSize = LZ77Decompressor.decodedSize(tokens);
+            if (decodedSize > maxMessageSize) {
+                throw new IOException("Decompressed data exceeds " + maxMessageSize + " bytes");
+            }
+            messageSize = Math.max(messageSize, decodedSize);
+            if (decompression.getDecompressor().getWindowSize() != header.windowSize()) {
+                decompression = new DecompressionContext(new LZ77Decompressor(header.windowSize()));
+            }
+            ByteBuffer result = decompression.decompress(tokens);
+            if (header.hasContentSize() && header.contentSize() != result.remaining()) {
+                throw new IOException("Content size mismatch: expected " + header.contentSize()
+                        + " bytes, decoded " + result.remaining());
+            }
+            return result;
+        }
+
+        /**
+         * Пишет результат; буфер распаковки доступен только для чтения, поэтому копируется частями
+         */
+        void write(ByteBuffer result, DataOutputStream out) throws IOException {
+            if (result.hasArray()) {
+                out.write(result.array(), result.arrayOffset() + result.position(), result.remaining());
+                return;
+            }
+            while (result.hasRemaining()) {
+                int n = Math.min(chunk.length, result.remaining());
+                result.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Буфер сжатого результата, содержимое которого можно отдать без копирования
+     */
+    private static final class MessageBuffer extends ByteArrayOutputStream {
+        ByteBuffer view() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
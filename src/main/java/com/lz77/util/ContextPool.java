@@ -0,0 +1,108 @@
+package com.lz77.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул переиспользуемых объектов (например,
+ * {@link com.lz77.algorithm.CompressionContext}) без блокировок.
+ * Объекты лежат в ячейках массива; поток начинает поиск с ячейки по своему
+ * идентификатору, поэтому разные потоки обычно берут разные ячейки и не спорят
+ * за одну. Если свободного объекта нет, создается новый, а лишний при возврате
+ * отбрасывается: пул никогда не ждет и хранит не больше capacity объектов.
+ * Пул не использует ThreadLocal и synchronized, поэтому одинаково работает
+ * с обычными и виртуальными потоками: объект принадлежит задаче между
+ * {@link #acquire()} и {@link #release}, а не потоку.
+ */
+public class ContextPool<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<? extends T> factory;
+
+    /**
+     * Пул на удвоенное число процессоров
+     * @param factory создает объект, если свободного нет
+     */
+    public ContextPool(Supplier<? extends T> factory) {
+        this(Runtime.getRuntime().availableProcessors() * 2, factory);
+    }
+
+    /**
+     * @param capacity наибольшее число хранимых объектов
+     * @param factory создает объект, если свободного нет
+     */
+    public ContextPool(int capacity, Supplier<? extends T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = Objects.requireNonNull(factory);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return свободный объект из пула или новый, если свободных нет
+     */
+    public T acquire() {
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int index = (start + i) % slots.length();
+            T item = slots.getPlain(index);
+            if (item != null && slots.compareAndSet(index, item, null)) {
+                return item;
+            }
+        }
+        return Objects.requireNonNull(factory.get(), "Pool factory returned null");
+    }
+
+    /**
+     * Возвращает объект в пул; если пул полон, объект отбрасывается.
+     * После возврата объектом пользоваться нельзя.
+     */
+    public void release(T item) {
+        Objects.requireNonNull(item);
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int index = (start + i) % slots.length();
+            if (slots.getPlain(index) == null && slots.compareAndSet(index, null, item)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Выполняет действие с объектом из пула и возвращает объект,
+     * даже если действие завершилось исключением
+     */
+    public void use(Consumer<? super T> action) {
+        T item = acquire();
+        try {
+            action.accept(item);
+        } finally {
+            release(item);
+        }
+    }
+
+    /**
+     * @return число свободных объектов в пуле в момент вызова
+     */
+    public int available() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int start() {
+        // Перемешивание, чтобы соседние идентификаторы потоков не шли подряд
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) ((id >>> 32) % slots.length());
+    }
+}
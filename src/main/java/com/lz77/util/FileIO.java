@@ -1,17 +1,24 @@
 package com.lz77.util;
 
+import com.lz77.algorithm.LZ77Decompressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.CompressedData;
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 /**
  * Класс для чтения/записи файлов и сериализации токенов
  */
 public class FileIO {
-    private static final String TOKENS_HEADER = "LZ77TOKENSv1.0";
+    private static final int DICTIONARY_MAGIC = 0x4C5A3744; // "LZ7D"
 
     /**
      * Чтение файла в массив байтов
@@ -32,40 +39,147 @@ public class FileIO {
         Files.write(path, data);
     }
 
-    public static void writeTokens(String filePath, List<Token> tokens) throws IOException {
-        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(filePath))) {
-            dos.writeUTF(TOKENS_HEADER);
-            dos.writeInt(tokens.size());
-
-            for (Token token : tokens) {
-                // Явно указываем типы при записи
-                dos.writeInt(token.offset());    // Всегда 4 байта
-                dos.writeInt(token.length());    // Всегда 4 байта
-                dos.writeByte(token.nextChar()); // Всегда 1 байт
+    /**
+     * Отображение файла в память только для чтения.
+     * Данные не копируются в кучу, страницы подгружает ОС по мере обращения.
+     * @throws IOException если файла нет или он больше 2 ГБ
+     */
+    public static MappedByteBuffer mapFile(String filePath) throws IOException {
+        Path path = Path.of(filePath);
+        if (!Files.exists(path)) {
+            throw new IOException("File not found: " + filePath);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map at once: " + filePath);
             }
+            // Отображение остается действительным и после закрытия канала
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Создает (или перезаписывает) файл заданного размера и отображает его в память для записи
+     * @throws IOException если размер больше 2 ГБ
+     */
+    public static MappedByteBuffer mapOutputFile(String filePath, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size for a mapped file: " + size);
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    public static void writeTokens(String filePath, List<Token> tokens) throws IOException {
+        writeTokens(filePath, tokens, TokenFormat.LEGACY_WINDOW_SIZE);
+    }
+
+    /**
+     * Запись токенов вместе с размером окна, нужным для распаковки.
+     * Используется компактный формат версии 2, см. {@link TokenBlockWriter}.
+     */
+    public static void writeTokens(String filePath, List<Token> tokens, int windowSize) throws IOException {
+        writeTokens(filePath, tokens, windowSize, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * Запись токенов с выбранным энтропийным кодированием блоков
+     */
+    public static void writeTokens(String filePath, List<Token> tokens, int windowSize,
+                                   EntropyCoder coder) throws IOException {
+        writeTokens(filePath, TokenBuffer.of(tokens), windowSize, coder);
+    }
+
+    public static void writeTokens(String filePath, TokenBuffer tokens, int windowSize) throws IOException {
+        writeTokens(filePath, tokens, windowSize, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * Запись токенов из буфера с выбранным энтропийным кодированием блоков.
+     * В заголовок записывается размер распакованных данных.
+     */
+    public static void writeTokens(String filePath, TokenBuffer tokens, int windowSize,
+                                   EntropyCoder coder) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            // Для заведомо некорректных токенов (отрицательные длины) размер не записывается
+            long contentSize = LZ77Decompressor.decodedSize(tokens);
+            TokenFormat.writeHeader(dos, windowSize, TokenFormat.FLAG_BLOCK_ENCODING,
+                    contentSize >= 0 ? contentSize : TokenFormat.UNKNOWN_SIZE);
+            new TokenBlockWriter(dos, coder).writeAll(tokens);
         }
     }
 
     public static List<Token> readTokens(String filePath) throws IOException {
-        try (DataInputStream dis = new DataInputStream(new FileInputStream(filePath))) {
-            String header = dis.readUTF();
-            if (!header.equals(TOKENS_HEADER)) {
-                throw new IOException("Invalid file format");
-            }
+        return readCompressedData(filePath).tokens();
+    }
 
-            int count = dis.readInt();
-            List<Token> tokens = new ArrayList<>(count);
+    /**
+     * Чтение токенов и параметров заголовка (поддерживаются версии 1.0, 1.1 и 2)
+     */
+    public static CompressedData readCompressedData(String filePath) throws IOException {
+        TokenBuffer tokens = new TokenBuffer();
+        int windowSize = readTokens(filePath, tokens);
+        return new CompressedData(windowSize, tokens.toList());
+    }
 
-            for (int i = 0; i < count; i++) {
-                // Чтение в том же порядке, что и запись
-                int offset = dis.readInt();    // 4 байта
-                int length = dis.readInt();    // 4 байта
-                byte nextChar = dis.readByte(); // 1 байт
-                tokens.add(new Token(offset, length, nextChar));
+    /**
+     * Чтение токенов в буфер без создания записей {@link Token}
+     * @param tokens буфер, в конец которого добавляются токены
+     * @return размер окна из заголовка
+     */
+    public static int readTokens(String filePath, TokenBuffer tokens) throws IOException {
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filePath)))) {
+            TokenBlockReader reader = new TokenBlockReader(dis);
+            while (reader.next()) {
+                tokens.add(reader.offset(), reader.length(), reader.nextChar());
             }
+            return reader.header().windowSize();
+        }
+    }
 
-            return tokens;
+    /**
+     * Чтение диапазона распакованных данных сжатого файла.
+     * Для файлов с индексом кадров распаковываются только нужные кадры.
+     * Для нескольких чтений из одного файла выгоднее держать открытым {@link SeekableReader}.
+     */
+    public static byte[] readRange(String filePath, long offset, int length) throws IOException {
+        try (SeekableReader reader = new SeekableReader(filePath)) {
+            return reader.read(offset, length);
+        }
+    }
+
+    /**
+     * Запись словаря: сигнатура "LZ7D", идентификатор (int) и содержимое до конца файла
+     */
+    public static void writeDictionary(String filePath, Dictionary dictionary) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            dos.writeInt(DICTIONARY_MAGIC);
+            dos.writeInt(dictionary.getId());
+            dos.write(dictionary.getContent());
+        }
+    }
+
+    /**
+     * Чтение словаря, записанного {@link #writeDictionary}
+     * @throws IOException если файл не является словарем
+     */
+    public static Dictionary readDictionary(String filePath) throws IOException {
+        byte[] data = readFile(filePath);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (data.length <= 2 * Integer.BYTES || in.readInt() != DICTIONARY_MAGIC) {
+            throw new IOException("Invalid dictionary file: " + filePath);
+        }
+        int id = in.readInt();
+        if (id == 0) {
+            throw new IOException("Invalid dictionary id in " + filePath);
         }
+        return new Dictionary(id, in.readAllBytes());
     }
 
     /**
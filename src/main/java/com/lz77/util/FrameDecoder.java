@@ -0,0 +1,83 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.MatchCopy;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Распаковка одного независимого кадра в заранее выделенный участок результата
+ */
+final class FrameDecoder {
+    private FrameDecoder() {
+    }
+
+    /**
+     * Распаковывает кадр в его участок результата (индексы участка начинаются с нуля)
+     * @param compressed сжатые данные, в которых кадр находится по смещению из frame
+     * @param history окончание словаря перед кадром (см. {@link TokenFormat#dictionaryWindow})
+     */
+    static void decode(ByteBuffer compressed, TokenFormat.Header header, TokenFormat.Frame frame,
+                       ByteBuffer out, ByteBuffer history) throws IOException {
+        if (frame.compressedOffset() < 0 || frame.compressedOffset() > compressed.limit() - frame.compressedSize()) {
+            throw new IOException("Frame at offset " + frame.compressedOffset() + " is outside the compressed data");
+        }
+        decodeBlocks(compressed.slice((int) frame.compressedOffset(), frame.compressedSize()), header,
+                frame.blocks(), frame.uncompressedSize(), out, history);
+    }
+
+    /**
+     * Распаковывает кадр по буферу с его блоками, например, отображенными в память
+     * отдельно от остального файла
+     * @param blocks блоки кадра с начала буфера
+     * @param blockCount число блоков кадра
+     * @param size размер исходных данных кадра
+     */
+    static void decodeBlocks(ByteBuffer blocks, TokenFormat.Header header, int blockCount, int size,
+                             ByteBuffer out, ByteBuffer history) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(blocks));
+        TokenBlockReader tokens = new TokenBlockReader(in, header, blockCount);
+        int windowSize = header.windowSize();
+        int historyLength = history.remaining();
+        int pos = 0;
+
+        while (tokens.next()) {
+            int offset = tokens.offset();
+            int length = tokens.length();
+            byte nextChar = tokens.nextChar();
+            if (offset == 0) {
+                checkSpace(pos, 1, size);
+                out.put(pos++, nextChar);
+                continue;
+            }
+            if (offset > pos + historyLength || offset > windowSize) {
+                throw new IOException("Invalid token: offset " + offset + " is outside the window");
+            }
+            checkSpace(pos, length, size);
+            if (offset > pos) {
+                // Начало совпадения в словаре, остаток — уже в кадре
+                int fromHistory = Math.min(length, offset - pos);
+                out.put(pos, history, history.position() + historyLength - (offset - pos), fromHistory);
+                MatchCopy.copy(out, pos + fromHistory, offset, length - fromHistory);
+            } else {
+                MatchCopy.copy(out, pos, offset, length);
+            }
+            pos += length;
+            if (nextChar != 0) {
+                checkSpace(pos, 1, size);
+                out.put(pos++, nextChar);
+            }
+        }
+        if (pos != size) {
+            throw new IOException("Frame size mismatch: expected " + size + " bytes, decoded " + pos);
+        }
+    }
+
+    private static void checkSpace(int pos, int length, int size) throws IOException {
+        if (length > LZ77Compressor.MAX_MATCH_LENGTH || length > size - pos) {
+            throw new IOException("Frame data exceeds its declared size");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.RingBuffer;
+import com.lz77.jfr.DecompressEvent;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Поток, распаковывающий данные по мере чтения.
+ * Токены читаются по одному, история хранится в кольцевом буфере размера окна,
+ * поэтому память не зависит от размера файла.
+ * Событие JFR {@link DecompressEvent} охватывает время от создания потока до конца данных.
+ */
+public class LZ77InputStream extends InputStream {
+    private final CountingInputStream counting;
+    private final DataInputStream in;
+    private final TokenBlockReader tokens;
+    private final RingBuffer history;
+    private final PendingBytes pending = new PendingBytes();
+    private final DecompressEvent event = new DecompressEvent();
+    private boolean ended;
+
+    public LZ77InputStream(InputStream in) throws IOException {
+        event.begin();
+        this.counting = new CountingInputStream(in);
+        this.in = new DataInputStream(counting);
+        this.tokens = new TokenBlockReader(this.in);
+        int windowSize = tokens.header().windowSize();
+        if (windowSize < LZ77Compressor.MIN_WINDOW_SIZE || windowSize > LZ77Compressor.MAX_WINDOW_SIZE
+                || Integer.bitCount(windowSize) != 1) {
+            throw new IOException("Invalid window size in header: " + windowSize);
+        }
+        if (tokens.header().hasDictionary()) {
+            // Каждый кадр начинается с окончания словаря, а не с конца предыдущего кадра
+            throw new IOException("Data compressed with a dictionary must be read with ParallelDecompressor");
+        }
+        this.history = new RingBuffer(windowSize, pending);
+    }
+
+    /**
+     * @return размер окна из заголовка
+     */
+    public int getWindowSize() {
+        return tokens.header().windowSize();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if ((off | len) < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (pending.available() + history.unflushed() < len && decodeNextToken()) {
+            // накапливаем распакованные байты
+        }
+        history.flush();
+        if (pending.available() == 0) {
+            return -1;
+        }
+        return pending.drain(b, off, len);
+    }
+
+    @Override
+    public int available() {
+        return pending.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Распаковывает один токен в кольцевой буфер
+     * @return false, если поток закончился
+     */
+    private boolean decodeNextToken() throws IOException {
+        if (!tokens.next()) {
+            if (!ended) {
+                ended = true;
+                event.end();
+                if (event.shouldCommit()) {
+                    history.flush();
+                    event.commit(LZ77InputStream.class.getSimpleName(), tokens.header().windowSize(),
+                            counting.getCount(), history.position(), 0);
+                }
+            }
+            return false;
+        }
+        int length = tokens.length();
+        if (length > LZ77Compressor.MAX_MATCH_LENGTH) {
+            throw new IOException("Invalid token: length " + length + " is too large");
+        }
+        try {
+            if (tokens.offset() == 0) {
+                history.write(tokens.nextChar());
+            } else {
+                history.copy(tokens.offset(), length);
+                if (tokens.nextChar() != 0) {
+                    history.write(tokens.nextChar());
+                }
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Распакованные байты, еще не отданные читателю
+     */
+    private static final class PendingBytes extends OutputStream {
+        private byte[] data = new byte[1 << 16];
+        private int start;
+        private int end;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (end + len > data.length) {
+                // Сначала сдвигаем непрочитанные байты в начало, потом при необходимости растем
+                System.arraycopy(data, start, data, 0, end - start);
+                end -= start;
+                start = 0;
+                if (end + len > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, end + len));
+                }
+            }
+            System.arraycopy(b, off, data, end, len);
+            end += len;
+        }
+
+        int available() {
+            return end - start;
+        }
+
+        int drain(byte[] b, int off, int len) {
+            int n = Math.min(len, end - start);
+            System.arraycopy(data, start, b, off, n);
+            start += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.CompressionListener;
+import com.lz77.algorithm.CompressionStats;
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.MatchFinder;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.jfr.CompressEvent;
+import com.lz77.model.CompressionMetrics;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Поток, сжимающий данные по мере записи.
+ * В памяти хранится только буфер из окна, не меньше мегабайта новых данных и запаса
+ * под самое длинное совпадение: когда буфер заполняется, данные и позиции структуры
+ * поиска сдвигаются на кратное окну.
+ * Токены пишутся блоками в формате версии 2, см. {@link TokenBlockWriter}.
+ * Измерения передаются {@link CompressionListener} при завершении потока; общим временем
+ * считается время сжатия внутри потока, без времени, пока вызывающий код готовит данные.
+ * Событие JFR {@link CompressEvent} охватывает время от создания до завершения потока.
+ */
+public class LZ77OutputStream extends OutputStream {
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+    // Сдвиг переписывает все таблицы структуры поиска, поэтому между сдвигами
+    // должно приходить не меньше мегабайта данных независимо от размера окна
+    private static final int MIN_SLIDE_DISTANCE = 1 << 20;
+
+    private final CountingOutputStream counting;
+    private final DataOutputStream out;
+    private final LZ77Compressor compressor;
+    private final MatchFinder matchFinder;
+    private final int windowSize;
+    // Сколько байт должно оставаться после позиции кодирования до конца данных:
+    // совпадение, следующий символ и байты для хеша пропускаемых позиций
+    private final int margin;
+    private final int capacity;
+
+    private byte[] buffer;
+    private int pos;
+    private int limit;
+    private int slides;
+
+    private final TokenBlockWriter tokens;
+    private final CompressionListener listener;
+    private final EntropyCoder coder;
+    private final CompressEvent event = new CompressEvent();
+    private long compressionNanos;
+
+    private long bytesWritten;
+    private boolean finished;
+
+    public LZ77OutputStream(OutputStream out) throws IOException {
+        this(out, new LZ77Compressor());
+    }
+
+    /**
+     * @param out поток для сжатых данных
+     * @param compressor настройки сжатия (окно, длина совпадения, поиск)
+     */
+    public LZ77OutputStream(OutputStream out, LZ77Compressor compressor) throws IOException {
+        this(out, compressor, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * @param out поток для сжатых данных
+     * @param compressor настройки сжатия (окно, длина совпадения, поиск)
+     * @param coder энтропийное кодирование блоков токенов
+     */
+    public LZ77OutputStream(OutputStream out, LZ77Compressor compressor, EntropyCoder coder) throws IOException {
+        this(out, compressor, coder, null);
+    }
+
+    /**
+     * @param out поток для сжатых данных
+     * @param compressor настройки сжатия (окно, длина совпадения, поиск)
+     * @param coder энтропийное кодирование блоков токенов
+     * @param listener получатель измерений при завершении потока или null
+     */
+    public LZ77OutputStream(OutputStream out, LZ77Compressor compressor, EntropyCoder coder,
+                            CompressionListener listener) throws IOException {
+        event.begin();
+        this.counting = new CountingOutputStream(out);
+        this.out = new DataOutputStream(counting);
+        this.compressor = compressor;
+        this.matchFinder = compressor.newMatchFinder();
+        this.windowSize = compressor.getWindowSize();
+        this.margin = compressor.getMaxMatchLength() + 4;
+        this.capacity = windowSize + Math.max(windowSize, MIN_SLIDE_DISTANCE) + 2 * margin;
+        this.buffer = new byte[Math.min(capacity, INITIAL_BUFFER_SIZE)];
+        this.tokens = new TokenBlockWriter(this.out, coder);
+        this.listener = listener;
+        this.coder = coder;
+        TokenFormat.writeHeader(this.out, windowSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len) < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (limit == buffer.length) {
+                makeRoom();
+            }
+            int n = Math.min(len, buffer.length - limit);
+            System.arraycopy(b, off, buffer, limit, n);
+            limit += n;
+            off += n;
+            len -= n;
+            bytesWritten += n;
+        }
+    }
+
+    /**
+     * Записывает все готовые токены. Последние байты остаются в буфере,
+     * пока не станет известно продолжение данных.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        long start = System.nanoTime();
+        encodeUpTo(limit - margin);
+        tokens.writeBlock();
+        out.flush();
+        compressionNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Сжимает оставшиеся данные и записывает конец потока, не закрывая выходной поток
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        long start = System.nanoTime();
+        encodeUpTo(limit);
+        tokens.finish();
+        out.flush();
+        finished = true;
+        compressionNanos += System.nanoTime() - start;
+        event.end();
+        if (listener != null || event.shouldCommit()) {
+            CompressionStats stats = tokens.getStats();
+            stats.addInput(bytesWritten);
+            stats.addProbes(matchFinder.getProbes());
+            CompressionMetrics metrics = stats.toMetrics(counting.getCount(), compressionNanos);
+            if (event.shouldCommit()) {
+                event.commit(LZ77OutputStream.class.getSimpleName(), compressor.getLevel(), windowSize,
+                        coder.name(), metrics);
+            }
+            if (listener != null) {
+                listener.onCompressed(metrics);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return число байт, принятых на сжатие
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return число записанных токенов
+     */
+    public long getTokensWritten() {
+        return tokens.getTokensWritten();
+    }
+
+    /**
+     * @return число сдвигов буфера и структуры поиска
+     */
+    int getSlides() {
+        return slides;
+    }
+
+    private void makeRoom() throws IOException {
+        long start = System.nanoTime();
+        encodeUpTo(limit - margin);
+        compressionNanos += System.nanoTime() - start;
+
+        if (buffer.length < capacity) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, 2L * buffer.length));
+            return;
+        }
+
+        // В буфере остается окно перед текущей позицией; сдвиг кратен окну,
+        // поэтому кольцевые индексы в структуре поиска не меняются
+        int delta = (pos - windowSize) / windowSize * windowSize;
+        System.arraycopy(buffer, delta, buffer, 0, limit - delta);
+        pos -= delta;
+        limit -= delta;
+        matchFinder.slide(delta);
+        slides++;
+    }
+
+    /**
+     * Кодирует буфер до позиции end порциями, чтобы блок токенов оставался ограниченным
+     */
+    private void encodeUpTo(int end) throws IOException {
+        while (pos < end) {
+            int sliceEnd = Math.min(end, pos + TokenBlockWriter.BLOCK_TOKENS);
+            long start = System.nanoTime();
+            pos = compressor.encode(buffer, pos, sliceEnd, limit, matchFinder, tokens);
+            tokens.getStats().addMatchFinding(System.nanoTime() - start);
+            if (tokens.isFull()) {
+                tokens.writeBlock();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.model.ArchiveEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntToLongFunction;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Архив каталога: каждый файл сжимается в отдельный контейнер {@link TokenFormat},
+ * а в конце архива записывается центральный каталог. Весь каталог обрабатывается
+ * одним запуском JVM, файлы — одновременно: чтение и запись идут в виртуальных
+ * потоках, по одному на файл, а сжатие и распаковка — в пуле из threads обычных
+ * потоков, поэтому ожидание диска не занимает процессоры. Объем данных в работе
+ * ограничен, чтобы прочитанные файлы не накапливались в памяти: небольшие файлы
+ * читаются и распаковываются целиком, а большие проходят по кадрам, отображенным
+ * в память, через временный файл рядом с архивом, и в куче находится только текущий кадр.
+ * Данные файлов и каталог лежат в порядке имен: готовый файл ждет записи предыдущего,
+ * поэтому архив одного и того же каталога не зависит от порядка завершения сжатия.
+ *
+ * Формат: сигнатура "LZ7A" (int), версия (байт), контейнеры файлов, каталог —
+ * число записей и для каждой длина имени, имя в UTF-8, смещение, размер контейнера,
+ * исходный размер (varint) и CRC32C исходных данных (int); в конце — смещение
+ * каталога (long) и сигнатура "LZ7A".
+ */
+public class ParallelArchiver {
+    private static final int MAGIC = 0x4C5A3741; // "LZ7A"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int MAX_ENTRY_SIZE = Integer.MAX_VALUE - 8;
+
+    // Данные в работе учитываются в мегабайтах; файл занимает не меньше мегабайта,
+    // поэтому одновременно открыто не больше MEMORY_BUDGET_MB файлов
+    private static final int MEMORY_BUDGET_MB = 256;
+    private static final long MB = 1 << 20;
+
+    // Файлы больше этого размера не загружаются в кучу целиком
+    private static final long STREAMING_SIZE = 32 * MB;
+    // Память потоковой обработки: кадр исходных данных и его сжатые блоки
+    private static final long STREAMING_MEMORY = 4L * ParallelCompressor.DEFAULT_BLOCK_SIZE;
+    // Часть файла, отображаемая за раз при подсчете контрольной суммы
+    private static final long CHECKSUM_CHUNK = 64 * MB;
+
+    // Файл записи открывается без перехода по символической ссылке
+    private static final OpenOption[] WRITE_OPTIONS = {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS};
+
+    private final LZ77Compressor compressor;
+    private final int threads;
+    private final long streamingSize;
+
+    public ParallelArchiver() {
+        this(new LZ77Compressor(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param compressor настройки сжатия файлов
+     * @param threads число потоков сжатия и распаковки
+     */
+    public ParallelArchiver(LZ77Compressor compressor, int threads) {
+        this(compressor, threads, STREAMING_SIZE);
+    }
+
+    /**
+     * @param streamingSize размер, начиная с которого файлы обрабатываются по кадрам
+     */
+    ParallelArchiver(LZ77Compressor compressor, int threads, long streamingSize) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.compressor = compressor;
+        this.threads = threads;
+        this.streamingSize = streamingSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Сжимает все файлы каталога, включая вложенные, в архив.
+     * Если сжатие не удалось, неполный архив удаляется.
+     * @return записи каталога архива в порядке имен
+     */
+    public List<ArchiveEntry> create(Path directory, Path archive) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Directory not found: " + directory);
+        }
+        List<SourceFile> files = listFiles(directory, archive);
+        // Файлы сжимаются целиком в потоках пула сжатия; с одним потоком кадры файла
+        // сжимаются прямо в этом потоке, без вложенного пула
+        ParallelCompressor fileCompressor = new ParallelCompressor(compressor, 1,
+                ParallelCompressor.DEFAULT_BLOCK_SIZE);
+        ArchiveEntry[] entries = new ArchiveEntry[files.size()];
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put((byte) VERSION).flip(), 0);
+            // Конец данных после каждой записи: ends[i] завершается, когда записан файл i - 1
+            List<CompletableFuture<Long>> ends = new ArrayList<>(files.size() + 1);
+            for (int i = 0; i <= files.size(); i++) {
+                ends.add(new CompletableFuture<>());
+            }
+            ends.get(0).complete((long) HEADER_SIZE);
+            Path spillDirectory = archive.toAbsolutePath().getParent();
+            runAll(files.size(), i -> memory(files.get(i).size()), (i, cpu) -> {
+                Path spill = null;
+                try {
+                    SourceFile file = files.get(i);
+                    if (file.size() > MAX_ENTRY_SIZE) {
+                        throw new IOException("File too large for an archive entry: " + file.path());
+                    }
+                    Packed packed;
+                    if (file.size() > streamingSize) {
+                        Path target = Files.createTempFile(spillDirectory, ".lza-", ".tmp");
+                        spill = target;
+                        packed = compute(cpu, () -> packLarge(fileCompressor, file.path(), target));
+                    } else {
+                        byte[] data = Files.readAllBytes(file.path());
+                        packed = compute(cpu, () -> {
+                            byte[] compressed = fileCompressor.compress(data);
+                            return new Packed(compressed, null, data.length, compressed.length, checksum(data));
+                        });
+                    }
+                    long offset = awaitTurn(ends.get(i));
+                    writeBody(channel, packed, offset);
+                    entries[i] = new ArchiveEntry(entryName(directory, file.path()), offset, packed.compressedSize(),
+                            packed.size(), packed.checksum());
+                    ends.get(i + 1).complete(offset + packed.compressedSize());
+                } catch (Exception e) {
+                    // Следующие файлы не дождутся своей очереди, их задачи завершаются той же ошибкой
+                    ends.get(i + 1).completeExceptionally(e);
+                    throw e;
+                } finally {
+                    if (spill != null) {
+                        Files.deleteIfExists(spill);
+                    }
+                }
+            });
+            long end = ends.get(files.size()).join();
+            writeFully(channel, ByteBuffer.wrap(writeDirectory(entries, end)), end);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(archive);
+            throw e;
+        }
+        return Arrays.asList(entries);
+    }
+
+    /**
+     * @return записи каталога архива
+     * @throws IOException если файл не является архивом или каталог поврежден
+     */
+    public List<ArchiveEntry> list(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            return readDirectory(channel);
+        }
+    }
+
+    /**
+     * Распаковывает все файлы архива в каталог, создавая вложенные каталоги.
+     * Имена всех записей проверяются до записи первого файла.
+     * @return записи каталога архива
+     * @throws IOException если архив поврежден, контрольная сумма не совпала
+     * или имя записи, в том числе через символическую ссылку в каталоге, выходит за его пределы
+     */
+    public List<ArchiveEntry> extract(Path archive, Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            List<ArchiveEntry> entries = readDirectory(channel);
+            Path root = directory.toAbsolutePath().normalize();
+            List<Path> targets = new ArrayList<>(entries.size());
+            for (ArchiveEntry entry : entries) {
+                targets.add(resolve(root, entry.name()));
+            }
+            Path realRoot = Files.createDirectories(root).toRealPath();
+            ParallelDecompressor fileDecompressor = new ParallelDecompressor(1);
+            runAll(entries.size(), i -> isLarge(entries.get(i)) ? STREAMING_MEMORY
+                    : entries.get(i).size() + entries.get(i).compressedSize(), (i, cpu) -> {
+                ArchiveEntry entry = entries.get(i);
+                if (entry.size() > MAX_ENTRY_SIZE || entry.compressedSize() > MAX_ENTRY_SIZE) {
+                    throw new IOException("Archive entry too large: " + entry.name());
+                }
+                if (isLarge(entry)) {
+                    createParent(realRoot, targets.get(i));
+                    compute(cpu, () -> unpackLarge(channel, entry, targets.get(i)));
+                    return;
+                }
+                ByteBuffer compressed = readFully(channel, entry.offset(), (int) entry.compressedSize());
+                byte[] data = compute(cpu, () -> {
+                    byte[] decoded = fileDecompressor.decompress(compressed);
+                    if (decoded.length != entry.size() || checksum(decoded) != entry.checksum()) {
+                        throw new IOException("Checksum mismatch for " + entry.name());
+                    }
+                    return decoded;
+                });
+                createParent(realRoot, targets.get(i));
+                Files.write(targets.get(i), data, WRITE_OPTIONS);
+            });
+            return entries;
+        }
+    }
+
+    /**
+     * Запускает задачу для каждого элемента 0..count-1 в своем виртуальном потоке.
+     * Перед запуском берется бюджет памяти элемента, поэтому при исчерпании бюджета
+     * ждет запускающий поток, а не тысячи виртуальных. После первой ошибки новые
+     * задачи не запускаются; ошибка выбрасывается после завершения запущенных.
+     */
+    private void runAll(int count, IntToLongFunction memory, EntryTask task) throws IOException {
+        Semaphore budget = new Semaphore(MEMORY_BUDGET_MB);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try (ExecutorService cpu = Executors.newFixedThreadPool(threads);
+             ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count && failure.get() == null; i++) {
+                int units = (int) Math.min(MEMORY_BUDGET_MB, Math.max(1, (memory.applyAsLong(i) + MB - 1) / MB));
+                try {
+                    budget.acquire(units);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, new InterruptedIOException("Archiving interrupted"));
+                    break;
+                }
+                int index = i;
+                io.execute(() -> {
+                    try {
+                        task.run(index, cpu);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        budget.release(units);
+                    }
+                });
+            }
+        }
+        Exception e = failure.get();
+        if (e instanceof IOException io) {
+            throw io;
+        }
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e != null) {
+            throw new IOException(e);
+        }
+    }
+
+    private long memory(long size) {
+        return size > streamingSize ? STREAMING_MEMORY : size;
+    }
+
+    private boolean isLarge(ArchiveEntry entry) {
+        return entry.size() > streamingSize || entry.compressedSize() > streamingSize;
+    }
+
+    /**
+     * Сжимает большой файл по кадрам, отображенным в память, во временный файл
+     */
+    private static Packed packLarge(ParallelCompressor fileCompressor, Path file, Path spill) throws IOException {
+        long compressedSize = fileCompressor.compressFile(file.toString(), spill.toString());
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            CRC32C crc = new CRC32C();
+            for (long position = 0; position < size; position += CHECKSUM_CHUNK) {
+                crc.update(in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHECKSUM_CHUNK, size - position)));
+            }
+            return new Packed(null, spill, size, compressedSize, (int) crc.getValue());
+        }
+    }
+
+    /**
+     * Распаковывает большую запись потоком из отображенного в память участка архива
+     * прямо в файл, проверяя размер и контрольную сумму по ходу записи
+     */
+    private static Void unpackLarge(FileChannel channel, ArchiveEntry entry, Path target) throws IOException {
+        ByteBuffer compressed = channel.map(FileChannel.MapMode.READ_ONLY, entry.offset(), entry.compressedSize());
+        CRC32C crc = new CRC32C();
+        try {
+            long size;
+            try (InputStream in = new LZ77InputStream(new ByteBufferInputStream(compressed));
+                 OutputStream out = new CheckedOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(target, WRITE_OPTIONS)), crc)) {
+                size = in.transferTo(out);
+            }
+            if (size != entry.size() || (int) crc.getValue() != entry.checksum()) {
+                throw new IOException("Checksum mismatch for " + entry.name());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Поврежденная запись не оставляет частично распакованный файл
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return null;
+    }
+
+    /**
+     * Пишет сжатый файл в архив: из массива или из временного файла
+     */
+    private static void writeBody(FileChannel channel, Packed packed, long offset) throws IOException {
+        if (packed.data() != null) {
+            writeFully(channel, ByteBuffer.wrap(packed.data()), offset);
+            return;
+        }
+        try (FileChannel spill = FileChannel.open(packed.spill(), StandardOpenOption.READ)) {
+            long done = 0;
+            while (done < packed.compressedSize()) {
+                long n = channel.transferFrom(spill, offset + done, packed.compressedSize() - done);
+                if (n <= 0) {
+                    throw new EOFException("Temporary file truncated: " + packed.spill());
+                }
+                done += n;
+            }
+        }
+    }
+
+    /**
+     * Ждет, пока будет записан предыдущий файл
+     * @return смещение, с которого пишется следующий файл
+     */
+    private static long awaitTurn(CompletableFuture<Long> previous) throws Exception {
+        try {
+            return previous.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * Выполняет работу в пуле сжатия; вызывающий виртуальный поток ждет результата
+     */
+    private static <T> T compute(ExecutorService cpu, Callable<T> work) throws Exception {
+        try {
+            return cpu.submit(work).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * Файлы каталога в порядке путей; сам архив, если он лежит в каталоге, пропускается
+     */
+    private static List<SourceFile> listFiles(Path directory, Path archive) throws IOException {
+        Path archivePath = archive.toAbsolutePath().normalize();
+        List<SourceFile> files = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && !file.toAbsolutePath().normalize().equals(archivePath)) {
+                    files.add(new SourceFile(file, attributes.size()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(Comparator.comparing(SourceFile::path));
+        return files;
+    }
+
+    private static String entryName(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Путь записи внутри root; абсолютные имена и выход за root через ".." отклоняются
+     */
+    private static Path resolve(Path root, String name) throws IOException {
+        Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            throw new IOException("Invalid entry name: " + name);
+        }
+        return target;
+    }
+
+    /**
+     * Создает каталоги записи. Символические ссылки, уже лежащие в каталоге распаковки,
+     * могут увести запись за его пределы, поэтому настоящий путь ближайшего
+     * существующего каталога проверяется до создания новых, а настоящий путь
+     * родительского каталога — после. Сам файл открывается без перехода по ссылке.
+     * @param realRoot настоящий путь каталога распаковки
+     */
+    private static void createParent(Path realRoot, Path target) throws IOException {
+        Path parent = target.getParent();
+        Path existing = parent;
+        while (!Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        checkInside(realRoot, existing, target);
+        Files.createDirectories(parent);
+        checkInside(realRoot, parent, target);
+    }
+
+    private static void checkInside(Path realRoot, Path directory, Path target) throws IOException {
+        if (!directory.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Entry leads outside the target directory through a link: " + target);
+        }
+    }
+
+    /**
+     * Каталог записей и окончание архива
+     */
+    static byte[] writeDirectory(ArchiveEntry[] entries, long directoryOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TokenFormat.writeVarLong(out, entries.length);
+        for (ArchiveEntry entry : entries) {
+            byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+            TokenFormat.writeVarLong(out, name.length);
+            out.write(name);
+            TokenFormat.writeVarLong(out, entry.offset());
+            TokenFormat.writeVarLong(out, entry.compressedSize());
+            TokenFormat.writeVarLong(out, entry.size());
+            out.writeInt(entry.checksum());
+        }
+        out.writeLong(directoryOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<ArchiveEntry> readDirectory(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Not an archive: file too short");
+        }
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not an archive: invalid signature");
+        }
+        int version = header.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive version: " + version);
+        }
+        ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        long directoryOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC || directoryOffset < HEADER_SIZE || directoryOffset > size - TRAILER_SIZE
+                || size - TRAILER_SIZE - directoryOffset > MAX_ENTRY_SIZE) {
+            throw new IOException("Corrupted archive trailer");
+        }
+        int directorySize = (int) (size - TRAILER_SIZE - directoryOffset);
+        DataInputStream in = new DataInputStream(
+                new ByteBufferInputStream(readFully(channel, directoryOffset, directorySize)));
+        int count = TokenFormat.readVarInt(in);
+        // Запись каталога занимает не меньше восьми байт
+        if (count > directorySize / 8) {
+            throw new IOException("Corrupted archive directory");
+        }
+        List<ArchiveEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int nameLength = TokenFormat.readVarInt(in);
+            if (nameLength > directorySize) {
+                throw new IOException("Corrupted archive directory");
+            }
+            byte[] name = new byte[nameLength];
+            in.readFully(name);
+            long offset = TokenFormat.readVarLong(in);
+            long compressedSize = TokenFormat.readVarLong(in);
+            long entrySize = TokenFormat.readVarLong(in);
+            int checksum = in.readInt();
+            if (name.length == 0 || offset < HEADER_SIZE || offset > directoryOffset
+                    || compressedSize < 0 || compressedSize > directoryOffset - offset || entrySize < 0) {
+                throw new IOException("Corrupted archive directory");
+            }
+            entries.add(new ArchiveEntry(new String(name, StandardCharsets.UTF_8), offset, compressedSize,
+                    entrySize, checksum));
+        }
+        return entries;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int checksum(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Файл каталога и его размер на момент обхода
+     */
+    private record SourceFile(Path path, long size) {
+    }
+
+    /**
+     * Сжатый файл в массиве data или во временном файле spill,
+     * размеры и CRC32C исходных данных
+     */
+    private record Packed(byte[] data, Path spill, long size, long compressedSize, int checksum) {
+    }
+
+    @FunctionalInterface
+    private interface EntryTask {
+        void run(int index, ExecutorService cpu) throws Exception;
+    }
+}
@@ -0,0 +1,345 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.CompressionContext;
+import com.lz77.algorithm.CompressionListener;
+import com.lz77.algorithm.CompressionStats;
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.MatchFinder;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.jfr.CompressEvent;
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельное сжатие: вход делится на независимые кадры фиксированного размера,
+ * каждый кадр сжимается своей задачей в {@link ForkJoinPool} со своей структурой поиска.
+ * Совпадения не выходят за начало кадра, поэтому кадры можно и распаковывать независимо.
+ * Кадры записываются по порядку, как только готовы, а после них — индекс кадров
+ * для чтения произвольных диапазонов (формат см. {@link TokenFormat}).
+ * Результат не зависит от числа потоков.
+ * Измерения каждого сжатия передаются {@link CompressionListener}, если он задан.
+ * Со словарем каждый кадр сжимается так, будто перед ним стоит окончание словаря,
+ * а идентификатор словаря записывается в заголовок.
+ */
+public class ParallelCompressor {
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 21;
+    public static final int MIN_BLOCK_SIZE = 1 << 12;
+
+    private final LZ77Compressor compressor;
+    private final int threads;
+    private final int blockSize;
+    private final EntropyCoder coder;
+    private final CompressionListener listener;
+    private final Dictionary dictionary;
+    // Контексты кадров со словарем: структура поиска словаря откатывается, а не копируется
+    private final ContextPool<CompressionContext> contexts;
+
+    public ParallelCompressor() {
+        this(new LZ77Compressor(), Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param compressor настройки сжатия кадров
+     * @param threads число потоков
+     * @param blockSize размер исходных данных кадра
+     */
+    public ParallelCompressor(LZ77Compressor compressor, int threads, int blockSize) {
+        this(compressor, threads, blockSize, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * @param compressor настройки сжатия кадров
+     * @param threads число потоков
+     * @param blockSize размер исходных данных кадра
+     * @param coder энтропийное кодирование блоков токенов
+     */
+    public ParallelCompressor(LZ77Compressor compressor, int threads, int blockSize, EntropyCoder coder) {
+        this(compressor, threads, blockSize, coder, null);
+    }
+
+    /**
+     * @param compressor настройки сжатия кадров
+     * @param threads число потоков
+     * @param blockSize размер исходных данных кадра
+     * @param coder энтропийное кодирование блоков токенов
+     * @param listener получатель измерений каждого сжатия или null
+     */
+    public ParallelCompressor(LZ77Compressor compressor, int threads, int blockSize, EntropyCoder coder,
+                              CompressionListener listener) {
+        this(compressor, threads, blockSize, coder, listener, null);
+    }
+
+    /**
+     * @param compressor настройки сжатия кадров
+     * @param threads число потоков
+     * @param blockSize размер исходных данных кадра
+     * @param coder энтропийное кодирование блоков токенов
+     * @param listener получатель измерений каждого сжатия или null
+     * @param dictionary словарь, которым заполняется окно перед каждым кадром, или null
+     */
+    public ParallelCompressor(LZ77Compressor compressor, int threads, int blockSize, EntropyCoder coder,
+                              CompressionListener listener, Dictionary dictionary) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        if (blockSize < MIN_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Block size must be at least " + MIN_BLOCK_SIZE);
+        }
+        this.compressor = compressor;
+        this.threads = threads;
+        this.blockSize = blockSize;
+        this.coder = coder;
+        this.listener = listener;
+        this.dictionary = dictionary;
+        this.contexts = dictionary == null ? null : new ContextPool<>(threads, () -> new CompressionContext(compressor));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return словарь или null
+     */
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Сжимает данные в массив
+     */
+    public byte[] compress(byte[] input) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 64);
+        try {
+            compress(input, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Сжимает данные в поток, не закрывая его
+     */
+    public void compress(byte[] input, OutputStream out) throws IOException {
+        writeFrames(out, input.length, (start, size) -> new FrameTask(input, (int) start, (int) start + size));
+    }
+
+    /**
+     * Сжимает файл. Вход отображается в память по кадрам, поэтому файл не загружается
+     * в кучу целиком и может быть больше 2 ГБ; в памяти одновременно находятся
+     * только обрабатываемые кадры.
+     * @return размер сжатого файла
+     */
+    public long compressFile(String inputPath, String outputPath) throws IOException {
+        Path input = Path.of(inputPath);
+        if (!Files.exists(input)) {
+            throw new IOException("File not found: " + inputPath);
+        }
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            writeFrames(out, channel.size(), (start, size) -> new FrameTask(channel, start, size));
+        }
+        return Files.size(Path.of(outputPath));
+    }
+
+    /**
+     * Запускает сжатие кадров и пишет их по порядку. Одновременно в работе не больше
+     * двух кадров на поток, чтобы готовые кадры не накапливались в памяти.
+     */
+    private void writeFrames(OutputStream out, long inputSize, FrameTaskFactory factory) throws IOException {
+        CompressEvent event = new CompressEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        DataOutputStream dos = new DataOutputStream(counting);
+        CompressionStats stats = new CompressionStats();
+        long position = TokenFormat.writeHeader(dos, compressor.getWindowSize(),
+                TokenFormat.FLAG_BLOCK_ENCODING | TokenFormat.FLAG_FRAMES | TokenFormat.FLAG_INDEX, inputSize,
+                dictionary == null ? TokenFormat.NO_DICTIONARY : dictionary.getId());
+        List<TokenFormat.Frame> index = new ArrayList<>();
+
+        // Единственный кадр, как и все кадры при одном потоке, сжимается в вызывающем
+        // потоке: пул из одного потока ничего не ускоряет, а его запуск дороже сжатия
+        // небольшого файла, и вызывающий код может сам быть потоком пула
+        ForkJoinPool pool = inputSize > blockSize && threads > 1 ? new ForkJoinPool(threads) : null;
+        int maxInFlight = pool == null ? 1 : 2 * threads;
+        try {
+            Deque<ForkJoinTask<Frame>> inFlight = new ArrayDeque<>();
+            long next = 0;
+            while (next < inputSize || !inFlight.isEmpty()) {
+                while (next < inputSize && inFlight.size() < maxInFlight) {
+                    int size = (int) Math.min(blockSize, inputSize - next);
+                    FrameTask task = factory.create(next, size);
+                    if (pool == null) {
+                        task.invoke();
+                        inFlight.add(task);
+                    } else {
+                        inFlight.add(pool.submit(task));
+                    }
+                    next += size;
+                }
+                Frame frame = inFlight.poll().join();
+                stats.add(frame.stats());
+                long writeStart = System.nanoTime();
+                int compressedSize = frame.data().length;
+                TokenFormat.writeVarLong(dos, frame.uncompressedSize());
+                TokenFormat.writeVarLong(dos, compressedSize);
+                TokenFormat.writeVarLong(dos, frame.blocks());
+                position += TokenFormat.varLongSize(frame.uncompressedSize())
+                        + TokenFormat.varLongSize(compressedSize) + TokenFormat.varLongSize(frame.blocks());
+                index.add(new TokenFormat.Frame(frame.start(), frame.uncompressedSize(),
+                        position, compressedSize, frame.blocks()));
+                dos.write(frame.data());
+                position += compressedSize;
+                stats.addIo(System.nanoTime() - writeStart);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        TokenFormat.writeVarLong(dos, 0);
+        TokenFormat.writeIndex(dos, index, position + 1);
+        dos.flush();
+        long elapsed = System.nanoTime() - startTime;
+        event.end();
+        if (listener != null || event.shouldCommit()) {
+            CompressionMetrics metrics = stats.toMetrics(counting.getCount(), elapsed);
+            if (event.shouldCommit()) {
+                event.commit(ParallelCompressor.class.getSimpleName(), compressor.getLevel(),
+                        compressor.getWindowSize(), coder.name(), metrics);
+            }
+            if (listener != null) {
+                listener.onCompressed(metrics);
+            }
+        }
+    }
+
+    /**
+     * Сжатый кадр
+     * @param start смещение исходных данных кадра
+     * @param uncompressedSize размер исходных данных
+     * @param blocks число блоков токенов
+     * @param data блоки токенов
+     * @param stats измерения сжатия кадра
+     */
+    private record Frame(long start, int uncompressedSize, int blocks, byte[] data, CompressionStats stats) {
+    }
+
+    @FunctionalInterface
+    private interface FrameTaskFactory {
+        FrameTask create(long start, int size);
+    }
+
+    private final class FrameTask extends RecursiveTask<Frame> {
+        private final byte[] input;
+        private final FileChannel channel;
+        private final long start;
+        private final int size;
+
+        FrameTask(byte[] input, int start, int end) {
+            this.input = input;
+            this.channel = null;
+            this.start = start;
+            this.size = end - start;
+        }
+
+        /**
+         * Кадр файла: данные кадра отображаются в память при запуске задачи
+         */
+        FrameTask(FileChannel channel, long start, int size) {
+            this.input = null;
+            this.channel = channel;
+            this.start = start;
+            this.size = size;
+        }
+
+        @Override
+        protected Frame compute() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(size / 2 + 64);
+            TokenBlockWriter writer = new TokenBlockWriter(new DataOutputStream(bytes), coder);
+            try {
+                byte[] data = input;
+                int from = (int) start;
+                if (channel != null) {
+                    // Структуры поиска работают с массивом, поэтому кадр копируется
+                    // из отображения в собственный буфер задачи
+                    long readStart = System.nanoTime();
+                    data = new byte[size];
+                    channel.map(FileChannel.MapMode.READ_ONLY, start, size).get(data);
+                    from = 0;
+                    writer.getStats().addIo(System.nanoTime() - readStart);
+                }
+                encodeFrame(data, from, from + size, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Frame(start, size, writer.getBlocksWritten(), bytes.toByteArray(), writer.getStats());
+        }
+    }
+
+    /**
+     * Позиции до начала кадра не попадают в структуру поиска,
+     * а граница end не дает совпадениям заходить в следующий кадр.
+     * Со словарем кадр копируется в буфер контекста за окончанием словаря,
+     * и структура поиска начинается с позиций словаря.
+     */
+    private void encodeFrame(byte[] data, int start, int end, TokenBlockWriter writer) throws IOException {
+        if (dictionary != null) {
+            CompressionContext context = contexts.acquire();
+            try {
+                context.encode(data, start, end - start, dictionary,
+                        (framed, from, to, matchFinder) -> encodeFrame(framed, from, to, writer, matchFinder));
+            } finally {
+                contexts.release(context);
+            }
+        } else {
+            encodeFrame(data, start, end, writer, compressor.newMatchFinder());
+        }
+    }
+
+    private void encodeFrame(byte[] data, int start, int end, TokenBlockWriter writer,
+                             MatchFinder matchFinder) throws IOException {
+        CompressionStats stats = writer.getStats();
+        long probes = matchFinder.getProbes();
+        int pos = start;
+        while (pos < end) {
+            int sliceEnd = Math.min(end, pos + TokenBlockWriter.BLOCK_TOKENS);
+            long sliceStart = System.nanoTime();
+            pos = compressor.encode(data, pos, sliceEnd, end, matchFinder, writer);
+            stats.addMatchFinding(System.nanoTime() - sliceStart);
+            if (writer.isFull()) {
+                writer.writeBlock();
+            }
+        }
+        writer.writeBlock();
+        stats.addInput(end - start);
+        stats.addProbes(matchFinder.getProbes() - probes);
+    }
+}
@@ -0,0 +1,308 @@
+package com.lz77.util;
+
+import com.lz77.jfr.DecompressEvent;
+import com.lz77.model.Dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельная распаковка файлов из независимых кадров (см. {@link ParallelCompressor}).
+ * По заголовкам кадров заранее известны размеры и смещения, поэтому выходной массив
+ * или файл выделяется сразу целиком, а каждая задача распаковывает свой кадр прямо
+ * в свой участок результата без последующего склеивания.
+ * Файлы без кадров распаковываются последовательно.
+ * Данные, сжатые со словарем, распаковываются только с тем же словарем.
+ */
+public class ParallelDecompressor {
+    private final int threads;
+    private final Dictionary dictionary;
+
+    public ParallelDecompressor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads число потоков
+     */
+    public ParallelDecompressor(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * @param threads число потоков
+     * @param dictionary словарь, с которым были сжаты данные, или null
+     */
+    public ParallelDecompressor(int threads, Dictionary dictionary) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.threads = threads;
+        this.dictionary = dictionary;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Распаковывает данные в массив
+     * @throws IOException если данные повреждены или результат не помещается в массив
+     */
+    public byte[] decompress(byte[] compressed) throws IOException {
+        return decompress(ByteBuffer.wrap(compressed));
+    }
+
+    /**
+     * Распаковывает данные из буфера (например, отображенного в память файла) в массив.
+     * Размер результата берется из заголовка или заголовков кадров, поэтому массив
+     * выделяется один раз и заполняется за один проход.
+     * @throws IOException если данные повреждены или результат не помещается в массив
+     */
+    public byte[] decompress(ByteBuffer compressed) throws IOException {
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        Layout layout = readLayout(compressed);
+        byte[] output;
+        if (layout.size() == TokenFormat.UNKNOWN_SIZE) {
+            try (InputStream in = new LZ77InputStream(new ByteBufferInputStream(compressed.duplicate()))) {
+                output = in.readAllBytes();
+            }
+        } else {
+            if (layout.size() > Integer.MAX_VALUE - 8) {
+                throw new IOException("Decompressed data too large for an array: " + layout.size());
+            }
+            output = new byte[(int) layout.size()];
+            decode(compressed, layout, output, 0);
+        }
+        commit(event, layout, compressed.remaining(), output.length);
+        return output;
+    }
+
+    /**
+     * Распаковывает данные в массив вызывающего кода, например, в буфер из пула
+     * @param dst массив для результата
+     * @param dstOffset позиция в dst, с которой пишется результат
+     * @return число распакованных байт
+     * @throws IOException если данные повреждены или результат не помещается в dst
+     */
+    public int decompress(byte[] src, byte[] dst, int dstOffset) throws IOException {
+        Objects.checkFromToIndex(dstOffset, dst.length, dst.length);
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        ByteBuffer compressed = ByteBuffer.wrap(src);
+        Layout layout = readLayout(compressed);
+        if (layout.size() != TokenFormat.UNKNOWN_SIZE && layout.size() > dst.length - dstOffset) {
+            throw new IOException("Output buffer too small: " + layout.size() + " bytes required");
+        }
+        int size = decode(compressed, layout, dst, dstOffset);
+        commit(event, layout, src.length, size);
+        return size;
+    }
+
+    /**
+     * Распаковывает файл. Сжатый файл до 2 ГБ отображается в память целиком. Для файла
+     * из кадров выходной файл сразу получает итоговый размер из заголовков кадров, и каждый
+     * кадр пишется в свой участок, отображенный в память; данные не проходят через кучу.
+     * Сжатый файл больше 2 ГБ целиком не отображается (см. {@link #decompressLargeFile}).
+     * @return размер распакованных данных
+     */
+    public long decompressFile(String inputPath, String outputPath) throws IOException {
+        Path input = Path.of(inputPath);
+        if (Files.exists(input) && Files.size(input) > Integer.MAX_VALUE) {
+            return decompressLargeFile(input, Path.of(outputPath));
+        }
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        ByteBuffer compressed = FileIO.mapFile(inputPath);
+        Layout layout = readLayout(compressed);
+        if (layout.frames() == null) {
+            long size;
+            try (InputStream in = new LZ77InputStream(new ByteBufferInputStream(compressed.duplicate()));
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+                size = in.transferTo(out);
+            }
+            commit(event, layout, compressed.remaining(), size);
+            return size;
+        }
+        long totalSize = layout.size();
+
+        try (FileChannel channel = createOutput(Path.of(outputPath), totalSize)) {
+            runFrames(layout.frames(), frame -> FrameDecoder.decode(compressed, layout.header(), frame, channel.map(
+                    FileChannel.MapMode.READ_WRITE, frame.uncompressedOffset(), frame.uncompressedSize()),
+                    layout.history()));
+        }
+        commit(event, layout, compressed.remaining(), totalSize);
+        return totalSize;
+    }
+
+    /**
+     * Распаковывает сжатый файл больше 2 ГБ. Смещения кадров берутся из индекса в конце
+     * файла, и блоки каждого кадра отображаются в память отдельно по своему смещению
+     * (long), поэтому размер сжатого файла не ограничен. Файл без индекса
+     * распаковывается потоком.
+     */
+    private long decompressLargeFile(Path input, Path output) throws IOException {
+        DecompressEvent event = new DecompressEvent();
+        event.begin();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long inputSize = in.size();
+            // Поток канала не закрывается отдельно: канал закрывается блоком try
+            TokenFormat.Header header = TokenFormat.readHeader(new DataInputStream(Channels.newInputStream(in.position(0))));
+            ByteBuffer history = TokenFormat.dictionaryWindow(header, dictionary);
+            if (!header.indexed()) {
+                long size;
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output.toFile()))) {
+                    size = new LZ77InputStream(new BufferedInputStream(Channels.newInputStream(in.position(0))))
+                            .transferTo(out);
+                }
+                commit(event, new Layout(header, null, size, history), inputSize, size);
+                return size;
+            }
+            List<TokenFormat.Frame> frames = TokenFormat.readIndex(in);
+            long totalSize = TokenFormat.totalSize(frames);
+            if (header.hasContentSize() && header.contentSize() != totalSize) {
+                throw new IOException("Content size mismatch: header " + header.contentSize() + ", frames " + totalSize);
+            }
+            try (FileChannel channel = createOutput(output, totalSize)) {
+                runFrames(frames, frame -> FrameDecoder.decodeBlocks(
+                        in.map(FileChannel.MapMode.READ_ONLY, frame.compressedOffset(), frame.compressedSize()),
+                        header, frame.blocks(), frame.uncompressedSize(),
+                        channel.map(FileChannel.MapMode.READ_WRITE, frame.uncompressedOffset(), frame.uncompressedSize()),
+                        history));
+            }
+            commit(event, new Layout(header, frames, totalSize, history), inputSize, totalSize);
+            return totalSize;
+        }
+    }
+
+    /**
+     * Создает выходной файл итогового размера; отображение ограничено 2 ГБ,
+     * поэтому каждый кадр затем отображается отдельно
+     */
+    private static FileChannel createOutput(Path output, long size) throws IOException {
+        Files.deleteIfExists(output);
+        FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (size > 0) {
+                channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Распаковывает кадры параллельно, а поток без кадров — последовательно
+     * @return число распакованных байт
+     */
+    private int decode(ByteBuffer compressed, Layout layout, byte[] dst, int dstOffset) throws IOException {
+        if (layout.frames() != null) {
+            ByteBuffer output = ByteBuffer.wrap(dst);
+            runFrames(layout.frames(), frame -> FrameDecoder.decode(compressed, layout.header(), frame,
+                    output.slice(dstOffset + (int) frame.uncompressedOffset(), frame.uncompressedSize()),
+                    layout.history()));
+            return (int) layout.size();
+        }
+        try (InputStream in = new LZ77InputStream(new ByteBufferInputStream(compressed.duplicate()))) {
+            int n = in.readNBytes(dst, dstOffset, dst.length - dstOffset);
+            if (in.read() != -1) {
+                throw new IOException("Output buffer too small for decompressed data");
+            }
+            if (layout.size() != TokenFormat.UNKNOWN_SIZE && n != layout.size()) {
+                throw new IOException("Content size mismatch: expected " + layout.size() + " bytes, decoded " + n);
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Читает заголовок и, для файла из кадров, заголовки кадров
+     */
+    private Layout readLayout(ByteBuffer compressed) throws IOException {
+        ByteBuffer headerBytes = compressed.duplicate();
+        TokenFormat.Header header = TokenFormat.readHeader(new DataInputStream(new ByteBufferInputStream(headerBytes)));
+        ByteBuffer history = TokenFormat.dictionaryWindow(header, dictionary);
+        if (!header.frames()) {
+            return new Layout(header, null, header.contentSize(), history);
+        }
+        List<TokenFormat.Frame> frames = TokenFormat.readFrames(compressed, headerBytes.position());
+        long size = TokenFormat.totalSize(frames);
+        if (header.hasContentSize() && header.contentSize() != size) {
+            throw new IOException("Content size mismatch: header " + header.contentSize() + ", frames " + size);
+        }
+        return new Layout(header, frames, size, history);
+    }
+
+    private static void commit(DecompressEvent event, Layout layout, long inputBytes, long outputBytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(ParallelDecompressor.class.getSimpleName(), layout.header().windowSize(), inputBytes,
+                    outputBytes, layout.frames() == null ? 0 : layout.frames().size());
+        }
+    }
+
+    /**
+     * Заголовок, кадры (null для потока без кадров), размер распакованных данных
+     * и окончание словаря перед каждым кадром
+     */
+    private record Layout(TokenFormat.Header header, List<TokenFormat.Frame> frames, long size, ByteBuffer history) {
+    }
+
+    private void runFrames(List<TokenFormat.Frame> frames, FrameAction action) throws IOException {
+        if (frames.size() == 1) {
+            // Один кадр распаковывается в вызывающем потоке, без запуска пула
+            action.run(frames.get(0));
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+            for (TokenFormat.Frame frame : frames) {
+                tasks.add(pool.submit(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        try {
+                            action.run(frame);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }));
+            }
+            for (ForkJoinTask<Void> task : tasks) {
+                task.join();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FrameAction {
+        void run(TokenFormat.Frame frame) throws IOException;
+    }
+}
@@ -0,0 +1,143 @@
+package com.lz77.util;
+
+import com.lz77.model.Dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Чтение произвольных диапазонов распакованных данных.
+ * Для файлов с индексом кадров (см. {@link ParallelCompressor}) читаются
+ * и распаковываются только кадры, пересекающие диапазон; индекс читается один раз
+ * при открытии. Файлы без индекса распаковываются последовательно до конца диапазона.
+ * Файлы, сжатые со словарем, открываются с тем же словарем.
+ */
+public class SeekableReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final TokenFormat.Header header;
+    private final List<TokenFormat.Frame> frames;
+    private final long size;
+    private final ByteBuffer history;
+
+    public SeekableReader(String filePath) throws IOException {
+        this(filePath, null);
+    }
+
+    /**
+     * @param dictionary словарь, с которым был сжат файл, или null
+     * @throws IOException если файл сжат с другим словарем
+     */
+    public SeekableReader(String filePath, Dictionary dictionary) throws IOException {
+        this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        try {
+            this.header = TokenFormat.readHeader(new DataInputStream(Channels.newInputStream(channel.position(0))));
+            this.history = TokenFormat.dictionaryWindow(header, dictionary);
+            this.frames = header.indexed() ? TokenFormat.readIndex(channel) : null;
+            this.size = frames == null ? header.contentSize() : TokenFormat.totalSize(frames);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true, если в файле есть индекс кадров
+     */
+    public boolean isIndexed() {
+        return frames != null;
+    }
+
+    /**
+     * @return размер распакованных данных или -1, если у файла нет индекса
+     * и размер не записан в заголовке
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Читает length байт распакованных данных, начиная со смещения offset
+     * @throws IllegalArgumentException если диапазон выходит за границы данных
+     * @throws IOException если данные повреждены
+     */
+    public byte[] read(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || (size >= 0 && offset > size - length)) {
+            throw new IllegalArgumentException("Range [" + offset + ", " + (offset + length) + ") is out of bounds");
+        }
+        if (frames == null) {
+            return readSequentially(offset, length);
+        }
+
+        byte[] result = new byte[length];
+        int first = findFrame(offset);
+        int copied = 0;
+        for (int i = first; copied < length; i++) {
+            TokenFormat.Frame frame = frames.get(i);
+            byte[] data = decodeFrame(frame);
+            int from = (int) (offset + copied - frame.uncompressedOffset());
+            int n = Math.min(length - copied, data.length - from);
+            System.arraycopy(data, from, result, copied, n);
+            copied += n;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] decodeFrame(TokenFormat.Frame frame) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(frame.compressedSize());
+        readFully(compressed, frame.compressedOffset());
+        byte[] data = new byte[frame.uncompressedSize()];
+        FrameDecoder.decodeBlocks(compressed.flip(), header, frame.blocks(), frame.uncompressedSize(),
+                ByteBuffer.wrap(data), history);
+        return data;
+    }
+
+    /**
+     * @return номер кадра, содержащего смещение
+     */
+    private int findFrame(long offset) {
+        int low = 0;
+        int high = frames.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (frames.get(mid).uncompressedOffset() <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private byte[] readSequentially(long offset, int length) throws IOException {
+        // Поток не закрывается: он закрыл бы канал, нужный для следующих чтений
+        InputStream in = new LZ77InputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        in.skipNBytes(offset);
+        byte[] result = in.readNBytes(length);
+        if (result.length < length) {
+            throw new IllegalArgumentException("Range [" + offset + ", " + (offset + length) + ") is out of bounds");
+        }
+        return result;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.lz77.util;
+
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.entropy.FseTokenCodec;
+import com.lz77.entropy.HuffmanTokenCodec;
+import com.lz77.jfr.DecompressBlockEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Последовательное чтение токенов любой поддерживаемой версии формата.
+ * Поля текущего токена доступны после успешного {@link #next()}.
+ * Блоки с энтропийным кодированием декодируются целиком в массивы,
+ * остальные разбираются по мере чтения.
+ */
+final class TokenBlockReader {
+    // Ограничения защищают от огромных выделений памяти на поврежденных данных
+    private static final int MAX_BLOCK_TOKENS = 1 << 20;
+    private static final int MAX_BLOCK_SIZE = 1 << 24;
+
+    private final DataInputStream in;
+    private final TokenFormat.Header header;
+    // Источник элементов текущего блока: сам поток или данные блока
+    private DataInputStream items;
+    private byte[] blockData = new byte[0];
+    private ByteArrayInputStream blockStream;
+
+    private int[] decodedOffsets = new int[0];
+    private int[] decodedLengths = new int[0];
+    private byte[] decodedChars = new byte[0];
+    private int decodedCount;
+    private int decodedIndex;
+
+    private long remainingInBlock;
+    private long remainingBlocksInFrame;
+    // Читается один кадр без заголовка, его блоки уже посчитаны
+    private boolean singleFrame;
+    private int remainingLiterals;
+    private boolean lastBlock;
+    private boolean endOfStream;
+
+    private int offset;
+    private int length;
+    private byte nextChar;
+
+    TokenBlockReader(DataInputStream in) throws IOException {
+        this.in = in;
+        this.header = TokenFormat.readHeader(in);
+        this.items = in;
+    }
+
+    /**
+     * Чтение блоков одного кадра, начиная с его первого блока
+     * @param in поток, стоящий на первом блоке кадра
+     * @param header заголовок файла
+     * @param blocks число блоков кадра
+     */
+    TokenBlockReader(DataInputStream in, TokenFormat.Header header, long blocks) {
+        this.in = in;
+        this.header = header;
+        this.items = in;
+        this.singleFrame = true;
+        this.remainingBlocksInFrame = blocks;
+    }
+
+    TokenFormat.Header header() {
+        return header;
+    }
+
+    /**
+     * Читает следующий токен
+     * @return false, если токены закончились
+     */
+    boolean next() throws IOException {
+        if (remainingInBlock == 0 && !nextBlock()) {
+            return false;
+        }
+        remainingInBlock--;
+
+        if (decodedIndex < decodedCount) {
+            offset = decodedOffsets[decodedIndex];
+            length = decodedLengths[decodedIndex];
+            nextChar = decodedChars[decodedIndex];
+            decodedIndex++;
+            return true;
+        }
+
+        if (header.version() != TokenFormat.VERSION_2) {
+            offset = in.readInt();
+            length = in.readInt();
+            nextChar = in.readByte();
+            if (offset < 0 || length < 0) {
+                throw new IOException("Invalid token: negative offset or length");
+            }
+            return true;
+        }
+
+        if (remainingLiterals == 0) {
+            long tag = TokenFormat.readVarLong(items);
+            if ((tag & 1) == 1) {
+                long matchLength = tag >>> 1;
+                if (matchLength > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid token: length out of range");
+                }
+                length = (int) matchLength;
+                offset = TokenFormat.readVarInt(items);
+                nextChar = items.readByte();
+                return true;
+            }
+            long run = tag >>> 1;
+            if (run == 0 || run > remainingInBlock + 1) {
+                throw new IOException("Invalid literal run length: " + run);
+            }
+            remainingLiterals = (int) run;
+        }
+        remainingLiterals--;
+        offset = 0;
+        length = 0;
+        nextChar = items.readByte();
+        return true;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte nextChar() {
+        return nextChar;
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (endOfStream || lastBlock) {
+            endOfStream = true;
+            return false;
+        }
+        if (remainingLiterals != 0) {
+            throw new IOException("Literal run crosses block boundary");
+        }
+        if (blockStream != null && blockStream.available() != 0) {
+            throw new IOException("Unexpected data at end of block");
+        }
+        if (header.frames() && remainingBlocksInFrame == 0 && (singleFrame || !nextFrame())) {
+            endOfStream = true;
+            return false;
+        }
+        remainingInBlock = header.version() == TokenFormat.VERSION_2
+                ? TokenFormat.readVarLong(in)
+                : in.readInt();
+        if (header.frames()) {
+            remainingBlocksInFrame--;
+            if (remainingInBlock <= 0) {
+                throw new IOException("Empty block inside a frame");
+            }
+        }
+        // В версии 1.0 есть только один блок
+        lastBlock = !header.blocks();
+        if (remainingInBlock <= 0) {
+            endOfStream = true;
+            return false;
+        }
+        if (header.encodedBlocks()) {
+            readEncodedBlock();
+        }
+        return true;
+    }
+
+    /**
+     * Читает заголовок кадра. Последовательному чтению границы кадров не нужны:
+     * токены кадров идут подряд, как в одном потоке.
+     * @return false, если кадры закончились
+     */
+    private boolean nextFrame() throws IOException {
+        long uncompressedSize = TokenFormat.readVarLong(in);
+        if (uncompressedSize == 0) {
+            return false;
+        }
+        TokenFormat.readVarLong(in);
+        remainingBlocksInFrame = TokenFormat.readVarLong(in);
+        if (remainingBlocksInFrame <= 0) {
+            throw new IOException("Frame without blocks");
+        }
+        return true;
+    }
+
+    private void readEncodedBlock() throws IOException {
+        if (remainingInBlock > MAX_BLOCK_TOKENS) {
+            throw new IOException("Block too large: " + remainingInBlock + " tokens");
+        }
+        DecompressBlockEvent event = new DecompressBlockEvent();
+        event.begin();
+        int count = (int) remainingInBlock;
+        int id = in.readUnsignedByte();
+        EntropyCoder coder = EntropyCoder.fromId(id);
+        if (coder == null) {
+            throw new IOException("Unsupported block encoding: " + id);
+        }
+        int size = TokenFormat.readVarInt(in);
+        if (size > MAX_BLOCK_SIZE) {
+            throw new IOException("Block too large: " + size + " bytes");
+        }
+        if (blockData.length < size) {
+            blockData = new byte[size];
+        }
+        in.readFully(blockData, 0, size);
+
+        decodedIndex = 0;
+        decodedCount = 0;
+        if (coder == EntropyCoder.RAW) {
+            blockStream = new ByteArrayInputStream(blockData, 0, size);
+            items = new DataInputStream(blockStream);
+            commit(event, coder, count, size);
+            return;
+        }
+        if (decodedOffsets.length < count) {
+            decodedOffsets = new int[count];
+            decodedLengths = new int[count];
+            decodedChars = new byte[count];
+        }
+        if (coder == EntropyCoder.HUFFMAN) {
+            HuffmanTokenCodec.decode(blockData, 0, size, decodedOffsets, decodedLengths, decodedChars, count);
+        } else {
+            FseTokenCodec.decode(blockData, 0, size, decodedOffsets, decodedLengths, decodedChars, count);
+        }
+        decodedCount = count;
+        blockStream = null;
+        commit(event, coder, count, size);
+    }
+
+    /**
+     * Для блоков без энтропийного кодирования событие охватывает только чтение блока:
+     * его элементы разбираются позже, по мере чтения токенов
+     */
+    private static void commit(DecompressBlockEvent event, EntropyCoder coder, int tokens, int size) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.coder = coder.name();
+            event.tokens = tokens;
+            event.inputBytes = size;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.CompressionStats;
+import com.lz77.algorithm.TokenSink;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.entropy.FseTokenCodec;
+import com.lz77.entropy.HuffmanTokenCodec;
+import com.lz77.jfr.CompressBlockEvent;
+import com.lz77.model.TokenBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Запись токенов блоками формата версии 2.
+ * Блок — число токенов (varint), байт способа кодирования {@link EntropyCoder},
+ * размер данных блока (varint) и сами данные. Без энтропийного кодирования данные — элементы:
+ * <ul>
+ *   <li>серия литералов {@code (0,0,c)}: varint {@code n << 1}, затем n байт;</li>
+ *   <li>совпадение: varint {@code length << 1 | 1}, varint offset, байт nextChar.</li>
+ * </ul>
+ * Поток завершается блоком с нулевым числом токенов.
+ * Литерал занимает один-два байта вместо девяти, типичное совпадение — три-пять.
+ * Если энтропийное кодирование не уменьшает блок, блок пишется без него.
+ */
+final class TokenBlockWriter implements TokenSink {
+    static final int BLOCK_TOKENS = 1 << 16;
+
+    private final DataOutputStream out;
+    private final EntropyCoder coder;
+    private final ByteArrayOutputStream rawBlock = new ByteArrayOutputStream();
+    private final DataOutputStream rawOut = new DataOutputStream(rawBlock);
+    private int[] offsets = new int[BLOCK_TOKENS];
+    private int[] lengths = new int[BLOCK_TOKENS];
+    private byte[] nextChars = new byte[BLOCK_TOKENS];
+    private int count;
+    private long tokensWritten;
+    private int blocksWritten;
+    // Литералы и совпадения записанных блоков, время кодирования и записи в выходной поток
+    private final CompressionStats stats = new CompressionStats();
+
+    TokenBlockWriter(DataOutputStream out) {
+        this(out, EntropyCoder.HUFFMAN);
+    }
+
+    /**
+     * @param out поток после заголовка
+     * @param coder предпочтительный способ кодирования блоков
+     */
+    TokenBlockWriter(DataOutputStream out, EntropyCoder coder) {
+        this.out = out;
+        this.coder = coder;
+    }
+
+    @Override
+    public void accept(int offset, int length, byte nextChar) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+            nextChars = Arrays.copyOf(nextChars, count * 2);
+        }
+        offsets[count] = offset;
+        lengths[count] = length;
+        nextChars[count] = nextChar;
+        count++;
+    }
+
+    /**
+     * @return true, если накопился полный блок
+     */
+    boolean isFull() {
+        return count >= BLOCK_TOKENS;
+    }
+
+    /**
+     * Записывает накопленные токены одним блоком
+     */
+    void writeBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        CompressBlockEvent event = new CompressBlockEvent();
+        event.begin();
+        long start = System.nanoTime();
+        rawBlock.reset();
+        writeRawItems(rawOut);
+
+        byte[] encoded = switch (coder) {
+            case RAW -> null;
+            case HUFFMAN -> HuffmanTokenCodec.encode(offsets, lengths, nextChars, count);
+            case FSE -> FseTokenCodec.encode(offsets, lengths, nextChars, count);
+        };
+        long encodedAt = System.nanoTime();
+        TokenFormat.writeVarLong(out, count);
+        EntropyCoder used = encoded != null && encoded.length < rawBlock.size() ? coder : EntropyCoder.RAW;
+        if (used != EntropyCoder.RAW) {
+            out.writeByte(coder.id());
+            TokenFormat.writeVarLong(out, encoded.length);
+            out.write(encoded);
+        } else {
+            out.writeByte(EntropyCoder.RAW.id());
+            TokenFormat.writeVarLong(out, rawBlock.size());
+            rawBlock.writeTo(out);
+        }
+        stats.addEncoding(encodedAt - start);
+        stats.addIo(System.nanoTime() - encodedAt);
+        event.end();
+        if (event.shouldCommit()) {
+            event.coder = used.name();
+            event.tokens = count;
+            event.rawBytes = rawBlock.size();
+            event.outputBytes = used == EntropyCoder.RAW ? rawBlock.size() : encoded.length;
+            event.commit();
+        }
+        tokensWritten += count;
+        blocksWritten++;
+        count = 0;
+    }
+
+    /**
+     * Записывает остаток и маркер конца потока
+     */
+    void finish() throws IOException {
+        writeBlock();
+        TokenFormat.writeVarLong(out, 0);
+    }
+
+    /**
+     * Записывает токены буфера блоками и маркер конца потока
+     */
+    void writeAll(TokenBuffer tokens) throws IOException {
+        for (int i = 0; i < tokens.size(); i++) {
+            accept(tokens.offset(i), tokens.length(i), tokens.nextChar(i));
+            if (isFull()) {
+                writeBlock();
+            }
+        }
+        finish();
+    }
+
+    private void writeRawItems(DataOutputStream items) throws IOException {
+        int i = 0;
+        while (i < count) {
+            if (offsets[i] == 0 && lengths[i] == 0) {
+                int runEnd = i + 1;
+                while (runEnd < count && offsets[runEnd] == 0 && lengths[runEnd] == 0) {
+                    runEnd++;
+                }
+                TokenFormat.writeVarLong(items, (long) (runEnd - i) << 1);
+                items.write(nextChars, i, runEnd - i);
+                stats.addLiterals(runEnd - i);
+                i = runEnd;
+            } else {
+                TokenFormat.writeVarLong(items, (long) lengths[i] << 1 | 1);
+                TokenFormat.writeVarLong(items, offsets[i]);
+                items.writeByte(nextChars[i]);
+                stats.addMatch(lengths[i]);
+                i++;
+            }
+        }
+    }
+
+    long getTokensWritten() {
+        return tokensWritten;
+    }
+
+    int getBlocksWritten() {
+        return blocksWritten;
+    }
+
+    CompressionStats getStats() {
+        return stats;
+    }
+}
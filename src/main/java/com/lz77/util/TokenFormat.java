@@ -0,0 +1,444 @@
+package com.lz77.util;
+
+import com.lz77.model.Dictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заголовки формата файлов токенов.
+ * <ul>
+ *   <li>1.0 — строка "LZ77TOKENSv1.0", счетчик и токены по 9 байт;</li>
+ *   <li>1.1 — строка "LZ77TOKENSv1.1", размер окна и блоки токенов по 9 байт;</li>
+ *   <li>2 — сигнатура "LZ77", байт версии, байт флагов, log2 окна и блоки
+ *       токенов переменной длины (см. {@link TokenBlockWriter}).</li>
+ * </ul>
+ * Флаг {@link #FLAG_BLOCK_ENCODING} означает, что перед данными каждого блока
+ * записаны способ кодирования и размер; без него блоки версии 2 не кодированы.
+ * Флаг {@link #FLAG_FRAMES} означает, что блоки сгруппированы в независимые кадры:
+ * перед кадром записаны varint размер исходных данных, varint размер блоков кадра
+ * в байтах и varint число блоков; совпадения не выходят за начало кадра.
+ * Поток кадров завершается нулевым размером исходных данных.
+ * Флаг {@link #FLAG_INDEX} означает, что после конца кадров записан индекс:
+ * число кадров и для каждого varint размер исходных данных, смещение первого блока,
+ * размер блоков и число блоков; последние 12 байт файла — смещение индекса (long)
+ * и сигнатура "LZIX". По индексу кадр с нужным смещением находится без чтения остальных.
+ * Флаг {@link #FLAG_CONTENT_SIZE} означает, что сразу за заголовком записан varint
+ * размер распакованных данных: результат выделяется сразу, без прохода по токенам.
+ * Флаг {@link #FLAG_DICTIONARY} означает, что кадры сжаты со словарем: после размера
+ * записан идентификатор словаря (int), и совпадения в начале каждого кадра могут
+ * ссылаться на окончание словаря (см. {@link com.lz77.model.Dictionary}).
+ * Заголовки 1.x начинаются с длины строки writeUTF, поэтому первые два байта
+ * однозначно отличают их от сигнатуры версии 2.
+ */
+final class TokenFormat {
+    static final int VERSION_1_0 = 0x10;
+    static final int VERSION_1_1 = 0x11;
+    static final int VERSION_2 = 2;
+
+    static final int FLAG_BLOCK_ENCODING = 1;
+    static final int FLAG_FRAMES = 2;
+    static final int FLAG_INDEX = 4;
+    static final int FLAG_CONTENT_SIZE = 8;
+    static final int FLAG_DICTIONARY = 16;
+    private static final int SUPPORTED_FLAGS = FLAG_BLOCK_ENCODING | FLAG_FRAMES | FLAG_INDEX | FLAG_CONTENT_SIZE
+            | FLAG_DICTIONARY;
+
+    /** Значение contentSize, когда размер распакованных данных не записан */
+    static final long UNKNOWN_SIZE = -1;
+
+    /** Значение dictionaryId, когда данные сжаты без словаря */
+    static final int NO_DICTIONARY = 0;
+
+    /** Размер заголовка версии 2 без размера распакованных данных и словаря */
+    static final int HEADER_SIZE = 7;
+    /** Размер окончания индекса: смещение индекса и сигнатура */
+    static final int INDEX_TRAILER_SIZE = 12;
+
+    static final int LEGACY_WINDOW_SIZE = 1024;
+
+    private static final String HEADER_V1_0 = "LZ77TOKENSv1.0";
+    private static final String HEADER_V1_1 = "LZ77TOKENSv1.1";
+    private static final byte[] MAGIC = "LZ77".getBytes(StandardCharsets.US_ASCII);
+    private static final int INDEX_MAGIC = 0x4C5A4958; // "LZIX"
+    private static final ByteBuffer EMPTY_WINDOW = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private TokenFormat() {
+    }
+
+    /**
+     * Параметры из заголовка файла токенов
+     * @param version версия формата
+     * @param windowSize размер окна
+     * @param flags флаги версии 2
+     * @param contentSize размер распакованных данных или {@link #UNKNOWN_SIZE}
+     * @param dictionaryId идентификатор словаря или {@link #NO_DICTIONARY}
+     */
+    record Header(int version, int windowSize, int flags, long contentSize, int dictionaryId) {
+        /**
+         * @return true, если токены записаны блоками с завершающим пустым блоком
+         */
+        boolean blocks() {
+            return version != VERSION_1_0;
+        }
+
+        /**
+         * @return true, если у каждого блока указаны способ кодирования и размер
+         */
+        boolean encodedBlocks() {
+            return (flags & FLAG_BLOCK_ENCODING) != 0;
+        }
+
+        /**
+         * @return true, если блоки сгруппированы в независимые кадры
+         */
+        boolean frames() {
+            return (flags & FLAG_FRAMES) != 0;
+        }
+
+        /**
+         * @return true, если в конце файла записан индекс кадров
+         */
+        boolean indexed() {
+            return (flags & FLAG_INDEX) != 0;
+        }
+
+        /**
+         * @return true, если размер распакованных данных записан в заголовке
+         */
+        boolean hasContentSize() {
+            return contentSize != UNKNOWN_SIZE;
+        }
+
+        /**
+         * @return true, если кадры сжаты со словарем
+         */
+        boolean hasDictionary() {
+            return (flags & FLAG_DICTIONARY) != 0;
+        }
+    }
+
+    /**
+     * Положение кадра в исходных и сжатых данных
+     * @param uncompressedOffset смещение исходных данных кадра
+     * @param uncompressedSize размер исходных данных кадра
+     * @param compressedOffset смещение первого блока кадра в сжатых данных
+     * @param compressedSize размер блоков кадра
+     * @param blocks число блоков кадра
+     */
+    record Frame(long uncompressedOffset, int uncompressedSize, long compressedOffset, int compressedSize,
+                 int blocks) {
+    }
+
+    static void writeHeader(DataOutputStream out, int windowSize) throws IOException {
+        writeHeader(out, windowSize, FLAG_BLOCK_ENCODING);
+    }
+
+    static void writeHeader(DataOutputStream out, int windowSize, int flags) throws IOException {
+        writeHeader(out, windowSize, flags, UNKNOWN_SIZE);
+    }
+
+    /**
+     * @param contentSize размер распакованных данных; {@link #UNKNOWN_SIZE}, если он заранее неизвестен
+     * @return число записанных байт
+     */
+    static int writeHeader(DataOutputStream out, int windowSize, int flags, long contentSize) throws IOException {
+        return writeHeader(out, windowSize, flags, contentSize, NO_DICTIONARY);
+    }
+
+    /**
+     * @param contentSize размер распакованных данных; {@link #UNKNOWN_SIZE}, если он заранее неизвестен
+     * @param dictionaryId идентификатор словаря или {@link #NO_DICTIONARY}
+     * @return число записанных байт
+     */
+    static int writeHeader(DataOutputStream out, int windowSize, int flags, long contentSize,
+                           int dictionaryId) throws IOException {
+        if (contentSize != UNKNOWN_SIZE) {
+            flags |= FLAG_CONTENT_SIZE;
+        }
+        if (dictionaryId != NO_DICTIONARY) {
+            flags |= FLAG_DICTIONARY;
+        }
+        out.write(MAGIC);
+        out.writeByte(VERSION_2);
+        out.writeByte(flags);
+        out.writeByte(Integer.numberOfTrailingZeros(windowSize));
+        int size = HEADER_SIZE;
+        if (contentSize != UNKNOWN_SIZE) {
+            writeVarLong(out, contentSize);
+            size += varLongSize(contentSize);
+        }
+        if (dictionaryId != NO_DICTIONARY) {
+            out.writeInt(dictionaryId);
+            size += Integer.BYTES;
+        }
+        return size;
+    }
+
+    static Header readHeader(DataInputStream in) throws IOException {
+        int prefix = in.readUnsignedShort();
+        if (prefix == ((MAGIC[0] << 8) | MAGIC[1])) {
+            if (in.readUnsignedByte() != MAGIC[2] || in.readUnsignedByte() != MAGIC[3]) {
+                throw new IOException("Invalid file format");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION_2) {
+                throw new IOException("Unsupported format version: " + version);
+            }
+            int flags = in.readUnsignedByte();
+            if ((flags & ~SUPPORTED_FLAGS) != 0) {
+                throw new IOException("Unsupported format flags: " + flags);
+            }
+            int windowLog = in.readUnsignedByte();
+            if (windowLog >= Integer.SIZE - 1) {
+                throw new IOException("Invalid window size in header");
+            }
+            long contentSize = (flags & FLAG_CONTENT_SIZE) != 0 ? readVarLong(in) : UNKNOWN_SIZE;
+            if (contentSize < UNKNOWN_SIZE) {
+                throw new IOException("Invalid content size in header: " + contentSize);
+            }
+            int dictionaryId = (flags & FLAG_DICTIONARY) != 0 ? in.readInt() : NO_DICTIONARY;
+            if ((flags & FLAG_DICTIONARY) != 0 && dictionaryId == NO_DICTIONARY) {
+                throw new IOException("Invalid dictionary id in header");
+            }
+            return new Header(version, 1 << windowLog, flags, contentSize, dictionaryId);
+        }
+
+        // Версии 1.x: prefix — длина строки, записанной через writeUTF
+        byte[] text = new byte[prefix];
+        in.readFully(text);
+        String header = new String(text, StandardCharsets.UTF_8);
+        if (header.equals(HEADER_V1_1)) {
+            return new Header(VERSION_1_1, in.readInt(), 0, UNKNOWN_SIZE, NO_DICTIONARY);
+        } else if (header.equals(HEADER_V1_0)) {
+            return new Header(VERSION_1_0, LEGACY_WINDOW_SIZE, 0, UNKNOWN_SIZE, NO_DICTIONARY);
+        }
+        throw new IOException("Invalid file format");
+    }
+
+    /**
+     * Проверяет, что для данных передан нужный словарь
+     * @param dictionary словарь вызывающего кода или null
+     * @return окончание словаря, на которое могут ссылаться кадры, или пустой буфер
+     * @throws IOException если данные сжаты с другим словарем или словарь не передан
+     */
+    static ByteBuffer dictionaryWindow(Header header, Dictionary dictionary) throws IOException {
+        if (!header.hasDictionary()) {
+            return EMPTY_WINDOW;
+        }
+        if (dictionary == null) {
+            throw new IOException("Data requires dictionary " + Dictionary.formatId(header.dictionaryId()));
+        }
+        if (dictionary.getId() != header.dictionaryId()) {
+            throw new IOException("Dictionary mismatch: data requires " + Dictionary.formatId(header.dictionaryId())
+                    + ", got " + Dictionary.formatId(dictionary.getId()));
+        }
+        return dictionary.window(header.windowSize());
+    }
+
+    /**
+     * Читает заголовки всех кадров, пропуская их блоки
+     * @param data сжатые данные целиком
+     * @param offset позиция первого кадра (сразу после заголовка файла)
+     * @throws IOException если кадры выходят за конец данных
+     */
+    static List<Frame> readFrames(ByteBuffer data, int offset) throws IOException {
+        ByteBuffer frameData = data.duplicate().position(offset);
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(frameData));
+        List<Frame> frames = new ArrayList<>();
+        long uncompressedOffset = 0;
+        while (true) {
+            long uncompressedSize = readVarLong(in);
+            if (uncompressedSize == 0) {
+                return frames;
+            }
+            if (uncompressedSize < 0 || uncompressedSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid frame size: " + uncompressedSize);
+            }
+            int compressedSize = readVarInt(in);
+            int blocks = readVarInt(in);
+            if (compressedSize < 0 || compressedSize > frameData.remaining()) {
+                throw new IOException("Truncated frame");
+            }
+            frames.add(new Frame(uncompressedOffset, (int) uncompressedSize, frameData.position(), compressedSize,
+                    blocks));
+            uncompressedOffset += uncompressedSize;
+            frameData.position(frameData.position() + compressedSize);
+        }
+    }
+
+    /**
+     * @return размер распакованных данных всех кадров
+     */
+    static long totalSize(List<Frame> frames) {
+        if (frames.isEmpty()) {
+            return 0;
+        }
+        Frame last = frames.get(frames.size() - 1);
+        return last.uncompressedOffset() + last.uncompressedSize();
+    }
+
+    /**
+     * Записывает индекс кадров и окончание файла
+     * @param indexOffset смещение индекса от начала файла
+     */
+    static void writeIndex(DataOutputStream out, List<Frame> frames, long indexOffset) throws IOException {
+        writeVarLong(out, frames.size());
+        for (Frame frame : frames) {
+            writeVarLong(out, frame.uncompressedSize());
+            writeVarLong(out, frame.compressedOffset());
+            writeVarLong(out, frame.compressedSize());
+            writeVarLong(out, frame.blocks());
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(INDEX_MAGIC);
+    }
+
+    /**
+     * Читает индекс кадров
+     * @param index байты от начала индекса до конца файла
+     * @throws IOException если индекс поврежден
+     */
+    static List<Frame> readIndex(byte[] index) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+        long count = readIndexField(in);
+        if (count > index.length) {
+            throw new IOException("Invalid frame index");
+        }
+        List<Frame> frames = new ArrayList<>((int) count);
+        long uncompressedOffset = 0;
+        for (int i = 0; i < count; i++) {
+            long uncompressedSize = readIndexField(in);
+            long compressedOffset = readIndexField(in);
+            long compressedSize = readIndexField(in);
+            long blocks = readIndexField(in);
+            if (uncompressedSize == 0 || uncompressedSize > Integer.MAX_VALUE
+                    || compressedSize > Integer.MAX_VALUE || blocks > Integer.MAX_VALUE) {
+                throw new IOException("Invalid frame index");
+            }
+            frames.add(new Frame(uncompressedOffset, (int) uncompressedSize, compressedOffset, (int) compressedSize,
+                    (int) blocks));
+            uncompressedOffset += uncompressedSize;
+        }
+        return frames;
+    }
+
+    /**
+     * Поле индекса: неотрицательное число; некорректное число или конец данных
+     * означают поврежденный индекс
+     */
+    private static long readIndexField(DataInputStream in) throws IOException {
+        try {
+            return readVarLong(in);
+        } catch (IOException e) {
+            throw new IOException("Invalid frame index", e);
+        }
+    }
+
+    /**
+     * Читает индекс кадров из конца файла позиционным чтением, не отображая файл
+     * и не сдвигая позицию канала; смещения кадров могут быть больше 2 ГБ
+     * @throws IOException если индекса нет или он поврежден
+     */
+    static List<Frame> readIndex(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE + INDEX_TRAILER_SIZE) {
+            throw new IOException("Missing frame index");
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(INDEX_TRAILER_SIZE);
+        readFully(channel, trailer, fileSize - INDEX_TRAILER_SIZE);
+        long indexOffset = readIndexOffset(trailer.array());
+        long indexSize = fileSize - INDEX_TRAILER_SIZE - indexOffset;
+        if (indexOffset < HEADER_SIZE || indexSize < 0 || indexSize > Integer.MAX_VALUE) {
+            throw new IOException("Invalid frame index");
+        }
+        ByteBuffer index = ByteBuffer.allocate((int) indexSize);
+        readFully(channel, index, indexOffset);
+        List<Frame> frames = readIndex(index.array());
+        for (Frame frame : frames) {
+            if (frame.compressedOffset() < HEADER_SIZE || frame.compressedOffset() + frame.compressedSize() > indexOffset) {
+                throw new IOException("Invalid frame index");
+            }
+        }
+        return frames;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * Проверяет окончание индекса
+     * @param trailer последние {@link #INDEX_TRAILER_SIZE} байт файла
+     * @return смещение индекса
+     */
+    static long readIndexOffset(byte[] trailer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(trailer));
+        long indexOffset = in.readLong();
+        if (in.readInt() != INDEX_MAGIC) {
+            throw new IOException("Missing frame index");
+        }
+        return indexOffset;
+    }
+
+    /**
+     * @return число байт, которое займет число в формате {@link #writeVarLong}
+     */
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Запись беззнакового числа по 7 бит на байт (LEB128)
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Читает неотрицательное число; десятый байт, задающий знаковый бит,
+     * означает поврежденные данные
+     */
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+}
@@ -1,6 +1,7 @@
 package com.lz77.util;
 
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import java.util.List;
 
 /**
@@ -32,6 +33,47 @@ public class Validation {
         }
     }
 
+    /**
+     * Проверка токенов с учетом размера окна из заголовка файла
+     */
+    public static void validateTokens(List<Token> tokens, int windowSize) {
+        validateTokens(tokens);
+        for (Token token : tokens) {
+            if (token.offset() > windowSize) {
+                throw new IllegalStateException("Invalid token: offset exceeds window size " + windowSize);
+            }
+        }
+    }
+
+    /**
+     * Проверка токенов из буфера, без создания записей {@link Token}
+     */
+    public static void validateTokens(TokenBuffer tokens) {
+        if (tokens == null) {
+            throw new IllegalArgumentException("Tokens list cannot be null");
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.offset(i) < 0) {
+                throw new IllegalStateException("Invalid token: negative offset");
+            }
+            if (tokens.length(i) < 0) {
+                throw new IllegalStateException("Invalid token: negative length");
+            }
+        }
+    }
+
+    /**
+     * Проверка токенов из буфера с учетом размера окна из заголовка файла
+     */
+    public static void validateTokens(TokenBuffer tokens, int windowSize) {
+        validateTokens(tokens);
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.offset(i) > windowSize) {
+                throw new IllegalStateException("Invalid token: offset exceeds window size " + windowSize);
+            }
+        }
+    }
+
     /**
      * Проверка, что распакованные данные соответствуют исходным токенам
      */
@@ -51,6 +93,18 @@ public class Validation {
         }
     }
 
+    public static void validateDecompressedData(TokenBuffer tokens, byte[] decompressedData) {
+        if (tokens == null || decompressedData == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        if (decompressedData.length == 0 && !tokens.isEmpty()) {
+            throw new IllegalStateException("Decompressed data is empty but tokens exist");
+        }
+        if (decompressedData.length > 0 && tokens.isEmpty()) {
+            throw new IllegalStateException("Decompressed data exists but no tokens provided");
+        }
+    }
+
     /**
      * Проверка входных данных перед сжатием
      */
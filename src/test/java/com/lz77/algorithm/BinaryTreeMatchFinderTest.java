@@ -0,0 +1,194 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Token;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Binary Tree Match Finder Tests")
+class BinaryTreeMatchFinderTest {
+
+    @ParameterizedTest(name = "should find longest matches for alphabet of {0} symbols")
+    @ValueSource(ints = {2, 4, 16, 256})
+    void findLongestMatch_LargeCutValue_FindsLongestMatches(int alphabet) {
+        byte[] data = randomData(4000, alphabet, 42);
+        int windowSize = 300;
+        int lookahead = 64;
+        MatchFinder finder = new BinaryTreeMatchFinder(windowSize, lookahead, 1 << 16);
+
+        for (int pos = 0; pos < data.length; pos++) {
+            int maxLength = Math.min(lookahead, data.length - pos);
+            long match = finder.findLongestMatch(data, pos, data.length);
+            int offset = MatchFinder.offset(match);
+            int length = MatchFinder.length(match);
+            int expectedLength = bruteForceLength(data, pos, windowSize, maxLength);
+
+            assertTrue(offset <= windowSize, "offset inside window at " + pos);
+            for (int i = 0; i < length; i++) {
+                assertEquals(data[pos - offset + i], data[pos + i], "match content at " + pos);
+            }
+            // Совпадения от четырех байт лежат в дереве и находятся точно
+            if (expectedLength >= 4) {
+                assertEquals(expectedLength, length, "length at " + pos);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should extend matches beyond the nice length")
+    void findLongestMatch_NiceLength_ReturnsFullMatch() {
+        byte[] record = randomData(200, 256, 3);
+        byte[] data = new byte[400];
+        System.arraycopy(record, 0, data, 0, 200);
+        System.arraycopy(record, 0, data, 200, 200);
+        MatchFinder finder = MatchFinderType.BINARY_TREE.create(1024, 256, 32, 16);
+
+        for (int pos = 0; pos < 200; pos++) {
+            finder.skip(data, pos, data.length);
+        }
+        long match = finder.findLongestMatch(data, 200, data.length);
+
+        assertAll(
+                () -> assertEquals(200, MatchFinder.offset(match)),
+                () -> assertEquals(200, MatchFinder.length(match))
+        );
+    }
+
+    @Test
+    @DisplayName("should be selectable through the match finder type")
+    void create_BinaryTreeType_ReturnsBinaryTreeFinder() {
+        assertInstanceOf(BinaryTreeMatchFinder.class, MatchFinderType.BINARY_TREE.create(1024, 256, 32));
+    }
+
+    @ParameterizedTest(name = "should round-trip with cut value {0}")
+    @ValueSource(ints = {1, 8, 64})
+    void compress_BinaryTree_RoundTrips(int cutValue) {
+        byte[] input = randomData(50_000, 8, 7);
+        List<Token> tokens = new LZ77Compressor(MatchFinderType.BINARY_TREE, cutValue).compress(input);
+        assertArrayEquals(input, new LZ77Decompressor().decompress(tokens));
+    }
+
+    @Test
+    @DisplayName("should find long repeats in highly repetitive data")
+    void compress_RepetitiveData_ProducesFewTokens() {
+        byte[] input = "0123456789".repeat(10_000).getBytes();
+        List<Token> tokens = new LZ77Compressor(MatchFinderType.BINARY_TREE, 32).compress(input);
+
+        assertAll(
+                () -> assertTrue(tokens.size() < input.length / 200, "tokens: " + tokens.size()),
+                () -> assertArrayEquals(input, new LZ77Decompressor().decompress(tokens))
+        );
+    }
+
+    @Test
+    @DisplayName("should copy positions into an independent finder")
+    void copy_PrimedFinder_IndependentOfOriginal() {
+        byte[] data = randomData(3000, 4, 7);
+        MatchFinder original = new BinaryTreeMatchFinder(512, 64, 64);
+        for (int pos = 0; pos < 2000; pos++) {
+            original.skip(data, pos, 2000);
+        }
+        MatchFinder copy = original.copy();
+        MatchFinder reference = original.copy();
+        // Позиции копии не попадают в оригинал и наоборот
+        for (int pos = 2000; pos < 2500; pos++) {
+            copy.findLongestMatch(data, pos, data.length);
+        }
+
+        assertEquals(0, reference.getProbes());
+        for (int pos = 2000; pos < 2100; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, data.length),
+                    original.findLongestMatch(data, pos, data.length), "match at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should rewind to the primed state after a message")
+    void rewind_AfterMessage_RestoresPrimedState() {
+        byte[] data = randomData(3000, 4, 7);
+        MatchFinder original = new BinaryTreeMatchFinder(512, 64, 64);
+        for (int pos = 0; pos < 2000; pos++) {
+            original.skip(data, pos, 2000);
+        }
+        MatchFinder finder = original.copy();
+        for (int pos = 2000; pos < 2500; pos++) {
+            finder.findLongestMatch(data, pos, 2500);
+        }
+        finder.rewind(data, 2000, 2500, original);
+        // Следующее сообщение на месте предыдущего
+        System.arraycopy(randomData(500, 4, 8), 0, data, 2000, 500);
+        MatchFinder reference = original.copy();
+
+        for (int pos = 2000; pos < 2500; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, 2500),
+                    finder.findLongestMatch(data, pos, 2500), "match at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should match a fresh copy after each of several rewound messages in a large window")
+    void rewind_ShortMessagesInLargeWindow_MatchesFreshCopy() {
+        byte[] data = randomData(20_300, 4, 9);
+        MatchFinder original = new BinaryTreeMatchFinder(1 << 16, 64, 64);
+        for (int pos = 0; pos < 20_000; pos++) {
+            original.skip(data, pos, 20_000);
+        }
+        MatchFinder finder = original.copy();
+
+        for (int message = 0; message < 4; message++) {
+            // Сообщение продолжает окно, поэтому спуски проходят и меняют узлы словаря
+            System.arraycopy(randomData(300, 4, 100 + message), 0, data, 20_000, 300);
+            MatchFinder reference = original.copy();
+            for (int pos = 20_000; pos < data.length; pos++) {
+                assertEquals(reference.findLongestMatch(data, pos, data.length),
+                        finder.findLongestMatch(data, pos, data.length), "message " + message + ", match at " + pos);
+            }
+            finder.rewind(data, 20_000, data.length, original);
+        }
+    }
+
+    @Test
+    @DisplayName("should rewind to the empty state without a source")
+    void rewind_WithoutSource_BehavesLikeNewFinder() {
+        byte[] data = randomData(1500, 4, 11);
+        MatchFinder finder = new BinaryTreeMatchFinder(512, 64, 64);
+        for (int pos = 0; pos < 1500; pos++) {
+            finder.findLongestMatch(data, pos, 1500);
+        }
+        finder.rewind(data, 0, 1500, null);
+        data = randomData(1200, 4, 12);
+        MatchFinder reference = new BinaryTreeMatchFinder(512, 64, 64);
+
+        for (int pos = 0; pos < data.length; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, data.length),
+                    finder.findLongestMatch(data, pos, data.length), "match at " + pos);
+        }
+    }
+
+    private static int bruteForceLength(byte[] data, int pos, int windowSize, int maxLength) {
+        int bestLength = 0;
+        for (int offset = 1; offset <= Math.min(windowSize, pos); offset++) {
+            int length = 0;
+            while (length < maxLength && data[pos + length] == data[pos - offset + length]) {
+                length++;
+            }
+            bestLength = Math.max(bestLength, length);
+        }
+        return bestLength;
+    }
+
+    private static byte[] randomData(int size, int alphabet, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + random.nextInt(alphabet));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,90 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Dictionary;
+import com.lz77.model.TokenBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compression Context Tests")
+class CompressionContextTest {
+
+    @ParameterizedTest(name = "should produce the same tokens as a new compressor with {0}")
+    @EnumSource(MatchFinderType.class)
+    void compress_ManyMessages_SameTokensAsCompressor(MatchFinderType type) {
+        LZ77Compressor compressor = new LZ77Compressor(4096, 258, type, 64);
+        CompressionContext context = new CompressionContext(compressor);
+
+        for (byte[] message : DictionaryTrainerTest.jsonMessages(50, 3)) {
+            TokenBuffer expected = new TokenBuffer();
+            compressor.compress(message, expected);
+            assertEquals(expected, context.compress(message));
+        }
+    }
+
+    @ParameterizedTest(name = "should produce the same tokens with a dictionary with {0}")
+    @EnumSource(MatchFinderType.class)
+    void compress_WithDictionary_SameTokensAsCompressor(MatchFinderType type) {
+        LZ77Compressor compressor = new LZ77Compressor(4096, 258, type, 64);
+        Dictionary dictionary = new DictionaryTrainer(2048).train(DictionaryTrainerTest.jsonMessages(200, 1));
+        CompressionContext context = new CompressionContext(compressor);
+
+        for (byte[] message : DictionaryTrainerTest.jsonMessages(50, 4)) {
+            TokenBuffer expected = new TokenBuffer();
+            compressor.compress(message, dictionary, expected);
+            assertEquals(expected, context.compress(message, dictionary));
+        }
+        assertSame(dictionary, context.getDictionary());
+    }
+
+    @Test
+    @DisplayName("should switch between dictionaries and no dictionary")
+    void compress_SwitchingDictionaries_SameTokensAsCompressor() {
+        LZ77Compressor compressor = new LZ77Compressor(4096, 258, MatchFinderType.HASH_CHAIN, 64);
+        List<byte[]> messages = DictionaryTrainerTest.jsonMessages(30, 5);
+        Dictionary[] dictionaries = {
+                new DictionaryTrainer(1024).train(DictionaryTrainerTest.jsonMessages(100, 1)),
+                null,
+                new DictionaryTrainer(4096).train(DictionaryTrainerTest.jsonMessages(100, 2)),
+        };
+        CompressionContext context = new CompressionContext(compressor);
+
+        for (int i = 0; i < messages.size(); i++) {
+            Dictionary dictionary = dictionaries[i % dictionaries.length];
+            TokenBuffer expected = new TokenBuffer();
+            compressor.compress(messages.get(i), dictionary, expected);
+            assertEquals(expected, context.compress(messages.get(i), dictionary), "message " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("should compress a range of the input and round trip")
+    void compress_Range_RoundTrips() {
+        byte[] input = "xxxxhello hello hello worldyyyy".getBytes();
+        CompressionContext context = new CompressionContext(new LZ77Compressor());
+
+        TokenBuffer tokens = context.compress(input, 4, input.length - 8, null);
+
+        assertEquals("hello hello hello world", new String(new LZ77Decompressor().decompress(tokens)));
+        assertThrows(IndexOutOfBoundsException.class, () -> context.compress(input, 4, input.length, null));
+    }
+
+    @Test
+    @DisplayName("should grow the buffer for a message larger than the previous ones")
+    void compress_GrowingMessages_SameTokensAsCompressor() {
+        LZ77Compressor compressor = new LZ77Compressor();
+        CompressionContext context = new CompressionContext(compressor);
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 8; i++) {
+            text.append(text).append("message ").append(i).append(' ');
+            byte[] input = text.toString().getBytes();
+            assertEquals(TokenBuffer.of(compressor.compress(input)), context.compress(input));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Dictionary;
+import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Decompression Context Tests")
+class DecompressionContextTest {
+
+    @Test
+    @DisplayName("should decompress messages of different sizes into the context buffer")
+    void decompress_ManyMessages_RoundTrips() {
+        LZ77Compressor compressor = new LZ77Compressor();
+        DecompressionContext context = new DecompressionContext(new LZ77Decompressor());
+
+        for (byte[] message : DictionaryTrainerTest.jsonMessages(20, 6)) {
+            ByteBuffer result = context.decompress(TokenBuffer.of(compressor.compress(message)));
+            byte[] bytes = new byte[result.remaining()];
+            result.get(bytes);
+            assertArrayEquals(message, bytes);
+        }
+    }
+
+    @Test
+    @DisplayName("should decompress with a dictionary")
+    void decompress_WithDictionary_RoundTrips() {
+        LZ77Compressor compressor = new LZ77Compressor();
+        Dictionary dictionary = new Dictionary("hello world, ".getBytes());
+        byte[] input = "hello world, hello!".getBytes();
+        DecompressionContext context = new DecompressionContext(new LZ77Decompressor());
+
+        ByteBuffer result = context.decompress(TokenBuffer.of(compressor.compress(input, dictionary)), dictionary);
+
+        assertAll(
+                () -> assertEquals(ByteBuffer.wrap(input), result),
+                () -> assertTrue(result.isReadOnly())
+        );
+    }
+
+    @Test
+    @DisplayName("should reject invalid tokens")
+    void decompress_InvalidOffset_Throws() {
+        DecompressionContext context = new DecompressionContext(new LZ77Decompressor());
+        TokenBuffer tokens = TokenBuffer.of(List.of(new Token(5, 3, (byte) 'a')));
+
+        assertThrows(IllegalStateException.class, () -> context.decompress(tokens));
+    }
+}
@@ -0,0 +1,129 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Dictionary;
+import com.lz77.model.TokenBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dictionary Trainer Tests")
+class DictionaryTrainerTest {
+
+    @Test
+    @DisplayName("should make small messages compress several times better")
+    void train_JsonMessages_ImprovesSmallMessageRatio() {
+        Dictionary dictionary = new DictionaryTrainer(16 * 1024).train(jsonMessages(500, 1));
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(6, 32 * 1024, 256);
+        LZ77Decompressor decompressor = new LZ77Decompressor(32 * 1024);
+
+        long plain = 0;
+        long primed = 0;
+        for (byte[] message : jsonMessages(100, 2)) {
+            TokenBuffer tokens = new TokenBuffer();
+            compressor.compress(message, dictionary, tokens);
+            assertArrayEquals(message, decompressor.decompress(tokens, dictionary));
+            plain += compressor.compress(message).size();
+            primed += tokens.size();
+        }
+
+        assertTrue(primed * 3 < plain, "tokens with dictionary: " + primed + ", without: " + plain);
+    }
+
+    @ParameterizedTest(name = "should build a dictionary of at most {0} bytes")
+    @ValueSource(ints = {512, 4096, 65536})
+    void train_Size_DoesNotExceedLimit(int size) {
+        List<byte[]> samples = jsonMessages(300, 3);
+        Dictionary dictionary = new DictionaryTrainer(size, Math.min(size, 64)).train(samples);
+        String content = new String(dictionary.getContent(), StandardCharsets.UTF_8);
+
+        assertAll(
+                () -> assertTrue(dictionary.size() <= size),
+                () -> assertTrue(dictionary.size() > Math.min(size, 64)),
+                () -> assertTrue(content.contains("\"currency\":\"USD\""), content)
+        );
+    }
+
+    @Test
+    @DisplayName("should put fragments shared by most samples at the end")
+    void train_CommonFragment_PlacedAtEnd() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String rare = i % 10 == 0 ? "[rarely-seen-fragment]" : "[" + i + "]";
+            samples.add((rare + "{\"status\":\"ok\",\"region\":\"eu-west-1\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        Dictionary dictionary = new DictionaryTrainer(64, 32).train(samples);
+        String content = new String(dictionary.getContent(), StandardCharsets.UTF_8);
+
+        assertTrue(content.lastIndexOf("region") > content.indexOf("rarely"), content);
+    }
+
+    @Test
+    @DisplayName("should be deterministic")
+    void train_SameSamples_SameDictionary() {
+        DictionaryTrainer trainer = new DictionaryTrainer(4096);
+
+        assertEquals(trainer.train(jsonMessages(100, 4)), trainer.train(jsonMessages(100, 4)));
+    }
+
+    @Test
+    @DisplayName("should reject samples without shared content")
+    void train_NoCommonContent_ThrowsException() {
+        DictionaryTrainer trainer = new DictionaryTrainer(1024);
+
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> trainer.train(List.of())),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> trainer.train(List.of("one sample only".repeat(10).getBytes()))),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> trainer.train(List.of(new byte[3], new byte[0])))
+        );
+    }
+
+    @Test
+    @DisplayName("should validate constructor arguments")
+    void constructor_InvalidArguments_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new DictionaryTrainer(0)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new DictionaryTrainer(DictionaryTrainer.MAX_DICTIONARY_SIZE + 1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new DictionaryTrainer(1024, 2)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new DictionaryTrainer(1024, 2048))
+        );
+    }
+
+    /**
+     * Небольшие JSON-сообщения с общей структурой и разными значениями
+     */
+    static List<byte[]> jsonMessages(int count, long seed) {
+        String[] names = {"alice", "bob", "carol", "dave", "erin"};
+        String[] events = {"login", "logout", "purchase", "view", "click"};
+        Random random = new Random(seed);
+        List<byte[]> messages = new ArrayList<>();
+        for (int m = 0; m < count; m++) {
+            StringBuilder json = new StringBuilder()
+                    .append("{\"timestamp\":\"2026-10-").append(10 + random.nextInt(20))
+                    .append("T12:").append(random.nextInt(60)).append(":00Z\",\"user\":{\"id\":")
+                    .append(random.nextInt(100_000)).append(",\"name\":\"").append(names[random.nextInt(5)])
+                    .append("\",\"roles\":[\"reader\",\"writer\"]},\"event\":\"")
+                    .append(events[random.nextInt(5)]).append("\",\"items\":[");
+            int items = 1 + random.nextInt(4);
+            for (int i = 0; i < items; i++) {
+                json.append(i > 0 ? "," : "").append("{\"sku\":\"SKU-").append(random.nextInt(9999))
+                        .append("\",\"quantity\":").append(random.nextInt(5))
+                        .append(",\"price\":").append(random.nextInt(10_000) / 100.0)
+                        .append(",\"currency\":\"USD\"}");
+            }
+            json.append("]}");
+            messages.add(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,153 @@
+package com.lz77.algorithm;
+
+import com.lz77.model.Token;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Hash Chain Match Finder Tests")
+class HashChainMatchFinderTest {
+
+    @ParameterizedTest(name = "should match brute force search for alphabet of {0} symbols")
+    @ValueSource(ints = {2, 4, 16, 256})
+    void findLongestMatch_FullDepth_MatchesBruteForce(int alphabet) {
+        byte[] data = randomData(4000, alphabet, 42);
+        int windowSize = 300;
+        int lookahead = 64;
+        MatchFinder finder = new HashChainMatchFinder(windowSize, lookahead, windowSize);
+
+        for (int pos = 0; pos < data.length; pos++) {
+            int maxLength = Math.min(lookahead, data.length - pos);
+            long match = finder.findLongestMatch(data, pos, data.length);
+            int[] expected = bruteForce(data, pos, windowSize, maxLength);
+
+            assertEquals(expected[0], MatchFinder.offset(match), "offset at " + pos);
+            assertEquals(expected[1], MatchFinder.length(match), "length at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should not return matches outside the window")
+    void findLongestMatch_OldOccurrence_NotReturned() {
+        byte[] data = ("xyz" + "-".repeat(20) + "xyz").getBytes();
+        MatchFinder finder = new HashChainMatchFinder(16, 16, 16);
+        for (int pos = 0; pos < data.length - 3; pos++) {
+            finder.skip(data, pos, data.length);
+        }
+
+        assertEquals(0, finder.findLongestMatch(data, data.length - 3, data.length));
+    }
+
+    @ParameterizedTest(name = "should round-trip with chain depth {0}")
+    @ValueSource(ints = {1, 4, 64})
+    void compress_ShallowChain_RoundTrips(int depth) {
+        byte[] input = randomData(50_000, 8, 7);
+        List<Token> tokens = new LZ77Compressor(depth).compress(input);
+        assertArrayEquals(input, new LZ77Decompressor().decompress(tokens));
+    }
+
+    @Test
+    @DisplayName("should reject invalid configuration")
+    void constructor_InvalidArguments_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new HashChainMatchFinder(0, 16, 16)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new HashChainMatchFinder(1024, 0, 16)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new HashChainMatchFinder(1024, 16, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new LZ77Compressor(0))
+        );
+    }
+
+    @Test
+    @DisplayName("should copy positions into an independent finder")
+    void copy_PrimedFinder_IndependentOfOriginal() {
+        byte[] data = randomData(3000, 4, 7);
+        MatchFinder original = new HashChainMatchFinder(512, 64, 512);
+        for (int pos = 0; pos < 2000; pos++) {
+            original.skip(data, pos, 2000);
+        }
+        MatchFinder copy = original.copy();
+        MatchFinder reference = original.copy();
+        // Позиции копии не попадают в оригинал и наоборот
+        for (int pos = 2000; pos < 2500; pos++) {
+            copy.findLongestMatch(data, pos, data.length);
+        }
+
+        assertEquals(0, reference.getProbes());
+        for (int pos = 2000; pos < 2100; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, data.length),
+                    original.findLongestMatch(data, pos, data.length), "match at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should rewind to the primed state after a message")
+    void rewind_AfterMessage_RestoresPrimedState() {
+        byte[] data = randomData(3000, 4, 7);
+        MatchFinder original = new HashChainMatchFinder(512, 64, 512);
+        for (int pos = 0; pos < 2000; pos++) {
+            original.skip(data, pos, 2000);
+        }
+        MatchFinder finder = original.copy();
+        for (int pos = 2000; pos < 2500; pos++) {
+            finder.findLongestMatch(data, pos, 2500);
+        }
+        finder.rewind(data, 2000, 2500, original);
+        // Следующее сообщение на месте предыдущего
+        System.arraycopy(randomData(500, 4, 8), 0, data, 2000, 500);
+        MatchFinder reference = original.copy();
+
+        for (int pos = 2000; pos < 2500; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, 2500),
+                    finder.findLongestMatch(data, pos, 2500), "match at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should rewind to the empty state without a source")
+    void rewind_WithoutSource_BehavesLikeNewFinder() {
+        byte[] data = randomData(1500, 4, 11);
+        MatchFinder finder = new HashChainMatchFinder(512, 64, 512);
+        for (int pos = 0; pos < 1500; pos++) {
+            finder.findLongestMatch(data, pos, 1500);
+        }
+        finder.rewind(data, 0, 1500, null);
+        data = randomData(1200, 4, 12);
+        MatchFinder reference = new HashChainMatchFinder(512, 64, 512);
+
+        for (int pos = 0; pos < data.length; pos++) {
+            assertEquals(reference.findLongestMatch(data, pos, data.length),
+                    finder.findLongestMatch(data, pos, data.length), "match at " + pos);
+        }
+    }
+
+    private static int[] bruteForce(byte[] data, int pos, int windowSize, int maxLength) {
+        int bestOffset = 0;
+        int bestLength = 0;
+        for (int offset = 1; offset <= Math.min(windowSize, pos); offset++) {
+            int length = 0;
+            while (length < maxLength && data[pos + length] == data[pos - offset + length]) {
+                length++;
+            }
+            if (length > bestLength) {
+                bestLength = length;
+                bestOffset = offset;
+            }
+        }
+        return new int[]{bestOffset, bestLength};
+    }
+
+    private static byte[] randomData(int size, int alphabet, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + random.nextInt(alphabet));
+        }
+        return data;
+    }
+}
@@ -1,11 +1,15 @@
 package com.lz77.algorithm;
 
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -96,6 +100,70 @@ class LZ77CompressorTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("should match across records with a large window and long matches")
+    void compress_LargeWindow_FindsDistantLongMatches() {
+        byte[] record = new byte[4096];
+        new java.util.Random(1).nextBytes(record);
+        byte[] input = new byte[record.length * 3];
+        for (int i = 0; i < 3; i++) {
+            System.arraycopy(record, 0, input, i * record.length, record.length);
+        }
+
+        LZ77Compressor largeWindow = new LZ77Compressor(1 << 16, 8192);
+        List<Token> tokens = largeWindow.compress(input);
+
+        assertAll(
+                () -> assertTrue(tokens.stream().anyMatch(t -> t.offset() == record.length && t.length() > 256)),
+                () -> assertTrue(tokens.size() < record.length + 10, "tokens: " + tokens.size()),
+                () -> assertArrayEquals(input, new LZ77Decompressor(1 << 16).decompress(tokens))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 8, 1000, 1 << 27})
+    @DisplayName("should reject invalid window sizes")
+    void constructor_InvalidWindowSize_ThrowsException(int windowSize) {
+        assertThrows(IllegalArgumentException.class, () -> new LZ77Compressor(windowSize, 256));
+    }
+
+    @ParameterizedTest(name = "should round-trip at level {0}")
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9})
+    void ofLevel_AllLevels_RoundTrip(int level) {
+        byte[] input = wordData(50_000);
+        LZ77Compressor leveled = LZ77Compressor.ofLevel(level, 1 << 12, 258);
+        List<Token> tokens = leveled.compress(input);
+
+        assertAll(
+                () -> assertEquals(level >= 7 ? 2 : level >= 4 ? 1 : 0, leveled.getLazyDepth()),
+                () -> assertArrayEquals(input, new LZ77Decompressor(1 << 12).decompress(tokens))
+        );
+    }
+
+    @Test
+    @DisplayName("should defer a match when a longer one starts at the next position")
+    void compress_LazyMatching_PrefersLongerNextMatch() {
+        byte[] input = "abc_bcdefg!abcdefg".getBytes();
+        LZ77Compressor lazy = new LZ77Compressor(1 << 4, 258, MatchFinderType.HASH_CHAIN, 16, 258, 1);
+
+        List<Token> greedyTokens = new LZ77Compressor(1 << 4, 258).compress(input);
+        List<Token> lazyTokens = lazy.compress(input);
+
+        assertAll(
+                () -> assertTrue(greedyTokens.contains(new Token(11, 3, (byte) 'd'))),
+                () -> assertTrue(lazyTokens.contains(new Token(0, 0, (byte) 'a'))),
+                () -> assertTrue(lazyTokens.contains(new Token(8, 6, (byte) 0))),
+                () -> assertArrayEquals(input, new LZ77Decompressor(1 << 4).decompress(lazyTokens))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10})
+    @DisplayName("should reject invalid compression levels")
+    void ofLevel_InvalidLevel_ThrowsException(int level) {
+        assertThrows(IllegalArgumentException.class, () -> LZ77Compressor.ofLevel(level));
+    }
+
     @ParameterizedTest
     @MethodSource("roundTripTestCases")
     @DisplayName("should correctly round-trip compress and decompress")
@@ -137,6 +205,132 @@ class LZ77CompressorTest {
         );
     }
 
+    @Test
+    @DisplayName("should report token counts and probes without a compressed size")
+    void compress_WithListener_ReportsMatchFindingMetrics() {
+        byte[] input = wordData(20_000);
+        TokenBuffer tokens = new TokenBuffer();
+        CompressionMetrics[] report = new CompressionMetrics[1];
+        LZ77Compressor.ofLevel(6).compress(input, tokens, metrics -> report[0] = metrics);
+
+        CompressionMetrics metrics = report[0];
+        long matches = tokens.toList().stream().filter(token -> token.length() > 0).count();
+        assertAll(
+                () -> assertEquals(tokens.size(), metrics.tokens()),
+                () -> assertEquals(matches, metrics.matches()),
+                () -> assertEquals(input.length, metrics.inputBytes()),
+                () -> assertEquals(CompressionMetrics.UNKNOWN, metrics.compressedBytes()),
+                () -> assertEquals(0.0, metrics.ratio()),
+                () -> assertTrue(metrics.probes() >= input.length / 2),
+                () -> assertEquals(metrics.wallNanos(), metrics.matchFindingNanos())
+        );
+    }
+
+    @ParameterizedTest(name = "should round-trip with a dictionary using {0}")
+    @EnumSource(MatchFinderType.class)
+    void compress_WithDictionary_RoundTripsAndUsesDictionary(MatchFinderType type) {
+        Dictionary dictionary = new Dictionary("{\"id\": 42, \"name\": \"gamma\", \"tags\": [\"alpha\", \"beta\"]}\n"
+                .getBytes());
+        byte[] message = "{\"id\": 7, \"name\": \"delta\", \"tags\": [\"alpha\", \"beta\"]}\n".getBytes();
+        LZ77Compressor compressor = new LZ77Compressor(256, 64, type, 256);
+
+        TokenBuffer tokens = new TokenBuffer();
+        compressor.compress(message, dictionary, tokens);
+        Token first = tokens.get(0);
+
+        assertAll(
+                () -> assertArrayEquals(message, new LZ77Decompressor(256).decompress(tokens, dictionary)),
+                () -> assertTrue(tokens.size() * 3 < compressor.compress(message).size(),
+                        "tokens with dictionary: " + tokens.size()),
+                () -> assertTrue(first.length() > 0 && first.offset() == dictionary.size(),
+                        "first token should reach into the dictionary: " + first)
+        );
+    }
+
+    @ParameterizedTest(name = "should find matches that start in the dictionary tail using {0}")
+    @EnumSource(MatchFinderType.class)
+    void compress_MatchFromDictionaryTailIntoMessage_Found(MatchFinderType type) {
+        // Последние байты словаря "QJ" продолжаются началом сообщения, и эта же
+        // последовательность повторяется в конце сообщения
+        Dictionary dictionary = new Dictionary(("abcdefghijklmnopqrstuvwxyz".repeat(8) + "QJ").getBytes());
+        String filler = "0123456789".repeat(20);
+        byte[] message = ("XKCDPLMN" + filler + "#QJXKCDPLMN!").getBytes();
+        int repeat = 8 + filler.length() + 1;
+        LZ77Compressor compressor = new LZ77Compressor(4096, 258, type, 64);
+
+        TokenBuffer tokens = new TokenBuffer();
+        compressor.compress(message, dictionary, tokens);
+
+        assertAll(
+                () -> assertArrayEquals(message, new LZ77Decompressor(4096).decompress(tokens, dictionary)),
+                () -> assertTrue(tokens.toList().stream()
+                                .anyMatch(token -> token.offset() == repeat + 2 && token.length() >= 10),
+                        "expected a match from the dictionary tail: " + tokens.toList()),
+                () -> assertEquals(tokens, new CompressionContext(compressor).compress(message, dictionary))
+        );
+    }
+
+    @Test
+    @DisplayName("should use only the dictionary tail that fits into the window")
+    void compress_DictionaryLargerThanWindow_RoundTrips() {
+        byte[] input = wordData(3000);
+        Dictionary dictionary = new Dictionary(wordData(5000));
+        LZ77Compressor compressor = new LZ77Compressor(1024, 256);
+        TokenBuffer tokens = new TokenBuffer();
+        compressor.compress(input, dictionary, tokens);
+
+        assertAll(
+                () -> assertArrayEquals(input, new LZ77Decompressor(1024).decompress(tokens, dictionary)),
+                () -> assertTrue(tokens.toList().stream().allMatch(token -> token.offset() <= 1024))
+        );
+    }
+
+    @Test
+    @DisplayName("should not change the prepared dictionary between calls")
+    void compress_SameDictionaryTwice_SameTokens() {
+        Dictionary dictionary = new Dictionary(wordData(2000));
+        Dictionary other = new Dictionary(wordData(1500));
+        byte[] input = wordData(700);
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(9, 4096, 256);
+
+        List<Token> first = compressor.compress(input, dictionary);
+        compressor.compress(input, other);
+
+        assertAll(
+                () -> assertEquals(first, compressor.compress(input, dictionary)),
+                () -> assertEquals(compressor.compress(input), compressor.compress(input, (Dictionary) null))
+        );
+    }
+
+    @ParameterizedTest(name = "should compress every message like a new compressor using {0}")
+    @EnumSource(MatchFinderType.class)
+    void compress_ManyMessagesWithDictionary_SameAsNewCompressor(MatchFinderType type) {
+        // Сообщения сжимаются в одном контексте компрессора; каждое должно дать те же
+        // токены, что и новый компрессор, иначе откат не вернул структуру словаря
+        Dictionary dictionary = new Dictionary(wordData(3000));
+        LZ77Compressor compressor = new LZ77Compressor(4096, 256, type, 64);
+
+        for (int size : new int[]{700, 5, 2500, 0, 1200, 700}) {
+            byte[] input = wordData(size + 1);
+            TokenBuffer reused = new TokenBuffer();
+            compressor.compress(input, dictionary, reused);
+
+            TokenBuffer fresh = new TokenBuffer();
+            new LZ77Compressor(4096, 256, type, 64).compress(input, dictionary, fresh);
+            assertEquals(fresh, reused, "message of " + input.length + " bytes");
+        }
+    }
+
+    private static byte[] wordData(int size) {
+        String[] words = {"alpha", "beta", "gamma", "delta", "epsilon", "\n", "{\"id\":", " "};
+        java.util.Random random = new java.util.Random(size);
+        StringBuilder text = new StringBuilder(size);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]);
+        }
+        return text.substring(0, size).getBytes();
+    }
+
     private static Stream<Arguments> roundTripTestCases() {
         return Stream.of(
                 arguments("abracadabra"),
@@ -1,9 +1,13 @@
 package com.lz77.algorithm;
 
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -113,4 +117,101 @@ class LZ77DecompressorTest {
         byte[] result = decompressor.decompress(tokens);
         assertArrayEquals(originalBytes, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should decompress a token buffer like the equivalent list")
+    void decompress_TokenBuffer_SameAsList() throws IOException {
+        byte[] input = "abracadabra abracadabra abracadabra".getBytes();
+        TokenBuffer tokens = new TokenBuffer();
+        new LZ77Compressor().compress(input, tokens);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        decompressor.decompress(tokens, streamed);
+
+        assertAll(
+                () -> assertEquals(new LZ77Compressor().compress(input), tokens.toList()),
+                () -> assertArrayEquals(input, decompressor.decompress(tokens)),
+                () -> assertArrayEquals(input, streamed.toByteArray())
+        );
+    }
+
+    @Test
+    @DisplayName("should decompress into a caller-supplied buffer at an offset")
+    void decompress_IntoBuffer_WritesAtOffset() {
+        byte[] input = "abracadabra abracadabra abracadabra".getBytes();
+        TokenBuffer tokens = new TokenBuffer();
+        new LZ77Compressor().compress(input, tokens);
+        byte[] dst = new byte[input.length + 10];
+        int written = decompressor.decompress(tokens, dst, 7);
+
+        assertAll(
+                () -> assertEquals(input.length, written),
+                () -> assertEquals(input.length, LZ77Decompressor.decodedSize(tokens)),
+                () -> assertArrayEquals(input, java.util.Arrays.copyOfRange(dst, 7, 7 + input.length)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> decompressor.decompress(tokens, new byte[input.length + 6], 7)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> decompressor.decompress(tokens, dst, 50))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject offsets outside the window")
+    void decompress_OffsetBeyondWindow_ThrowsException() {
+        List<Token> tokens = List.of(
+                new Token(0, 0, (byte)'a'),
+                new Token(20, 1, (byte)'b')
+        );
+
+        assertThrows(IllegalStateException.class, () -> new LZ77Decompressor(16).decompress(tokens));
+    }
+
+    @Test
+    @DisplayName("should stream output through a window-sized ring buffer")
+    void decompress_ToStream_ProducesSameBytes() throws IOException {
+        byte[] input = "abcdefghijklmnopqrstuvwxyz0123456789".repeat(50).getBytes();
+        List<Token> tokens = new LZ77Compressor(64, 256).compress(input);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new LZ77Decompressor(64).decompress(tokens, out);
+
+        assertAll(
+                () -> assertEquals(input.length, written),
+                () -> assertArrayEquals(input, out.toByteArray())
+        );
+    }
+
+    @Test
+    @DisplayName("should copy matches that start in the dictionary into the caller buffer")
+    void decompress_MatchIntoDictionary_CopiesDictionaryTail() {
+        Dictionary dictionary = new Dictionary("xx-hello-".getBytes(StandardCharsets.US_ASCII));
+        TokenBuffer tokens = TokenBuffer.of(List.of(
+                new Token(6, 6, (byte) 'w'),
+                new Token(0, 0, (byte) '!'),
+                new Token(3, 12, (byte) 0)
+        ));
+        byte[] dst = new byte[40];
+
+        int size = new LZ77Decompressor(16).decompress(tokens, dictionary, dst, 5);
+
+        assertAll(
+                () -> assertEquals(20, size),
+                () -> assertEquals("hello-w!-w!-w!-w!-w!", new String(dst, 5, size, StandardCharsets.US_ASCII)),
+                () -> assertArrayEquals(new byte[5], java.util.Arrays.copyOf(dst, 5))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject offsets before the dictionary or without one")
+    void decompress_OffsetBeyondDictionary_ThrowsException() {
+        Dictionary dictionary = new Dictionary("abc".getBytes(StandardCharsets.US_ASCII));
+        List<Token> tokens = List.of(new Token(4, 2, (byte) 0));
+
+        assertAll(
+                () -> assertThrows(IllegalStateException.class,
+                        () -> new LZ77Decompressor(16).decompress(tokens, dictionary)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> new LZ77Decompressor(16).decompress(List.of(new Token(3, 2, (byte) 0)))),
+                () -> assertArrayEquals("bc".getBytes(StandardCharsets.US_ASCII), new LZ77Decompressor(16)
+                        .decompress(List.of(new Token(2, 2, (byte) 0)), dictionary))
+        );
+    }
+}
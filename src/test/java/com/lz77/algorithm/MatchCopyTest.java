@@ -0,0 +1,58 @@
+package com.lz77.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Match Copy Tests")
+class MatchCopyTest {
+
+    @Test
+    @DisplayName("should copy overlapping and disjoint matches like a byte loop")
+    void copy_RandomMatches_SameAsByteLoop() {
+        Random random = new Random(16);
+        for (int i = 0; i < 2000; i++) {
+            int offset = 1 + random.nextInt(random.nextBoolean() ? 8 : 300);
+            int length = random.nextInt(random.nextBoolean() ? 24 : 600);
+            int pos = offset + random.nextInt(50);
+            byte[] expected = new byte[pos + length + 10];
+            for (int j = 0; j < pos; j++) {
+                expected[j] = (byte) random.nextInt(256);
+            }
+            byte[] array = expected.clone();
+            ByteBuffer heap = ByteBuffer.wrap(expected.clone());
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length).put(expected.clone()).clear();
+            for (int j = 0; j < length; j++) {
+                expected[pos + j] = expected[pos - offset + j];
+            }
+
+            MatchCopy.copy(array, pos, offset, length);
+            MatchCopy.copy(heap, pos, offset, length);
+            MatchCopy.copy(direct, pos, offset, length);
+            byte[] fromDirect = new byte[expected.length];
+            direct.get(0, fromDirect);
+
+            String message = "offset " + offset + ", length " + length;
+            assertArrayEquals(expected, array, message);
+            assertArrayEquals(expected, heap.array(), message);
+            assertArrayEquals(expected, fromDirect, message);
+            assertEquals(0, direct.position());
+        }
+    }
+
+    @Test
+    @DisplayName("should repeat a single byte run")
+    void copy_OffsetOne_RepeatsByte() {
+        byte[] buffer = new byte[1001];
+        buffer[0] = 'z';
+        MatchCopy.copy(buffer, 1, 1, 1000);
+
+        for (byte b : buffer) {
+            assertEquals('z', b);
+        }
+    }
+}
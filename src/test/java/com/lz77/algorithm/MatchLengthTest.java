@@ -0,0 +1,70 @@
+package com.lz77.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Match Length Tests")
+class MatchLengthTest {
+
+    @ParameterizedTest(name = "should agree with byte comparison for alphabet of {0} symbols")
+    @ValueSource(ints = {1, 2, 4, 256})
+    void of_RandomPositions_SameAsByteComparison(int alphabet) {
+        Random random = new Random(alphabet);
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) random.nextInt(alphabet);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int pos = 1 + random.nextInt(data.length - 1);
+            int candidate = random.nextInt(pos);
+            int maxLength = random.nextInt(data.length - pos + 1);
+            int start = maxLength == 0 ? 0 : random.nextInt(Math.min(maxLength, 4));
+            int expected = byteMatchLength(data, candidate, pos, maxLength);
+            if (expected < start) {
+                start = 0;
+            }
+
+            assertEquals(expected, MatchLength.of(data, candidate, pos, maxLength), "at " + pos);
+            assertEquals(expected, MatchLength.extend(data, candidate, pos, start, maxLength), "extend at " + pos);
+        }
+    }
+
+    @Test
+    @DisplayName("should find the mismatch inside a word and after long runs")
+    void of_MismatchAtEveryOffset_ReturnsExactLength() {
+        byte[] data = new byte[1000];
+        for (int mismatch = 0; mismatch < 300; mismatch++) {
+            java.util.Arrays.fill(data, (byte) 'x');
+            data[500 + mismatch] = 'y';
+            assertEquals(mismatch, MatchLength.of(data, 100, 500, 400), "mismatch at " + mismatch);
+        }
+    }
+
+    @Test
+    @DisplayName("should stop at the end of the array and at the length limit")
+    void of_Limits_ReturnsLimit() {
+        byte[] data = "abcdefghij".repeat(100).getBytes();
+
+        assertAll(
+                () -> assertEquals(990, MatchLength.of(data, 0, 10, 990)),
+                () -> assertEquals(37, MatchLength.of(data, 0, 10, 37)),
+                () -> assertEquals(0, MatchLength.of(data, 0, 10, 0)),
+                () -> assertEquals(0, MatchLength.of(data, 0, 1, 50))
+        );
+    }
+
+    private static int byteMatchLength(byte[] data, int candidate, int pos, int maxLength) {
+        int length = 0;
+        while (length < maxLength && data[candidate + length] == data[pos + length]) {
+            length++;
+        }
+        return length;
+    }
+}
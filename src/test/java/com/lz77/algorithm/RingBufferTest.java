@@ -0,0 +1,91 @@
+package com.lz77.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ring Buffer Tests")
+class RingBufferTest {
+
+    @Test
+    @DisplayName("should flush bytes in order across wrap-arounds")
+    void write_MoreThanCapacity_FlushesInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RingBuffer ring = new RingBuffer(8, out);
+        byte[] expected = new byte[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+            ring.write(expected[i]);
+        }
+        ring.flush();
+
+        assertAll(
+                () -> assertEquals(100, ring.position()),
+                () -> assertArrayEquals(expected, out.toByteArray())
+        );
+    }
+
+    @Test
+    @DisplayName("should copy overlapping matches")
+    void copy_OverlappingMatch_RepeatsPattern() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RingBuffer ring = new RingBuffer(4, out);
+        ring.write((byte) 'a');
+        ring.write((byte) 'b');
+        ring.copy(2, 7);
+        ring.copy(4, 3);
+        ring.flush();
+
+        assertEquals("abababababab", out.toString());
+    }
+
+    @ParameterizedTest(name = "should copy like a byte loop with capacity {0}")
+    @ValueSource(ints = {16, 64, 1024})
+    void copy_RandomMatches_SameAsByteLoop(int capacity) throws IOException {
+        Random random = new Random(capacity);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RingBuffer ring = new RingBuffer(capacity, out);
+        byte[] expected = new byte[200_000];
+        int size = 0;
+        while (size < expected.length - 1000) {
+            if (size == 0 || random.nextInt(3) == 0) {
+                expected[size] = (byte) random.nextInt(256);
+                ring.write(expected[size++]);
+            } else {
+                int offset = 1 + random.nextInt(Math.min(size, capacity));
+                int length = random.nextInt(random.nextBoolean() ? 20 : 1000);
+                for (int i = 0; i < length; i++) {
+                    expected[size + i] = expected[size - offset + i];
+                }
+                size += length;
+                ring.copy(offset, length);
+            }
+        }
+        ring.flush();
+
+        assertArrayEquals(java.util.Arrays.copyOf(expected, size), out.toByteArray());
+    }
+
+    @ParameterizedTest(name = "should reject offset {0}")
+    @ValueSource(ints = {0, 3, 9})
+    void copy_InvalidOffset_ThrowsException(int offset) throws IOException {
+        RingBuffer ring = new RingBuffer(8, new ByteArrayOutputStream());
+        ring.write((byte) 'a');
+        ring.write((byte) 'b');
+
+        assertThrows(IllegalStateException.class, () -> ring.copy(offset, 1));
+    }
+
+    @Test
+    @DisplayName("should reject capacities that are not powers of two")
+    void constructor_InvalidCapacity_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer(12, new ByteArrayOutputStream()));
+    }
+}
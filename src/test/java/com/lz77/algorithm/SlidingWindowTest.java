@@ -7,9 +7,13 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 @DisplayName("Sliding Window Tests")
@@ -53,6 +57,25 @@ class SlidingWindowTest {
         assertArrayEquals(new int[]{3, 6, 0}, match);
     }
 
+    @Test
+    @DisplayName("should return the same match on repeated calls")
+    void findLongestMatch_RepeatedCalls_SameResult() {
+        SlidingWindow window = new SlidingWindow(TEST_DATA, 10, 5);
+        window.advance(7);
+
+        int[] first = window.findLongestMatch();
+        assertArrayEquals(first, window.findLongestMatch());
+    }
+
+    @Test
+    @DisplayName("should find the same match length with the binary tree engine")
+    void findLongestMatch_BinaryTree_SameLength() {
+        SlidingWindow window = new SlidingWindow(REPEATED_DATA, 6, 6, MatchFinderType.BINARY_TREE);
+        window.advance(3);
+
+        assertArrayEquals(new int[]{3, 6, 0}, window.findLongestMatch());
+    }
+
     @Test
     @DisplayName("should advance window correctly")
     void advance_WindowMovement() {
@@ -106,6 +129,77 @@ class SlidingWindowTest {
         );
     }
 
+    @Test
+    @DisplayName("should return the packed match and next character")
+    void findMatch_PackedResult_SameAsArray() {
+        SlidingWindow window = new SlidingWindow(TEST_DATA, 10, 5);
+        window.advance(3);
+        long match = window.findMatch();
+
+        assertAll(
+                () -> assertEquals(3, MatchFinder.offset(match)),
+                () -> assertEquals(1, MatchFinder.length(match)),
+                () -> assertEquals('c', window.getNextChar(match)),
+                () -> assertArrayEquals(new int[]{3, 1, 'c'}, window.findLongestMatch())
+        );
+    }
+
+    @Test
+    @DisplayName("should expose buffers through index accessors")
+    void bufferAccessors_MatchCopies() {
+        SlidingWindow window = new SlidingWindow(TEST_DATA, 5, 3);
+        window.advance(7);
+
+        byte[] search = window.getSearchBuffer();
+        byte[] lookahead = window.getLookaheadBuffer();
+        assertAll(
+                () -> assertEquals(search.length, window.getSearchLength()),
+                () -> assertEquals(lookahead.length, window.getLookaheadLength()),
+                () -> assertEquals(search[0], window.getSearchByte(0)),
+                () -> assertEquals(search[4], window.getSearchByte(4)),
+                () -> assertEquals(lookahead[2], window.getLookaheadByte(2)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> window.getSearchByte(5)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> window.getLookaheadByte(3))
+        );
+    }
+
+    @Test
+    @DisplayName("should not allocate while finding matches and advancing")
+    void findMatch_Advance_AllocatesNothing() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        byte[] data = new byte[1 << 16];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) "abracadabra cadabra abra".charAt(i * 7 % 24);
+        }
+
+        // Прогрев, чтобы измерять скомпилированный код
+        for (int i = 0; i < 5; i++) {
+            compressAll(new SlidingWindow(data, 4096, 258));
+        }
+        SlidingWindow window = new SlidingWindow(data, 4096, 258);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long checksum = compressAll(window);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertAll(
+                () -> assertFalse(window.hasMoreData()),
+                () -> assertNotEquals(0, checksum),
+                () -> assertEquals(0, allocated)
+        );
+    }
+
+    private static long compressAll(SlidingWindow window) {
+        long checksum = 0;
+        while (window.hasMoreData()) {
+            long match = window.findMatch();
+            checksum += match + window.getNextChar(match) + window.getSearchLength();
+            window.advance(MatchFinder.length(match) + 1);
+        }
+        return checksum;
+    }
+
     private static Stream<Arguments> provideFindMatchTestCases() {
         return Stream.of(
                 arguments(
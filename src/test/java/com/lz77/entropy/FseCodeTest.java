@@ -0,0 +1,44 @@
+package com.lz77.entropy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FSE Code Tests")
+class FseCodeTest {
+
+    @Test
+    @DisplayName("should normalize counts to the table size keeping rare symbols")
+    void normalize_SkewedFrequencies_SumsToTableSize() {
+        int[] frequencies = new int[300];
+        frequencies[0] = 1_000_000;
+        for (int i = 1; i < frequencies.length; i++) {
+            frequencies[i] = 1;
+        }
+
+        int[] counts = FseCode.normalize(frequencies, 9);
+
+        assertAll(
+                () -> assertEquals(512, Arrays.stream(counts).sum()),
+                () -> assertTrue(Arrays.stream(counts).allMatch(count -> count >= 1))
+        );
+    }
+
+    @Test
+    @DisplayName("should return null for an empty alphabet")
+    void normalize_NoSymbols_ReturnsNull() {
+        assertNull(FseCode.normalize(new int[10], 6));
+    }
+
+    @Test
+    @DisplayName("should reject counts that do not fill the table")
+    void constructor_InvalidCounts_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new FseCode(new int[]{10, 10}, 5)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new FseCode(new int[]{32}, 13))
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.lz77.entropy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FSE Token Codec Tests")
+class FseTokenCodecTest {
+
+    @ParameterizedTest(name = "should round-trip {0} random tokens")
+    @ValueSource(ints = {1, 10, 1000, 65536})
+    void encodeDecode_RandomTokens_RoundTrip(int count) throws IOException {
+        Random random = new Random(count);
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        byte[] nextChars = new byte[count];
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(3) > 0) {
+                offsets[i] = 1 + random.nextInt(1 << random.nextInt(20));
+                lengths[i] = random.nextInt(1 << random.nextInt(10));
+            }
+            nextChars[i] = (byte) ('a' + random.nextInt(20));
+        }
+
+        assertDecodesTo(offsets, lengths, nextChars);
+    }
+
+    @Test
+    @DisplayName("should round-trip extreme and unusual tokens")
+    void encodeDecode_EdgeTokens_RoundTrip() throws IOException {
+        int[] offsets = {0, Integer.MAX_VALUE, 0, 5, 1};
+        int[] lengths = {0, Integer.MAX_VALUE, 7, 0, 1};
+        byte[] nextChars = {0, (byte) 0xFF, 'x', 0, (byte) 0x80};
+
+        assertDecodesTo(offsets, lengths, nextChars);
+    }
+
+    @Test
+    @DisplayName("should round-trip a block with a single literal symbol")
+    void encodeDecode_SingleSymbol_RoundTrip() throws IOException {
+        byte[] nextChars = new byte[100];
+        Arrays.fill(nextChars, (byte) 'a');
+
+        assertDecodesTo(new int[100], new int[100], nextChars);
+    }
+
+    @Test
+    @DisplayName("should reject truncated blocks")
+    void decode_TruncatedBlock_ThrowsException() {
+        int count = 1000;
+        byte[] nextChars = new byte[count];
+        new Random(1).nextBytes(nextChars);
+        byte[] encoded = FseTokenCodec.encode(new int[count], new int[count], nextChars, count);
+
+        assertThrows(IOException.class, () -> FseTokenCodec.decode(encoded, 0, encoded.length / 2,
+                new int[count], new int[count], new byte[count], count));
+    }
+
+    @Test
+    @DisplayName("should reject blocks with trailing data")
+    void decode_TrailingData_ThrowsException() {
+        int count = 100;
+        byte[] nextChars = new byte[count];
+        new Random(2).nextBytes(nextChars);
+        byte[] encoded = FseTokenCodec.encode(new int[count], new int[count], nextChars, count);
+
+        assertThrows(IOException.class, () -> FseTokenCodec.decode(encoded, 0, encoded.length,
+                new int[count], new int[count], new byte[count], count - 1));
+    }
+
+    @Test
+    @DisplayName("should code skewed data smaller than Huffman")
+    void encode_SkewedLiterals_SmallerThanHuffman() {
+        int count = 65536;
+        byte[] nextChars = new byte[count];
+        Random random = new Random(5);
+        for (int i = 0; i < count; i++) {
+            nextChars[i] = (byte) (random.nextInt(10) == 0 ? 'b' + random.nextInt(3) : 'a');
+        }
+
+        int fse = FseTokenCodec.encode(new int[count], new int[count], nextChars, count).length;
+        int huffman = HuffmanTokenCodec.encode(new int[count], new int[count], nextChars, count).length;
+
+        assertTrue(fse < huffman, fse + " vs " + huffman);
+    }
+
+    private static void assertDecodesTo(int[] offsets, int[] lengths, byte[] nextChars) throws IOException {
+        int count = offsets.length;
+        byte[] encoded = FseTokenCodec.encode(offsets, lengths, nextChars, count);
+        int[] decodedOffsets = new int[count];
+        int[] decodedLengths = new int[count];
+        byte[] decodedChars = new byte[count];
+
+        FseTokenCodec.decode(encoded, 0, encoded.length, decodedOffsets, decodedLengths, decodedChars, count);
+
+        assertAll(
+                () -> assertArrayEquals(offsets, decodedOffsets),
+                () -> assertArrayEquals(lengths, decodedLengths),
+                () -> assertArrayEquals(nextChars, decodedChars)
+        );
+    }
+}
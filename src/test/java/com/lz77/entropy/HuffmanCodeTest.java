@@ -0,0 +1,81 @@
+package com.lz77.entropy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Huffman Code Tests")
+class HuffmanCodeTest {
+
+    @Test
+    @DisplayName("should give shorter codes to frequent symbols")
+    void buildLengths_SkewedFrequencies_FrequentSymbolsShorter() {
+        int[] lengths = HuffmanCode.buildLengths(new int[]{100, 50, 25, 25, 0});
+
+        assertAll(
+                () -> assertEquals(1, lengths[0]),
+                () -> assertEquals(2, lengths[1]),
+                () -> assertEquals(3, lengths[2]),
+                () -> assertEquals(3, lengths[3]),
+                () -> assertEquals(0, lengths[4])
+        );
+    }
+
+    @Test
+    @DisplayName("should limit code length for exponential frequencies")
+    void buildLengths_FibonacciFrequencies_LimitedLength() {
+        int[] frequencies = new int[30];
+        frequencies[0] = 1;
+        frequencies[1] = 1;
+        for (int i = 2; i < frequencies.length; i++) {
+            frequencies[i] = frequencies[i - 1] + frequencies[i - 2];
+        }
+
+        int[] lengths = HuffmanCode.buildLengths(frequencies);
+
+        double kraft = 0;
+        for (int length : lengths) {
+            assertTrue(length >= 1 && length <= HuffmanCode.MAX_CODE_LENGTH, "length: " + length);
+            kraft += Math.pow(2, -length);
+        }
+        assertTrue(kraft <= 1.0);
+    }
+
+    @Test
+    @DisplayName("should decode written symbols")
+    void readWrite_RandomSymbols_RoundTrip() throws IOException {
+        Random random = new Random(3);
+        int[] symbols = new int[5000];
+        int[] frequencies = new int[300];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = (int) Math.min(299, Math.abs(random.nextGaussian()) * 40);
+            frequencies[symbols[i]]++;
+        }
+        HuffmanCode code = new HuffmanCode(HuffmanCode.buildLengths(frequencies));
+
+        BitWriter out = new BitWriter(16);
+        for (int symbol : symbols) {
+            code.write(out, symbol);
+        }
+        byte[] bytes = out.toByteArray();
+        BitReader in = new BitReader(bytes, 0, bytes.length);
+        for (int symbol : symbols) {
+            assertEquals(symbol, code.read(in));
+        }
+        in.checkNotOverrun();
+    }
+
+    @Test
+    @DisplayName("should reject oversubscribed code lengths")
+    void constructor_OversubscribedLengths_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new HuffmanCode(new int[]{1, 1, 1})),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new HuffmanCode(new int[]{HuffmanCode.MAX_CODE_LENGTH + 1}))
+        );
+    }
+}
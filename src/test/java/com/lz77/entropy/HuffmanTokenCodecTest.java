@@ -0,0 +1,94 @@
+package com.lz77.entropy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Huffman Token Codec Tests")
+class HuffmanTokenCodecTest {
+
+    @ParameterizedTest(name = "should map value {0} to a bucket containing it")
+    @ValueSource(ints = {0, 1, 3, 4, 5, 7, 8, 255, 1024, 65535, 1 << 26, Integer.MAX_VALUE})
+    void bucket_Value_WithinBucketRange(int value) {
+        int bucket = TokenAlphabet.bucket(value);
+        long base = TokenAlphabet.base(bucket);
+        long size = 1L << TokenAlphabet.extraBits(bucket);
+
+        assertAll(
+                () -> assertTrue(bucket < TokenAlphabet.VALUE_BUCKETS),
+                () -> assertTrue(value >= base && value < base + size, "bucket " + bucket)
+        );
+    }
+
+    @ParameterizedTest(name = "should round-trip {0} random tokens")
+    @ValueSource(ints = {1, 10, 1000, 65536})
+    void encodeDecode_RandomTokens_RoundTrip(int count) throws IOException {
+        Random random = new Random(count);
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        byte[] nextChars = new byte[count];
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(3) > 0) {
+                offsets[i] = 1 + random.nextInt(1 << random.nextInt(20));
+                lengths[i] = random.nextInt(1 << random.nextInt(10));
+            }
+            nextChars[i] = (byte) ('a' + random.nextInt(20));
+        }
+
+        assertDecodesTo(offsets, lengths, nextChars);
+    }
+
+    @Test
+    @DisplayName("should round-trip extreme and unusual tokens")
+    void encodeDecode_EdgeTokens_RoundTrip() throws IOException {
+        int[] offsets = {0, Integer.MAX_VALUE, 0, 5, 1};
+        int[] lengths = {0, Integer.MAX_VALUE, 7, 0, 1};
+        byte[] nextChars = {0, (byte) 0xFF, 'x', 0, (byte) 0x80};
+
+        assertDecodesTo(offsets, lengths, nextChars);
+    }
+
+    @Test
+    @DisplayName("should round-trip a block with a single literal symbol")
+    void encodeDecode_SingleSymbol_RoundTrip() throws IOException {
+        byte[] nextChars = new byte[100];
+        Arrays.fill(nextChars, (byte) 'a');
+
+        assertDecodesTo(new int[100], new int[100], nextChars);
+    }
+
+    @Test
+    @DisplayName("should reject truncated blocks")
+    void decode_TruncatedBlock_ThrowsException() {
+        int count = 1000;
+        byte[] nextChars = new byte[count];
+        new Random(1).nextBytes(nextChars);
+        byte[] encoded = HuffmanTokenCodec.encode(new int[count], new int[count], nextChars, count);
+
+        assertThrows(IOException.class, () -> HuffmanTokenCodec.decode(encoded, 0, encoded.length / 2,
+                new int[count], new int[count], new byte[count], count));
+    }
+
+    private static void assertDecodesTo(int[] offsets, int[] lengths, byte[] nextChars) throws IOException {
+        int count = offsets.length;
+        byte[] encoded = HuffmanTokenCodec.encode(offsets, lengths, nextChars, count);
+        int[] decodedOffsets = new int[count];
+        int[] decodedLengths = new int[count];
+        byte[] decodedChars = new byte[count];
+
+        HuffmanTokenCodec.decode(encoded, 0, encoded.length, decodedOffsets, decodedLengths, decodedChars, count);
+
+        assertAll(
+                () -> assertArrayEquals(offsets, decodedOffsets),
+                () -> assertArrayEquals(lengths, decodedLengths),
+                () -> assertArrayEquals(nextChars, decodedChars)
+        );
+    }
+}
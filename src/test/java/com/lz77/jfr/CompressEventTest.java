@@ -0,0 +1,151 @@
+package com.lz77.jfr;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.TokenBuffer;
+import com.lz77.util.LZ77OutputStream;
+import com.lz77.util.ParallelCompressor;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compress Event Tests")
+class CompressEventTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should record a compression event with match statistics and block events")
+    void parallelCompressor_Recording_EmitsEvents() throws Exception {
+        byte[] input = textData(200_000);
+        byte[][] compressed = new byte[1][];
+        List<RecordedEvent> events = record(tempDir, () -> compressed[0] = new ParallelCompressor(
+                LZ77Compressor.ofLevel(5), 2, 1 << 16, EntropyCoder.FSE).compress(input));
+
+        RecordedEvent event = single(events, "com.lz77.Compress");
+        List<RecordedEvent> blocks = named(events, "com.lz77.CompressBlock");
+        long blockTokens = blocks.stream().mapToLong(block -> block.getInt("tokens")).sum();
+        assertAll(
+                () -> assertEquals("ParallelCompressor", event.getString("engine")),
+                () -> assertEquals(5, event.getInt("level")),
+                () -> assertEquals("FSE", event.getString("coder")),
+                () -> assertEquals(input.length, event.getLong("inputBytes")),
+                () -> assertEquals(compressed[0].length, event.getLong("outputBytes")),
+                () -> assertTrue(event.getLong("matches") > 0),
+                () -> assertTrue(event.getLong("probes") > 0),
+                () -> assertFalse(blocks.isEmpty()),
+                () -> assertEquals(event.getLong("literals") + event.getLong("matches"), blockTokens)
+        );
+    }
+
+    @Test
+    @DisplayName("should record in-memory compression without a compressed size")
+    void lz77Compressor_Recording_EmitsEventWithoutOutputSize() throws Exception {
+        byte[] input = textData(20_000);
+        TokenBuffer tokens = new TokenBuffer();
+        List<RecordedEvent> events = record(tempDir, () -> new LZ77Compressor().compress(input, tokens));
+
+        RecordedEvent event = single(events, "com.lz77.Compress");
+        assertAll(
+                () -> assertEquals("LZ77Compressor", event.getString("engine")),
+                () -> assertEquals(0, event.getInt("level")),
+                () -> assertNull(event.getString("coder")),
+                () -> assertEquals(-1, event.getLong("outputBytes")),
+                () -> assertEquals(tokens.size(), event.getLong("literals") + event.getLong("matches"))
+        );
+    }
+
+    @Test
+    @DisplayName("should record one event when a compressing stream finishes")
+    void outputStream_Recording_EmitsEventOnFinish() throws Exception {
+        byte[] input = textData(30_000);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        List<RecordedEvent> events = record(tempDir, () -> {
+            try (LZ77OutputStream out = new LZ77OutputStream(sink, LZ77Compressor.ofLevel(2))) {
+                out.write(input);
+            }
+        });
+
+        RecordedEvent event = single(events, "com.lz77.Compress");
+        assertAll(
+                () -> assertEquals("LZ77OutputStream", event.getString("engine")),
+                () -> assertEquals(2, event.getInt("level")),
+                () -> assertEquals(input.length, event.getLong("inputBytes")),
+                () -> assertEquals(sink.size(), event.getLong("outputBytes"))
+        );
+    }
+
+    @Test
+    @DisplayName("should declare thresholds so that short calls are not recorded by default")
+    void eventTypes_DefaultSettings_HaveThresholds() {
+        assertAll(
+                () -> assertEquals("1 ms", threshold(CompressEvent.class)),
+                () -> assertEquals("1 ms", threshold(DecompressEvent.class)),
+                () -> assertEquals("10 ms", threshold(CompressBlockEvent.class)),
+                () -> assertEquals("10 ms", threshold(DecompressBlockEvent.class))
+        );
+    }
+
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Выполняет действие под записью JFR, в которой события LZ77 включены без порога
+     */
+    static List<RecordedEvent> record(Path dir, Action action) throws Exception {
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("com.lz77.Compress", "com.lz77.CompressBlock",
+                    "com.lz77.Decompress", "com.lz77.DecompressBlock")) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = named(events, name);
+        assertEquals(1, matching.size(), "Expected one " + name + " event");
+        return matching.get(0);
+    }
+
+    static byte[] textData(int size) {
+        String[] words = {"alpha", "beta", "gamma", "delta", "\n", "{\"id\":", "\"name\":", "0", "42", " "};
+        Random random = new Random(size);
+        StringBuilder text = new StringBuilder(size);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]);
+        }
+        return text.substring(0, size).getBytes();
+    }
+
+    private static String threshold(Class<? extends jdk.jfr.Event> eventClass) {
+        return EventType.getEventType(eventClass).getSettingDescriptors().stream()
+                .filter(setting -> setting.getName().equals("threshold"))
+                .map(SettingDescriptor::getDefaultValue)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.lz77.jfr;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.LZ77Decompressor;
+import com.lz77.model.TokenBuffer;
+import com.lz77.util.LZ77InputStream;
+import com.lz77.util.LZ77OutputStream;
+import com.lz77.util.ParallelCompressor;
+import com.lz77.util.ParallelDecompressor;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.lz77.jfr.CompressEventTest.named;
+import static com.lz77.jfr.CompressEventTest.record;
+import static com.lz77.jfr.CompressEventTest.single;
+import static com.lz77.jfr.CompressEventTest.textData;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Decompress Event Tests")
+class DecompressEventTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should record frames and decoded blocks of a parallel decompression")
+    void parallelDecompressor_Recording_EmitsEvents() throws Exception {
+        byte[] input = textData(100_000);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 2, 1 << 15).compress(input);
+        List<RecordedEvent> events = record(tempDir, () -> new ParallelDecompressor(2).decompress(compressed));
+
+        RecordedEvent event = single(events, "com.lz77.Decompress");
+        List<RecordedEvent> blocks = named(events, "com.lz77.DecompressBlock");
+        assertAll(
+                () -> assertEquals("ParallelDecompressor", event.getString("engine")),
+                () -> assertEquals(compressed.length, event.getLong("inputBytes")),
+                () -> assertEquals(input.length, event.getLong("outputBytes")),
+                () -> assertEquals(4, event.getInt("frames")),
+                () -> assertTrue(blocks.size() >= 4),
+                () -> assertEquals("HUFFMAN", blocks.get(0).getString("coder"))
+        );
+    }
+
+    @Test
+    @DisplayName("should record a streaming decompression when the data ends")
+    void inputStream_Recording_EmitsEventAtEnd() throws Exception {
+        byte[] input = textData(40_000);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input);
+        }
+        List<RecordedEvent> events = record(tempDir, () -> {
+            try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(sink.toByteArray()))) {
+                in.readAllBytes();
+            }
+        });
+
+        RecordedEvent event = single(events, "com.lz77.Decompress");
+        assertAll(
+                () -> assertEquals("LZ77InputStream", event.getString("engine")),
+                () -> assertEquals(sink.size(), event.getLong("inputBytes")),
+                () -> assertEquals(input.length, event.getLong("outputBytes")),
+                () -> assertEquals(0, event.getInt("frames"))
+        );
+    }
+
+    @Test
+    @DisplayName("should record decompression of in-memory tokens")
+    void lz77Decompressor_Recording_EmitsEvent() throws Exception {
+        byte[] input = textData(10_000);
+        TokenBuffer tokens = new TokenBuffer();
+        new LZ77Compressor().compress(input, tokens);
+        List<RecordedEvent> events = record(tempDir, () -> new LZ77Decompressor().decompress(tokens));
+
+        RecordedEvent event = single(events, "com.lz77.Decompress");
+        assertAll(
+                () -> assertEquals("LZ77Decompressor", event.getString("engine")),
+                () -> assertEquals(-1, event.getLong("inputBytes")),
+                () -> assertEquals(input.length, event.getLong("outputBytes"))
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.lz77.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Archive Entry Model Tests")
+class ArchiveEntryTest {
+
+    @Test
+    @DisplayName("should create entry with valid parameters")
+    void createEntry_ValidParameters_Success() {
+        ArchiveEntry entry = new ArchiveEntry("logs/app.log", 5, 120, 4000, 0x1234);
+
+        assertAll(
+                () -> assertEquals("logs/app.log", entry.name()),
+                () -> assertEquals(5, entry.offset()),
+                () -> assertEquals(120, entry.compressedSize()),
+                () -> assertEquals(4000, entry.size()),
+                () -> assertEquals(0x1234, entry.checksum())
+        );
+    }
+
+    @Test
+    @DisplayName("should reject an empty name and negative sizes")
+    void createEntry_InvalidParameters_Throws() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new ArchiveEntry("", 5, 1, 1, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new ArchiveEntry("a", -1, 1, 1, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new ArchiveEntry("a", 5, -1, 1, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new ArchiveEntry("a", 5, 1, -1, 0))
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.lz77.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compression Metrics Tests")
+class CompressionMetricsTest {
+
+    @Test
+    @DisplayName("should derive rates and averages from counters")
+    void derivedValues_NormalMetrics_ReturnsCorrectValues() {
+        CompressionMetrics metrics = new CompressionMetrics(2_000_000, 500_000, 100_000, 50_000, 1_800_000,
+                6_000_000, 30_000_000, 10_000_000, 5_000_000, 40_000_000);
+
+        assertAll(
+                () -> assertEquals(150_000, metrics.tokens()),
+                () -> assertEquals(36.0, metrics.averageMatchLength()),
+                () -> assertEquals(3.0, metrics.probesPerByte()),
+                () -> assertEquals(50_000_000.0, metrics.bytesPerSecond()),
+                () -> assertEquals(4.0, metrics.ratio())
+        );
+    }
+
+    @Test
+    @DisplayName("should return zero rates for empty or unknown values")
+    void derivedValues_EmptyMetrics_ReturnsZero() {
+        CompressionMetrics metrics = new CompressionMetrics(0, CompressionMetrics.UNKNOWN, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        assertAll(
+                () -> assertEquals(0.0, metrics.averageMatchLength()),
+                () -> assertEquals(0.0, metrics.probesPerByte()),
+                () -> assertEquals(0.0, metrics.bytesPerSecond()),
+                () -> assertEquals(0.0, metrics.ratio())
+        );
+    }
+}
@@ -81,6 +81,33 @@ class CompressionResultTest {
         );
     }
 
+    @Test
+    @DisplayName("should take ratio and time from compressor metrics")
+    void constructor_WithMetrics_UsesExactValues() {
+        byte[] data = new byte[1000];
+        CompressionMetrics metrics = new CompressionMetrics(1000, 250, 10, 5, 980, 400,
+                2_000_000, 1_000_000, 500_000, 4_000_000);
+        CompressionResult result = new CompressionResult(data, List.of(), metrics);
+
+        assertAll(
+                () -> assertEquals(4.0, result.compressionRatio()),
+                () -> assertEquals(4, result.compressionTime()),
+                () -> assertSame(metrics, result.metrics()),
+                () -> assertTrue(result.getSummary().contains("Compressed: 250 bytes"))
+        );
+    }
+
+    @Test
+    @DisplayName("should estimate the ratio when metrics have no compressed size")
+    void constructor_MetricsWithoutSize_EstimatesRatio() {
+        byte[] data = "aaaaaaaaaa".getBytes();
+        List<Token> tokens = new LZ77Compressor().compress(data);
+        CompressionMetrics metrics = new CompressionMetrics(10, CompressionMetrics.UNKNOWN, 1, 1, 9, 2, 0, 0, 0, 0);
+
+        assertEquals(new CompressionResult(data, tokens).compressionRatio(),
+                new CompressionResult(data, tokens, metrics).compressionRatio());
+    }
+
     private static Stream<Arguments> provideSummaryTestCases() {
         return Stream.of(
                 arguments(
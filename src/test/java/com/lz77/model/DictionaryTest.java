@@ -0,0 +1,75 @@
+package com.lz77.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dictionary Tests")
+class DictionaryTest {
+    private static final byte[] CONTENT = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    @DisplayName("should derive a stable non-zero id from the content")
+    void constructor_Content_ComputesId() {
+        Dictionary dictionary = new Dictionary(CONTENT);
+
+        assertAll(
+                () -> assertEquals(Dictionary.computeId(CONTENT), dictionary.getId()),
+                () -> assertNotEquals(0, dictionary.getId()),
+                () -> assertEquals(dictionary, new Dictionary(CONTENT.clone())),
+                () -> assertNotEquals(dictionary.getId(), new Dictionary("other".getBytes()).getId()),
+                () -> assertEquals(8, Dictionary.formatId(dictionary.getId()).length())
+        );
+    }
+
+    @Test
+    @DisplayName("should expose only the tail that fits into the window")
+    void window_SmallerThanDictionary_ReturnsTail() {
+        Dictionary dictionary = new Dictionary(7, CONTENT);
+        ByteBuffer tail = dictionary.window(4);
+        byte[] bytes = new byte[tail.remaining()];
+        tail.get(bytes);
+
+        assertAll(
+                () -> assertArrayEquals("cdef".getBytes(StandardCharsets.US_ASCII), bytes),
+                () -> assertTrue(dictionary.window(4).isReadOnly()),
+                () -> assertEquals(CONTENT.length, dictionary.window(1024).remaining())
+        );
+    }
+
+    @Test
+    @DisplayName("should place data right after the window tail")
+    void prepend_Data_FollowsDictionaryTail() {
+        Dictionary dictionary = new Dictionary(7, CONTENT);
+
+        assertAll(
+                () -> assertArrayEquals("ef-xy".getBytes(StandardCharsets.US_ASCII),
+                        dictionary.prepend(2, "--xy--".getBytes(StandardCharsets.US_ASCII), 1, 4)),
+                () -> assertArrayEquals(CONTENT, dictionary.prepend(64, new byte[0], 0, 0))
+        );
+    }
+
+    @Test
+    @DisplayName("should copy the content")
+    void getContent_Modified_DictionaryUnchanged() {
+        byte[] content = CONTENT.clone();
+        Dictionary dictionary = new Dictionary(7, content);
+        content[0] = 'x';
+        dictionary.getContent()[1] = 'x';
+
+        assertArrayEquals(CONTENT, dictionary.getContent());
+    }
+
+    @Test
+    @DisplayName("should reject empty content and zero id")
+    void constructor_InvalidArguments_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new Dictionary(new byte[0])),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Dictionary(0, CONTENT))
+        );
+    }
+}
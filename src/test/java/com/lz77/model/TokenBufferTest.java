@@ -0,0 +1,58 @@
+package com.lz77.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Token Buffer Tests")
+class TokenBufferTest {
+
+    @Test
+    @DisplayName("should store tokens beyond the initial capacity")
+    void add_ManyTokens_GrowsAndKeepsValues() {
+        TokenBuffer buffer = new TokenBuffer(2);
+        for (int i = 0; i < 5000; i++) {
+            buffer.add(i, i * 2, (byte) i);
+        }
+
+        assertAll(
+                () -> assertEquals(5000, buffer.size()),
+                () -> assertEquals(4321, buffer.offset(4321)),
+                () -> assertEquals(8642, buffer.length(4321)),
+                () -> assertEquals((byte) 4321, buffer.nextChar(4321)),
+                () -> assertEquals(new Token(7, 14, (byte) 7), buffer.get(7))
+        );
+    }
+
+    @Test
+    @DisplayName("should convert to and from a list of records")
+    void ofAndToList_Tokens_RoundTrip() {
+        List<Token> tokens = List.of(new Token(0, 0, (byte) 'a'), new Token(1, 3, (byte) 'b'));
+
+        TokenBuffer buffer = TokenBuffer.of(tokens);
+
+        assertAll(
+                () -> assertEquals(tokens, buffer.toList()),
+                () -> assertEquals(buffer, TokenBuffer.of(buffer.toList())),
+                () -> assertEquals(buffer.hashCode(), TokenBuffer.of(tokens).hashCode())
+        );
+    }
+
+    @Test
+    @DisplayName("should reject indexes outside the stored tokens")
+    void get_IndexOutOfRange_ThrowsException() {
+        TokenBuffer buffer = new TokenBuffer();
+        buffer.add(0, 0, (byte) 'a');
+        buffer.clear();
+
+        assertAll(
+                () -> assertTrue(buffer.isEmpty()),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> buffer.offset(0)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(-1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new TokenBuffer(-1))
+        );
+    }
+}
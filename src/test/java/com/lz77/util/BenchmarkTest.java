@@ -0,0 +1,120 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.BenchmarkResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Benchmark Tests")
+class BenchmarkTest {
+
+    @ParameterizedTest(name = "should measure {0}")
+    @EnumSource(Benchmark.Engine.class)
+    void run_Engines_ReturnsMeasurements(Benchmark.Engine engine) throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(50_000, 1);
+        BenchmarkResult result = new Benchmark(1, 2, 2, EntropyCoder.HUFFMAN).run("sample.txt", input, engine, 6);
+
+        assertAll(
+                () -> assertEquals("sample.txt", result.file()),
+                () -> assertEquals(input.length, result.inputSize()),
+                () -> assertTrue(result.ratio() > 1, "text should compress"),
+                () -> assertTrue(result.compressSpeed() > 0),
+                () -> assertTrue(result.decompressSpeed() > 0),
+                () -> assertTrue(result.peakHeap() > 0),
+                () -> assertEquals(engine == Benchmark.Engine.LZ77, result.tokens() > 0),
+                () -> assertEquals(engine == Benchmark.Engine.LZ77, result.coder() != null)
+        );
+    }
+
+    @Test
+    @DisplayName("should report the size of the framed LZ77 output")
+    void run_Lz77_CompressedSizeMatchesParallelCompressor() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(30_000, 2);
+        BenchmarkResult result = new Benchmark(0, 1, 1, EntropyCoder.FSE)
+                .run("a", input, Benchmark.Engine.LZ77, 3);
+        byte[] compressed = new ParallelCompressor(LZ77Compressor.ofLevel(3), 1,
+                ParallelCompressor.DEFAULT_BLOCK_SIZE, EntropyCoder.FSE).compress(input);
+
+        assertAll(
+                () -> assertEquals(compressed.length, result.compressedSize()),
+                () -> assertEquals(LZ77Compressor.ofLevel(3).compress(input).size(), result.tokens()),
+                () -> assertEquals("fse", result.coder())
+        );
+    }
+
+    @Test
+    @DisplayName("should handle empty files")
+    void run_EmptyInput_ReturnsZeroRatio() throws IOException {
+        BenchmarkResult result = new Benchmark(0, 1, 1, EntropyCoder.HUFFMAN)
+                .run("empty", new byte[0], Benchmark.Engine.LZ77, 1);
+
+        assertAll(
+                () -> assertEquals(0, result.inputSize()),
+                () -> assertEquals(0.0, result.tokensPerByte())
+        );
+    }
+
+    @Test
+    @DisplayName("should write one CSV row per result with quoted file names")
+    void write_Csv_WritesHeaderAndRows() {
+        List<BenchmarkResult> results = List.of(
+                new BenchmarkResult("a,b.txt", "lz77", 6, "huffman", 1000, 250, 300, 12.5, 80.25, 4_000_000),
+                new BenchmarkResult("c.txt", "deflate", 9, null, 1000, 200, -1, 8, 150, 2_000_000));
+
+        String[] lines = write(results, Benchmark.Format.CSV).split("\n");
+
+        assertAll(
+                () -> assertEquals(3, lines.length),
+                () -> assertEquals(12, lines[0].split(",").length),
+                () -> assertEquals("\"a,b.txt\",lz77,6,huffman,1000,250,4.0000,300,0.300000,12.50,80.25,4000000",
+                        lines[1]),
+                () -> assertEquals("c.txt,deflate,9,,1000,200,5.0000,,,8.00,150.00,2000000", lines[2])
+        );
+    }
+
+    @Test
+    @DisplayName("should write JSON with environment and escaped strings")
+    void write_Json_WritesEnvironmentAndResults() {
+        List<BenchmarkResult> results = List.of(
+                new BenchmarkResult("say \"hi\".txt", "deflate", 1, null, 10, 5, -1, 1, 2, 3));
+
+        String json = write(results, Benchmark.Format.JSON);
+
+        assertAll(
+                () -> assertTrue(json.contains("\"environment\": {\"java\": \"")),
+                () -> assertTrue(json.contains("\"iterations\": 5")),
+                () -> assertTrue(json.contains("\"file\": \"say \\\"hi\\\".txt\"")),
+                () -> assertTrue(json.contains("\"coder\": null")),
+                () -> assertTrue(json.contains("\"tokens\": null")),
+                () -> assertTrue(json.contains("\"ratio\": 2.0000")),
+                () -> assertTrue(json.strip().endsWith("]\n}"))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject invalid iteration counts")
+    void constructor_InvalidIterations_ThrowsException() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new Benchmark(-1, 1, 1, EntropyCoder.RAW)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Benchmark(0, 0, 1, EntropyCoder.RAW)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Benchmark(0, 1, 0, EntropyCoder.RAW))
+        );
+    }
+
+    private static String write(List<BenchmarkResult> results, Benchmark.Format format) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Benchmark().write(results, format, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+}
@@ -0,0 +1,248 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Compression Server Tests")
+class CompressionServerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path socket;
+    private CompressionServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        socket = tempDir.resolve("lz77.sock");
+        server = new CompressionServer(socket, LZ77Compressor.ofLevel(6));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @ParameterizedTest(name = "should round trip {0} bytes")
+    @ValueSource(ints = {0, 1, 300, 100_000})
+    void compress_ThenDecompress_ReturnsOriginal(int size) throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(size, size + 3);
+
+        try (CompressionClient client = new CompressionClient(socket)) {
+            byte[] compressed = client.compress(input);
+
+            assertAll(
+                    () -> assertArrayEquals(input, client.decompress(compressed)),
+                    () -> assertArrayEquals(input, new ParallelDecompressor(1).decompress(compressed))
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should decompress data compressed into frames by ParallelCompressor")
+    void decompress_FramedData_ReturnsOriginal() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(50_000, 4);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 2, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(input);
+
+        try (CompressionClient client = new CompressionClient(socket)) {
+            assertArrayEquals(input, client.decompress(compressed));
+        }
+    }
+
+    @Test
+    @DisplayName("should report corrupted data and keep the connection usable")
+    void decompress_CorruptedData_ReturnsErrorAndContinues() throws IOException {
+        try (CompressionClient client = new CompressionClient(socket)) {
+            IOException e = assertThrows(IOException.class, () -> client.decompress("not compressed".getBytes()));
+
+            assertTrue(e.getMessage().startsWith("Server error"));
+            assertArrayEquals("still works".getBytes(), client.decompress(client.compress("still works".getBytes())));
+        }
+    }
+
+    @Test
+    @DisplayName("should return an error instead of a compressed reply over the size limit")
+    void compress_ReplyOverLimit_ReturnsErrorAndContinues() throws IOException {
+        byte[] incompressible = new byte[1000];
+        new Random(5).nextBytes(incompressible);
+        try (CompressionServer limited = new CompressionServer(tempDir.resolve("limited.sock"),
+                LZ77Compressor.ofLevel(6), EntropyCoder.HUFFMAN, incompressible.length, incompressible.length)) {
+            limited.start();
+            try (CompressionClient client = new CompressionClient(limited.getSocketPath())) {
+                IOException e = assertThrows(IOException.class, () -> client.compress(incompressible));
+
+                assertAll(
+                        () -> assertTrue(e.getMessage().startsWith("Server error: Response exceeds")),
+                        () -> assertArrayEquals("still works".getBytes(),
+                                client.decompress(client.compress("still works".getBytes())))
+                );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should hold a request until the memory budget is released")
+    void serve_BudgetExhausted_WaitsForRelease() throws Exception {
+        byte[] first = LZ77OutputStreamTest.textLikeData(60_000, 1);
+        byte[] second = LZ77OutputStreamTest.textLikeData(10_000, 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (CompressionServer limited = new CompressionServer(tempDir.resolve("budget.sock"),
+                LZ77Compressor.ofLevel(6), EntropyCoder.HUFFMAN, 65_536, 65_536)) {
+            limited.start();
+            SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(limited.getSocketPath()));
+            // Первый запрос занимает почти весь бюджет и передается не полностью
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            out.writeByte(CompressionServer.COMPRESS);
+            out.writeInt(first.length);
+            out.write(first, 0, 1000);
+            Thread.sleep(100);
+
+            Future<byte[]> waiting = executor.submit(() -> {
+                try (CompressionClient client = new CompressionClient(limited.getSocketPath())) {
+                    return client.decompress(client.compress(second));
+                }
+            });
+            Thread.sleep(300);
+            assertFalse(waiting.isDone(), "second request should wait for the budget");
+
+            out.write(first, 1000, first.length - 1000);
+            assertEquals(CompressionServer.STATUS_OK, in.readByte());
+            in.readNBytes(in.readInt());
+            assertArrayEquals(second, waiting.get());
+            channel.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should close the connection after an invalid request")
+    void serve_UnknownOperation_ReturnsErrorAndCloses() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            out.writeByte(42);
+            out.writeInt(0);
+
+            assertAll(
+                    () -> assertEquals(CompressionServer.STATUS_ERROR, in.readByte()),
+                    () -> assertTrue(in.readInt() > 0)
+            );
+            in.readAllBytes();
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    @DisplayName("should serve many clients concurrently")
+    void serve_ConcurrentClients_AllRoundTrip() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < 32; c++) {
+                int seed = c;
+                results.add(executor.submit(() -> {
+                    try (CompressionClient client = new CompressionClient(socket)) {
+                        for (int i = 0; i < 20; i++) {
+                            byte[] input = LZ77OutputStreamTest.textLikeData(200 + 37 * i, seed * 100L + i);
+                            if (!Arrays.equals(input, client.decompress(client.compress(input)))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+    }
+
+    @Test
+    @DisplayName("should refuse to start when a server is already running")
+    void start_SocketInUse_Throws() {
+        CompressionServer second = new CompressionServer(socket, new LZ77Compressor());
+
+        IOException e = assertThrows(IOException.class, second::start);
+        assertTrue(e.getMessage().startsWith("Server already running"));
+    }
+
+    @Test
+    @DisplayName("should replace a socket file left by a stopped server")
+    void start_StaleSocket_Replaces() throws IOException {
+        Path stale = tempDir.resolve("stale.sock");
+        ServerSocketChannel abandoned = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        abandoned.bind(UnixDomainSocketAddress.of(stale));
+        abandoned.close();
+        assertTrue(Files.exists(stale));
+
+        try (CompressionServer restarted = new CompressionServer(stale, new LZ77Compressor())) {
+            restarted.start();
+            try (CompressionClient client = new CompressionClient(stale)) {
+                assertArrayEquals("ok".getBytes(), client.decompress(client.compress("ok".getBytes())));
+            }
+        }
+        assertFalse(Files.exists(stale));
+    }
+
+    @Test
+    @DisplayName("should not delete a regular file at the socket path")
+    void start_RegularFile_Throws() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("data.txt"), "keep me");
+
+        assertThrows(IOException.class, () -> new CompressionServer(file, new LZ77Compressor()).start());
+        assertEquals("keep me", Files.readString(file));
+    }
+
+    @Test
+    @DisplayName("should make the socket accessible to the owner only")
+    void start_PosixFileSystem_RestrictsSocketToOwner() throws IOException {
+        assumeTrue(Files.getFileStore(socket).supportsFileAttributeView(PosixFileAttributeView.class));
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(socket));
+    }
+
+    @Test
+    @DisplayName("should stop accepting connections after close")
+    void close_RunningServer_RemovesSocket() throws Exception {
+        server.close();
+        server.join();
+
+        assertAll(
+                () -> assertFalse(Files.exists(socket)),
+                () -> assertThrows(IOException.class, () -> new CompressionClient(socket))
+        );
+    }
+}
@@ -0,0 +1,110 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.CompressionContext;
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.LZ77Decompressor;
+import com.lz77.model.TokenBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Context Pool Tests")
+class ContextPoolTest {
+
+    @Test
+    @DisplayName("should reuse a released object")
+    void acquire_AfterRelease_ReusesObject() {
+        AtomicInteger created = new AtomicInteger();
+        ContextPool<Object> pool = new ContextPool<>(2, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        Object first = pool.acquire();
+        pool.release(first);
+        Object second = pool.acquire();
+
+        assertAll(
+                () -> assertSame(first, second),
+                () -> assertEquals(1, created.get()),
+                () -> assertEquals(0, pool.available())
+        );
+    }
+
+    @Test
+    @DisplayName("should create objects instead of waiting and keep at most capacity of them")
+    void release_MoreThanCapacity_DropsExtraObjects() {
+        ContextPool<Object> pool = new ContextPool<>(2, Object::new);
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(pool.acquire());
+        }
+        items.forEach(pool::release);
+
+        assertAll(
+                () -> assertEquals(5, items.stream().distinct().count()),
+                () -> assertEquals(2, pool.available()),
+                () -> assertEquals(2, pool.getCapacity())
+        );
+    }
+
+    @Test
+    @DisplayName("should return the object after a failed action")
+    void use_ActionThrows_ReleasesObject() {
+        ContextPool<Object> pool = new ContextPool<>(1, Object::new);
+
+        assertThrows(IllegalStateException.class, () -> pool.use(item -> {
+            throw new IllegalStateException("failure");
+        }));
+        assertEquals(1, pool.available());
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive capacity")
+    void constructor_ZeroCapacity_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ContextPool<>(0, Object::new));
+    }
+
+    @Test
+    @DisplayName("should share compression contexts between virtual threads")
+    void use_VirtualThreads_EachContextUsedByOneTask() throws Exception {
+        LZ77Compressor compressor = new LZ77Compressor();
+        AtomicInteger created = new AtomicInteger();
+        ContextPool<CompressionContext> pool = new ContextPool<>(4, () -> {
+            created.incrementAndGet();
+            return new CompressionContext(compressor);
+        });
+        LZ77Decompressor decompressor = new LZ77Decompressor();
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                byte[] message = ("message " + i + " repeats, message " + i + " repeats").getBytes();
+                results.add(executor.submit(() -> {
+                    CompressionContext context = pool.acquire();
+                    try {
+                        TokenBuffer tokens = context.compress(message);
+                        Thread.yield();
+                        return Arrays.equals(message, decompressor.decompress(tokens));
+                    } finally {
+                        pool.release(context);
+                    }
+                }));
+            }
+        }
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        assertTrue(pool.available() <= 4);
+    }
+}
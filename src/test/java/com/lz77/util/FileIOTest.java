@@ -1,13 +1,20 @@
 package com.lz77.util;
 
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.CompressedData;
+import com.lz77.model.Dictionary;
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
@@ -48,6 +55,198 @@ class FileIOTest {
         );
     }
 
+    @Test
+    @DisplayName("should store window size in the header")
+    void writeTokens_WithWindowSize_WindowSizeRestored() throws Exception {
+        Path tokensFile = tempDir.resolve("window.lz77");
+        List<Token> tokens = List.of(new Token(0, 0, (byte)'a'), new Token(1, 300, (byte)'b'));
+
+        FileIO.writeTokens(tokensFile.toString(), tokens, 1 << 20);
+        CompressedData data = FileIO.readCompressedData(tokensFile.toString());
+
+        assertAll(
+                () -> assertEquals(1 << 20, data.windowSize()),
+                () -> assertEquals(tokens, data.tokens())
+        );
+    }
+
+    @Test
+    @DisplayName("should read legacy v1.0 files with the default window")
+    void readCompressedData_LegacyFormat_DefaultWindow() throws Exception {
+        Path legacyFile = tempDir.resolve("legacy.lz77");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(legacyFile.toString()))) {
+            dos.writeUTF("LZ77TOKENSv1.0");
+            dos.writeInt(1);
+            dos.writeInt(0);
+            dos.writeInt(0);
+            dos.writeByte('x');
+        }
+
+        CompressedData data = FileIO.readCompressedData(legacyFile.toString());
+
+        assertAll(
+                () -> assertEquals(1024, data.windowSize()),
+                () -> assertEquals(List.of(new Token(0, 0, (byte)'x')), data.tokens())
+        );
+    }
+
+    @Test
+    @DisplayName("should read v1.1 files with fixed-size tokens")
+    void readCompressedData_V11Format_TokensRestored() throws Exception {
+        Path v11File = tempDir.resolve("v11.lz77");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(v11File.toString()))) {
+            dos.writeUTF("LZ77TOKENSv1.1");
+            dos.writeInt(4096);
+            dos.writeInt(2);
+            dos.writeInt(0);
+            dos.writeInt(0);
+            dos.writeByte('x');
+            dos.writeInt(1);
+            dos.writeInt(3);
+            dos.writeByte('y');
+            dos.writeInt(0);
+        }
+
+        CompressedData data = FileIO.readCompressedData(v11File.toString());
+
+        assertAll(
+                () -> assertEquals(4096, data.windowSize()),
+                () -> assertEquals(List.of(new Token(0, 0, (byte)'x'), new Token(1, 3, (byte)'y')), data.tokens())
+        );
+    }
+
+    @Test
+    @DisplayName("should write the v2 header with a version byte")
+    void writeTokens_V2Header_MagicAndVersion() throws Exception {
+        Path tokensFile = tempDir.resolve("v2.lz77");
+        FileIO.writeTokens(tokensFile.toString(), List.of(new Token(0, 0, (byte)'a')), 1 << 16);
+
+        byte[] bytes = FileIO.readFile(tokensFile.toString());
+
+        assertAll(
+                () -> assertEquals("LZ77", new String(bytes, 0, 4)),
+                () -> assertEquals(2, bytes[4]),
+                () -> assertEquals(16, bytes[6])
+        );
+    }
+
+    @Test
+    @DisplayName("should store literals and matches compactly")
+    void writeTokens_V2Format_SmallerThanFixedTokens() throws Exception {
+        Path tokensFile = tempDir.resolve("compact.lz77");
+        byte[] input = LZ77OutputStreamTest.textLikeData(20_000, 4);
+        List<Token> tokens = new com.lz77.algorithm.LZ77Compressor().compress(input);
+
+        FileIO.writeTokens(tokensFile.toString(), tokens);
+        long fileSize = java.nio.file.Files.size(tokensFile);
+
+        assertAll(
+                () -> assertTrue(fileSize * 2 < tokens.size() * 9L, "size: " + fileSize),
+                () -> assertEquals(tokens, FileIO.readTokens(tokensFile.toString()))
+        );
+    }
+
+    @ParameterizedTest(name = "should make {0}-coded blocks smaller than raw blocks")
+    @EnumSource(value = EntropyCoder.class, names = {"HUFFMAN", "FSE"})
+    void writeTokens_EntropyCoder_SmallerThanRaw(EntropyCoder coder) throws Exception {
+        Path rawFile = tempDir.resolve("raw.lz77");
+        Path codedFile = tempDir.resolve("coded.lz77");
+        byte[] input = LZ77OutputStreamTest.textLikeData(200_000, 5);
+        List<Token> tokens = new com.lz77.algorithm.LZ77Compressor().compress(input);
+
+        FileIO.writeTokens(rawFile.toString(), tokens, 1024, EntropyCoder.RAW);
+        FileIO.writeTokens(codedFile.toString(), tokens, 1024, coder);
+        long rawSize = java.nio.file.Files.size(rawFile);
+        long codedSize = java.nio.file.Files.size(codedFile);
+
+        assertAll(
+                () -> assertTrue(codedSize < rawSize, codedSize + " vs " + rawSize),
+                () -> assertEquals(tokens, FileIO.readTokens(rawFile.toString())),
+                () -> assertEquals(tokens, FileIO.readTokens(codedFile.toString()))
+        );
+    }
+
+    @Test
+    @DisplayName("should read v2 files written without block encodings")
+    void readCompressedData_V2WithoutFlags_ReadsTokens() throws Exception {
+        Path v2File = tempDir.resolve("v2-plain.lz77");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(v2File.toFile()))) {
+            dos.writeBytes("LZ77");
+            dos.writeByte(2);
+            dos.writeByte(0);
+            dos.writeByte(12);
+            dos.writeByte(2);          // два токена
+            dos.writeByte(1 << 1);     // серия из одного литерала
+            dos.writeByte('x');
+            dos.writeByte(3 << 1 | 1); // совпадение длины 3
+            dos.writeByte(1);
+            dos.writeByte('y');
+            dos.writeByte(0);
+        }
+
+        CompressedData data = FileIO.readCompressedData(v2File.toString());
+
+        assertAll(
+                () -> assertEquals(4096, data.windowSize()),
+                () -> assertEquals(List.of(new Token(0, 0, (byte)'x'), new Token(1, 3, (byte)'y')), data.tokens())
+        );
+    }
+
+    @Test
+    @DisplayName("should reject unknown block encodings")
+    void readTokens_UnknownBlockEncoding_ThrowsException() throws Exception {
+        Path file = tempDir.resolve("unknown-coder.lz77");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file.toFile()))) {
+            dos.writeBytes("LZ77");
+            dos.writeByte(2);
+            dos.writeByte(1);
+            dos.writeByte(10);
+            dos.writeByte(1);
+            dos.writeByte(99);
+            dos.writeByte(0);
+        }
+
+        assertThrows(IOException.class, () -> FileIO.readTokens(file.toString()));
+    }
+
+    @Test
+    @DisplayName("should map files for reading and pre-sized writing")
+    void mapFile_MappedBuffers_MatchFileContent() throws Exception {
+        Path inputFile = tempDir.resolve("mapped.in");
+        Path outputFile = tempDir.resolve("mapped.out");
+        byte[] content = "mapped content".getBytes();
+        FileIO.writeFile(inputFile.toString(), content);
+
+        java.nio.MappedByteBuffer input = FileIO.mapFile(inputFile.toString());
+        java.nio.MappedByteBuffer output = FileIO.mapOutputFile(outputFile.toString(), content.length);
+        output.put(input);
+        output.force();
+
+        assertAll(
+                () -> assertEquals(content.length, input.capacity()),
+                () -> assertArrayEquals(content, FileIO.readFile(outputFile.toString())),
+                () -> assertThrows(IOException.class, () -> FileIO.mapFile("nonexistent.file"))
+        );
+    }
+
+    @Test
+    @DisplayName("should write and read token buffers")
+    void writeTokens_TokenBuffer_RoundTrip() throws Exception {
+        Path tokensFile = tempDir.resolve("buffer.lz77");
+        TokenBuffer tokens = new TokenBuffer();
+        new com.lz77.algorithm.LZ77Compressor().compress(LZ77OutputStreamTest.textLikeData(30_000, 6), tokens);
+
+        FileIO.writeTokens(tokensFile.toString(), tokens, 1024);
+        TokenBuffer read = new TokenBuffer();
+        int windowSize = FileIO.readTokens(tokensFile.toString(), read);
+
+        assertAll(
+                () -> assertEquals(1024, windowSize),
+                () -> assertEquals(tokens, read),
+                () -> assertEquals(tokens.toList(), FileIO.readTokens(tokensFile.toString()))
+        );
+    }
+
     @Test
     @DisplayName("should throw exception for invalid token file format")
     void readTokens_InvalidFile_ThrowsException() {
@@ -92,6 +291,18 @@ class FileIOTest {
                         "Single token",
                         List.of(new Token(10, 5, (byte)'x'))
                 ),
+                arguments(
+                        "Literal runs between matches and large values",
+                        List.of(
+                                new Token(0, 0, (byte)'a'),
+                                new Token(0, 0, (byte)0),
+                                new Token(0, 0, (byte)0xFF),
+                                new Token(1 << 26, 65536, (byte)'c'),
+                                new Token(0, 7, (byte)'d'),
+                                new Token(0, 0, (byte)'e'),
+                                new Token(Integer.MAX_VALUE, Integer.MAX_VALUE, (byte)0)
+                        )
+                ),
                 arguments(
                         "Empty token list",
                         List.of()
@@ -107,4 +318,30 @@ class FileIOTest {
                 arguments("Special chars: \t\n\r\u00A9")
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should write and read dictionaries with their id")
+    void writeReadDictionary_RoundTrip() throws Exception {
+        Path file = tempDir.resolve("messages.dict");
+        Dictionary dictionary = new Dictionary(12345, "{\"id\":\"name\":".getBytes());
+
+        FileIO.writeDictionary(file.toString(), dictionary);
+        Dictionary read = FileIO.readDictionary(file.toString());
+
+        assertAll(
+                () -> assertEquals(dictionary, read),
+                () -> assertEquals(12345, read.getId()),
+                () -> assertThrows(IOException.class, () -> FileIO.readDictionary(
+                        tempDir.resolve("missing.dict").toString()))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject files that are not dictionaries")
+    void readDictionary_InvalidFile_ThrowsException() throws Exception {
+        Path file = tempDir.resolve("not.dict");
+        FileIO.writeFile(file.toString(), "LZ77 tokens, not a dictionary".getBytes());
+
+        assertThrows(IOException.class, () -> FileIO.readDictionary(file.toString()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.Token;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LZ77 Input Stream Tests")
+class LZ77InputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should read files written by FileIO.writeTokens")
+    void read_TokenFile_ReturnsOriginalData() throws Exception {
+        byte[] input = LZ77OutputStreamTest.textLikeData(10_000, 1);
+        Path file = tempDir.resolve("tokens.lz77");
+        FileIO.writeTokens(file.toString(), new LZ77Compressor().compress(input), LZ77Compressor.WINDOW_SIZE);
+
+        try (LZ77InputStream in = new LZ77InputStream(new FileInputStream(file.toString()))) {
+            assertAll(
+                    () -> assertEquals(LZ77Compressor.WINDOW_SIZE, in.getWindowSize()),
+                    () -> assertArrayEquals(input, in.readAllBytes())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should read legacy v1.0 files")
+    void read_LegacyFormat_ReturnsOriginalData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            dos.writeUTF("LZ77TOKENSv1.0");
+            dos.writeInt(2);
+            writeV1Token(dos, 0, 0, 'a');
+            writeV1Token(dos, 1, 4, 'b');
+        }
+
+        try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals("aaaaab", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    @DisplayName("should return data through small reads")
+    void read_SmallBuffer_ReturnsAllBytes() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(5_000, 2);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input);
+        }
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(sink.toByteArray()))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                result.write(b);
+            }
+        }
+        assertArrayEquals(input, result.toByteArray());
+    }
+
+    @Test
+    @DisplayName("should decode blocks that use different entropy coders")
+    void read_MixedBlockCoders_ReturnsOriginalData() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(30_000, 3);
+        List<Token> tokens = new LZ77Compressor().compress(input);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            TokenFormat.writeHeader(dos, LZ77Compressor.WINDOW_SIZE);
+            EntropyCoder[] coders = EntropyCoder.values();
+            int blockSize = tokens.size() / coders.length + 1;
+            for (int i = 0; i < coders.length; i++) {
+                TokenBlockWriter writer = new TokenBlockWriter(dos, coders[i]);
+                for (Token token : tokens.subList(i * blockSize, Math.min(tokens.size(), (i + 1) * blockSize))) {
+                    writer.accept(token.offset(), token.length(), token.nextChar());
+                }
+                if (i < coders.length - 1) {
+                    writer.writeBlock();
+                } else {
+                    writer.finish();
+                }
+            }
+        }
+
+        try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertArrayEquals(input, in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("should fail on tokens pointing outside the window")
+    void read_InvalidOffset_ThrowsIOException() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            dos.writeUTF("LZ77TOKENSv1.1");
+            dos.writeInt(16);
+            dos.writeInt(2);
+            writeV1Token(dos, 0, 0, 'a');
+            writeV1Token(dos, 5, 1, 'b');
+            dos.writeInt(0);
+        }
+
+        LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThrows(IOException.class, in::readAllBytes);
+    }
+
+    @Test
+    @DisplayName("should reject streams with an invalid header")
+    void constructor_InvalidHeader_ThrowsIOException() {
+        byte[] garbage = List.of(new Token(0, 0, (byte) 'x')).toString().getBytes();
+        assertThrows(IOException.class, () -> new LZ77InputStream(new ByteArrayInputStream(garbage)));
+    }
+
+    private static void writeV1Token(DataOutputStream dos, int offset, int length, char nextChar) throws IOException {
+        dos.writeInt(offset);
+        dos.writeInt(length);
+        dos.writeByte(nextChar);
+    }
+}
@@ -0,0 +1,156 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.algorithm.MatchFinderType;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Token;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LZ77 Output Stream Tests")
+class LZ77OutputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should produce the same tokens as in-memory compression for small input")
+    void write_SmallInput_SameTokensAsCompressor() throws Exception {
+        byte[] input = "abracadabra, abracadabra!".getBytes();
+        Path file = tempDir.resolve("small.lz77");
+
+        try (LZ77OutputStream out = new LZ77OutputStream(new FileOutputStream(file.toString()))) {
+            out.write(input);
+        }
+
+        List<Token> expected = new LZ77Compressor().compress(input);
+        assertEquals(expected, FileIO.readTokens(file.toString()));
+    }
+
+    @ParameterizedTest(name = "should round-trip data many times larger than the window with {0}")
+    @EnumSource(MatchFinderType.class)
+    void write_InputLargerThanBuffer_RoundTrips(MatchFinderType type) throws IOException {
+        // Больше буфера потока, чтобы данные и структура поиска сдвигались несколько раз
+        byte[] input = textLikeData(2_500_000, 3);
+        LZ77Compressor compressor = new LZ77Compressor(1 << 10, 64, type, 32);
+
+        byte[] compressed = compress(input, compressor, 7919);
+
+        assertArrayEquals(input, decompress(compressed));
+    }
+
+    @Test
+    @DisplayName("should slide once per megabyte even with a small window")
+    void write_SmallWindow_SlidesRarely() throws IOException {
+        byte[] input = textLikeData(4 << 20, 6);
+        try (LZ77OutputStream out = new LZ77OutputStream(new ByteArrayOutputStream(),
+                new LZ77Compressor(1 << 10, 64, MatchFinderType.HASH_CHAIN, 16))) {
+            out.write(input);
+            out.finish();
+
+            assertAll(
+                    () -> assertTrue(out.getSlides() > 0),
+                    () -> assertTrue(out.getSlides() <= 4, "slides: " + out.getSlides())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should accept single-byte writes")
+    void write_SingleBytes_RoundTrips() throws IOException {
+        byte[] input = textLikeData(20_000, 5);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink, new LZ77Compressor(256, 32))) {
+            for (byte b : input) {
+                out.write(b);
+            }
+        }
+
+        assertArrayEquals(input, decompress(sink.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("should keep the stream decodable after flush")
+    void flush_MidStream_DoesNotBreakOutput() throws IOException {
+        byte[] input = textLikeData(50_000, 9);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input, 0, 20_000);
+            out.flush();
+            out.write(input, 20_000, input.length - 20_000);
+        }
+
+        assertArrayEquals(input, decompress(sink.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("should reject writes after finish")
+    void write_AfterFinish_ThrowsException() throws IOException {
+        LZ77OutputStream out = new LZ77OutputStream(new ByteArrayOutputStream());
+        out.finish();
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    @DisplayName("should report metrics once when the stream is finished")
+    void close_WithListener_ReportsMetrics() throws IOException {
+        byte[] input = textLikeData(50_000, 4);
+        List<CompressionMetrics> reports = new ArrayList<>();
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        LZ77OutputStream out = new LZ77OutputStream(sink, new LZ77Compressor(), EntropyCoder.FSE, reports::add);
+        out.write(input);
+        out.flush();
+        assertTrue(reports.isEmpty());
+        out.close();
+        out.finish();
+
+        CompressionMetrics metrics = reports.get(0);
+        assertAll(
+                () -> assertEquals(1, reports.size()),
+                () -> assertEquals(input.length, metrics.inputBytes()),
+                () -> assertEquals(sink.size(), metrics.compressedBytes()),
+                () -> assertEquals(out.getTokensWritten(), metrics.tokens()),
+                () -> assertTrue(metrics.probes() > 0)
+        );
+    }
+
+    private static byte[] compress(byte[] input, LZ77Compressor compressor, int chunk) throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink, compressor)) {
+            for (int off = 0; off < input.length; off += chunk) {
+                out.write(input, off, Math.min(chunk, input.length - off));
+            }
+        }
+        return sink.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    static byte[] textLikeData(int size, long seed) {
+        String[] words = {"alpha", "beta", "gamma", "delta", "\n", "{\"id\":", "\"name\":", "0", "42", " "};
+        Random random = new Random(seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        while (out.size() < size) {
+            out.writeBytes(words[random.nextInt(words.length)].getBytes());
+        }
+        return java.util.Arrays.copyOf(out.toByteArray(), size);
+    }
+}
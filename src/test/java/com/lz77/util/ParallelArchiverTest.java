@@ -0,0 +1,254 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.model.ArchiveEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel Archiver Tests")
+class ParallelArchiverTest {
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest(name = "should restore a directory tree with {0} threads")
+    @ValueSource(ints = {1, 4})
+    void extract_CreatedArchive_RestoresFiles(int threads) throws IOException {
+        Path source = createTree(tempDir.resolve("source"));
+        Path archive = tempDir.resolve("tree.lza");
+        Path target = tempDir.resolve("target");
+        ParallelArchiver archiver = new ParallelArchiver(new LZ77Compressor(), threads);
+
+        List<ArchiveEntry> created = archiver.create(source, archive);
+        List<ArchiveEntry> extracted = archiver.extract(archive, target);
+
+        assertAll(
+                () -> assertEquals(List.of("a.txt", "empty.bin", "logs/2026/big.log", "logs/small.log"),
+                        created.stream().map(ArchiveEntry::name).toList()),
+                () -> assertEquals(created, extracted),
+                () -> assertEquals(created, archiver.list(archive))
+        );
+        for (ArchiveEntry entry : created) {
+            assertArrayEquals(Files.readAllBytes(source.resolve(entry.name())),
+                    Files.readAllBytes(target.resolve(entry.name())), entry.name());
+        }
+    }
+
+    @Test
+    @DisplayName("should stream large files through mapped frames with the same archive bytes")
+    void create_LargeFiles_StreamedLikeSmallOnes() throws IOException {
+        Path source = createTree(tempDir.resolve("source"));
+        Path work = Files.createDirectories(tempDir.resolve("work"));
+        Path inMemory = tempDir.resolve("memory.lza");
+        Path streamed = work.resolve("streamed.lza");
+        Path target = tempDir.resolve("target");
+        // Порог 64 КБ: большой журнал из нескольких кадров идет через временный файл
+        ParallelArchiver streaming = new ParallelArchiver(new LZ77Compressor(), 2, 1 << 16);
+
+        new ParallelArchiver(new LZ77Compressor(), 2).create(source, inMemory);
+        List<ArchiveEntry> entries = streaming.create(source, streamed);
+        streaming.extract(streamed, target);
+
+        assertAll(
+                () -> assertArrayEquals(Files.readAllBytes(inMemory), Files.readAllBytes(streamed)),
+                () -> assertEquals(List.of(streamed), Files.list(work).toList(), "temporary files should be removed")
+        );
+        for (ArchiveEntry entry : entries) {
+            assertArrayEquals(Files.readAllBytes(source.resolve(entry.name())),
+                    Files.readAllBytes(target.resolve(entry.name())), entry.name());
+        }
+    }
+
+    @Test
+    @DisplayName("should detect corrupted data of a streamed entry")
+    void extract_CorruptedLargeEntry_ThrowsAndRemovesFile() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Files.write(source.resolve("large.bin"), LZ77OutputStreamTest.textLikeData(300_000, 7));
+        Path archive = tempDir.resolve("large.lza");
+        ParallelArchiver streaming = new ParallelArchiver(new LZ77Compressor(), 1, 1 << 16);
+        ArchiveEntry entry = streaming.create(source, archive).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) {
+            long position = entry.offset() + entry.compressedSize() / 2;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0x5A);
+        }
+        Path target = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> streaming.extract(archive, target));
+        assertFalse(Files.exists(target.resolve("large.bin")));
+    }
+
+    @Test
+    @DisplayName("should compress many small files")
+    void create_ManyFiles_CompressesEachFile() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("many"));
+        for (int i = 0; i < 500; i++) {
+            Files.writeString(source.resolve("file" + i + ".json"),
+                    "{\"id\": " + i + ", \"status\": \"ok\", \"status\": \"ok\", \"status\": \"ok\"}");
+        }
+        Path archive = tempDir.resolve("many.lza");
+
+        List<ArchiveEntry> entries = new ParallelArchiver().create(source, archive);
+        new ParallelArchiver().extract(archive, tempDir.resolve("out"));
+
+        assertEquals(500, entries.size());
+        for (int i = 0; i < 500; i += 50) {
+            assertEquals(Files.readString(source.resolve("file" + i + ".json")),
+                    Files.readString(tempDir.resolve("out").resolve("file" + i + ".json")));
+        }
+    }
+
+    @Test
+    @DisplayName("should create byte-identical archives of the same directory")
+    void create_SameDirectoryTwice_SameBytes() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        // Большие файлы в начале порядка имен сжимаются дольше маленьких после них
+        for (int i = 0; i < 24; i++) {
+            int size = i < 4 ? 400_000 : 100 + 50 * i;
+            Files.write(source.resolve(String.format("f%02d.txt", i)), LZ77OutputStreamTest.textLikeData(size, i));
+        }
+        ParallelArchiver archiver = new ParallelArchiver(new LZ77Compressor(), 4);
+        Path first = tempDir.resolve("first.lza");
+        Path second = tempDir.resolve("second.lza");
+
+        List<ArchiveEntry> entries = archiver.create(source, first);
+        archiver.create(source, second);
+
+        assertAll(
+                () -> assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second)),
+                () -> assertTrue(entries.stream().map(ArchiveEntry::offset).toList()
+                        .equals(entries.stream().map(ArchiveEntry::offset).sorted().toList()),
+                        "file data should follow the order of names")
+        );
+    }
+
+    @Test
+    @DisplayName("should skip the archive when it is inside the directory")
+    void create_ArchiveInsideDirectory_SkipsArchive() throws IOException {
+        Path source = createTree(tempDir.resolve("source"));
+        Path archive = source.resolve("self.lza");
+
+        List<ArchiveEntry> entries = new ParallelArchiver().create(source, archive);
+
+        assertTrue(entries.stream().noneMatch(entry -> entry.name().equals("self.lza")));
+    }
+
+    @Test
+    @DisplayName("should detect corrupted file data")
+    void extract_CorruptedData_Throws() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Files.write(source.resolve("data.bin"), LZ77OutputStreamTest.textLikeData(50_000, 5));
+        Path archive = tempDir.resolve("data.lza");
+        ArchiveEntry entry = new ParallelArchiver().create(source, archive).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) {
+            long position = entry.offset() + entry.compressedSize() / 2;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0x5A);
+        }
+
+        assertThrows(IOException.class, () -> new ParallelArchiver().extract(archive, tempDir.resolve("out")));
+    }
+
+    @ParameterizedTest(name = "should reject entry name {0} without writing outside the target")
+    @ValueSource(strings = {"../evil", "inner/../../evil", "ABSOLUTE"})
+    void extract_EntryOutsideTarget_ThrowsAndWritesNothing(String badName) throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Files.writeString(source.resolve("a.txt"), "regular entry");
+        Files.writeString(source.resolve("b.txt"), "entry to be renamed");
+        Path archive = tempDir.resolve("evil.lza");
+        List<ArchiveEntry> entries = new ParallelArchiver().create(source, archive);
+        Path outside = tempDir.resolve("evil");
+        String name = badName.equals("ABSOLUTE") ? outside.toAbsolutePath().toString() : badName;
+
+        // Каталог переписывается так, чтобы вторая запись указывала за пределы каталога распаковки
+        ArchiveEntry renamed = entries.get(1);
+        ArchiveEntry[] directory = {entries.get(0), new ArchiveEntry(name, renamed.offset(),
+                renamed.compressedSize(), renamed.size(), renamed.checksum())};
+        try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) {
+            file.seek(file.length() - Long.BYTES - Integer.BYTES);
+            long directoryOffset = file.readLong();
+            file.setLength(directoryOffset);
+            file.seek(directoryOffset);
+            file.write(ParallelArchiver.writeDirectory(directory, directoryOffset));
+        }
+        Path target = tempDir.resolve("target");
+
+        IOException e = assertThrows(IOException.class, () -> new ParallelArchiver().extract(archive, target));
+        assertAll(
+                () -> assertTrue(e.getMessage().startsWith("Invalid entry name")),
+                () -> assertFalse(Files.exists(outside)),
+                () -> assertFalse(Files.exists(target.resolve("a.txt")))
+        );
+    }
+
+    @Test
+    @DisplayName("should not follow a directory link in the target outside of it")
+    void extract_DirectoryLinkInTarget_ThrowsAndWritesNothingOutside() throws IOException {
+        Path source = createTree(tempDir.resolve("source"));
+        Path archive = tempDir.resolve("tree.lza");
+        new ParallelArchiver().create(source, archive);
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        Files.createSymbolicLink(target.resolve("logs"), outside);
+
+        IOException e = assertThrows(IOException.class, () -> new ParallelArchiver().extract(archive, target));
+        assertAll(
+                () -> assertTrue(e.getMessage().startsWith("Entry leads outside the target directory")),
+                () -> assertEquals(List.of(), Files.list(outside).toList())
+        );
+    }
+
+    @Test
+    @DisplayName("should not write through a file link in the target")
+    void extract_FileLinkInTarget_ThrowsAndKeepsLinkedFile() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Files.writeString(source.resolve("a.txt"), "archived content");
+        Path archive = tempDir.resolve("a.lza");
+        new ParallelArchiver().create(source, archive);
+        Path outside = Files.writeString(tempDir.resolve("outside.txt"), "must stay unchanged");
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        Files.createSymbolicLink(target.resolve("a.txt"), outside);
+
+        assertThrows(IOException.class, () -> new ParallelArchiver().extract(archive, target));
+        assertEquals("must stay unchanged", Files.readString(outside));
+    }
+
+    @Test
+    @DisplayName("should reject a file that is not an archive")
+    void list_NotAnArchive_Throws() throws IOException {
+        Path file = Files.write(tempDir.resolve("plain.txt"), "just some text, not an archive".getBytes());
+
+        IOException e = assertThrows(IOException.class, () -> new ParallelArchiver().list(file));
+        assertTrue(e.getMessage().startsWith("Not an archive"));
+    }
+
+    @Test
+    @DisplayName("should report a missing directory")
+    void create_MissingDirectory_Throws() {
+        assertThrows(IOException.class,
+                () -> new ParallelArchiver().create(tempDir.resolve("missing"), tempDir.resolve("a.lza")));
+    }
+
+    private static Path createTree(Path root) throws IOException {
+        Files.createDirectories(root.resolve("logs/2026"));
+        Files.writeString(root.resolve("a.txt"), "hello hello hello archive");
+        Files.write(root.resolve("empty.bin"), new byte[0]);
+        Files.write(root.resolve("logs/2026/big.log"), LZ77OutputStreamTest.textLikeData(3_000_000, 9));
+        Files.writeString(root.resolve("logs/small.log"), "INFO started\nINFO started\nWARN slow\n");
+        return root;
+    }
+}
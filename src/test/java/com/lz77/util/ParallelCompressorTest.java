@@ -0,0 +1,202 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.CompressionMetrics;
+import com.lz77.model.Dictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel Compressor Tests")
+class ParallelCompressorTest {
+
+    @ParameterizedTest(name = "should round-trip {0} bytes split into frames")
+    @ValueSource(ints = {0, 1, 4095, 4096, 4097, 100_000})
+    void compress_VariousSizes_RoundTripsThroughInputStream(int size) throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(size, size);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 4, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(input);
+
+        try (LZ77InputStream in = new LZ77InputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(input, in.readAllBytes());
+        }
+    }
+
+    @ParameterizedTest(name = "should round-trip frames and streams at level {0}")
+    @ValueSource(ints = {1, 4, 9})
+    void compress_Levels_RoundTripAcrossSlices(int level) throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(200_000, level);
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(level, 1 << 12, 258);
+        byte[] framed = new ParallelCompressor(compressor, 2, 1 << 15).compress(input);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(streamed, compressor)) {
+            out.write(input);
+        }
+
+        try (LZ77InputStream framedIn = new LZ77InputStream(new ByteArrayInputStream(framed));
+             LZ77InputStream streamedIn = new LZ77InputStream(new ByteArrayInputStream(streamed.toByteArray()))) {
+            assertAll(
+                    () -> assertArrayEquals(input, framedIn.readAllBytes()),
+                    () -> assertArrayEquals(input, streamedIn.readAllBytes())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should trade speed for ratio across levels")
+    void compress_HigherLevel_SmallerOutput() {
+        byte[] input = LZ77OutputStreamTest.textLikeData(300_000, 5);
+        int fastest = compressedSize(LZ77Compressor.ofLevel(1, 1 << 14, 258), input);
+        int lazy = compressedSize(LZ77Compressor.ofLevel(6, 1 << 14, 258), input);
+        int best = compressedSize(LZ77Compressor.ofLevel(9, 1 << 14, 258), input);
+        int greedy = compressedSize(new LZ77Compressor(1 << 14, 258), input);
+
+        assertAll(
+                () -> assertTrue(lazy < fastest, lazy + " vs " + fastest),
+                () -> assertTrue(best <= lazy, best + " vs " + lazy),
+                () -> assertTrue(best < greedy, best + " vs " + greedy)
+        );
+    }
+
+    @Test
+    @DisplayName("should produce the same output for any thread count")
+    void compress_DifferentThreadCounts_SameOutput() {
+        byte[] input = LZ77OutputStreamTest.textLikeData(300_000, 11);
+        LZ77Compressor compressor = new LZ77Compressor(1 << 12, 258);
+
+        byte[] single = new ParallelCompressor(compressor, 1, 1 << 15).compress(input);
+        byte[] parallel = new ParallelCompressor(compressor, 8, 1 << 15).compress(input);
+
+        assertArrayEquals(single, parallel);
+    }
+
+    @Test
+    @DisplayName("should read framed files through FileIO")
+    void compress_FramedFile_ReadableByFileIO() throws Exception {
+        byte[] input = LZ77OutputStreamTest.textLikeData(50_000, 12);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 2, 1 << 14, EntropyCoder.FSE)
+                .compress(input);
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("frames", ".lz77");
+        try {
+            java.nio.file.Files.write(file, compressed);
+            var data = FileIO.readCompressedData(file.toString());
+            assertArrayEquals(input, new com.lz77.algorithm.LZ77Decompressor(data.windowSize())
+                    .decompress(data.tokens()));
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("should compress mapped files the same way as arrays")
+    void compressFile_MappedInput_SameAsArray() throws Exception {
+        byte[] input = LZ77OutputStreamTest.textLikeData(70_000, 13);
+        ParallelCompressor compressor = new ParallelCompressor(new LZ77Compressor(), 2, 1 << 14);
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("mapped");
+        java.nio.file.Path inputFile = dir.resolve("input");
+        java.nio.file.Path compressedFile = dir.resolve("input.lz77");
+        java.nio.file.Path restoredFile = dir.resolve("restored");
+        try {
+            java.nio.file.Files.write(inputFile, input);
+
+            long size = compressor.compressFile(inputFile.toString(), compressedFile.toString());
+            new ParallelDecompressor(2).decompressFile(compressedFile.toString(), restoredFile.toString());
+
+            byte[] compressed = java.nio.file.Files.readAllBytes(compressedFile);
+            assertAll(
+                    () -> assertEquals(compressed.length, size),
+                    () -> assertArrayEquals(compressor.compress(input), compressed),
+                    () -> assertArrayEquals(input, java.nio.file.Files.readAllBytes(restoredFile))
+            );
+        } finally {
+            for (java.nio.file.Path file : new java.nio.file.Path[]{inputFile, compressedFile, restoredFile, dir}) {
+                java.nio.file.Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should report exact sizes and token counts to the listener")
+    void compress_WithListener_ReportsMetrics() {
+        byte[] input = LZ77OutputStreamTest.textLikeData(100_000, 9);
+        List<CompressionMetrics> reports = new ArrayList<>();
+        byte[] compressed = new ParallelCompressor(LZ77Compressor.ofLevel(3), 2, 1 << 14, EntropyCoder.HUFFMAN,
+                reports::add).compress(input);
+
+        CompressionMetrics metrics = reports.get(0);
+        long covered = metrics.literals() + metrics.matchedBytes();
+        assertAll(
+                () -> assertEquals(1, reports.size()),
+                () -> assertEquals(input.length, metrics.inputBytes()),
+                () -> assertEquals(compressed.length, metrics.compressedBytes()),
+                () -> assertTrue(metrics.matches() > 0),
+                // Совпадение покрывает свою длину и, кроме конца кадра, следующий символ
+                () -> assertTrue(covered <= input.length && input.length <= covered + metrics.matches()),
+                () -> assertTrue(metrics.averageMatchLength() > 3),
+                () -> assertTrue(metrics.probesPerByte() > 0),
+                () -> assertTrue(metrics.matchFindingNanos() > 0 && metrics.encodingNanos() > 0),
+                () -> assertTrue(metrics.wallNanos() > 0 && metrics.bytesPerSecond() > 0)
+        );
+    }
+
+    @Test
+    @DisplayName("should reject invalid configuration")
+    void constructor_InvalidArguments_ThrowsException() {
+        LZ77Compressor compressor = new LZ77Compressor();
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new ParallelCompressor(compressor, 0, 1 << 20)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new ParallelCompressor(compressor, 4, 100))
+        );
+    }
+
+    private static int compressedSize(LZ77Compressor compressor, byte[] input) {
+        return new ParallelCompressor(compressor, 1, ParallelCompressor.DEFAULT_BLOCK_SIZE).compress(input).length;
+    }
+
+    @Test
+    @DisplayName("should prime every frame with the dictionary and record its id")
+    void compress_WithDictionary_SmallerFramesAndDictionaryId() throws IOException {
+        Dictionary dictionary = new Dictionary(LZ77OutputStreamTest.textLikeData(4000, 41));
+        byte[] input = LZ77OutputStreamTest.textLikeData(10_000, 42);
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(6, 8192, 256);
+        byte[] plain = new ParallelCompressor(compressor, 2, ParallelCompressor.MIN_BLOCK_SIZE).compress(input);
+        byte[] primed = new ParallelCompressor(compressor, 2, ParallelCompressor.MIN_BLOCK_SIZE,
+                EntropyCoder.HUFFMAN, null, dictionary).compress(input);
+
+        TokenFormat.Header header = TokenFormat.readHeader(new DataInputStream(new ByteArrayInputStream(primed)));
+        assertAll(
+                () -> assertTrue(primed.length < plain.length, primed.length + " vs " + plain.length),
+                () -> assertTrue(header.hasDictionary()),
+                () -> assertEquals(dictionary.getId(), header.dictionaryId())
+        );
+    }
+
+    @Test
+    @DisplayName("should encode dictionary frames independently of the thread that reuses a context")
+    void compress_WithDictionaryManyFrames_SameBytesForAnyThreads() {
+        Dictionary dictionary = new Dictionary(LZ77OutputStreamTest.textLikeData(4000, 43));
+        byte[] input = LZ77OutputStreamTest.textLikeData(200_000, 44);
+        LZ77Compressor compressor = LZ77Compressor.ofLevel(6, 8192, 256);
+
+        byte[] single = new ParallelCompressor(compressor, 1, ParallelCompressor.MIN_BLOCK_SIZE,
+                EntropyCoder.HUFFMAN, null, dictionary).compress(input);
+        byte[] parallel = new ParallelCompressor(compressor, 4, ParallelCompressor.MIN_BLOCK_SIZE,
+                EntropyCoder.HUFFMAN, null, dictionary).compress(input);
+
+        assertAll(
+                () -> assertArrayEquals(single, parallel),
+                () -> assertArrayEquals(input, new ParallelDecompressor(2, dictionary).decompress(parallel))
+        );
+    }
+}
@@ -0,0 +1,309 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.Dictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel Decompressor Tests")
+class ParallelDecompressorTest {
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest(name = "should restore {0} bytes with several threads")
+    @ValueSource(ints = {0, 1, 5000, 200_000})
+    void decompress_FramedData_ReturnsOriginal(int size) throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(size, size + 1);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 4, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(input);
+
+        assertArrayEquals(input, new ParallelDecompressor(4).decompress(compressed));
+    }
+
+    @Test
+    @DisplayName("should decompress frames into a mapped output file")
+    void decompressFile_FramedFile_WritesOriginal() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(100_000, 21);
+        Path compressedFile = tempDir.resolve("frames.lz77");
+        Path outputFile = tempDir.resolve("frames.out");
+        Files.write(compressedFile, new ParallelCompressor(new LZ77Compressor(), 3, 1 << 13, EntropyCoder.FSE)
+                .compress(input));
+
+        long size = new ParallelDecompressor(3).decompressFile(compressedFile.toString(), outputFile.toString());
+
+        assertAll(
+                () -> assertEquals(input.length, size),
+                () -> assertArrayEquals(input, Files.readAllBytes(outputFile))
+        );
+    }
+
+    @Test
+    @DisplayName("should decompress a file whose frames lie beyond 2 GB")
+    void decompressFile_FrameOffsetAbove2GB_WritesOriginal() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(20_000, 24);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 2, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(input);
+        Path compactFile = tempDir.resolve("compact.lz77");
+        Files.write(compactFile, compressed);
+        List<TokenFormat.Frame> frames;
+        try (FileChannel channel = FileChannel.open(compactFile, StandardOpenOption.READ)) {
+            frames = TokenFormat.readIndex(channel);
+        }
+        ByteBuffer headerBytes = ByteBuffer.wrap(compressed);
+        TokenFormat.readHeader(new DataInputStream(new ByteBufferInputStream(headerBytes)));
+
+        // Разреженный файл: заголовок в начале, блоки кадров и индекс за отметкой 3 ГБ
+        Path sparseFile = tempDir.resolve("sparse.lz77");
+        Path outputFile = tempDir.resolve("sparse.out");
+        try (FileChannel channel = FileChannel.open(sparseFile, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+            channel.write(ByteBuffer.wrap(compressed, 0, headerBytes.position()), 0);
+            List<TokenFormat.Frame> moved = new ArrayList<>();
+            long position = 3L << 30;
+            for (TokenFormat.Frame frame : frames) {
+                channel.write(ByteBuffer.wrap(compressed, (int) frame.compressedOffset(), frame.compressedSize()),
+                        position);
+                moved.add(new TokenFormat.Frame(frame.uncompressedOffset(), frame.uncompressedSize(), position,
+                        frame.compressedSize(), frame.blocks()));
+                position += frame.compressedSize();
+            }
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            TokenFormat.writeIndex(new DataOutputStream(index), moved, position);
+            channel.write(ByteBuffer.wrap(index.toByteArray()), position);
+        }
+
+        long size = new ParallelDecompressor(2).decompressFile(sparseFile.toString(), outputFile.toString());
+
+        assertAll(
+                () -> assertTrue(frames.size() > 1),
+                () -> assertTrue(Files.size(sparseFile) > Integer.MAX_VALUE),
+                () -> assertEquals(input.length, size),
+                () -> assertArrayEquals(input, Files.readAllBytes(outputFile))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject a frame that lies outside the compressed buffer")
+    void decode_FrameOutsideBuffer_ThrowsIOException() throws IOException {
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 1, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(LZ77OutputStreamTest.textLikeData(1000, 25));
+        TokenFormat.Header header = TokenFormat.readHeader(
+                new DataInputStream(new ByteArrayInputStream(compressed)));
+        TokenFormat.Frame frame = new TokenFormat.Frame(0, 1000, (3L << 30) + 16, 100, 1);
+
+        assertThrows(IOException.class, () -> FrameDecoder.decode(ByteBuffer.wrap(compressed), header, frame,
+                ByteBuffer.allocate(1000), ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    @DisplayName("should decompress framed data into a caller-supplied buffer")
+    void decompress_IntoBuffer_FramedData_WritesAtOffset() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(50_000, 23);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 2, ParallelCompressor.MIN_BLOCK_SIZE)
+                .compress(input);
+        byte[] dst = new byte[input.length + 100];
+        ParallelDecompressor decompressor = new ParallelDecompressor(2);
+
+        int written = decompressor.decompress(compressed, dst, 100);
+
+        assertAll(
+                () -> assertEquals(input.length, written),
+                () -> assertArrayEquals(input, java.util.Arrays.copyOfRange(dst, 100, dst.length)),
+                () -> assertThrows(IOException.class, () -> decompressor.decompress(compressed, dst, 101))
+        );
+    }
+
+    @Test
+    @DisplayName("should decompress streams without frames into a caller-supplied buffer")
+    void decompress_IntoBuffer_StreamFormat_ChecksSpace() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(20_000, 24);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input);
+        }
+        byte[] dst = new byte[input.length];
+        ParallelDecompressor decompressor = new ParallelDecompressor(1);
+
+        assertAll(
+                () -> assertEquals(input.length, decompressor.decompress(sink.toByteArray(), dst, 0)),
+                () -> assertArrayEquals(input, dst),
+                () -> assertThrows(IOException.class,
+                        () -> decompressor.decompress(sink.toByteArray(), new byte[input.length - 1], 0))
+        );
+    }
+
+    @Test
+    @DisplayName("should store the uncompressed size in the header")
+    void compress_Header_ContainsContentSize() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(30_000, 25);
+        byte[] compressed = new ParallelCompressor().compress(input);
+        Path tokensFile = tempDir.resolve("tokens.lz77");
+        FileIO.writeTokens(tokensFile.toString(), new LZ77Compressor().compress(input), LZ77Compressor.WINDOW_SIZE);
+
+        TokenFormat.Header framed = TokenFormat.readHeader(
+                new DataInputStream(new java.io.ByteArrayInputStream(compressed)));
+        TokenFormat.Header tokens = TokenFormat.readHeader(
+                new DataInputStream(new java.io.ByteArrayInputStream(Files.readAllBytes(tokensFile))));
+        assertAll(
+                () -> assertEquals(input.length, framed.contentSize()),
+                () -> assertEquals(input.length, tokens.contentSize()),
+                () -> assertArrayEquals(input, new ParallelDecompressor(1).decompress(Files.readAllBytes(tokensFile)))
+        );
+    }
+
+    @Test
+    @DisplayName("should fall back to sequential decoding for files without frames")
+    void decompress_StreamFormat_ReturnsOriginal() throws IOException {
+        byte[] input = LZ77OutputStreamTest.textLikeData(20_000, 22);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input);
+        }
+
+        assertArrayEquals(input, new ParallelDecompressor(2).decompress(sink.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("should reject matches that reach into the previous frame")
+    void decompress_MatchAcrossFrames_ThrowsIOException() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            TokenFormat.writeHeader(dos, 1024, TokenFormat.FLAG_BLOCK_ENCODING | TokenFormat.FLAG_FRAMES);
+            writeFrame(dos, 3, new int[]{0, 0, 0}, new int[]{0, 0, 0}, "abc");
+            writeFrame(dos, 3, new int[]{3}, new int[]{3}, "\0");
+            TokenFormat.writeVarLong(dos, 0);
+        }
+
+        assertThrows(IOException.class, () -> new ParallelDecompressor(2).decompress(bytes.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("should reject frames whose size does not match their tokens")
+    void decompress_FrameSizeMismatch_ThrowsIOException() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            TokenFormat.writeHeader(dos, 1024, TokenFormat.FLAG_BLOCK_ENCODING | TokenFormat.FLAG_FRAMES);
+            writeFrame(dos, 5, new int[]{0, 0}, new int[]{0, 0}, "ab");
+            TokenFormat.writeVarLong(dos, 0);
+        }
+
+        assertThrows(IOException.class, () -> new ParallelDecompressor(1).decompress(bytes.toByteArray()));
+    }
+
+    @ParameterizedTest(name = "should reject a negative {0} in a frame header")
+    @ValueSource(strings = {"uncompressed size", "compressed size", "block count"})
+    void decompress_NegativeFrameField_ThrowsIOException(String field) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            TokenFormat.writeHeader(dos, 1024, TokenFormat.FLAG_BLOCK_ENCODING | TokenFormat.FLAG_FRAMES);
+            for (String name : new String[]{"uncompressed size", "compressed size", "block count"}) {
+                if (name.equals(field)) {
+                    writeNegativeVarLong(dos);
+                } else {
+                    TokenFormat.writeVarLong(dos, 3);
+                }
+            }
+            dos.write(new byte[16]);
+            TokenFormat.writeVarLong(dos, 0);
+        }
+
+        assertThrows(IOException.class, () -> new ParallelDecompressor(1).decompress(bytes.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("should treat a varint with the sign bit set as malformed")
+    void readVarLong_SignBitSet_ThrowsIOException() throws IOException {
+        ByteArrayOutputStream negative = new ByteArrayOutputStream();
+        writeNegativeVarLong(new DataOutputStream(negative));
+        ByteArrayOutputStream largest = new ByteArrayOutputStream();
+        TokenFormat.writeVarLong(new DataOutputStream(largest), Long.MAX_VALUE);
+
+        assertAll(
+                () -> assertThrows(IOException.class, () -> TokenFormat.readVarLong(
+                        new DataInputStream(new ByteArrayInputStream(negative.toByteArray())))),
+                () -> assertThrows(IOException.class, () -> TokenFormat.readVarInt(
+                        new DataInputStream(new ByteArrayInputStream(negative.toByteArray())))),
+                () -> assertEquals(Long.MAX_VALUE, TokenFormat.readVarLong(
+                        new DataInputStream(new ByteArrayInputStream(largest.toByteArray()))))
+        );
+    }
+
+    /**
+     * Десять байт, дающие -1 при чтении без проверки знака
+     */
+    static void writeNegativeVarLong(DataOutputStream dos) throws IOException {
+        for (int i = 0; i < 9; i++) {
+            dos.writeByte(0xFF);
+        }
+        dos.writeByte(0x01);
+    }
+
+    private static void writeFrame(DataOutputStream dos, int size, int[] offsets, int[] lengths, String chars)
+            throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        TokenBlockWriter writer = new TokenBlockWriter(new DataOutputStream(frame), EntropyCoder.RAW);
+        for (int i = 0; i < offsets.length; i++) {
+            writer.accept(offsets[i], lengths[i], (byte) chars.charAt(i));
+        }
+        writer.writeBlock();
+        TokenFormat.writeVarLong(dos, size);
+        TokenFormat.writeVarLong(dos, frame.size());
+        TokenFormat.writeVarLong(dos, writer.getBlocksWritten());
+        frame.writeTo(dos);
+    }
+
+    @Test
+    @DisplayName("should restore frames compressed with a dictionary")
+    void decompress_WithDictionary_ReturnsOriginal() throws IOException {
+        Dictionary dictionary = new Dictionary(LZ77OutputStreamTest.textLikeData(3000, 51));
+        byte[] input = LZ77OutputStreamTest.textLikeData(30_000, 52);
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(4096, 256), 3,
+                ParallelCompressor.MIN_BLOCK_SIZE, EntropyCoder.FSE, null, dictionary).compress(input);
+        Path compressedFile = tempDir.resolve("dictionary.lz77");
+        Path outputFile = tempDir.resolve("dictionary.out");
+        Files.write(compressedFile, compressed);
+
+        ParallelDecompressor decompressor = new ParallelDecompressor(3, dictionary);
+        decompressor.decompressFile(compressedFile.toString(), outputFile.toString());
+
+        assertAll(
+                () -> assertArrayEquals(input, decompressor.decompress(compressed)),
+                () -> assertArrayEquals(input, Files.readAllBytes(outputFile))
+        );
+    }
+
+    @Test
+    @DisplayName("should reject a missing or different dictionary")
+    void decompress_WrongDictionary_ThrowsIOException() {
+        Dictionary dictionary = new Dictionary(LZ77OutputStreamTest.textLikeData(2000, 53));
+        byte[] compressed = new ParallelCompressor(new LZ77Compressor(), 1, ParallelCompressor.MIN_BLOCK_SIZE,
+                EntropyCoder.HUFFMAN, null, dictionary).compress(LZ77OutputStreamTest.textLikeData(5000, 54));
+        Dictionary other = new Dictionary(LZ77OutputStreamTest.textLikeData(2000, 55));
+
+        assertAll(
+                () -> assertThrows(IOException.class, () -> new ParallelDecompressor(1).decompress(compressed)),
+                () -> assertThrows(IOException.class, () -> new ParallelDecompressor(1, other).decompress(compressed)),
+                () -> assertThrows(IOException.class,
+                        () -> new LZ77InputStream(new ByteArrayInputStream(compressed)))
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package com.lz77.util;
+
+import com.lz77.algorithm.LZ77Compressor;
+import com.lz77.entropy.EntropyCoder;
+import com.lz77.model.Dictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Seekable Reader Tests")
+class SeekableReaderTest {
+    private static final int BLOCK_SIZE = ParallelCompressor.MIN_BLOCK_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] input;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        input = LZ77OutputStreamTest.textLikeData(50_000, 31);
+        file = tempDir.resolve("indexed.lz77");
+        Files.write(file, new ParallelCompressor(new LZ77Compressor(), 2, BLOCK_SIZE).compress(input));
+    }
+
+    @ParameterizedTest(name = "should read {1} bytes at offset {0}")
+    @CsvSource({"0, 100", "4090, 20", "4096, 4096", "1000, 30000", "49990, 10", "0, 50000", "25000, 0"})
+    void read_Range_MatchesOriginal(long offset, int length) throws IOException {
+        try (SeekableReader reader = new SeekableReader(file.toString())) {
+            assertAll(
+                    () -> assertTrue(reader.isIndexed()),
+                    () -> assertEquals(input.length, reader.size()),
+                    () -> assertArrayEquals(Arrays.copyOfRange(input, (int) offset, (int) offset + length),
+                            reader.read(offset, length))
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should decode only frames that overlap the range")
+    void readRange_CorruptedOtherFrame_StillReadsRange() throws IOException {
+        byte[] compressed = Files.readAllBytes(file);
+        // Портим середину сжатых данных последнего кадра
+        compressed[compressed.length / 2 + compressed.length / 4] ^= 0x55;
+        Files.write(file, compressed);
+
+        assertArrayEquals(Arrays.copyOfRange(input, 10, 110), FileIO.readRange(file.toString(), 10, 100));
+    }
+
+    @Test
+    @DisplayName("should reject ranges outside the data")
+    void read_OutOfBounds_ThrowsException() throws IOException {
+        try (SeekableReader reader = new SeekableReader(file.toString())) {
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class, () -> reader.read(-1, 10)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> reader.read(49_995, 10)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> reader.read(0, -1))
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should read ranges from files without an index")
+    void readRange_StreamFormat_DecodesSequentially() throws IOException {
+        Path streamFile = tempDir.resolve("stream.lz77");
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (LZ77OutputStream out = new LZ77OutputStream(sink)) {
+            out.write(input);
+        }
+        Files.write(streamFile, sink.toByteArray());
+
+        try (SeekableReader reader = new SeekableReader(streamFile.toString())) {
+            assertAll(
+                    () -> assertFalse(reader.isIndexed()),
+                    () -> assertArrayEquals(Arrays.copyOfRange(input, 20_000, 20_500), reader.read(20_000, 500)),
+                    () -> assertArrayEquals(Arrays.copyOfRange(input, 100, 200), reader.read(100, 100)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> reader.read(49_990, 100))
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("should read ranges of files compressed with a dictionary")
+    void read_WithDictionary_MatchesOriginal() throws IOException {
+        Dictionary dictionary = new Dictionary(LZ77OutputStreamTest.textLikeData(3000, 32));
+        Path dictionaryFile = tempDir.resolve("dictionary.lz77");
+        Files.write(dictionaryFile, new ParallelCompressor(new LZ77Compressor(4096, 256), 2, BLOCK_SIZE,
+                EntropyCoder.HUFFMAN, null, dictionary).compress(input));
+
+        try (SeekableReader reader = new SeekableReader(dictionaryFile.toString(), dictionary)) {
+            assertArrayEquals(Arrays.copyOfRange(input, 8000, 8300), reader.read(8000, 300));
+        }
+        assertThrows(IOException.class, () -> new SeekableReader(dictionaryFile.toString()));
+    }
+
+    @ParameterizedTest(name = "should reject an index with a negative {0}")
+    @ValueSource(strings = {"count", "uncompressed size", "compressed offset", "compressed size", "block count"})
+    void open_NegativeIndexField_ThrowsIOException(String field) throws IOException {
+        byte[] compressed = Files.readAllBytes(file);
+        long indexOffset = ByteBuffer.wrap(compressed, compressed.length - TokenFormat.INDEX_TRAILER_SIZE, Long.BYTES)
+                .getLong();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            dos.write(compressed, 0, (int) indexOffset);
+            String[] fields = {"count", "uncompressed size", "compressed offset", "compressed size", "block count"};
+            long[] values = {1, input.length, TokenFormat.HEADER_SIZE, 100, 1};
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i].equals(field)) {
+                    ParallelDecompressorTest.writeNegativeVarLong(dos);
+                } else {
+                    TokenFormat.writeVarLong(dos, values[i]);
+                }
+            }
+            dos.writeLong(indexOffset);
+            dos.write(Arrays.copyOfRange(compressed, compressed.length - Integer.BYTES, compressed.length));
+        }
+        Path corrupted = Files.write(tempDir.resolve("negative.lz77"), bytes.toByteArray());
+
+        IOException e = assertThrows(IOException.class, () -> new SeekableReader(corrupted.toString()));
+        assertEquals("Invalid frame index", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("should reject index fields that are out of range without being negative")
+    void readIndex_InvalidFields_ThrowsIOException() throws IOException {
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(empty)) {
+            for (long value : new long[]{1, 0, TokenFormat.HEADER_SIZE, 100, 1}) {
+                TokenFormat.writeVarLong(dos, value);
+            }
+        }
+
+        IOException e = assertThrows(IOException.class, () -> TokenFormat.readIndex(empty.toByteArray()));
+        assertEquals("Invalid frame index", e.getMessage());
+    }
+}
@@ -1,6 +1,7 @@
 package com.lz77.util;
 
 import com.lz77.model.Token;
+import com.lz77.model.TokenBuffer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -30,6 +31,34 @@ class ValidationTest {
         }
     }
 
+    @Test
+    @DisplayName("should reject offsets larger than the window")
+    void validateTokens_OffsetBeyondWindow_ThrowsException() {
+        List<Token> tokens = List.of(new Token(0, 0, (byte)'a'), new Token(2048, 3, (byte)'b'));
+
+        assertAll(
+                () -> assertDoesNotThrow(() -> Validation.validateTokens(tokens, 4096)),
+                () -> assertThrows(IllegalStateException.class, () -> Validation.validateTokens(tokens, 1024))
+        );
+    }
+
+    @Test
+    @DisplayName("should validate token buffers like token lists")
+    void validateTokens_TokenBuffer_ChecksValuesAndWindow() {
+        TokenBuffer valid = TokenBuffer.of(List.of(new Token(0, 0, (byte)'a'), new Token(2048, 3, (byte)'b')));
+        TokenBuffer negative = new TokenBuffer();
+        negative.add(-1, 3, (byte)'c');
+
+        assertAll(
+                () -> assertDoesNotThrow(() -> Validation.validateTokens(valid, 4096)),
+                () -> assertThrows(IllegalStateException.class, () -> Validation.validateTokens(valid, 1024)),
+                () -> assertThrows(IllegalStateException.class, () -> Validation.validateTokens(negative)),
+                () -> assertThrows(IllegalArgumentException.class, () -> Validation.validateTokens((TokenBuffer) null)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> Validation.validateDecompressedData(new TokenBuffer(), new byte[]{1}))
+        );
+    }
+
     @ParameterizedTest(name = "should {0} for data validation")
     @MethodSource("provideDataValidationCases")
     @DisplayName("validate decompressed data correctly")